@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import model.Task;
+import model.generator.TaskSetGenerator;
+import model.generator.TaskSetGenerator.PeriodDistribution;
+import model.scheduleralgorithms.AudsleyOptimalPriority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long Audsley's optimal priority assignment takes for large
+ * task sets with deadlines shorter than periods. Only priorities are
+ * assigned; the schedule is not simulated.
+ * 
+ * @author Thom Castermans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriorityAssignmentBenchmark {
+
+	/** Number of tasks in the task set. */
+	@Param({ "100", "1000", "5000" })
+	public int numTasks;
+
+	/** Total utilization of the task set. */
+	@Param({ "0.5", "0.8", "0.95" })
+	public double utilization;
+
+	private Set<Task> tasks;
+
+	/**
+	 * Create the task set to assign priorities to.
+	 */
+	@Setup(Level.Trial)
+	public void createTasks() {
+		TaskSetGenerator generator = new TaskSetGenerator(42);
+		generator.setNumTasks(numTasks);
+		generator.setUtilization(utilization);
+		generator.setPeriodDistribution(PeriodDistribution.LOG_UNIFORM);
+		generator.setPeriodRange(10, 100000);
+		generator.setDeadlineRatio(0.5, 1);
+		generator.setGranularity(1e-3);
+		tasks = generator.generate(0);
+	}
+
+	/**
+	 * Assign priorities to the task set.
+	 * 
+	 * @return The tasks in order of priority, so that they are not optimized
+	 *         away.
+	 */
+	@Benchmark
+	public List<Task> assignPriorities() {
+		return new AudsleyOptimalPriority().assignPriorities(tasks);
+	}
+}
@@ -0,0 +1,135 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import model.Schedule;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.CompiledOutputIpeOptions;
+import output.OutputIpe;
+import output.OutputIpeOptions;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a schedule to Ipe, from schedule to bytes, under the
+ * main combinations of options. The output is counted and thrown away. Next
+ * to the number of schedules per second, the bytes and blocks (compressed
+ * task instances) per second are reported.
+ * 
+ * @author Thom Castermans
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+	/** Hyperperiod of the task set, the length of the schedule. */
+	@Param({ "720", "5040" })
+	public int hyperperiod;
+
+	/** Value of option "fill". */
+	@Param({ "true", "false" })
+	public boolean fill;
+
+	/** Value of option "useColors". */
+	@Param({ "true", "false" })
+	public boolean useColors;
+
+	/** Value of option "xAxisNumbering". */
+	@Param({ "-1", "0", "10" })
+	public int xAxisNumbering;
+
+	private Schedule schedule;
+	private CompiledOutputIpeOptions options;
+	private OutputIpe outputIpe;
+	/** Number of blocks in the output of the schedule. */
+	private int numBlocks;
+
+	/**
+	 * Create the schedule to render and the options to render it with.
+	 */
+	@Setup(Level.Trial)
+	public void createSchedule() {
+		schedule = SupportedSchedulers.createSchedule(TaskSets.create(20, 0.9, hyperperiod, 42),
+				SUPPORTED_SCHEDULING_ALGORITHMS.EDF);
+		// the output compresses the schedule, do that once beforehand to count blocks
+		schedule.compress();
+		numBlocks = schedule.getTaskInstances().size();
+		OutputIpeOptions oio = new OutputIpeOptions();
+		oio.setOption("fill", fill);
+		oio.setOption("useColors", useColors);
+		oio.setOption("xAxisNumbering", xAxisNumbering);
+		// draw the whole schedule, not only up to the first deadline miss
+		oio.setOption("scheduleMaxLength", 0);
+		options = oio.compile();
+		outputIpe = new OutputIpe();
+	}
+
+	/**
+	 * Render the schedule to Ipe.
+	 * 
+	 * @param counters Counters of bytes and blocks that are output.
+	 */
+	@Benchmark
+	public void outputIpeFile(Counters counters) {
+		CountingOutputStream out = new CountingOutputStream();
+		outputIpe.output(schedule, options, out);
+		counters.bytes += out.count;
+		counters.blocks += numBlocks;
+	}
+
+	/**
+	 * Bytes and blocks that are output, reported per second by JMH.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		/** Number of bytes output. */
+		public long bytes;
+		/** Number of blocks output. */
+		public long blocks;
+
+		/**
+		 * Reset the counters before every iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+			blocks = 0;
+		}
+	}
+
+	/**
+	 * Stream that counts and throws away what is written to it.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import model.Schedule;
+import model.TaskInstance;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures queries on schedules of growing length: compressing a schedule
+ * and looking up the task instance at or after a given time.
+ * 
+ * @author Thom Castermans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleBenchmark {
+
+	/** Number of query times that lookups cycle through. */
+	private static final int NUM_QUERIES = 1024;
+
+	/** Hyperperiod of the task set, the length of the schedule. */
+	@Param({ "720", "5040", "40320" })
+	public int hyperperiod;
+
+	/** Number of tasks in the task set. */
+	@Param({ "20" })
+	public int numTasks;
+
+	/** Schedule that is queried, which is not compressed. */
+	private Schedule schedule;
+	/** Times to look up, spread randomly over the schedule. */
+	private double[] queries;
+	/** Index of next query time. */
+	private int query = 0;
+
+	/**
+	 * Create the schedule to query and the times to look up.
+	 */
+	@Setup(Level.Trial)
+	public void createSchedule() {
+		schedule = SupportedSchedulers.createSchedule(TaskSets.create(numTasks, 0.9, hyperperiod, 42),
+				SUPPORTED_SCHEDULING_ALGORITHMS.EDF);
+		Random random = new Random(42);
+		queries = new double[NUM_QUERIES];
+		for (int i = 0; i < NUM_QUERIES; i++) {
+			queries[i] = random.nextDouble() * hyperperiod;
+		}
+	}
+
+	/**
+	 * Compress the schedule.
+	 * 
+	 * @param copy Uncompressed copy of the schedule.
+	 * @return The schedule, so that it is not optimized away.
+	 */
+	@Benchmark
+	public Schedule compress(ScheduleCopy copy) {
+		copy.schedule.compress();
+		return copy.schedule;
+	}
+
+	/**
+	 * Look up the task instance running at a time.
+	 * 
+	 * @return The task instance, so that it is not optimized away.
+	 */
+	@Benchmark
+	public TaskInstance getTaskInstanceAt() {
+		return schedule.getTaskInstanceAt(nextQuery());
+	}
+
+	/**
+	 * Look up the next task instance at or after a time.
+	 * 
+	 * @return The task instance, so that it is not optimized away.
+	 */
+	@Benchmark
+	public TaskInstance getNextTaskAt() {
+		return schedule.getNextTaskAt(nextQuery());
+	}
+
+	private double nextQuery() {
+		query = (query + 1) % NUM_QUERIES;
+		return queries[query];
+	}
+
+	/**
+	 * Uncompressed copy of the schedule, made anew before every call of
+	 * {@link ScheduleBenchmark#compress(ScheduleCopy)}. Making the copy is not
+	 * measured. This is separate state, so that the lookups are not timed per
+	 * call.
+	 */
+	@State(Scope.Thread)
+	public static class ScheduleCopy {
+		/** The copy. */
+		Schedule schedule;
+
+		/**
+		 * Copy the schedule of the benchmark.
+		 * 
+		 * @param benchmark Benchmark with the schedule to copy.
+		 */
+		@Setup(Level.Invocation)
+		public void copy(ScheduleBenchmark benchmark) {
+			schedule = new Schedule(benchmark.schedule.getTaskInstances());
+		}
+	}
+}
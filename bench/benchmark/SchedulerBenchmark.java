@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import model.Schedule;
+import model.Task;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long the scheduling algorithms take to schedule a task set,
+ * for task sets of different sizes, utilizations and hyperperiods. Run with
+ * {@code -prof gc} to also see the allocation rate.
+ * 
+ * @author Thom Castermans
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+	/** Algorithm to schedule with. */
+	@Param({ "RM", "DM", "EDF", "RR", "OPA" })
+	public SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+
+	/** Number of tasks in the task set. */
+	@Param({ "5", "20", "50" })
+	public int numTasks;
+
+	/** Total utilization of the task set. */
+	@Param({ "0.5", "0.8", "0.95" })
+	public double utilization;
+
+	/** Hyperperiod of the task set, the length of the schedule. */
+	@Param({ "60", "720", "5040" })
+	public int hyperperiod;
+
+	private Set<Task> tasks;
+
+	/**
+	 * Create the task set to schedule.
+	 */
+	@Setup(Level.Trial)
+	public void createTasks() {
+		tasks = TaskSets.create(numTasks, utilization, hyperperiod, 42);
+	}
+
+	/**
+	 * Schedule the task set.
+	 * 
+	 * @return The schedule, so that it is not optimized away.
+	 */
+	@Benchmark
+	public Schedule createSchedule() {
+		return SupportedSchedulers.createSchedule(tasks, algorithm);
+	}
+}
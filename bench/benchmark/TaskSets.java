@@ -0,0 +1,54 @@
+package benchmark;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import model.Task;
+import model.generator.TaskSetGenerator;
+import model.generator.TaskSetGenerator.PeriodDistribution;
+
+/**
+ * Creates random task sets for benchmarks. The same arguments always give
+ * the same task set, so that results of different runs can be compared.
+ * 
+ * @author Thom Castermans
+ */
+public class TaskSets {
+
+	private TaskSets() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Create a task set with the given number of tasks and total utilization,
+	 * whose hyperperiod (LCM of the periods) is the given length. Periods are
+	 * divisors of the hyperperiod and deadlines are equal to periods, see
+	 * {@link TaskSetGenerator}.
+	 * 
+	 * @param numTasks Number of tasks.
+	 * @param utilization Total utilization of the tasks.
+	 * @param hyperperiod Length of the hyperperiod.
+	 * @param seed Seed for the random generator.
+	 * @return A task set.
+	 */
+	public static Set<Task> create(int numTasks, double utilization, int hyperperiod, long seed) {
+		TaskSetGenerator generator = new TaskSetGenerator(seed);
+		generator.setNumTasks(numTasks);
+		generator.setUtilization(utilization);
+		generator.setPeriodDistribution(PeriodDistribution.DIVISORS);
+		generator.setPeriodRange(1, hyperperiod);
+		generator.setHyperperiod(hyperperiod);
+		generator.setGranularity(1e-3);
+
+		Set<Task> tasks = new LinkedHashSet<Task>();
+		for (Task task : generator.generate(0)) {
+			if (tasks.isEmpty()) {
+				// the first task has the whole hyperperiod as period, so that it is the LCM
+				double u = task.getExecutionTime() / task.getPeriod();
+				task = new Task(task.getName(), hyperperiod, hyperperiod, Math.max(u * hyperperiod, 1e-3));
+			}
+			tasks.add(task);
+		}
+		return tasks;
+	}
+}
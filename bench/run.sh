@@ -0,0 +1,38 @@
+#!/bin/sh
+#
+# Compile and run the JMH benchmarks in this directory. JMH is downloaded
+# from Maven Central into bench/lib the first time. All arguments are passed
+# to JMH, for example:
+#
+#   bench/run.sh SchedulerBenchmark -p numTasks=20 -prof gc
+#
+# Run with -h to see all options of JMH.
+#
+set -e
+cd "$(dirname "$0")/.."
+
+JMH_VERSION=1.37
+REPO=https://repo1.maven.org/maven2
+LIB=bench/lib
+CLASSES=bench/classes
+
+mkdir -p $LIB
+for jar in \
+		org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar \
+		org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar \
+		net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar \
+		org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar; do
+	if [ ! -f $LIB/$(basename $jar) ]; then
+		echo "Downloading $(basename $jar)..."
+		curl -sSf -o $LIB/$(basename $jar) $REPO/$jar
+	fi
+done
+CP=$(ls $LIB/*.jar | tr '\n' ':')
+
+# compile the program and the benchmarks, JMH generates its code while compiling
+rm -rf $CLASSES
+mkdir -p $CLASSES
+javac -nowarn -encoding UTF-8 -cp "$CP" -d $CLASSES $(find src bench -name '*.java')
+cp -r src/res $CLASSES/
+
+java -cp "$CLASSES:$CP" org.openjdk.jmh.Main "$@"
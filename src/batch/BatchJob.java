@@ -0,0 +1,73 @@
+package batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import model.Task;
+import model.metrics.ProcessingStats;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Job of a batch run that handles a single task set. Errors are not thrown,
+ * but recorded in the {@link JobResult}, so that the batch run can report
+ * them and continue with other task sets.
+ * 
+ * @author Thom Castermans
+ */
+public abstract class BatchJob implements Callable<JobResult> {
+
+	/** File the tasks are read from. */
+	final File file;
+	/** Tasks to handle, which are not changed. */
+	final List<Task> tasks;
+	/** Algorithm to schedule with, or {@code null} for all algorithms. */
+	final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+	/** Settings of the batch run. */
+	final JobSettings settings;
+	/** Statistics that are published over JMX. */
+	final ProcessingStats stats = ProcessingStats.getInstance();
+
+	/**
+	 * Create a new job.
+	 * 
+	 * @param file File the tasks are read from.
+	 * @param tasks Tasks to handle, which are not changed.
+	 * @param algorithm Algorithm to schedule with, or {@code null} for all
+	 *            algorithms.
+	 * @param settings Settings of the batch run.
+	 */
+	BatchJob(File file, List<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, JobSettings settings) {
+		this.file = file;
+		this.tasks = tasks;
+		this.algorithm = algorithm;
+		this.settings = settings;
+	}
+
+	@Override
+	public final JobResult call() {
+		JobResult r = new JobResult(file, algorithm);
+		r.numTasks = tasks.size();
+		try {
+			run(r);
+		} catch (IOException e) {
+			r.fail(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			r.fail(e.getMessage());
+		} catch (RuntimeException e) {
+			r.fail(e.toString());
+		} finally {
+			stats.jobFinished();
+		}
+		return r;
+	}
+
+	/**
+	 * Handle the task set and record the outcome in the given result.
+	 * 
+	 * @param r Result to record the outcome in.
+	 * @throws IOException If output cannot be written.
+	 */
+	abstract void run(JobResult r) throws IOException;
+}
@@ -0,0 +1,48 @@
+package batch;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+import model.Task;
+import model.analysis.BreakdownSearch;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Finds the largest factor by which the execution times of a task set can
+ * be multiplied before an algorithm misses a deadline, see
+ * {@link BreakdownSearch}.
+ * 
+ * @author Thom Castermans
+ */
+public class BreakdownJob extends BatchJob {
+
+	/**
+	 * Create a new search.
+	 * 
+	 * @param file File the tasks are read from.
+	 * @param tasks Tasks to scale, which are not changed.
+	 * @param algorithm Algorithm to schedule with.
+	 * @param settings Settings of the batch run.
+	 */
+	public BreakdownJob(File file, List<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, JobSettings settings) {
+		super(file, tasks, algorithm, settings);
+	}
+
+	@Override
+	void run(JobResult r) {
+		// nothing is reported when the search fails, only the error
+		r.report = "";
+		long start = System.nanoTime();
+		BreakdownSearch search = new BreakdownSearch(algorithm);
+		search.setPrecision(settings.getBreakdownPrecision());
+		BreakdownSearch.Result result = search.search(tasks);
+		r.scheduleTime = System.nanoTime() - start;
+		r.utilization = result.getUtilization();
+		r.missed = (result.getFactor() < 1);
+		r.report = String.format(Locale.US, "%s with %s: execution times can be scaled by %.6f, "
+				+ "U = %.3f to %.3f; %d steps, %d simulated in %.1f ms%n", file.getName(), algorithm,
+				result.getFactor(), result.getUtilization(), result.getBreakdownUtilization(),
+				result.getSteps(), result.getSimulations(), r.scheduleTime / 1e6);
+	}
+}
@@ -0,0 +1,137 @@
+package batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import model.Schedule;
+import model.Task;
+import model.analysis.AlgorithmComparison;
+import model.analysis.SchedulabilityAnalysis;
+import model.analysis.ScheduleStatistics;
+import output.OutputIpe;
+
+/**
+ * Schedules a task set with all algorithms at the same time, see
+ * {@link AlgorithmComparison}, writes the schedules to a single Ipe file
+ * with a page per algorithm, and creates a report that compares the
+ * feasibility, first deadline miss, preemptions and response times.
+ * 
+ * @author Thom Castermans
+ */
+public class ComparisonJob extends BatchJob {
+
+	/**
+	 * Create a new comparison.
+	 * 
+	 * @param file File the tasks are read from.
+	 * @param tasks Tasks to schedule, which are not changed.
+	 * @param settings Settings of the batch run.
+	 */
+	public ComparisonJob(File file, List<Task> tasks, JobSettings settings) {
+		super(file, tasks, null, settings);
+	}
+
+	@Override
+	void run(JobResult r) throws IOException {
+		r.utilization = SchedulabilityAnalysis.utilization(tasks);
+		StringBuilder sb = new StringBuilder();
+		try {
+			compare(r, sb);
+		} finally {
+			r.report = sb.toString();
+		}
+	}
+
+	/**
+	 * Compare the algorithms, write the schedules and append the report to
+	 * the given builder.
+	 * 
+	 * @param r Result to record the outcome in.
+	 * @param sb Builder to append the report to.
+	 * @throws IOException If the schedules cannot be written.
+	 */
+	private void compare(JobResult r, StringBuilder sb) throws IOException {
+		int cores = settings.getCores();
+		long start = System.nanoTime();
+		List<AlgorithmComparison.Result> results = AlgorithmComparison.compare(tasks, settings.getAlgorithms(),
+				cores, settings.getPartitioning(), null);
+		r.scheduleTime = System.nanoTime() - start;
+
+		sb.append(String.format(Locale.US, "%s: %d tasks, U = %.3f", file.getName(), tasks.size(), r.utilization));
+		if (cores > 1) {
+			sb.append(", ").append(cores).append(" cores, ")
+					.append(settings.getPartitioning() == null ? "global"
+							: settings.getPartitioning().toString().toLowerCase(Locale.US).replace('_', '-'));
+		}
+		sb.append('\n');
+		sb.append(String.format(Locale.US, "  %-4s %-40s %11s %10s %10s%n",
+				"Alg", "Outcome", "Preemptions", "Migrations", "Sched (ms)"));
+		List<Schedule> schedules = new ArrayList<Schedule>();
+		List<String> titles = new ArrayList<String>();
+		for (AlgorithmComparison.Result result : results) {
+			ScheduleStatistics statistics = result.getStatistics();
+			String outcome;
+			if (statistics == null) {
+				outcome = "error: " + result.getError();
+				r.error = result.getAlgorithm() + ": " + result.getError();
+			} else if (statistics.getSchedule().isFeasible()) {
+				outcome = "feasible";
+			} else {
+				outcome = "miss: " + statistics.getSchedule().getMissedTask().getName() + " at "
+						+ statistics.getMissTime();
+				r.missed = true;
+			}
+			if (statistics != null) {
+				stats.getAlgorithmStats(result.getAlgorithm().toString()).record(file.getName(),
+						result.getScheduleTime(), !statistics.getSchedule().isFeasible());
+				schedules.add(statistics.getSchedule());
+				titles.add(result.getAlgorithm() + ": " + outcome);
+			}
+			sb.append(String.format(Locale.US, "  %-4s %-40s %11d %10d %10.1f%n", result.getAlgorithm(),
+					outcome, (statistics == null ? 0 : statistics.getPreemptions()),
+					(statistics == null ? 0 : statistics.getMigrations()), result.getScheduleTime() / 1e6));
+		}
+
+		// response times per task, side by side
+		sb.append("  Response times (worst / average):\n");
+		sb.append(String.format(Locale.US, "  %-12s", "Task"));
+		for (AlgorithmComparison.Result result : results) {
+			sb.append(String.format(Locale.US, " %17s", result.getAlgorithm()));
+		}
+		sb.append('\n');
+		for (Task t : tasks) {
+			sb.append(String.format(Locale.US, "  %-12s", t.getName()));
+			for (AlgorithmComparison.Result result : results) {
+				ScheduleStatistics statistics = result.getStatistics();
+				Task scheduled = null;
+				if (statistics != null) {
+					for (Task s : statistics.getSchedule().getTasks()) {
+						if (s.getName().equals(t.getName()))  scheduled = s;
+					}
+				}
+				if (scheduled == null || statistics.getCompletedJobs(scheduled) == 0) {
+					sb.append(String.format(Locale.US, " %17s", "-"));
+				} else {
+					sb.append(String.format(Locale.US, " %17s", String.format(Locale.US, "%.2f / %.2f",
+							statistics.getWorstResponseTime(scheduled), statistics.getAverageResponseTime(scheduled))));
+				}
+			}
+			sb.append('\n');
+		}
+
+		start = System.nanoTime();
+		File comparisonFile = settings.getOutputFiles().getComparisonFile(file);
+		if (!schedules.isEmpty()) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			new OutputIpe().output(schedules, titles, settings.getCompiledOptions(), buffer);
+			if (settings.getOutputFiles().write(comparisonFile, buffer.toByteArray()))  r.written++;
+		}
+		r.outputTime = System.nanoTime() - start;
+		sb.append(String.format(Locale.US, "  %s %s in %.1f ms.%n", comparisonFile.getName(),
+				(r.written > 0 ? "written" : "unchanged"), r.outputTime / 1e6));
+	}
+}
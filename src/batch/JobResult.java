@@ -0,0 +1,159 @@
+package batch;
+
+import java.io.File;
+
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Outcome of a {@link BatchJob}: of scheduling a task set with an algorithm,
+ * or with all algorithms when comparing them.
+ * 
+ * @author Thom Castermans
+ */
+public class JobResult {
+
+	/** File the task set was read from. */
+	final File file;
+	/** Algorithm that was used, or {@code null} when comparing. */
+	final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+	/** Number of tasks in the task set. */
+	int numTasks = 0;
+	/** Utilization of the task set. */
+	double utilization = 0;
+	/** Short description of the outcome. */
+	String outcome = "";
+	/** If a deadline is missed. */
+	boolean missed = false;
+	/** Time spent scheduling, in nanoseconds. */
+	long scheduleTime = 0;
+	/** Time spent writing output, in nanoseconds. */
+	long outputTime = 0;
+	/** Number of output files that were written, as others did not change. */
+	int written = 0;
+	/** Description of error that occurred, or {@code null}. */
+	String error = null;
+	/** Report of the job, or {@code null} if the outcome fits on a line. */
+	String report = null;
+
+	/**
+	 * Create the result of a job.
+	 * 
+	 * @param file File the task set was read from.
+	 * @param algorithm Algorithm that is used, or {@code null} when comparing.
+	 */
+	JobResult(File file, SUPPORTED_SCHEDULING_ALGORITHMS algorithm) {
+		this.file = file;
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Record that the job failed.
+	 * 
+	 * @param error Description of the error.
+	 */
+	void fail(String error) {
+		this.outcome = "error";
+		this.error = error;
+	}
+
+	/**
+	 * Return the file the task set was read from.
+	 * 
+	 * @return Task set file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Return the algorithm that was used.
+	 * 
+	 * @return Algorithm, or {@code null} when comparing.
+	 */
+	public SUPPORTED_SCHEDULING_ALGORITHMS getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Return the number of tasks in the task set.
+	 * 
+	 * @return Number of tasks.
+	 */
+	public int getNumTasks() {
+		return numTasks;
+	}
+
+	/**
+	 * Return the utilization of the task set.
+	 * 
+	 * @return Utilization.
+	 */
+	public double getUtilization() {
+		return utilization;
+	}
+
+	/**
+	 * Return a short description of the outcome.
+	 * 
+	 * @return Outcome, like {@code feasible}.
+	 */
+	public String getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Return if a deadline is missed.
+	 * 
+	 * @return If a deadline is missed.
+	 */
+	public boolean isMissed() {
+		return missed;
+	}
+
+	/**
+	 * Return the time spent scheduling.
+	 * 
+	 * @return Time in nanoseconds.
+	 */
+	public long getScheduleTime() {
+		return scheduleTime;
+	}
+
+	/**
+	 * Return the time spent writing output.
+	 * 
+	 * @return Time in nanoseconds.
+	 */
+	public long getOutputTime() {
+		return outputTime;
+	}
+
+	/**
+	 * Return the number of output files that were written, as others did
+	 * not change.
+	 * 
+	 * @return Number of files written.
+	 */
+	public int getWritten() {
+		return written;
+	}
+
+	/**
+	 * Return a description of the error that occurred.
+	 * 
+	 * @return Description, or {@code null} if no error occurred.
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Return the report of the job, for jobs whose outcome does not fit on a
+	 * line of the summary.
+	 * 
+	 * @return Report, or {@code null} if the outcome fits on a line.
+	 */
+	public String getReport() {
+		return report;
+	}
+}
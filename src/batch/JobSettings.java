@@ -0,0 +1,188 @@
+package batch;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import model.analysis.ParameterSweep;
+import model.scheduleralgorithms.PartitionedScheduler;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.CompiledOutputIpeOptions;
+import output.OutputFormat;
+import output.RenderCache;
+
+/**
+ * Settings that are shared by all jobs of a batch run: how task sets are
+ * scheduled, which output is made and where it is written. The settings are
+ * set before jobs are started and not changed while they run.
+ * 
+ * @author Thom Castermans
+ */
+public class JobSettings {
+
+	/** Algorithms to schedule with. */
+	private final Set<SUPPORTED_SCHEDULING_ALGORITHMS> algorithms =
+			EnumSet.noneOf(SUPPORTED_SCHEDULING_ALGORITHMS.class);
+	/** Number of cores to schedule task sets on. */
+	private int cores = 1;
+	/** Heuristic to partition tasks over cores with, or {@code null} to schedule globally. */
+	private PartitionedScheduler.Heuristic partitioning = null;
+	/** Formats to output schedules in. */
+	private final Set<OutputFormat> formats = EnumSet.noneOf(OutputFormat.class);
+	/** Options for output. */
+	private CompiledOutputIpeOptions compiled = null;
+	/** Cache of rendered output, shared by all jobs. */
+	private final RenderCache renderCache = new RenderCache();
+	/** Files that output is written to. */
+	private final OutputFiles outputFiles;
+	/** Parameters to vary per task set, see {@link SweepJob}. */
+	private final List<ParameterSweep.Dimension> sweeps = new ArrayList<ParameterSweep.Dimension>();
+	/** Precision of the breakdown factor to find, see {@link BreakdownJob}. */
+	private double breakdownPrecision = 0;
+
+	/**
+	 * Create settings that write output to the given directory.
+	 * 
+	 * @param outputDir Directory to write to, or {@code null} to write next
+	 *            to the task set files.
+	 */
+	public JobSettings(File outputDir) {
+		this.outputFiles = new OutputFiles(outputDir);
+	}
+
+	/**
+	 * Return the algorithms to schedule with.
+	 * 
+	 * @return Algorithms, which should not be changed.
+	 */
+	public Set<SUPPORTED_SCHEDULING_ALGORITHMS> getAlgorithms() {
+		return algorithms;
+	}
+
+	/**
+	 * Set the algorithms to schedule with.
+	 * 
+	 * @param algorithms Algorithms to use.
+	 */
+	public void setAlgorithms(Set<SUPPORTED_SCHEDULING_ALGORITHMS> algorithms) {
+		this.algorithms.clear();
+		this.algorithms.addAll(algorithms);
+	}
+
+	/**
+	 * Return the number of cores to schedule task sets on.
+	 * 
+	 * @return Number of cores, at least 1.
+	 */
+	public int getCores() {
+		return cores;
+	}
+
+	/**
+	 * Return the heuristic to partition tasks over cores with.
+	 * 
+	 * @return Heuristic, or {@code null} to schedule globally.
+	 */
+	public PartitionedScheduler.Heuristic getPartitioning() {
+		return partitioning;
+	}
+
+	/**
+	 * Set the cores to schedule task sets on.
+	 * 
+	 * @param cores Number of cores, at least 1.
+	 * @param partitioning Heuristic to partition tasks over cores with, or
+	 *            {@code null} to schedule globally.
+	 */
+	public void setCores(int cores, PartitionedScheduler.Heuristic partitioning) {
+		this.cores = cores;
+		this.partitioning = partitioning;
+	}
+
+	/**
+	 * Return the formats to output schedules in.
+	 * 
+	 * @return Formats, which should not be changed.
+	 */
+	public Set<OutputFormat> getFormats() {
+		return formats;
+	}
+
+	/**
+	 * Return the options for output.
+	 * 
+	 * @return Options for output.
+	 */
+	public CompiledOutputIpeOptions getCompiledOptions() {
+		return compiled;
+	}
+
+	/**
+	 * Set the output that is made of schedules.
+	 * 
+	 * @param formats Formats to output schedules in.
+	 * @param compiled Options for output.
+	 */
+	public void setOutput(Set<OutputFormat> formats, CompiledOutputIpeOptions compiled) {
+		this.formats.clear();
+		this.formats.addAll(formats);
+		this.compiled = compiled;
+	}
+
+	/**
+	 * Return the cache of rendered output that is shared by all jobs.
+	 * 
+	 * @return Cache of rendered output.
+	 */
+	public RenderCache getRenderCache() {
+		return renderCache;
+	}
+
+	/**
+	 * Return the files that output is written to.
+	 * 
+	 * @return Output files.
+	 */
+	public OutputFiles getOutputFiles() {
+		return outputFiles;
+	}
+
+	/**
+	 * Return the parameters to vary per task set.
+	 * 
+	 * @return One or two parameters, or none to schedule task sets once.
+	 */
+	public List<ParameterSweep.Dimension> getSweeps() {
+		return sweeps;
+	}
+
+	/**
+	 * Set the parameters to vary per task set.
+	 * 
+	 * @param sweeps One or two parameters, or none to schedule task sets once.
+	 */
+	public void setSweeps(List<ParameterSweep.Dimension> sweeps) {
+		this.sweeps.clear();
+		this.sweeps.addAll(sweeps);
+	}
+
+	/**
+	 * Return the precision of the breakdown factor to find.
+	 * 
+	 * @return Precision, or 0 to schedule task sets.
+	 */
+	public double getBreakdownPrecision() {
+		return breakdownPrecision;
+	}
+
+	/**
+	 * Set the precision of the breakdown factor to find.
+	 * 
+	 * @param breakdownPrecision Precision, or 0 to schedule task sets.
+	 */
+	public void setBreakdownPrecision(double breakdownPrecision) {
+		this.breakdownPrecision = breakdownPrecision;
+	}
+}
@@ -0,0 +1,139 @@
+package batch;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.OutputFormat;
+import output.RenderCache;
+
+/**
+ * Names and writes the output files of batch jobs. Files are written next to
+ * the task set file they belong to, or to a single output directory. A file
+ * is only written when its contents change, and then first to a temporary
+ * file that replaces it, so that readers never see half a file. Objects of
+ * this class can safely be used by several threads at once.
+ *
+ * @author Thom Castermans
+ */
+public class OutputFiles {
+
+	/** Directory to write to, or {@code null} to write next to task set files. */
+	private final File outputDir;
+	/** Hash of every output file that was written, to skip writing the same output again. */
+	private final Map<File, String> outputHashes = new ConcurrentHashMap<File, String>();
+
+	/**
+	 * Create output files in the given directory.
+	 *
+	 * @param outputDir Directory to write to, or {@code null} to write next
+	 *            to the task set files.
+	 */
+	public OutputFiles(File outputDir) {
+		this.outputDir = outputDir;
+	}
+
+	/**
+	 * Return the file that the schedule of the given task set file with the
+	 * given algorithm is written to, in the given format.
+	 *
+	 * @param file Task set file.
+	 * @param algorithm Algorithm that is used.
+	 * @param format Output format.
+	 * @return Output file.
+	 */
+	public File getOutputFile(File file, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, OutputFormat format) {
+		return getFile(file, "-" + algorithm + "." + format.getExtension());
+	}
+
+	/**
+	 * Return the file that the comparison of the algorithms on the task set
+	 * in the given file is written to.
+	 *
+	 * @param file File with the task set.
+	 * @return Ipe file with a page per algorithm.
+	 */
+	public File getComparisonFile(File file) {
+		return getFile(file, "-compare." + OutputFormat.IPE.getExtension());
+	}
+
+	/**
+	 * Return the file that the outcome of varying parameters of the task set
+	 * in the given file is written to.
+	 *
+	 * @param file File with the task set.
+	 * @param algorithm Algorithm the task set is scheduled with.
+	 * @param extension Extension of the file.
+	 * @return File to write to.
+	 */
+	public File getSweepFile(File file, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, String extension) {
+		return getFile(file, "-sweep-" + algorithm + "." + extension);
+	}
+
+	/**
+	 * Return if a file with the given name is written by a sweep, see
+	 * {@link #getSweepFile(File, SUPPORTED_SCHEDULING_ALGORITHMS, String)}.
+	 *
+	 * @param name Name of the file, in lower case.
+	 * @return If the file is written by a sweep.
+	 */
+	public static boolean isSweepFileName(String name) {
+		for (SUPPORTED_SCHEDULING_ALGORITHMS algorithm : SUPPORTED_SCHEDULING_ALGORITHMS.values()) {
+			if (name.endsWith("-sweep-" + algorithm.toString().toLowerCase(Locale.US) + ".csv"))  return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Write the given data to the given file, unless the same data was
+	 * written to it before. The data is first written to a temporary file
+	 * that then replaces the file, so that readers never see half a file.
+	 *
+	 * @param file File to write.
+	 * @param data Data to write.
+	 * @return If the file was written.
+	 * @throws IOException If writing fails.
+	 */
+	public boolean write(File file, byte[] data) throws IOException {
+		String hash = RenderCache.hash(data);
+		if (file.isFile() && hash.equals(outputHashes.get(file)))  return false;
+		File temp = new File(file.getParentFile(), "." + file.getName() + ".tmp");
+		OutputStream os = new FileOutputStream(temp);
+		try {
+			os.write(data);
+		} finally {
+			os.close();
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		outputHashes.put(file, hash);
+		return true;
+	}
+
+	/**
+	 * Return the output file of the given task set file with the given
+	 * suffix in place of the extension.
+	 *
+	 * @param file Task set file.
+	 * @param suffix Suffix of the output file, including its extension.
+	 * @return Output file.
+	 */
+	private File getFile(File file, String suffix) {
+		String name = file.getName();
+		if (name.lastIndexOf('.') > 0)  name = name.substring(0, name.lastIndexOf('.'));
+		File dir = (outputDir != null ? outputDir : file.getAbsoluteFile().getParentFile());
+		return new File(dir, name + suffix);
+	}
+}
@@ -0,0 +1,65 @@
+package batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.Schedule;
+import model.Task;
+import model.analysis.SchedulabilityAnalysis;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.OutputFormat;
+
+/**
+ * Schedules a task set with an algorithm and outputs the schedule in all
+ * formats.
+ * 
+ * @author Thom Castermans
+ */
+public class ScheduleJob extends BatchJob {
+
+	/**
+	 * Create a new job.
+	 * 
+	 * @param file File the tasks are read from.
+	 * @param tasks Tasks to schedule, which are not changed.
+	 * @param algorithm Algorithm to schedule with.
+	 * @param settings Settings of the batch run.
+	 */
+	public ScheduleJob(File file, List<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, JobSettings settings) {
+		super(file, tasks, algorithm, settings);
+	}
+
+	@Override
+	void run(JobResult r) throws IOException {
+		// schedulers assign priorities, so every job needs its own tasks
+		Set<Task> copies = new HashSet<Task>();
+		for (Task t : tasks) {
+			copies.add(new Task(t.getName(), t.getPeriod(), t.getDeadline(), t.getExecutionTime()));
+		}
+		r.utilization = SchedulabilityAnalysis.utilization(copies);
+		long start = System.nanoTime();
+		Schedule schedule = SupportedSchedulers.createSchedule(copies, algorithm, settings.getCores(),
+				settings.getPartitioning(), null);
+		r.scheduleTime = System.nanoTime() - start;
+		stats.getAlgorithmStats(algorithm.toString()).record(file.getName(), r.scheduleTime, !schedule.isFeasible());
+		if (schedule.isFeasible()) {
+			r.outcome = "feasible";
+		} else {
+			r.outcome = "miss: " + schedule.getMissedTask().getName() + " at " + schedule.getMissTime();
+		}
+		r.missed = !schedule.isFeasible();
+		start = System.nanoTime();
+		OutputFiles outputFiles = settings.getOutputFiles();
+		for (OutputFormat format : settings.getFormats()) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			format.output(schedule, settings.getCompiledOptions(), buffer, settings.getRenderCache());
+			if (outputFiles.write(outputFiles.getOutputFile(file, algorithm, format), buffer.toByteArray()))  r.written++;
+		}
+		r.outputTime = System.nanoTime() - start;
+	}
+}
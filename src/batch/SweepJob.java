@@ -0,0 +1,95 @@
+package batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+
+import model.Task;
+import model.analysis.ParameterSweep;
+import model.analysis.SchedulabilityAnalysis;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.OutputFormat;
+import output.OutputIpeHeatMap;
+
+/**
+ * Varies the parameters given with {@code --sweep} for a task set and an
+ * algorithm, see {@link ParameterSweep}, and writes the outcome as a CSV
+ * matrix and as an Ipe heat map.
+ * 
+ * @author Thom Castermans
+ */
+public class SweepJob extends BatchJob {
+
+	/**
+	 * Create a new sweep.
+	 * 
+	 * @param file File the tasks are read from.
+	 * @param tasks Tasks to vary, which are not changed.
+	 * @param algorithm Algorithm to schedule with.
+	 * @param settings Settings of the batch run.
+	 */
+	public SweepJob(File file, List<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, JobSettings settings) {
+		super(file, tasks, algorithm, settings);
+	}
+
+	@Override
+	void run(JobResult r) throws IOException {
+		r.utilization = SchedulabilityAnalysis.utilization(tasks);
+		StringBuilder sb = new StringBuilder();
+		try {
+			sweep(r, sb);
+		} finally {
+			r.report = sb.toString();
+		}
+	}
+
+	/**
+	 * Run the sweep, write its outcome and append a report to the given
+	 * builder.
+	 * 
+	 * @param r Result to record the outcome in.
+	 * @param sb Builder to append the report to.
+	 * @throws IOException If the outcome cannot be written.
+	 */
+	private void sweep(JobResult r, StringBuilder sb) throws IOException {
+		List<ParameterSweep.Dimension> sweeps = settings.getSweeps();
+		long start = System.nanoTime();
+		ParameterSweep sweep = new ParameterSweep(tasks, algorithm, settings.getCores());
+		sweep.setX(sweeps.get(0));
+		if (sweeps.size() > 1)  sweep.setY(sweeps.get(1));
+		ParameterSweep.Result result = sweep.run();
+		r.scheduleTime = System.nanoTime() - start;
+
+		int numFeasible = 0;
+		for (int j = 0; j < result.getHeight(); j++) {
+			for (int i = 0; i < result.getWidth(); i++) {
+				if (result.isFeasible(i, j))  numFeasible++;
+			}
+		}
+		int numPoints = result.getWidth() * result.getHeight();
+		int numUnknown = result.getCount(ParameterSweep.Method.UNKNOWN);
+		r.missed = (numFeasible + numUnknown < numPoints);
+		sb.append(String.format(Locale.US, "%s with %s: %d of %d points feasible; %d analyzed, %d simulated, "
+				+ "%d inferred%s in %.1f ms%n", file.getName(), algorithm, numFeasible, numPoints,
+				result.getCount(ParameterSweep.Method.ANALYSIS), result.getCount(ParameterSweep.Method.SIMULATION),
+				result.getCount(ParameterSweep.Method.INFERRED), (numUnknown > 0 ? ", " + numUnknown + " unknown" : ""),
+				r.scheduleTime / 1e6));
+
+		start = System.nanoTime();
+		OutputFiles outputFiles = settings.getOutputFiles();
+		File csv = outputFiles.getSweepFile(file, algorithm, "csv");
+		StringWriter writer = new StringWriter();
+		result.writeCsv(writer);
+		if (outputFiles.write(csv, writer.toString().getBytes("UTF-8")))  r.written++;
+		File ipe = outputFiles.getSweepFile(file, algorithm, OutputFormat.IPE.getExtension());
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		new OutputIpeHeatMap().output(result, file.getName() + " with " + algorithm, buffer);
+		if (outputFiles.write(ipe, buffer.toByteArray()))  r.written++;
+		r.outputTime = System.nanoTime() - start;
+		sb.append(String.format(Locale.US, "  %s and %s: %d written in %.1f ms.%n", csv.getName(),
+				ipe.getName(), r.written, r.outputTime / 1e6));
+	}
+}
@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * A ProgressMonitor is informed about the progress of a scheduler while it
+ * creates a schedule, and can ask the scheduler to stop. Schedulers call
+ * the monitor every now and then, from the thread that creates the schedule.
+ * 
+ * @author Thom Castermans
+ */
+public interface ProgressMonitor {
+
+	/**
+	 * Called when the scheduler has simulated the schedule up to the given time.
+	 * 
+	 * @param time Time up to which the schedule is created.
+	 * @param lcm Time up to which the schedule will be created at most.
+	 */
+	public void progress(double time, int lcm);
+
+	/**
+	 * Return if the scheduler should stop creating the schedule. If so, it
+	 * throws a {@link java.util.concurrent.CancellationException}.
+	 * 
+	 * @return If creating the schedule is canceled.
+	 */
+	public boolean isCanceled();
+}
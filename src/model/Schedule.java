@@ -2,10 +2,15 @@ package model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import model.metrics.Metrics;
+import model.metrics.PhaseTimer;
+
 /**
  * The Schedule object.
  * This object contains information about our schedule.
@@ -19,6 +24,11 @@ public class Schedule {
 	private ArrayList<TaskInstance> taskSchedule;
 	private final boolean isFeasible;
 	private final Task taskThatMissedDeadline;
+	/** Time of the deadline that is missed, or -1 if it is not known. */
+	private final int missTime;
+	private final int numCores;
+	/** Length of the longest task instance, to look up instances on multiple cores. */
+	private double maxInstanceLength;
 	
 	/**
 	 * Constructs a new Schedule from a given list of TaskInstances and Tasks,
@@ -27,19 +37,7 @@ public class Schedule {
 	 * @param sSchedule The schedule for the Tasks.
 	 */
 	public Schedule (List<TaskInstance> sSchedule) {
-		ArrayList<TaskInstance> sScheduleArrayList = new ArrayList<TaskInstance>(sSchedule);
-		Collections.sort(sScheduleArrayList); // sort taskinstances on start-time
-		taskSchedule = sScheduleArrayList;
-		// build up set of tasks in schedule
-		HashSet<Task> sTasks = new HashSet<Task>();
-		for (TaskInstance ti : sSchedule) {
-			if (!sTasks.contains(ti.getTask())) {
-				sTasks.add(ti.getTask());
-			}
-		}
-		this.tasks = Collections.unmodifiableSet(sTasks);
-		this.isFeasible = true;
-		this.taskThatMissedDeadline = null;
+		this(sSchedule, null, 1);
 	}
 	
 	/**
@@ -51,6 +49,34 @@ public class Schedule {
 	 * @param sMissedDeadline The task that missed its deadline.
 	 */
 	public Schedule (List<TaskInstance> sSchedule, Task sMissedDeadline) {
+		this(sSchedule, sMissedDeadline, 1);
+	}
+	
+	/**
+	 * Constructs a new Schedule from a given list of TaskInstances and Tasks
+	 * on the given number of cores. The schedule is feasible if no task
+	 * missed its deadline.
+	 * 
+	 * @param sSchedule The schedule for the Tasks.
+	 * @param sMissedDeadline The task that missed its deadline, or {@code null}.
+	 * @param sNumCores Number of cores, see {@link TaskInstance#getCore()}.
+	 */
+	public Schedule (List<TaskInstance> sSchedule, Task sMissedDeadline, int sNumCores) {
+		this(sSchedule, sMissedDeadline, -1, sNumCores);
+	}
+	
+	/**
+	 * Constructs a new Schedule from a given list of TaskInstances and Tasks
+	 * on the given number of cores, where the given task missed the deadline
+	 * at the given time.
+	 * 
+	 * @param sSchedule The schedule for the Tasks.
+	 * @param sMissedDeadline The task that missed its deadline, or {@code null}.
+	 * @param sMissTime Time of the deadline that is missed, or -1 if it is not
+	 *            known, see {@link #getMissTime()}.
+	 * @param sNumCores Number of cores, see {@link TaskInstance#getCore()}.
+	 */
+	public Schedule (List<TaskInstance> sSchedule, Task sMissedDeadline, int sMissTime, int sNumCores) {
 		ArrayList<TaskInstance> sScheduleArrayList = new ArrayList<TaskInstance>(sSchedule);
 		Collections.sort(sScheduleArrayList); // sort taskinstances on start-time
 		taskSchedule = sScheduleArrayList;
@@ -61,9 +87,14 @@ public class Schedule {
 				sTasks.add(ti.getTask());
 			}
 		}
+		// the task that missed its deadline may never have run
+		if (sMissedDeadline != null)  sTasks.add(sMissedDeadline);
 		this.tasks = Collections.unmodifiableSet(sTasks);
-		this.isFeasible = false;
+		this.isFeasible = (sMissedDeadline == null);
 		this.taskThatMissedDeadline = sMissedDeadline;
+		this.missTime = sMissTime;
+		this.numCores = sNumCores;
+		updateMaxInstanceLength();
 	}
 	
 	/**
@@ -71,6 +102,12 @@ public class Schedule {
 	 * run the same task, then merge those.
 	 */
 	public void compress() {
+		PhaseTimer timer = Metrics.start(Metrics.Phase.COMPRESS);
+		if (numCores > 1) {
+			compressCores();
+			timer.stop();
+			return;
+		}
 		for (int i = taskSchedule.size() - 1; i > 0; i--) {
 			if (taskSchedule.get(i).getTask().equals(taskSchedule.get(i - 1).getTask()) &&
 					taskSchedule.get(i - 1).getEnd() == taskSchedule.get(i).getStart()) {
@@ -84,6 +121,46 @@ public class Schedule {
 				taskSchedule.add(i - 1, newTI);
 			}
 		}
+		timer.stop();
+	}
+
+	/**
+	 * Compress this schedule when it has more than one core. Instances of a
+	 * task need not be next to each other in the list then, so the last
+	 * instance of every task is kept track of instead.
+	 */
+	private void compressCores() {
+		ArrayList<TaskInstance> compressed = new ArrayList<TaskInstance>(taskSchedule.size());
+		Map<Task, Integer> last = new HashMap<Task, Integer>();
+		for (TaskInstance ti : taskSchedule) {
+			Integer i = last.get(ti.getTask());
+			TaskInstance prev = (i == null ? null : compressed.get(i));
+			if (prev != null && prev.getCore() == ti.getCore() && prev.getEnd() == ti.getStart()) {
+				compressed.set(i, new TaskInstance(ti.getTask(), prev.getStart(), ti.getEnd(), ti.getCore()));
+			} else {
+				last.put(ti.getTask(), compressed.size());
+				compressed.add(ti);
+			}
+		}
+		taskSchedule = compressed;
+		updateMaxInstanceLength();
+	}
+
+	private void updateMaxInstanceLength() {
+		maxInstanceLength = 0;
+		if (numCores == 1)  return;
+		for (TaskInstance ti : taskSchedule) {
+			maxInstanceLength = Math.max(maxInstanceLength, ti.getEnd() - ti.getStart());
+		}
+	}
+
+	/**
+	 * Return the number of cores this schedule runs on.
+	 * 
+	 * @return Number of cores, 1 for a single CPU.
+	 */
+	public int getNumCores() {
+		return numCores;
 	}
 	
 	/**
@@ -96,6 +173,16 @@ public class Schedule {
 		return taskInstances[taskInstances.length - 1];
 	}
 	
+	/**
+	 * Return the task that missed its deadline.
+	 * 
+	 * @return Task that missed its deadline, or {@code null} if this schedule
+	 *         is feasible.
+	 */
+	public Task getMissedTask() {
+		return taskThatMissedDeadline;
+	}
+	
 	/**
 	 * Return the last instance of the task that missed its deadline.
 	 * 
@@ -113,6 +200,21 @@ public class Schedule {
 		return null;
 	}
 	
+	/**
+	 * Return the time of the deadline that is missed. If the scheduler did
+	 * not give it, it is the deadline of the job of the last instance of the
+	 * task that missed it, or the first deadline of that task if it never ran.
+	 * 
+	 * @return Time of the deadline miss, or -1 if this schedule is feasible.
+	 */
+	public int getMissTime() {
+		if (isFeasible)  return -1;
+		if (missTime >= 0)  return missTime;
+		TaskInstance missed = getMissedTaskLastInstance();
+		if (missed == null)  return taskThatMissedDeadline.getDeadline();
+		return taskThatMissedDeadline.getAbsoluteDeadline(missed.getStart());
+	}
+	
 	/**
 	 * Return the next task running after given time (given time is included
 	 * in finding tasks). If no task runs at or after given time, then
@@ -136,6 +238,55 @@ public class Schedule {
 		return null;
 	}
 	
+	/**
+	 * Return the task instances of this Schedule, sorted on start time.
+	 * The returned list cannot be modified.
+	 * 
+	 * @return All task instances of this Schedule.
+	 */
+	public List<TaskInstance> getTaskInstances() {
+		return Collections.unmodifiableList(taskSchedule);
+	}
+
+	/**
+	 * Return the index in {@link #getTaskInstances()} of the first task
+	 * instance that has not ended yet at the given time. That is, either the
+	 * instance running at the given time, or the first instance starting after
+	 * it. If no such instance exists, the number of task instances is returned.
+	 * On more than one core, several instances may be running at the given
+	 * time, and the index of the first of them is returned.
+	 * 
+	 * <p>This uses a binary search over the (sorted) task instances.
+	 * 
+	 * @param time Time to look up.
+	 * @return Index of first task instance ending after given time.
+	 */
+	public int indexOfTaskInstanceAt(double time) {
+		// find first instance that starts after given time
+		int low = 0;
+		int high = taskSchedule.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (taskSchedule.get(mid).getStart() <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		// the instance before that one may still be running
+		if (numCores == 1) {
+			if (low > 0 && taskSchedule.get(low - 1).getEnd() > time)  return low - 1;
+			return low;
+		}
+		// on more cores, any instance that started less than the longest
+		// instance ago may still be running
+		int first = low;
+		for (int i = low - 1; i >= 0 && taskSchedule.get(i).getStart() > time - maxInstanceLength; i--) {
+			if (taskSchedule.get(i).getEnd() > time)  first = i;
+		}
+		return first;
+	}
+
 	/**
 	 * Return the tasks of this Schedule.
 	 * 
@@ -16,17 +16,54 @@ public class TaskExecutionTime implements Comparable<TaskExecutionTime> {
 	private Task t;
 	/** Execution time left for given task. */
 	private double e;
+	/** Time at which the job of the task was released. */
+	private final int release;
 	
 	/**
 	 * Construct a new pair of Task and execution time left,
 	 * where the execution time left is initialized to the
-	 * execution time of the task.
+	 * execution time of the task. The job of the task is
+	 * released at time 0.
 	 * 
 	 * @param task Task to be paired with execution time.
 	 */
 	public TaskExecutionTime(Task task) {
+		this(task, 0);
+	}
+	
+	/**
+	 * Construct a new pair of Task and execution time left,
+	 * where the execution time left is initialized to the
+	 * execution time of the task.
+	 * 
+	 * @param task Task to be paired with execution time.
+	 * @param release Time at which the job of the task is released.
+	 */
+	public TaskExecutionTime(Task task, int release) {
 		this.t = task;
 		this.e = task.getExecutionTime();
+		this.release = release;
+	}
+	
+	/**
+	 * Return the time at which the job of the task in this
+	 * object was released.
+	 * 
+	 * @return Release time of the job.
+	 */
+	public int getRelease() {
+		return release;
+	}
+	
+	/**
+	 * Return the time at which the job of the task in this
+	 * object should be done: its release plus the deadline
+	 * of the task.
+	 * 
+	 * @return Absolute deadline of the job.
+	 */
+	public int getAbsoluteDeadline() {
+		return release + t.getDeadline();
 	}
 	
 	/**
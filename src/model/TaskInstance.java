@@ -20,19 +20,34 @@ public class TaskInstance implements Comparable<TaskInstance> {
 	private Task task;
 	private double start;
 	private double end;
+	private int core;
 	
 	/**
 	 * Create a new TaskInstance of the given task with given
-	 * start and end time.
+	 * start and end time, on the first (or only) core.
 	 * 
 	 * @param parentTask The Task of which this TaskInstance is an instance.
 	 * @param startTime Time when instance starts running on the CPU.
 	 * @param endTime Time when instance stops running on the CPU.
 	 */
 	public TaskInstance(Task parentTask, double startTime, double endTime) {
+		this(parentTask, startTime, endTime, 0);
+	}
+
+	/**
+	 * Create a new TaskInstance of the given task with given
+	 * start and end time, on the given core.
+	 * 
+	 * @param parentTask The Task of which this TaskInstance is an instance.
+	 * @param startTime Time when instance starts running on the CPU.
+	 * @param endTime Time when instance stops running on the CPU.
+	 * @param coreIndex Index of the core the instance runs on, starting at 0.
+	 */
+	public TaskInstance(Task parentTask, double startTime, double endTime, int coreIndex) {
 		this.setTask(parentTask);
 		this.setStart(startTime);
 		this.setEnd(endTime);
+		this.core = coreIndex;
 	}
 
 	/**
@@ -98,6 +113,16 @@ public class TaskInstance implements Comparable<TaskInstance> {
 		this.end = newEndTime;
 	}
 
+	/**
+	 * Return the index of the core this TaskInstance runs on. On a single
+	 * CPU, this is always 0.
+	 * 
+	 * @return Index of the core, starting at 0.
+	 */
+	public int getCore() {
+		return core;
+	}
+
 	@Override
 	public int compareTo(TaskInstance that) {
 		return (int) Math.signum(this.start - that.start);
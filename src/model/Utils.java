@@ -35,6 +35,7 @@ public class Utils {
 	 * 
 	 * @param tasks The tasks of which to calculate the LCM.
 	 * @return The LCM of the periods of the given tasks.
+	 * @throws ArithmeticException If the LCM does not fit in an {@code int}.
 	 */
 	public static int lcm(Set<Task> tasks) {
 		int[] periods = new int[tasks.size()];
@@ -52,9 +53,15 @@ public class Utils {
 	 * @param a First integer.
 	 * @param b Second integer.
 	 * @return LCM of {@code a} and {@code b}.
+	 * @throws ArithmeticException If the LCM does not fit in an {@code int}.
 	 */
 	public static int lcm(int a, int b) {
-		return a * (b / gcd(a, b));
+		long lcm = (long) a * (b / gcd(a, b));
+		if (lcm > Integer.MAX_VALUE) {
+			throw new ArithmeticException("hyperperiod exceeds " + Integer.MAX_VALUE
+					+ ", try periods with more common divisors");
+		}
+		return (int) lcm;
 	}
 
 	/**
@@ -62,6 +69,7 @@ public class Utils {
 	 * 
 	 * @param input One or more integers to calculate the LCM of.
 	 * @return The LCM of the given integers.
+	 * @throws ArithmeticException If the LCM does not fit in an {@code int}.
 	 */
 	public static int lcm(int... input) {
 		int result = input[0];
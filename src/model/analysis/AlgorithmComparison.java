@@ -0,0 +1,158 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ProgressMonitor;
+import model.Schedule;
+import model.Task;
+import model.scheduleralgorithms.PartitionedScheduler;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Schedules a single task set with several algorithms at the same time, to
+ * compare them side by side. Every algorithm schedules its own copies of
+ * the tasks, as schedulers assign priorities to tasks.
+ * 
+ * @author Thom Castermans
+ */
+public class AlgorithmComparison {
+
+	private AlgorithmComparison() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Schedule the given tasks with all given algorithms, on a thread per
+	 * algorithm (at most one per processor).
+	 * 
+	 * @param tasks Tasks to schedule.
+	 * @param algorithms Algorithms to compare.
+	 * @param numCores Number of cores, at least 1.
+	 * @param partitioning Heuristic to partition tasks over cores with, or
+	 *            {@code null} to schedule globally.
+	 * @param monitor Monitor that can cancel scheduling, or {@code null}. It
+	 *            is called from several threads.
+	 * @return Outcome of every algorithm, in the given order.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels scheduling.
+	 */
+	public static List<Result> compare(Collection<Task> tasks, Collection<SUPPORTED_SCHEDULING_ALGORITHMS> algorithms,
+			final int numCores, final PartitionedScheduler.Heuristic partitioning, final ProgressMonitor monitor) {
+		List<Result> results = new ArrayList<Result>(algorithms.size());
+		if (algorithms.isEmpty())  return results;
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(algorithms.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<Result>> futures = new ArrayList<Future<Result>>(algorithms.size());
+			for (final SUPPORTED_SCHEDULING_ALGORITHMS algorithm : algorithms) {
+				final Set<Task> copies = new LinkedHashSet<Task>();
+				for (Task t : tasks) {
+					copies.add(new Task(t.getName(), t.getPeriod(), t.getDeadline(), t.getExecutionTime()));
+				}
+				futures.add(executor.submit(new Callable<Result>() {
+					@Override
+					public Result call() {
+						long start = System.nanoTime();
+						try {
+							Schedule schedule = SupportedSchedulers.createSchedule(copies, algorithm, numCores,
+									partitioning, monitor);
+							return new Result(algorithm, new ScheduleStatistics(schedule), System.nanoTime() - start,
+									null);
+						} catch (IllegalArgumentException e) {
+							return new Result(algorithm, null, System.nanoTime() - start, e.getMessage());
+						}
+					}
+				}));
+			}
+			for (Future<Result> f : futures) {
+				results.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while comparing algorithms", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Outcome of scheduling the task set with one of the algorithms.
+	 */
+	public static class Result {
+
+		private final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+		private final ScheduleStatistics statistics;
+		private final long scheduleTime;
+		private final String error;
+
+		Result(SUPPORTED_SCHEDULING_ALGORITHMS algorithm, ScheduleStatistics statistics, long scheduleTime,
+				String error) {
+			this.algorithm = algorithm;
+			this.statistics = statistics;
+			this.scheduleTime = scheduleTime;
+			this.error = error;
+		}
+
+		/**
+		 * Return the algorithm that scheduled the task set.
+		 * 
+		 * @return The algorithm.
+		 */
+		public SUPPORTED_SCHEDULING_ALGORITHMS getAlgorithm() {
+			return algorithm;
+		}
+
+		/**
+		 * Return the schedule created by the algorithm.
+		 * 
+		 * @return The schedule, or {@code null} if the algorithm failed.
+		 */
+		public Schedule getSchedule() {
+			return (statistics == null ? null : statistics.getSchedule());
+		}
+
+		/**
+		 * Return the statistics of the schedule created by the algorithm.
+		 * 
+		 * @return Statistics of the schedule, or {@code null} if the
+		 *         algorithm failed.
+		 */
+		public ScheduleStatistics getStatistics() {
+			return statistics;
+		}
+
+		/**
+		 * Return how long creating the schedule took.
+		 * 
+		 * @return Time in nanoseconds.
+		 */
+		public long getScheduleTime() {
+			return scheduleTime;
+		}
+
+		/**
+		 * Return why the algorithm could not schedule the task set, for
+		 * example because it does not support the number of cores.
+		 * 
+		 * @return Explanation of the failure, or {@code null} if the algorithm
+		 *         did not fail.
+		 */
+		public String getError() {
+			return error;
+		}
+	}
+}
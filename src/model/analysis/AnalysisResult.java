@@ -0,0 +1,68 @@
+package model.analysis;
+
+/**
+ * The outcome of an analytical schedulability test of a set of tasks.
+ * 
+ * @author Thom Castermans
+ */
+public class AnalysisResult {
+
+	/** Possible outcomes of a schedulability test. */
+	public static enum Verdict {
+		/** The task set is schedulable: no deadline is ever missed. */
+		FEASIBLE,
+		/** The task set is not schedulable: some deadline is missed. */
+		INFEASIBLE,
+		/** The test cannot decide, the task set should be simulated. */
+		UNKNOWN
+	}
+
+	private final Verdict verdict;
+	private final double utilization;
+	private final String reason;
+
+	/**
+	 * Create a new result.
+	 * 
+	 * @param verdict Outcome of the test.
+	 * @param utilization Total utilization of the task set.
+	 * @param reason Short explanation of the outcome.
+	 */
+	public AnalysisResult(Verdict verdict, double utilization, String reason) {
+		this.verdict = verdict;
+		this.utilization = utilization;
+		this.reason = reason;
+	}
+
+	/**
+	 * Return the outcome of the test.
+	 * 
+	 * @return Outcome of the test.
+	 */
+	public Verdict getVerdict() {
+		return verdict;
+	}
+
+	/**
+	 * Return the total utilization of the tested task set.
+	 * 
+	 * @return Sum of execution time divided by period of all tasks.
+	 */
+	public double getUtilization() {
+		return utilization;
+	}
+
+	/**
+	 * Return a short explanation of the outcome, that can be shown to users.
+	 * 
+	 * @return Explanation of the outcome.
+	 */
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		return verdict + " (U = " + utilization + "): " + reason;
+	}
+}
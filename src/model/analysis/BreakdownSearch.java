@@ -0,0 +1,382 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ProgressMonitor;
+import model.Task;
+import model.analysis.AnalysisResult.Verdict;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Finds how much headroom a task set has on a single core: the largest
+ * factor by which the execution times of all tasks can be multiplied before
+ * a deadline is missed. The utilization of the task set times this factor is
+ * its breakdown utilization.
+ * 
+ * <p>The factor is found by bisection. Under RM and DM with deadlines that
+ * do not exceed periods, every step uses response time analysis, and keeps
+ * the response times of earlier steps: the response time of a task only
+ * grows with the factor, so the response time at a smaller feasible factor
+ * is where the analysis continues, and a task that was feasible at a larger
+ * factor need not be analyzed again. In all other cases, every step uses
+ * {@link SchedulabilityAnalysis} and simulates only when it cannot decide.
+ * 
+ * @author Thom Castermans
+ */
+public class BreakdownSearch {
+
+	/** Default precision of the factor. */
+	public static final double DEFAULT_PRECISION = 1e-4;
+	/** Tolerance used when comparing times. */
+	private static final double DELTA = 1e-9;
+
+	private final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+	private double precision = DEFAULT_PRECISION;
+	/** Monitor that can cancel simulations, if any. */
+	private ProgressMonitor progressMonitor = null;
+
+	/**
+	 * Create a search for the given algorithm.
+	 * 
+	 * @param algorithm RM, DM, EDF or OPA.
+	 * @throws IllegalArgumentException If the algorithm is Round Robin, whose
+	 *             feasibility does not grow steadily with execution times.
+	 */
+	public BreakdownSearch(SUPPORTED_SCHEDULING_ALGORITHMS algorithm) {
+		if (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RR) {
+			throw new IllegalArgumentException("no breakdown search for " + algorithm);
+		}
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Set how close the found factor should be to the real one. The found
+	 * factor is never larger than the real one.
+	 * 
+	 * @param precision Largest difference with the real factor, positive.
+	 */
+	public void setPrecision(double precision) {
+		if (!(precision > 0))  throw new IllegalArgumentException("precision should be positive");
+		this.precision = precision;
+	}
+
+	/**
+	 * Set the monitor that can cancel simulations. When searching several
+	 * task sets, it is called from several threads.
+	 * 
+	 * @param monitor Monitor to use, or {@code null} to not use one.
+	 */
+	public void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Find the largest factor for the given tasks. The tasks are not changed.
+	 * 
+	 * @param tasks Tasks to find the factor of.
+	 * @return The factor and how it was found.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels a simulation.
+	 */
+	public Result search(Collection<Task> tasks) {
+		double u = SchedulabilityAnalysis.utilization(tasks);
+		if (u == 0)  return new Result(Double.POSITIVE_INFINITY, u, 0, 0);
+
+		// no factor can make the utilization exceed 1, or a job exceed its deadline
+		double hi = 1 / u;
+		boolean constrained = true;
+		for (Task t : tasks) {
+			if (t.getExecutionTime() > 0)  hi = Math.min(hi, t.getDeadline() / t.getExecutionTime());
+			constrained &= (t.getDeadline() <= t.getPeriod());
+		}
+		Test test = (constrained && (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RM
+				|| algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.DM) ? new ResponseTimeTest(tasks) : new AnalysisTest(tasks));
+
+		int steps = 1;
+		double lo = hi;
+		if (!test.isFeasible(hi)) {
+			lo = 0;
+			while (hi - lo > precision) {
+				double mid = (lo + hi) / 2;
+				steps++;
+				if (test.isFeasible(mid)) {
+					lo = mid;
+				} else {
+					hi = mid;
+				}
+			}
+		}
+		return new Result(lo, u, steps, test.simulations);
+	}
+
+	/**
+	 * Find the largest factor for every given task set, on a thread per
+	 * task set (at most one per processor).
+	 * 
+	 * @param taskSets Task sets to find the factor of.
+	 * @return The factor of every task set, in the given order.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels a simulation.
+	 */
+	public List<Result> searchAll(List<? extends Collection<Task>> taskSets) {
+		List<Result> results = new ArrayList<Result>(taskSets.size());
+		if (taskSets.isEmpty())  return results;
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(taskSets.size(), Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<Result>> futures = new ArrayList<Future<Result>>(taskSets.size());
+			for (final Collection<Task> tasks : taskSets) {
+				futures.add(executor.submit(new Callable<Result>() {
+					@Override
+					public Result call() {
+						return search(tasks);
+					}
+				}));
+			}
+			for (Future<Result> f : futures) {
+				results.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while searching breakdown factors", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	/**
+	 * Tests if a task set is feasible with its execution times scaled. A test
+	 * is used for a single search, and may remember earlier outcomes, as
+	 * feasibility only gets worse when the factor grows.
+	 */
+	private abstract class Test {
+
+		final Collection<Task> tasks;
+		/** Number of times a schedule was simulated. */
+		int simulations = 0;
+
+		Test(Collection<Task> tasks) {
+			this.tasks = tasks;
+		}
+
+		/**
+		 * Return if no deadline is missed when all execution times are
+		 * multiplied by the given factor.
+		 */
+		abstract boolean isFeasible(double factor);
+
+		/**
+		 * Return scaled copies of the tasks.
+		 */
+		Set<Task> scale(double factor) {
+			Set<Task> scaled = new LinkedHashSet<Task>();
+			for (Task t : tasks) {
+				scaled.add(new Task(t.getName(), t.getPeriod(), t.getDeadline(), t.getExecutionTime() * factor));
+			}
+			return scaled;
+		}
+
+		/**
+		 * Simulate the schedule of scaled copies of the tasks.
+		 */
+		boolean simulate(double factor) {
+			simulations++;
+			return SupportedSchedulers.createSchedule(scale(factor), algorithm, progressMonitor).isFeasible();
+		}
+	}
+
+	/**
+	 * Response time analysis under RM or DM, with deadlines that do not
+	 * exceed periods. Tasks with equal priority count as interference for
+	 * each other; if a task then misses its deadline, the schedule is
+	 * simulated instead, as in {@link SchedulabilityAnalysis}.
+	 */
+	private class ResponseTimeTest extends Test {
+
+		private final double[] period, deadline, executionTime;
+		/** Indices of the tasks that can preempt every task. */
+		private final int[][] interfering;
+		/** If a task has the same priority as another task. */
+		private final boolean[] hasTies;
+		/** Largest factor at which every task is known to meet its deadline. */
+		private final double[] feasibleUpTo;
+		/** Response time of every task at that factor. */
+		private final double[] responseTime;
+		/** Smallest factor at which every task is known to miss its deadline. */
+		private final double[] infeasibleFrom;
+
+		ResponseTimeTest(Collection<Task> tasks) {
+			super(tasks);
+			// analyze tasks with the highest priority first, as they fail first
+			Task[] sorted = tasks.toArray(new Task[tasks.size()]);
+			Arrays.sort(sorted, new Comparator<Task>() {
+				@Override
+				public int compare(Task t1, Task t2) {
+					return getKey(t1) - getKey(t2);
+				}
+			});
+			int n = sorted.length;
+			period = new double[n];
+			deadline = new double[n];
+			executionTime = new double[n];
+			interfering = new int[n][];
+			hasTies = new boolean[n];
+			feasibleUpTo = new double[n];
+			responseTime = new double[n];
+			infeasibleFrom = new double[n];
+			for (int i = 0; i < n; i++) {
+				period[i] = sorted[i].getPeriod();
+				deadline[i] = sorted[i].getDeadline();
+				executionTime[i] = sorted[i].getExecutionTime();
+				infeasibleFrom[i] = Double.POSITIVE_INFINITY;
+				int count = 0;
+				int[] hp = new int[n - 1];
+				for (int j = 0; j < n; j++) {
+					if (j != i && getKey(sorted[j]) <= getKey(sorted[i]))  hp[count++] = j;
+					hasTies[i] |= (j != i && getKey(sorted[j]) == getKey(sorted[i]));
+				}
+				interfering[i] = Arrays.copyOf(hp, count);
+			}
+		}
+
+		/** Return the value that decides the priority of a task, lower first. */
+		private int getKey(Task task) {
+			return (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RM ? task.getPeriod() : task.getDeadline());
+		}
+
+		@Override
+		boolean isFeasible(double factor) {
+			for (int i = 0; i < period.length; i++) {
+				if (factor <= feasibleUpTo[i])  continue;
+				if (factor >= infeasibleFrom[i])  return false;
+				double demand = executionTime[i];
+				for (int j : interfering[i]) {
+					demand += executionTime[j];
+				}
+				// the response time at a smaller factor is a lower bound
+				double r = Math.max(factor * demand, responseTime[i]);
+				while (true) {
+					double next = factor * executionTime[i];
+					for (int j : interfering[i]) {
+						next += Math.ceil(r / period[j] - DELTA) * factor * executionTime[j];
+					}
+					if (next > deadline[i] + DELTA) {
+						if (hasTies[i])  return simulate(factor);
+						infeasibleFrom[i] = factor;
+						return false;
+					}
+					if (next <= r + DELTA) {
+						feasibleUpTo[i] = factor;
+						responseTime[i] = next;
+						break;
+					}
+					r = next;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Tests scaled copies of the tasks with {@link SchedulabilityAnalysis},
+	 * and simulates them when it cannot decide.
+	 */
+	private class AnalysisTest extends Test {
+
+		AnalysisTest(Collection<Task> tasks) {
+			super(tasks);
+		}
+
+		@Override
+		boolean isFeasible(double factor) {
+			AnalysisResult result = SchedulabilityAnalysis.analyze(scale(factor), algorithm);
+			if (result.getVerdict() != Verdict.UNKNOWN)  return (result.getVerdict() == Verdict.FEASIBLE);
+			return simulate(factor);
+		}
+	}
+
+	/**
+	 * Largest factor by which the execution times of a task set can be
+	 * multiplied, and how it was found.
+	 */
+	public static class Result {
+
+		private final double factor;
+		private final double utilization;
+		private final int steps;
+		private final int simulations;
+
+		Result(double factor, double utilization, int steps, int simulations) {
+			this.factor = factor;
+			this.utilization = utilization;
+			this.steps = steps;
+			this.simulations = simulations;
+		}
+
+		/**
+		 * Return the largest factor by which all execution times can be
+		 * multiplied without missing a deadline. It is smaller than 1 if the
+		 * task set misses a deadline as it is.
+		 * 
+		 * @return The factor, or {@link Double#POSITIVE_INFINITY} if the task
+		 *         set has no execution time.
+		 */
+		public double getFactor() {
+			return factor;
+		}
+
+		/**
+		 * Return the utilization of the task set as it is.
+		 * 
+		 * @return Sum of execution time divided by period of all tasks.
+		 */
+		public double getUtilization() {
+			return utilization;
+		}
+
+		/**
+		 * Return the utilization of the task set with its execution times
+		 * multiplied by the factor.
+		 * 
+		 * @return The breakdown utilization.
+		 */
+		public double getBreakdownUtilization() {
+			return utilization * factor;
+		}
+
+		/**
+		 * Return the number of factors that were tested.
+		 * 
+		 * @return Number of bisection steps.
+		 */
+		public int getSteps() {
+			return steps;
+		}
+
+		/**
+		 * Return the number of factors for which the schedule was simulated,
+		 * because the schedulability test could not decide.
+		 * 
+		 * @return Number of simulations.
+		 */
+		public int getSimulations() {
+			return simulations;
+		}
+	}
+}
@@ -0,0 +1,631 @@
+package model.analysis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ProgressMonitor;
+import model.Task;
+import model.analysis.AnalysisResult.Verdict;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Varies one or two parameters of tasks in a task set over a range of
+ * values, and finds out for every combination of values if the task set can
+ * be scheduled without missing a deadline. This shows how sensitive a task
+ * set is to its parameters, and where it breaks.
+ * 
+ * <p>Every point of the grid is tested with {@link SchedulabilityAnalysis}
+ * first, and is only simulated when that test cannot decide. When
+ * feasibility is known to change at most once along a dimension, see
+ * {@link #isMonotone(Dimension)}, the point where it changes is found by
+ * binary search, and the other points of that line are inferred. Lines of
+ * the grid are handled at the same time, on a thread per processor.
+ * 
+ * @author Thom Castermans
+ */
+public class ParameterSweep {
+
+	/** Parameters of a task that can be varied. */
+	public static enum Parameter {
+		/** Period of the task. */
+		PERIOD("period"),
+		/** Relative deadline of the task. */
+		DEADLINE("deadline"),
+		/** Execution time of the task. */
+		EXECUTION_TIME("executionTime");
+
+		private final String name;
+
+		private Parameter(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Return the name of the parameter, as in task set files.
+		 * 
+		 * @return Name of the parameter.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Return the parameter with the given name, ignoring case.
+		 * 
+		 * @param name Name of the parameter, as in task set files.
+		 * @return The parameter.
+		 * @throws IllegalArgumentException If there is no such parameter.
+		 */
+		public static Parameter fromName(String name) {
+			for (Parameter p : values()) {
+				if (p.name.equalsIgnoreCase(name))  return p;
+			}
+			throw new IllegalArgumentException("unknown parameter " + name
+					+ ", should be period, deadline or executionTime");
+		}
+	}
+
+	/** How the feasibility of a point of the grid is found. */
+	public static enum Method {
+		/** By a schedulability test. */
+		ANALYSIS,
+		/** By simulating the schedule. */
+		SIMULATION,
+		/** From points around it, as feasibility changes only once along a line. */
+		INFERRED,
+		/** Not found, as the hyperperiod is too long to simulate. */
+		UNKNOWN
+	}
+
+	private final List<Task> tasks;
+	private final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+	private final int numCores;
+	private Dimension x = null;
+	private Dimension y = null;
+	/** Monitor that can cancel simulations, if any. */
+	private ProgressMonitor progressMonitor = null;
+
+	/**
+	 * Create a sweep over the given task set. The tasks are not changed.
+	 * 
+	 * @param tasks Tasks to vary.
+	 * @param algorithm Algorithm that schedules the tasks.
+	 * @param numCores Number of cores, at least 1. On more cores, tasks are
+	 *            scheduled globally.
+	 */
+	public ParameterSweep(Collection<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, int numCores) {
+		if (numCores < 1)  throw new IllegalArgumentException("number of cores should be positive");
+		this.tasks = new ArrayList<Task>(tasks);
+		this.algorithm = algorithm;
+		this.numCores = numCores;
+	}
+
+	/**
+	 * Set the parameter that is varied along the X-axis of the grid.
+	 * 
+	 * @param dimension Parameter and its values.
+	 */
+	public void setX(Dimension dimension) {
+		this.x = dimension;
+	}
+
+	/**
+	 * Set the parameter that is varied along the Y-axis of the grid.
+	 * 
+	 * @param dimension Parameter and its values, or {@code null} to vary a
+	 *            single parameter.
+	 */
+	public void setY(Dimension dimension) {
+		this.y = dimension;
+	}
+
+	/**
+	 * Set the monitor that can cancel the simulations of the sweep. It is
+	 * called from several threads.
+	 * 
+	 * @param monitor Monitor to use, or {@code null} to not use one.
+	 */
+	public void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Return if feasibility changes at most once when the given parameter
+	 * grows, so that the point where it changes can be found by binary
+	 * search. On a single core, this holds for the execution time under all
+	 * algorithms but Round Robin, and for the period and deadline under EDF.
+	 * Under RM and DM, it holds for a parameter that does not decide the
+	 * priorities, or while the algorithm is optimal: RM when deadlines equal
+	 * periods, DM and OPA when deadlines do not exceed periods. On more cores,
+	 * scheduling anomalies prevent all of this.
+	 * 
+	 * @param dimension Parameter that is varied.
+	 * @return If feasibility is monotone in the parameter.
+	 */
+	public boolean isMonotone(Dimension dimension) {
+		if (numCores > 1 || algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RR)  return false;
+		if (dimension.getParameter() == Parameter.EXECUTION_TIME
+				|| algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.EDF)  return true;
+		boolean isPeriod = (dimension.getParameter() == Parameter.PERIOD);
+		if (algorithm != SUPPORTED_SCHEDULING_ALGORITHMS.OPA
+				&& (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RM ? !isPeriod : isPeriod))  return true;
+		for (Task t : tasks) {
+			// the deadline of the varied task moves along with its period
+			if (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RM ? t.getDeadline() != t.getPeriod()
+					: t.getDeadline() > t.getPeriod())  return false;
+		}
+		return (isPeriod || Math.max(dimension.getFrom(), dimension.getTo())
+				<= findTask(dimension.getTaskName()).getPeriod());
+	}
+
+	/**
+	 * Test the task set for every point of the grid.
+	 * 
+	 * @return Feasibility of every point.
+	 * @throws IllegalStateException If no X-dimension is set.
+	 * @throws IllegalArgumentException If a dimension names a task that is
+	 *             not in the task set.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels a simulation.
+	 */
+	public Result run() {
+		if (x == null)  throw new IllegalStateException("no parameter to vary along the X-axis");
+		findTask(x.getTaskName());
+		if (y != null)  findTask(y.getTaskName());
+		final Result result = new Result(x, y);
+		final int nx = x.getSteps();
+		final int ny = (y == null ? 1 : y.getSteps());
+
+		// search along a monotone dimension, and handle its lines in parallel
+		final boolean searchX = isMonotone(x);
+		final boolean searchY = !searchX && y != null && isMonotone(y);
+		List<Callable<Void>> work = new ArrayList<Callable<Void>>();
+		if (searchX || searchY) {
+			for (int line = 0; line < (searchX ? ny : nx); line++) {
+				final int l = line;
+				work.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						if (searchX) {
+							search(result, 0, l, 1, 0, nx);
+						} else {
+							search(result, l, 0, 0, 1, ny);
+						}
+						return null;
+					}
+				});
+			}
+		} else {
+			for (int j = 0; j < ny; j++) {
+				for (int i = 0; i < nx; i++) {
+					final int pi = i, pj = j;
+					work.add(new Callable<Void>() {
+						@Override
+						public Void call() {
+							evaluate(result, pi, pj);
+							return null;
+						}
+					});
+				}
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.max(1, Math.min(work.size(), Runtime.getRuntime().availableProcessors())));
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(work.size());
+			for (Callable<Void> c : work) {
+				futures.add(executor.submit(c));
+			}
+			for (Future<Void> f : futures) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while sweeping parameters", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * Find the feasibility of all points on a line of the grid, along which
+	 * feasibility changes at most once, by binary search.
+	 * 
+	 * @param result Result to store feasibility in.
+	 * @param i X-index of the first point of the line.
+	 * @param j Y-index of the first point of the line.
+	 * @param di Step of the X-index along the line.
+	 * @param dj Step of the Y-index along the line.
+	 * @param n Number of points on the line.
+	 */
+	private void search(Result result, int i, int j, int di, int dj, int n) {
+		boolean first = evaluate(result, i, j);
+		int lo = 0, hi = n - 1;
+		if (n > 1 && evaluate(result, i + hi * di, j + hi * dj) != first) {
+			// the outcome at lo always equals first, the one at hi never
+			while (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				if (evaluate(result, i + mid * di, j + mid * dj) == first) {
+					lo = mid;
+				} else {
+					hi = mid;
+				}
+			}
+		} else {
+			lo = hi;
+		}
+		// a point that is unknown says nothing about where feasibility changes
+		boolean unknown = false;
+		for (int k = 0; k < n; k++) {
+			if (result.methods[j + k * dj][i + k * di] == Method.UNKNOWN)  unknown = true;
+		}
+		for (int k = 1; k < n - 1; k++) {
+			int pi = i + k * di, pj = j + k * dj;
+			if (result.methods[pj][pi] != null)  continue;
+			if (unknown) {
+				evaluate(result, pi, pj);
+			} else {
+				result.set(pi, pj, (k <= lo ? first : !first), Method.INFERRED);
+			}
+		}
+	}
+
+	/**
+	 * Test the task set at a point of the grid, if not done before.
+	 * 
+	 * @param result Result to store feasibility in.
+	 * @param i X-index of the point.
+	 * @param j Y-index of the point.
+	 * @return If the task set is feasible at the point, {@code false} if
+	 *         that is unknown.
+	 */
+	private boolean evaluate(Result result, int i, int j) {
+		if (result.methods[j][i] != null)  return result.feasible[j][i];
+		Set<Task> variant = new LinkedHashSet<Task>();
+		for (Task t : tasks) {
+			Task copy = new Task(t.getName(), t.getPeriod(), t.getDeadline(), t.getExecutionTime());
+			apply(copy, t, x, x.getValue(i));
+			if (y != null)  apply(copy, t, y, y.getValue(j));
+			// a task without execution time needs no time, so it cannot miss
+			if (copy.getExecutionTime() > 0)  variant.add(copy);
+		}
+		for (Task t : variant) {
+			if (t.getPeriod() < 1 || t.getDeadline() < 1) {
+				// such a task cannot run at all
+				result.set(i, j, false, Method.ANALYSIS);
+				return false;
+			}
+		}
+		if (variant.isEmpty()) {
+			result.set(i, j, true, Method.ANALYSIS);
+			return true;
+		}
+		try {
+			AnalysisResult analysis = SchedulabilityAnalysis.analyze(variant, algorithm, numCores);
+			if (analysis.getVerdict() != Verdict.UNKNOWN) {
+				boolean feasible = (analysis.getVerdict() == Verdict.FEASIBLE);
+				result.set(i, j, feasible, Method.ANALYSIS);
+				return feasible;
+			}
+			boolean feasible = SupportedSchedulers.createSchedule(variant, algorithm, numCores, progressMonitor)
+					.isFeasible();
+			result.set(i, j, feasible, Method.SIMULATION);
+			return feasible;
+		} catch (ArithmeticException e) {
+			// the hyperperiod does not fit in an int, so the rest of the sweep goes on without this point
+			result.set(i, j, false, Method.UNKNOWN);
+			return false;
+		}
+	}
+
+	/**
+	 * Set a parameter of a copy of a task, if the dimension varies it. A
+	 * deadline that equals the period moves along with the period.
+	 */
+	private static void apply(Task copy, Task original, Dimension dimension, double value) {
+		if (!original.getName().equals(dimension.getTaskName()))  return;
+		switch (dimension.getParameter()) {
+			case PERIOD :
+				if (original.getDeadline() == original.getPeriod())  copy.setDeadline((int) value);
+				copy.setPeriod((int) value);
+				break;
+			case DEADLINE :
+				copy.setDeadline((int) value);
+				break;
+			default :
+				copy.setExecutionTime(value);
+		}
+	}
+
+	private Task findTask(String name) {
+		for (Task t : tasks) {
+			if (t.getName().equals(name))  return t;
+		}
+		throw new IllegalArgumentException("there is no task " + name);
+	}
+
+	/**
+	 * A parameter of a task, with the values it takes in a sweep. Values are
+	 * evenly spaced from a first to a last value; periods and deadlines are
+	 * rounded to whole numbers.
+	 */
+	public static class Dimension {
+
+		private final String taskName;
+		private final Parameter parameter;
+		private final double from;
+		private final double to;
+		private final int steps;
+
+		/**
+		 * Create a dimension of a sweep.
+		 * 
+		 * @param taskName Name of the task to vary.
+		 * @param parameter Parameter of the task to vary.
+		 * @param from First value.
+		 * @param to Last value.
+		 * @param steps Number of values, at least 1.
+		 */
+		public Dimension(String taskName, Parameter parameter, double from, double to, int steps) {
+			if (steps < 1)  throw new IllegalArgumentException("number of steps should be positive");
+			this.taskName = taskName;
+			this.parameter = parameter;
+			this.from = from;
+			this.to = to;
+			this.steps = steps;
+		}
+
+		/**
+		 * Parse a dimension like {@code T1.executionTime=1:10:19}: the task,
+		 * the parameter, the first and last value and the number of values.
+		 * The number of values can be left out, in which case every whole
+		 * number from the first to the last value is used.
+		 * 
+		 * @param spec Text to parse.
+		 * @return The dimension.
+		 * @throws IllegalArgumentException If the text is not valid.
+		 */
+		public static Dimension parse(String spec) {
+			int dot = spec.lastIndexOf('.', spec.indexOf('='));
+			String[] range = spec.substring(spec.indexOf('=') + 1).split(":");
+			if (dot <= 0 || spec.indexOf('=') < 0 || range.length < 2 || range.length > 3) {
+				throw new IllegalArgumentException("invalid sweep " + spec
+						+ ", should be TASK.PARAMETER=FROM:TO[:STEPS]");
+			}
+			try {
+				double from = Double.parseDouble(range[0]);
+				double to = Double.parseDouble(range[1]);
+				int steps = (range.length == 3 ? Integer.parseInt(range[2])
+						: (int) Math.floor(Math.abs(to - from)) + 1);
+				return new Dimension(spec.substring(0, dot), Parameter.fromName(spec.substring(dot + 1,
+						spec.indexOf('='))), from, to, steps);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("invalid number in sweep " + spec);
+			}
+		}
+
+		/**
+		 * Return the name of the task that is varied.
+		 * 
+		 * @return Name of the task.
+		 */
+		public String getTaskName() {
+			return taskName;
+		}
+
+		/**
+		 * Return the parameter that is varied.
+		 * 
+		 * @return The parameter.
+		 */
+		public Parameter getParameter() {
+			return parameter;
+		}
+
+		/**
+		 * Return the first value.
+		 * 
+		 * @return The first value.
+		 */
+		public double getFrom() {
+			return from;
+		}
+
+		/**
+		 * Return the last value.
+		 * 
+		 * @return The last value.
+		 */
+		public double getTo() {
+			return to;
+		}
+
+		/**
+		 * Return the number of values.
+		 * 
+		 * @return The number of values.
+		 */
+		public int getSteps() {
+			return steps;
+		}
+
+		/**
+		 * Return a value of the parameter.
+		 * 
+		 * @param index Index of the value, from 0 up to the number of values.
+		 * @return The value, rounded for periods and deadlines.
+		 */
+		public double getValue(int index) {
+			double value = (steps == 1 ? from : from + index * (to - from) / (steps - 1));
+			return (parameter == Parameter.EXECUTION_TIME ? value : Math.round(value));
+		}
+
+		@Override
+		public String toString() {
+			return taskName + "." + parameter.getName();
+		}
+	}
+
+	/**
+	 * Feasibility of every point of the grid of a sweep, and how it was
+	 * found. Points are indexed by their X-index and Y-index; without a
+	 * Y-dimension, the grid has a single row.
+	 */
+	public static class Result {
+
+		private final Dimension x;
+		private final Dimension y;
+		private final boolean[][] feasible;
+		private final Method[][] methods;
+		private final AtomicInteger[] counts = new AtomicInteger[Method.values().length];
+
+		Result(Dimension x, Dimension y) {
+			this.x = x;
+			this.y = y;
+			int ny = (y == null ? 1 : y.getSteps());
+			this.feasible = new boolean[ny][x.getSteps()];
+			this.methods = new Method[ny][x.getSteps()];
+			for (int m = 0; m < counts.length; m++) {
+				counts[m] = new AtomicInteger();
+			}
+		}
+
+		/**
+		 * Store the outcome of a point. Every point is stored by a single
+		 * thread, and read after all threads are done.
+		 */
+		private void set(int i, int j, boolean isFeasible, Method method) {
+			feasible[j][i] = isFeasible;
+			methods[j][i] = method;
+			counts[method.ordinal()].incrementAndGet();
+		}
+
+		/**
+		 * Return the parameter that is varied along the X-axis.
+		 * 
+		 * @return The X-dimension.
+		 */
+		public Dimension getX() {
+			return x;
+		}
+
+		/**
+		 * Return the parameter that is varied along the Y-axis.
+		 * 
+		 * @return The Y-dimension, or {@code null} if a single parameter is
+		 *         varied.
+		 */
+		public Dimension getY() {
+			return y;
+		}
+
+		/**
+		 * Return the number of points along the X-axis.
+		 * 
+		 * @return Number of columns of the grid.
+		 */
+		public int getWidth() {
+			return feasible[0].length;
+		}
+
+		/**
+		 * Return the number of points along the Y-axis.
+		 * 
+		 * @return Number of rows of the grid, 1 without a Y-dimension.
+		 */
+		public int getHeight() {
+			return feasible.length;
+		}
+
+		/**
+		 * Return if the task set is feasible at a point.
+		 * 
+		 * @param i X-index of the point.
+		 * @param j Y-index of the point.
+		 * @return If no deadline is missed, {@code false} if that is unknown,
+		 *         see {@link Method#UNKNOWN}.
+		 */
+		public boolean isFeasible(int i, int j) {
+			return feasible[j][i];
+		}
+
+		/**
+		 * Return how the feasibility of a point was found.
+		 * 
+		 * @param i X-index of the point.
+		 * @param j Y-index of the point.
+		 * @return The method.
+		 */
+		public Method getMethod(int i, int j) {
+			return methods[j][i];
+		}
+
+		/**
+		 * Return the number of points whose feasibility was found with the
+		 * given method.
+		 * 
+		 * @param method Method to count.
+		 * @return Number of points.
+		 */
+		public int getCount(Method method) {
+			return counts[method.ordinal()].get();
+		}
+
+		/**
+		 * Write the grid as a CSV matrix: a header with the values of the
+		 * X-dimension, then a line per value of the Y-dimension with a 1 for
+		 * every feasible point, a 0 for every infeasible point and nothing
+		 * for points where that is unknown. A first line starting with
+		 * {@code #} names the dimensions.
+		 * 
+		 * @param out Writer to write to. It is not closed.
+		 * @throws IOException If writing fails.
+		 */
+		public void writeCsv(Writer out) throws IOException {
+			out.write("# x = " + x + (y == null ? "" : ", y = " + y) + "\n");
+			out.write(y == null ? "" : y.toString() + "\\" + x);
+			for (int i = 0; i < getWidth(); i++) {
+				out.write("," + format(x.getValue(i)));
+			}
+			out.write("\n");
+			for (int j = 0; j < getHeight(); j++) {
+				out.write(y == null ? x.toString() : format(y.getValue(j)));
+				for (int i = 0; i < getWidth(); i++) {
+					out.write(methods[j][i] == Method.UNKNOWN ? "," : (feasible[j][i] ? ",1" : ",0"));
+				}
+				out.write("\n");
+			}
+			out.flush();
+		}
+
+		/**
+		 * Format a value without trailing zeros.
+		 * 
+		 * @param value Value to format.
+		 * @return Short text of the value.
+		 */
+		public static String format(double value) {
+			if (value == Math.rint(value))  return Long.toString((long) value);
+			String s = String.format(Locale.US, "%.6f", value);
+			return s.replaceAll("0+$", "");
+		}
+	}
+}
@@ -0,0 +1,341 @@
+package model.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import model.Task;
+import model.Utils;
+import model.analysis.AnalysisResult.Verdict;
+import model.scheduleralgorithms.AudsleyOptimalPriority;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * This class provides analytical schedulability tests for a set of tasks on
+ * a single processor, where all tasks are released at time zero. These tests
+ * are much cheaper than simulating the schedule up to the LCM of the periods,
+ * but cannot always decide: in that case, the schedule should be simulated.
+ * For more than one core, sufficient tests for global scheduling are
+ * provided as well.
+ * 
+ * @author Thom Castermans
+ */
+public class SchedulabilityAnalysis {
+
+	/** Tolerance used when comparing times. */
+	private static final double DELTA = 1e-9;
+
+	private SchedulabilityAnalysis() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Calculate the total utilization of the given tasks.
+	 * 
+	 * @param tasks Tasks to calculate the utilization of.
+	 * @return Sum of execution time divided by period of all tasks.
+	 */
+	public static double utilization(Collection<Task> tasks) {
+		double u = 0;
+		for (Task t : tasks) {
+			u += t.getExecutionTime() / t.getPeriod();
+		}
+		return u;
+	}
+
+	/**
+	 * Calculate the total density of the given tasks.
+	 * 
+	 * @param tasks Tasks to calculate the density of.
+	 * @return Sum of execution time divided by the minimum of deadline and
+	 *         period of all tasks.
+	 */
+	public static double density(Collection<Task> tasks) {
+		double d = 0;
+		for (Task t : tasks) {
+			d += t.getExecutionTime() / Math.min(t.getDeadline(), t.getPeriod());
+		}
+		return d;
+	}
+
+	/**
+	 * Calculate the worst-case response time of a task under fixed priority
+	 * scheduling, with the given tasks of higher (or equal) priority. The
+	 * deadline of the task should not exceed its period.
+	 * 
+	 * @param task Task to calculate the response time of.
+	 * @param higherPriority Tasks that can preempt the task.
+	 * @return The worst-case response time, or {@link Double#POSITIVE_INFINITY}
+	 *         if it exceeds the deadline of the task.
+	 */
+	public static double responseTime(Task task, Collection<Task> higherPriority) {
+		double r = task.getExecutionTime();
+		for (Task hp : higherPriority) {
+			r += hp.getExecutionTime();
+		}
+		while (r <= task.getDeadline() + DELTA) {
+			double next = task.getExecutionTime();
+			for (Task hp : higherPriority) {
+				next += Math.ceil(r / hp.getPeriod() - DELTA) * hp.getExecutionTime();
+			}
+			if (next <= r + DELTA)  return next;
+			r = next;
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Test if the given tasks can be scheduled by the given algorithm without
+	 * missing a deadline.
+	 * 
+	 * <p>For RM and DM, response time analysis is used, which is exact when
+	 * deadlines do not exceed periods. For EDF, the utilization and density
+	 * of the task set are used, which is exact when deadlines equal periods.
+	 * When deadlines are shorter than periods, the processor demand of the
+	 * tasks is tested instead, which is exact as well. For OPA, priorities
+	 * are assigned with response time analysis, which succeeds exactly when
+	 * some fixed priority order meets all deadlines. Round Robin is only
+	 * tested on its utilization.
+	 * 
+	 * @param tasks Tasks to test.
+	 * @param algorithm Algorithm that schedules the tasks.
+	 * @return Outcome of the test.
+	 */
+	public static AnalysisResult analyze(Collection<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm) {
+		double u = utilization(tasks);
+		if (u > 1 + DELTA) {
+			return new AnalysisResult(Verdict.INFEASIBLE, u, "utilization exceeds 1");
+		}
+		switch (algorithm) {
+			case DM :
+			case RM :
+				return analyzeFixedPriority(tasks, algorithm, u);
+			case EDF :
+				if (density(tasks) <= 1 + DELTA) {
+					return new AnalysisResult(Verdict.FEASIBLE, u, "density is at most 1");
+				}
+				return analyzeDemand(tasks, u);
+			case OPA :
+				for (Task t : tasks) {
+					if (t.getDeadline() > t.getPeriod()) {
+						return new AnalysisResult(Verdict.UNKNOWN, u, "deadlines exceed periods");
+					}
+				}
+				AudsleyOptimalPriority opa = new AudsleyOptimalPriority();
+				opa.assignPriorities(tasks);
+				if (opa.isFeasible()) {
+					return new AnalysisResult(Verdict.FEASIBLE, u, "response times are within deadlines");
+				}
+				return new AnalysisResult(Verdict.INFEASIBLE, u, "no priority order meets all deadlines");
+			default :
+				return new AnalysisResult(Verdict.UNKNOWN, u, "no test for " + algorithm);
+		}
+	}
+
+	/**
+	 * Test if the given tasks can be scheduled globally on the given number of
+	 * cores by the given algorithm without missing a deadline. On a single
+	 * core, this is {@link #analyze(Collection, SUPPORTED_SCHEDULING_ALGORITHMS)}.
+	 * 
+	 * <p>The tests for more cores are sufficient only. For EDF, the density
+	 * bound of Goossens, Funk and Baruah is used: a density of at most
+	 * {@code m - (m - 1) * maxDensity} is feasible. For DM, and for RM when
+	 * deadlines equal periods, the density bound of Bertogna, Cirinei and
+	 * Lipari is used: a density of at most
+	 * {@code m / 2 * (1 - maxDensity) + maxDensity} is feasible.
+	 * 
+	 * @param tasks Tasks to test.
+	 * @param algorithm Algorithm that schedules the tasks.
+	 * @param numCores Number of cores, at least 1.
+	 * @return Outcome of the test.
+	 */
+	public static AnalysisResult analyze(Collection<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			int numCores) {
+		if (numCores <= 1)  return analyze(tasks, algorithm);
+		double u = utilization(tasks);
+		if (u > numCores + DELTA) {
+			return new AnalysisResult(Verdict.INFEASIBLE, u, "utilization exceeds " + numCores);
+		}
+		double maxDensity = 0;
+		for (Task t : tasks) {
+			double d = t.getExecutionTime() / Math.min(t.getDeadline(), t.getPeriod());
+			if (t.getExecutionTime() > t.getDeadline() + DELTA) {
+				return new AnalysisResult(Verdict.INFEASIBLE, u,
+						"execution time of " + t.getName() + " exceeds its deadline");
+			}
+			maxDensity = Math.max(maxDensity, d);
+		}
+		double density = density(tasks);
+		switch (algorithm) {
+			case EDF :
+				if (density <= numCores - (numCores - 1) * maxDensity + DELTA) {
+					return new AnalysisResult(Verdict.FEASIBLE, u, "density is within the global EDF bound");
+				}
+				return new AnalysisResult(Verdict.UNKNOWN, u, "density exceeds the global EDF bound");
+			case RM :
+				for (Task t : tasks) {
+					if (t.getDeadline() != t.getPeriod()) {
+						return new AnalysisResult(Verdict.UNKNOWN, u, "deadlines differ from periods");
+					}
+				}
+				// with deadlines equal to periods, RM is DM
+				return analyzeGlobalDensity(algorithm, u, density, maxDensity, numCores);
+			case DM :
+				return analyzeGlobalDensity(algorithm, u, density, maxDensity, numCores);
+			default :
+				return new AnalysisResult(Verdict.UNKNOWN, u, "no test for " + algorithm + " on "
+						+ numCores + " cores");
+		}
+	}
+
+	/**
+	 * Test a task set under global DM with the density bound of Bertogna,
+	 * Cirinei and Lipari. RM is tested with it as well when deadlines equal
+	 * periods.
+	 * 
+	 * @param algorithm Algorithm that is tested, used in the reason.
+	 * @param u Utilization of the tasks.
+	 * @param density Total density of the tasks.
+	 * @param maxDensity Largest density of a single task.
+	 * @param numCores Number of cores.
+	 * @return Outcome of the test.
+	 */
+	private static AnalysisResult analyzeGlobalDensity(SUPPORTED_SCHEDULING_ALGORITHMS algorithm, double u,
+			double density, double maxDensity, int numCores) {
+		if (density <= numCores / 2.0 * (1 - maxDensity) + maxDensity + DELTA) {
+			return new AnalysisResult(Verdict.FEASIBLE, u, "density is within the global "
+					+ algorithm + " bound");
+		}
+		return new AnalysisResult(Verdict.UNKNOWN, u, "density exceeds the global " + algorithm + " bound");
+	}
+
+	/**
+	 * Calculate the processor demand of the given tasks in an interval of the
+	 * given length that starts at time zero: the total execution time of the
+	 * jobs that have their deadline in the interval.
+	 * 
+	 * @param tasks Tasks to calculate the demand of.
+	 * @param t Length of the interval.
+	 * @return Processor demand.
+	 */
+	public static double demand(Collection<Task> tasks, double t) {
+		double h = 0;
+		for (Task task : tasks) {
+			if (t < task.getDeadline() - DELTA)  continue;
+			h += (Math.floor((t - task.getDeadline()) / task.getPeriod() + DELTA) + 1) * task.getExecutionTime();
+		}
+		return h;
+	}
+
+	/**
+	 * Test a task set with deadlines shorter than periods under EDF, by
+	 * checking that the processor demand never exceeds the length of the
+	 * interval. Only intervals up to the first idle time need to be checked,
+	 * and Quick Processor-demand Analysis (Zhang and Burns) skips most
+	 * deadlines in between by going backwards from the last one.
+	 * 
+	 * @param tasks Tasks to test, with a utilization of at most 1.
+	 * @param u Utilization of the tasks.
+	 * @return Outcome of the test.
+	 */
+	private static AnalysisResult analyzeDemand(Collection<Task> tasks, double u) {
+		double minDeadline = Double.POSITIVE_INFINITY, maxDeadline = 0, slack = 0, busy = 0;
+		long hyperperiod = 1;
+		for (Task t : tasks) {
+			if (t.getDeadline() > t.getPeriod()) {
+				return new AnalysisResult(Verdict.UNKNOWN, u, "deadlines exceed periods");
+			}
+			minDeadline = Math.min(minDeadline, t.getDeadline());
+			maxDeadline = Math.max(maxDeadline, t.getDeadline());
+			slack += (t.getPeriod() - t.getDeadline()) * t.getExecutionTime() / t.getPeriod();
+			busy += t.getExecutionTime();
+			long factor = hyperperiod / Utils.gcd(t.getPeriod(), (int) (hyperperiod % t.getPeriod()));
+			hyperperiod = (factor > Long.MAX_VALUE / 2 / t.getPeriod() ? Long.MAX_VALUE / 2 : factor * t.getPeriod());
+		}
+		// length of the first busy period, which is at most the hyperperiod
+		for (double next = demandUpTo(tasks, busy); next > busy + DELTA && busy < hyperperiod;
+				next = demandUpTo(tasks, busy)) {
+			busy = next;
+		}
+		double limit = Math.min(busy, hyperperiod);
+		if (u < 1 - DELTA)  limit = Math.min(limit, Math.max(maxDeadline, slack / (1 - u)));
+
+		double t = lastDeadlineBefore(tasks, limit + DELTA);
+		double h = demand(tasks, t);
+		while (h <= t + DELTA && h > minDeadline + DELTA) {
+			t = (h < t - DELTA ? h : lastDeadlineBefore(tasks, t));
+			h = demand(tasks, t);
+		}
+		if (h > t + DELTA) {
+			return new AnalysisResult(Verdict.INFEASIBLE, u, "processor demand exceeds the time at "
+					+ (long) lastDeadlineBefore(tasks, Math.floor(t + DELTA) + 0.5));
+		}
+		return new AnalysisResult(Verdict.FEASIBLE, u, "processor demand never exceeds the time");
+	}
+
+	/**
+	 * Return the total execution time of the jobs released before the given
+	 * time.
+	 */
+	private static double demandUpTo(Collection<Task> tasks, double t) {
+		double w = 0;
+		for (Task task : tasks) {
+			w += Math.ceil(t / task.getPeriod() - DELTA) * task.getExecutionTime();
+		}
+		return w;
+	}
+
+	/**
+	 * Return the latest absolute deadline of a job before the given time, or
+	 * 0 if there is none.
+	 */
+	private static double lastDeadlineBefore(Collection<Task> tasks, double t) {
+		double last = 0;
+		for (Task task : tasks) {
+			if (t <= task.getDeadline() + DELTA)  continue;
+			double k = Math.ceil((t - task.getDeadline()) / task.getPeriod() - DELTA) - 1;
+			last = Math.max(last, k * task.getPeriod() + task.getDeadline());
+		}
+		return last;
+	}
+
+	/**
+	 * Test a task set under RM or DM with response time analysis.
+	 * 
+	 * @param tasks Tasks to test.
+	 * @param algorithm Either RM or DM.
+	 * @param u Utilization of the tasks.
+	 * @return Outcome of the test.
+	 */
+	private static AnalysisResult analyzeFixedPriority(Collection<Task> tasks,
+			SUPPORTED_SCHEDULING_ALGORITHMS algorithm, double u) {
+		for (Task t : tasks) {
+			if (t.getDeadline() > t.getPeriod()) {
+				return new AnalysisResult(Verdict.UNKNOWN, u, "deadlines exceed periods");
+			}
+		}
+		for (Task t : tasks) {
+			// tasks with the same priority may run first as well, so count
+			// them as interference; if that fails, simulation has to decide
+			List<Task> interfering = new ArrayList<Task>();
+			boolean hasTies = false;
+			for (Task other : tasks) {
+				if (other == t)  continue;
+				int c = (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RM
+						? other.getPeriod() - t.getPeriod() : other.getDeadline() - t.getDeadline());
+				if (c <= 0) {
+					interfering.add(other);
+					hasTies |= (c == 0);
+				}
+			}
+			if (responseTime(t, interfering) == Double.POSITIVE_INFINITY) {
+				if (hasTies) {
+					return new AnalysisResult(Verdict.UNKNOWN, u, "tasks with equal priority");
+				}
+				return new AnalysisResult(Verdict.INFEASIBLE, u,
+						"response time of " + t.getName() + " exceeds its deadline");
+			}
+		}
+		return new AnalysisResult(Verdict.FEASIBLE, u, "response times are within deadlines");
+	}
+}
@@ -0,0 +1,173 @@
+package model.analysis;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import model.Schedule;
+import model.Task;
+import model.TaskExecutionTime;
+import model.TaskInstance;
+
+/**
+ * Statistics of the jobs in a schedule: how often they are preempted and
+ * how long they take from release to completion. They are derived from the
+ * task instances only, so they can be compared between all schedulers.
+ * 
+ * <p>The job of an instance is found from its start time: job {@code k} of
+ * a task is released at {@code k} times its period, and its instances lie
+ * before the next release. A job is preempted when it runs again after a
+ * pause, and migrates when it continues on another core.
+ * 
+ * @author Thom Castermans
+ */
+public class ScheduleStatistics {
+
+	/** Tolerance used when comparing times. */
+	private static final double DELTA = 1e-9;
+
+	private final Schedule schedule;
+	private int preemptions = 0;
+	private int migrations = 0;
+	private final Map<Task, TaskStatistics> statistics = new HashMap<Task, TaskStatistics>();
+
+	/**
+	 * Compute the statistics of the given schedule.
+	 * 
+	 * @param schedule Schedule to compute the statistics of.
+	 */
+	public ScheduleStatistics(Schedule schedule) {
+		this.schedule = schedule;
+		for (TaskInstance ti : schedule.getTaskInstances()) {
+			TaskStatistics s = statistics.get(ti.getTask());
+			if (s == null) {
+				s = new TaskStatistics(ti.getTask());
+				statistics.put(ti.getTask(), s);
+			}
+			// split the instance at releases, as it may run several jobs
+			int period = ti.getTask().getPeriod();
+			double start = ti.getStart();
+			while (start < ti.getEnd() - DELTA) {
+				long job = (long) Math.floor(start / period + DELTA);
+				double end = Math.min(ti.getEnd(), (job + 1) * (double) period);
+				s.run(job, start, end, ti.getCore());
+				start = end;
+			}
+		}
+	}
+
+	/**
+	 * Return the schedule these statistics are of.
+	 * 
+	 * @return The schedule.
+	 */
+	public Schedule getSchedule() {
+		return schedule;
+	}
+
+	/**
+	 * Return how often a job runs again after it was paused for another job.
+	 * 
+	 * @return Number of preemptions.
+	 */
+	public int getPreemptions() {
+		return preemptions;
+	}
+
+	/**
+	 * Return how often a job continues on another core than it ran on
+	 * before. This is always 0 on a single core.
+	 * 
+	 * @return Number of migrations.
+	 */
+	public int getMigrations() {
+		return migrations;
+	}
+
+	/**
+	 * Return the time of the deadline that is missed in the schedule.
+	 * 
+	 * @return Time of the deadline miss, or -1 if the schedule is feasible.
+	 */
+	public int getMissTime() {
+		return schedule.getMissTime();
+	}
+
+	/**
+	 * Return the number of jobs of a task that are done in the schedule.
+	 * 
+	 * @param task Task to look up.
+	 * @return Number of completed jobs.
+	 */
+	public int getCompletedJobs(Task task) {
+		TaskStatistics s = statistics.get(task);
+		return (s == null ? 0 : s.completed);
+	}
+
+	/**
+	 * Return the longest time from release to completion of the jobs of a
+	 * task that are done in the schedule.
+	 * 
+	 * @param task Task to look up.
+	 * @return Worst observed response time, or {@link Double#NaN} if no job
+	 *         is done.
+	 */
+	public double getWorstResponseTime(Task task) {
+		TaskStatistics s = statistics.get(task);
+		return (s == null || s.completed == 0 ? Double.NaN : s.worstResponseTime);
+	}
+
+	/**
+	 * Return the average time from release to completion of the jobs of a
+	 * task that are done in the schedule.
+	 * 
+	 * @param task Task to look up.
+	 * @return Average observed response time, or {@link Double#NaN} if no job
+	 *         is done.
+	 */
+	public double getAverageResponseTime(Task task) {
+		TaskStatistics s = statistics.get(task);
+		return (s == null || s.completed == 0 ? Double.NaN : s.totalResponseTime / s.completed);
+	}
+
+	/**
+	 * Keeps track of the current job of a task while going through the
+	 * schedule.
+	 */
+	private class TaskStatistics {
+		final Task task;
+		long job = -1;
+		double executed;
+		double lastEnd;
+		int lastCore;
+		boolean done;
+
+		int completed = 0;
+		double worstResponseTime = 0;
+		double totalResponseTime = 0;
+
+		TaskStatistics(Task task) {
+			this.task = task;
+		}
+
+		void run(long runJob, double start, double end, int core) {
+			if (runJob != job) {
+				job = runJob;
+				executed = 0;
+				done = false;
+			} else if (!done) {
+				if (start > lastEnd + DELTA)  preemptions++;
+				if (core != lastCore)  migrations++;
+			}
+			executed += end - start;
+			lastEnd = end;
+			lastCore = core;
+			if (!done && executed >= task.getExecutionTime() - TaskExecutionTime.DELTA) {
+				done = true;
+				double responseTime = end - job * (double) task.getPeriod();
+				completed++;
+				worstResponseTime = Math.max(worstResponseTime, responseTime);
+				totalResponseTime += responseTime;
+			}
+		}
+	}
+}
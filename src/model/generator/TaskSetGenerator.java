@@ -0,0 +1,361 @@
+package model.generator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import model.Task;
+
+/**
+ * Generates random task sets with a given total utilization, for benchmarks
+ * and stress tests. Utilization is spread over the tasks with UUniFast, or
+ * UUniFast-discard when the total utilization is more than a single task can
+ * have (see Davis and Burns, "Improved priority assignment for global fixed
+ * priority pre-emptive scheduling in multiprocessor real-time systems").
+ * 
+ * <p>Every generated task set is identified by an index. The same seed,
+ * settings and index always give the same task set, regardless of which
+ * other task sets were generated before, so task sets can be generated in
+ * parallel and reproduced later. Settings should not be changed while that
+ * happens.
+ * 
+ * @author Thom Castermans
+ */
+public class TaskSetGenerator {
+
+	/** Ways to choose periods. */
+	public static enum PeriodDistribution {
+		/** Uniform between minimum and maximum period. */
+		UNIFORM,
+		/**
+		 * Log-uniform between minimum and maximum period, such that every order
+		 * of magnitude gets as many periods.
+		 */
+		LOG_UNIFORM,
+		/**
+		 * Minimum period times a power of the harmonic base, at most the maximum
+		 * period. Every period divides every larger period, so the hyperperiod is
+		 * the largest period.
+		 */
+		HARMONIC,
+		/**
+		 * Divisors of the hyperperiod, between minimum and maximum period. The
+		 * hyperperiod of the task set is then at most the given hyperperiod.
+		 */
+		DIVISORS
+	}
+
+	/** Number of times UUniFast-discard tries before giving up. */
+	private static final int MAX_DISCARD_ATTEMPTS = 1000;
+
+	private final long seed;
+	/** Index of the task set returned by {@link #generate()}. */
+	private int nextIndex = 0;
+
+	private int numTasks = 10;
+	private double utilization = 0.8;
+	private double maxTaskUtilization = 1;
+	private PeriodDistribution periodDistribution = PeriodDistribution.LOG_UNIFORM;
+	private int minPeriod = 10;
+	private int maxPeriod = 1000;
+	private int harmonicBase = 2;
+	private int hyperperiod = 5040;
+	private double minDeadlineRatio = 1;
+	private double maxDeadlineRatio = 1;
+	private double granularity = 0;
+
+	/**
+	 * Periods to choose from, for harmonic and divisor periods. The array is
+	 * filled before it is published, so that threads that generate task sets
+	 * at the same time never see it partly filled.
+	 */
+	private volatile int[] periodChoices = null;
+
+	/**
+	 * Create a new generator. Generators with the same seed and settings
+	 * generate the same task sets.
+	 * 
+	 * @param seed Seed for random numbers.
+	 */
+	public TaskSetGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Generate the next task set.
+	 * 
+	 * @return A task set.
+	 * @throws IllegalArgumentException If the settings do not allow a task
+	 *             set, for example when the utilization is too high for the
+	 *             number of tasks.
+	 */
+	public Set<Task> generate() {
+		return generate(nextIndex++);
+	}
+
+	/**
+	 * Generate the task set with the given index. Tasks are named T1, T2 and
+	 * so on, and the set iterates over them in that order.
+	 * 
+	 * @param index Index of task set.
+	 * @return A task set.
+	 * @throws IllegalArgumentException If the settings do not allow a task
+	 *             set, for example when the utilization is too high for the
+	 *             number of tasks.
+	 */
+	public Set<Task> generate(int index) {
+		// scramble seed and index, such that nearby indices give unrelated
+		// sequences: Random starts similarly for nearby seeds
+		Random random = new Random(mix(seed + (index + 1) * 0x9E3779B97F4A7C15L));
+		double[] utilizations = uunifastDiscard(random, numTasks, utilization, maxTaskUtilization);
+		int[] choices = getPeriodChoices();
+		Set<Task> tasks = new LinkedHashSet<Task>();
+		for (int i = 0; i < numTasks; i++) {
+			int period = choosePeriod(random, choices);
+			double executionTime = utilizations[i] * period;
+			if (granularity > 0) {
+				executionTime = Math.max(1, Math.round(executionTime / granularity)) * granularity;
+			}
+			double ratio = minDeadlineRatio + random.nextDouble() * (maxDeadlineRatio - minDeadlineRatio);
+			int deadline = (int) Math.max(Math.ceil(executionTime), Math.round(ratio * period));
+			tasks.add(new Task("T" + (i + 1), period, deadline, executionTime));
+		}
+		return tasks;
+	}
+
+	/**
+	 * Divide the given utilization over the given number of tasks with the
+	 * UUniFast algorithm. Every division is equally likely.
+	 * 
+	 * @param random Source of random numbers.
+	 * @param n Number of tasks.
+	 * @param utilization Total utilization.
+	 * @return Utilization of every task.
+	 */
+	public static double[] uunifast(Random random, int n, double utilization) {
+		double[] utilizations = new double[n];
+		double sum = utilization;
+		for (int i = 0; i < n - 1; i++) {
+			double nextSum = sum * Math.pow(random.nextDouble(), 1.0 / (n - 1 - i));
+			utilizations[i] = sum - nextSum;
+			sum = nextSum;
+		}
+		if (n > 0)  utilizations[n - 1] = sum;
+		return utilizations;
+	}
+
+	/**
+	 * Divide the given utilization over the given number of tasks with the
+	 * UUniFast-discard algorithm: divisions where a task gets more than the
+	 * given maximum are discarded and tried again.
+	 * 
+	 * @param random Source of random numbers.
+	 * @param n Number of tasks.
+	 * @param utilization Total utilization.
+	 * @param max Maximum utilization of a single task.
+	 * @return Utilization of every task.
+	 * @throws IllegalArgumentException If no valid division is found, as the
+	 *             utilization is too high for the number of tasks.
+	 */
+	public static double[] uunifastDiscard(Random random, int n, double utilization, double max) {
+		if (utilization > n * max) {
+			throw new IllegalArgumentException("utilization " + utilization + " does not fit in " + n
+					+ " tasks of at most " + max);
+		}
+		for (int attempt = 0; attempt < MAX_DISCARD_ATTEMPTS; attempt++) {
+			double[] utilizations = uunifast(random, n, utilization);
+			boolean valid = true;
+			for (double u : utilizations) {
+				if (u > max) {
+					valid = false;
+					break;
+				}
+			}
+			if (valid)  return utilizations;
+		}
+		throw new IllegalArgumentException("no division of utilization " + utilization + " over " + n
+				+ " tasks found, try a lower utilization or more tasks");
+	}
+
+	private int choosePeriod(Random random, int[] choices) {
+		switch (periodDistribution) {
+			case UNIFORM :
+				return minPeriod + random.nextInt(maxPeriod - minPeriod + 1);
+			case LOG_UNIFORM :
+				double log = Math.log(minPeriod) + random.nextDouble() * (Math.log(maxPeriod + 1) - Math.log(minPeriod));
+				return Math.min(maxPeriod, (int) Math.exp(log));
+			default :
+				return choices[random.nextInt(choices.length)];
+		}
+	}
+
+	/**
+	 * Return the periods to choose from, for harmonic and divisor periods.
+	 * 
+	 * @return Periods to choose from, or {@code null} for other distributions.
+	 * @throws IllegalArgumentException If there are no periods to choose from.
+	 */
+	private int[] getPeriodChoices() {
+		int[] periodChoices = this.periodChoices;
+		if (periodChoices != null)  return periodChoices;
+		List<Integer> choices = new ArrayList<Integer>();
+		if (periodDistribution == PeriodDistribution.HARMONIC) {
+			for (long p = minPeriod; p <= maxPeriod; p *= harmonicBase) {
+				choices.add((int) p);
+			}
+		} else if (periodDistribution == PeriodDistribution.DIVISORS) {
+			for (int d = minPeriod; d <= Math.min(maxPeriod, hyperperiod); d++) {
+				if (hyperperiod % d == 0)  choices.add(d);
+			}
+		} else {
+			return null;
+		}
+		if (choices.isEmpty()) {
+			throw new IllegalArgumentException("no " + periodDistribution + " periods between "
+					+ minPeriod + " and " + maxPeriod);
+		}
+		periodChoices = new int[choices.size()];
+		for (int i = 0; i < periodChoices.length; i++) {
+			periodChoices[i] = choices.get(i);
+		}
+		this.periodChoices = periodChoices;
+		return periodChoices;
+	}
+
+	/**
+	 * Scramble the bits of the given value, with the finalizer of SplitMix64.
+	 * Values that differ in a single bit give unrelated results.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Return the number of tasks in a task set.
+	 * 
+	 * @return Number of tasks.
+	 */
+	public int getNumTasks() {
+		return numTasks;
+	}
+
+	/**
+	 * Change the number of tasks in a task set.
+	 * 
+	 * @param numTasks New number of tasks, at least 1.
+	 */
+	public void setNumTasks(int numTasks) {
+		if (numTasks < 1)  throw new IllegalArgumentException("number of tasks should be positive");
+		this.numTasks = numTasks;
+	}
+
+	/**
+	 * Return the total utilization of a task set.
+	 * 
+	 * @return Total utilization.
+	 */
+	public double getUtilization() {
+		return utilization;
+	}
+
+	/**
+	 * Change the total utilization of a task set. When execution times are
+	 * rounded (see {@link #setGranularity(double)}), the utilization of a
+	 * generated task set may differ a little.
+	 * 
+	 * @param utilization New total utilization, positive.
+	 */
+	public void setUtilization(double utilization) {
+		if (!(utilization > 0))  throw new IllegalArgumentException("utilization should be positive");
+		this.utilization = utilization;
+	}
+
+	/**
+	 * Change the maximum utilization of a single task. Divisions of the total
+	 * utilization where a task gets more are discarded.
+	 * 
+	 * @param maxTaskUtilization New maximum, positive. The default is 1.
+	 */
+	public void setMaxTaskUtilization(double maxTaskUtilization) {
+		if (!(maxTaskUtilization > 0))  throw new IllegalArgumentException("maximum utilization should be positive");
+		this.maxTaskUtilization = maxTaskUtilization;
+	}
+
+	/**
+	 * Change how periods are chosen.
+	 * 
+	 * @param periodDistribution New distribution of periods.
+	 */
+	public void setPeriodDistribution(PeriodDistribution periodDistribution) {
+		this.periodDistribution = periodDistribution;
+		periodChoices = null;
+	}
+
+	/**
+	 * Change the range that periods are chosen from.
+	 * 
+	 * @param minPeriod Minimum period, positive.
+	 * @param maxPeriod Maximum period, at least the minimum period.
+	 */
+	public void setPeriodRange(int minPeriod, int maxPeriod) {
+		if (minPeriod < 1 || maxPeriod < minPeriod)  throw new IllegalArgumentException("invalid period range");
+		this.minPeriod = minPeriod;
+		this.maxPeriod = maxPeriod;
+		periodChoices = null;
+	}
+
+	/**
+	 * Change the base of harmonic periods, see
+	 * {@link PeriodDistribution#HARMONIC}.
+	 * 
+	 * @param harmonicBase New base, at least 2.
+	 */
+	public void setHarmonicBase(int harmonicBase) {
+		if (harmonicBase < 2)  throw new IllegalArgumentException("harmonic base should be at least 2");
+		this.harmonicBase = harmonicBase;
+		periodChoices = null;
+	}
+
+	/**
+	 * Change the hyperperiod that periods divide, see
+	 * {@link PeriodDistribution#DIVISORS}. Numbers with many divisors, like
+	 * 720 or 5040, give the most choice.
+	 * 
+	 * @param hyperperiod New hyperperiod, positive.
+	 */
+	public void setHyperperiod(int hyperperiod) {
+		if (hyperperiod < 1)  throw new IllegalArgumentException("hyperperiod should be positive");
+		this.hyperperiod = hyperperiod;
+		periodChoices = null;
+	}
+
+	/**
+	 * Change the range of the ratio of deadline to period. A deadline is
+	 * never less than the execution time.
+	 * 
+	 * @param minDeadlineRatio Minimum ratio, positive.
+	 * @param maxDeadlineRatio Maximum ratio, at least the minimum ratio.
+	 */
+	public void setDeadlineRatio(double minDeadlineRatio, double maxDeadlineRatio) {
+		if (!(minDeadlineRatio > 0) || maxDeadlineRatio < minDeadlineRatio) {
+			throw new IllegalArgumentException("invalid deadline ratio range");
+		}
+		this.minDeadlineRatio = minDeadlineRatio;
+		this.maxDeadlineRatio = maxDeadlineRatio;
+	}
+
+	/**
+	 * Change the granularity of execution times: execution times are rounded
+	 * to a multiple of it, and are at least one such multiple.
+	 * 
+	 * @param granularity New granularity, or 0 to not round execution times.
+	 */
+	public void setGranularity(double granularity) {
+		if (granularity < 0)  throw new IllegalArgumentException("granularity should not be negative");
+		this.granularity = granularity;
+	}
+}
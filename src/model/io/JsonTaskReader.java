@@ -0,0 +1,238 @@
+package model.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Task;
+
+/**
+ * Reads tasks from JSON, one character at a time, without building a tree
+ * of the whole document. Only what is needed for tasks is kept: values of
+ * fields that are not known are skipped.
+ * 
+ * @author Thom Castermans
+ */
+class JsonTaskReader {
+
+	private final Reader in;
+	/** Next character, or -1 at the end of the input. */
+	private int next;
+	/** Line of the next character, for error messages. */
+	private int line = 1;
+
+	/**
+	 * Create a reader of tasks from the given input.
+	 * 
+	 * @param in Input to read from, which should be buffered.
+	 * @throws IOException If reading fails.
+	 */
+	JsonTaskReader(Reader in) throws IOException {
+		this.in = in;
+		this.next = in.read();
+	}
+
+	/**
+	 * Read an array of tasks, or an object with such an array in field
+	 * {@code "tasks"}.
+	 * 
+	 * @return Tasks that are read, in order.
+	 * @throws IOException If reading fails or the input is not valid.
+	 */
+	List<Task> readTasks() throws IOException {
+		skipWhitespace();
+		List<Task> tasks = null;
+		if (next == '{') {
+			read();
+			if (!tryRead('}')) {
+				do {
+					String key = readString();
+					expect(':');
+					if (key.equals("tasks")) {
+						tasks = readTaskArray();
+					} else {
+						skipValue();
+					}
+				} while (tryRead(','));
+				expect('}');
+			}
+			if (tasks == null)  throw error("no field \"tasks\" found");
+		} else {
+			tasks = readTaskArray();
+		}
+		skipWhitespace();
+		if (next != -1)  throw error("unexpected " + describe(next) + " after tasks");
+		return tasks;
+	}
+
+	private List<Task> readTaskArray() throws IOException {
+		List<Task> tasks = new ArrayList<Task>();
+		expect('[');
+		if (tryRead(']'))  return tasks;
+		do {
+			tasks.add(readTask());
+		} while (tryRead(','));
+		expect(']');
+		return tasks;
+	}
+
+	private Task readTask() throws IOException {
+		String name = null;
+		int period = 0;
+		int deadline = -1;
+		double executionTime = 0;
+		expect('{');
+		if (!tryRead('}')) {
+			do {
+				String key = readString();
+				expect(':');
+				if (key.equals("name")) {
+					name = readString();
+				} else if (key.equals("period")) {
+					period = readInteger();
+				} else if (key.equals("deadline")) {
+					deadline = readInteger();
+				} else if (key.equals("executionTime")) {
+					executionTime = readNumber();
+				} else {
+					skipValue();
+				}
+			} while (tryRead(','));
+			expect('}');
+		}
+		try {
+			return TaskSetIO.createTask(name, period, (deadline == -1 ? period : deadline), executionTime);
+		} catch (IOException e) {
+			throw error(e.getMessage());
+		}
+	}
+
+	private void skipValue() throws IOException {
+		skipWhitespace();
+		if (next == '"') {
+			readString();
+		} else if (next == '{') {
+			read();
+			if (tryRead('}'))  return;
+			do {
+				readString();
+				expect(':');
+				skipValue();
+			} while (tryRead(','));
+			expect('}');
+		} else if (next == '[') {
+			read();
+			if (tryRead(']'))  return;
+			do {
+				skipValue();
+			} while (tryRead(','));
+			expect(']');
+		} else {
+			// number, true, false or null
+			readToken();
+		}
+	}
+
+	private int readInteger() throws IOException {
+		double value = readNumber();
+		if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+			throw error("expected an integer, found " + value);
+		}
+		return (int) value;
+	}
+
+	private double readNumber() throws IOException {
+		String token = readToken();
+		try {
+			return Double.parseDouble(token);
+		} catch (NumberFormatException e) {
+			throw error("expected a number, found \"" + token + "\"");
+		}
+	}
+
+	/**
+	 * Read a number or literal, up to the next separator.
+	 * 
+	 * @return The token.
+	 * @throws IOException If reading fails or no token is found.
+	 */
+	private String readToken() throws IOException {
+		skipWhitespace();
+		StringBuilder sb = new StringBuilder();
+		while (next != -1 && next != ',' && next != '}' && next != ']' && !isWhitespace(next)) {
+			sb.append((char) read());
+		}
+		if (sb.length() == 0)  throw error("expected a value, found " + describe(next));
+		return sb.toString();
+	}
+
+	private String readString() throws IOException {
+		expect('"');
+		StringBuilder sb = new StringBuilder();
+		while (true) {
+			int c = read();
+			if (c == -1 || c == '\n')  throw error("unterminated string");
+			if (c == '"')  return sb.toString();
+			if (c != '\\') {
+				sb.append((char) c);
+				continue;
+			}
+			c = read();
+			switch (c) {
+				case '"' : case '\\' : case '/' : sb.append((char) c); break;
+				case 'b' : sb.append('\b'); break;
+				case 'f' : sb.append('\f'); break;
+				case 'n' : sb.append('\n'); break;
+				case 'r' : sb.append('\r'); break;
+				case 't' : sb.append('\t'); break;
+				case 'u' :
+					int code = 0;
+					for (int i = 0; i < 4; i++) {
+						int digit = Character.digit(read(), 16);
+						if (digit < 0)  throw error("invalid unicode escape");
+						code = 16 * code + digit;
+					}
+					sb.append((char) code);
+					break;
+				default : throw error("invalid escape " + describe(c));
+			}
+		}
+	}
+
+	private void expect(char c) throws IOException {
+		if (!tryRead(c))  throw error("expected '" + c + "', found " + describe(next));
+	}
+
+	private boolean tryRead(char c) throws IOException {
+		skipWhitespace();
+		if (next != c)  return false;
+		read();
+		return true;
+	}
+
+	private void skipWhitespace() throws IOException {
+		while (isWhitespace(next)) {
+			read();
+		}
+	}
+
+	private int read() throws IOException {
+		int c = next;
+		if (c == '\n')  line++;
+		next = in.read();
+		return c;
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	private static String describe(int c) {
+		return (c == -1 ? "end of input" : "'" + (char) c + "'");
+	}
+
+	private IOException error(String message) {
+		return new IOException("line " + line + ": " + message);
+	}
+}
@@ -0,0 +1,255 @@
+package model.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import model.Task;
+
+/**
+ * This class reads and writes sets of tasks, in CSV or JSON format. Files
+ * are read and written as a stream, so large task sets never have to be in
+ * memory as text.
+ * 
+ * <p>A CSV file has one task per line, with the fields
+ * {@code name,period,deadline,executionTime}. A first line with those names
+ * is skipped, as are empty lines and lines starting with {@code #}. Names
+ * containing commas or quotes are quoted like {@code "a, ""b"""}.
+ * 
+ * <p>A JSON file contains an array of objects with the same fields, either
+ * on its own or as the value of a field {@code "tasks"} of an object. If the
+ * deadline is left out, it is equal to the period. Other fields are ignored.
+ * 
+ * @author Thom Castermans
+ */
+public class TaskSetIO {
+
+	/** Supported formats of task set files. */
+	public static enum Format {
+		/** Comma-separated values, one task per line. */
+		CSV,
+		/** JSON array of task objects. */
+		JSON
+	}
+
+	/** Character set of task set files. */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private TaskSetIO() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Return the format of a file, based on its extension. Files ending in
+	 * {@code .json} are JSON, all other files are CSV.
+	 * 
+	 * @param file File to get the format of.
+	 * @return Format of the file.
+	 */
+	public static Format getFormat(File file) {
+		return (file.getName().toLowerCase().endsWith(".json") ? Format.JSON : Format.CSV);
+	}
+
+	/**
+	 * Read the tasks in the given file, in the format that belongs to its
+	 * extension.
+	 * 
+	 * @param file File to read.
+	 * @return Tasks in the file, in order.
+	 * @throws IOException If the file cannot be read or is not valid.
+	 */
+	public static List<Task> read(File file) throws IOException {
+		Reader in = new InputStreamReader(new FileInputStream(file), UTF_8);
+		try {
+			return read(in, getFormat(file));
+		} catch (IOException e) {
+			throw new IOException(file.getPath() + ": " + e.getMessage(), e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Read tasks in the given format. The reader is not closed.
+	 * 
+	 * @param in Reader to read from.
+	 * @param format Format of the tasks.
+	 * @return Tasks that are read, in order.
+	 * @throws IOException If reading fails or the input is not valid.
+	 */
+	public static List<Task> read(Reader in, Format format) throws IOException {
+		BufferedReader reader = (in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in));
+		if (format == Format.JSON) {
+			return new JsonTaskReader(reader).readTasks();
+		}
+		return readCsv(reader);
+	}
+
+	/**
+	 * Write the given tasks to a file, in the format that belongs to its
+	 * extension.
+	 * 
+	 * @param file File to write to.
+	 * @param tasks Tasks to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(File file, Collection<Task> tasks) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+		try {
+			write(out, tasks, getFormat(file));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Write the given tasks in the given format. The writer is flushed, but
+	 * not closed.
+	 * 
+	 * @param out Writer to write to.
+	 * @param tasks Tasks to write.
+	 * @param format Format to write in.
+	 * @throws IOException If writing fails.
+	 */
+	public static void write(Writer out, Collection<Task> tasks, Format format) throws IOException {
+		if (format == Format.JSON) {
+			out.write("[\n");
+			boolean first = true;
+			for (Task t : tasks) {
+				if (!first)  out.write(",\n");
+				first = false;
+				out.write("  {\"name\": ");
+				writeJsonString(out, t.getName());
+				out.write(", \"period\": " + t.getPeriod() + ", \"deadline\": " + t.getDeadline()
+						+ ", \"executionTime\": " + t.getExecutionTime() + "}");
+			}
+			out.write("\n]\n");
+		} else {
+			out.write("name,period,deadline,executionTime\n");
+			for (Task t : tasks) {
+				writeCsvField(out, t.getName());
+				out.write("," + t.getPeriod() + "," + t.getDeadline() + "," + t.getExecutionTime() + "\n");
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Create a task, checking that its values make sense.
+	 * 
+	 * @param name Name of the task.
+	 * @param period Period of the task.
+	 * @param deadline Deadline of the task.
+	 * @param executionTime Execution time of the task.
+	 * @return The task.
+	 * @throws IOException If a value is not valid.
+	 */
+	static Task createTask(String name, int period, int deadline, double executionTime) throws IOException {
+		if (name == null || name.length() == 0)  throw new IOException("task without name");
+		if (period <= 0)  throw new IOException("period of " + name + " should be positive");
+		if (deadline <= 0)  throw new IOException("deadline of " + name + " should be positive");
+		if (!(executionTime > 0))  throw new IOException("execution time of " + name + " should be positive");
+		return new Task(name, period, deadline, executionTime);
+	}
+
+	private static List<Task> readCsv(BufferedReader reader) throws IOException {
+		List<Task> tasks = new ArrayList<Task>();
+		List<String> fields = new ArrayList<String>(4);
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (line.trim().length() == 0 || line.startsWith("#"))  continue;
+			splitCsvLine(line, fields);
+			// skip header
+			if (tasks.isEmpty() && fields.get(0).trim().equalsIgnoreCase("name"))  continue;
+			if (fields.size() != 4) {
+				throw new IOException("line " + lineNumber + ": expected 4 fields, found " + fields.size());
+			}
+			try {
+				tasks.add(createTask(fields.get(0).trim(), Integer.parseInt(fields.get(1).trim()),
+						Integer.parseInt(fields.get(2).trim()), Double.parseDouble(fields.get(3).trim())));
+			} catch (NumberFormatException e) {
+				throw new IOException("line " + lineNumber + ": " + e.getMessage(), e);
+			} catch (IOException e) {
+				throw new IOException("line " + lineNumber + ": " + e.getMessage(), e);
+			}
+		}
+		return tasks;
+	}
+
+	/**
+	 * Split a line of a CSV file into fields, removing quotes.
+	 * 
+	 * @param line Line to split.
+	 * @param fields List to put fields in, which is cleared first.
+	 */
+	private static void splitCsvLine(String line, List<String> fields) {
+		fields.clear();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+	}
+
+	private static void writeCsvField(Writer out, String value) throws IOException {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('#') != 0) {
+			out.write(value);
+			return;
+		}
+		out.write('"');
+		out.write(value.replace("\"", "\"\""));
+		out.write('"');
+	}
+
+	private static void writeJsonString(Writer out, String value) throws IOException {
+		out.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"' : out.write("\\\""); break;
+				case '\\' : out.write("\\\\"); break;
+				case '\n' : out.write("\\n"); break;
+				case '\r' : out.write("\\r"); break;
+				case '\t' : out.write("\\t"); break;
+				default :
+					if (c < 0x20) {
+						out.write(String.format("\\u%04x", (int) c));
+					} else {
+						out.write(c);
+					}
+			}
+		}
+		out.write('"');
+	}
+}
@@ -0,0 +1,69 @@
+package model.metrics;
+
+/**
+ * Statistics of the simulations with a single scheduling algorithm, see
+ * {@link ProcessingStats#getAlgorithmStats(String)}.
+ * 
+ * @author Thom Castermans
+ */
+public class AlgorithmStats implements AlgorithmStatsMBean {
+
+	private long simulations = 0;
+	private long deadlineMisses = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+	private String slowestTaskSet = null;
+
+	/**
+	 * Add a simulation.
+	 * 
+	 * @param taskSet Name of the task set that was simulated.
+	 * @param nanos Time the simulation took, in nanoseconds.
+	 * @param missed If a deadline was missed.
+	 */
+	public synchronized void record(String taskSet, long nanos, boolean missed) {
+		simulations++;
+		if (missed)  deadlineMisses++;
+		totalNanos += nanos;
+		if (nanos > maxNanos || slowestTaskSet == null) {
+			maxNanos = nanos;
+			slowestTaskSet = taskSet;
+		}
+	}
+
+	@Override
+	public synchronized long getSimulations() {
+		return simulations;
+	}
+
+	@Override
+	public synchronized long getDeadlineMisses() {
+		return deadlineMisses;
+	}
+
+	@Override
+	public synchronized double getAverageSimulationMs() {
+		return (simulations == 0 ? 0 : totalNanos / 1e6 / simulations);
+	}
+
+	@Override
+	public synchronized double getMaxSimulationMs() {
+		return maxNanos / 1e6;
+	}
+
+	@Override
+	public synchronized String getSlowestTaskSet() {
+		return slowestTaskSet;
+	}
+
+	/**
+	 * Set all statistics to zero.
+	 */
+	synchronized void reset() {
+		simulations = 0;
+		deadlineMisses = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		slowestTaskSet = null;
+	}
+}
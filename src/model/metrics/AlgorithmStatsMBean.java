@@ -0,0 +1,46 @@
+package model.metrics;
+
+/**
+ * Management interface of {@link AlgorithmStats}, as seen over JMX.
+ * 
+ * @author Thom Castermans
+ */
+public interface AlgorithmStatsMBean {
+
+	/**
+	 * Return the number of simulations with this algorithm.
+	 * 
+	 * @return Number of simulations.
+	 */
+	public long getSimulations();
+
+	/**
+	 * Return the number of simulations with this algorithm in which a
+	 * deadline was missed.
+	 * 
+	 * @return Number of deadline misses.
+	 */
+	public long getDeadlineMisses();
+
+	/**
+	 * Return the average time a simulation with this algorithm took.
+	 * 
+	 * @return Average simulation time, in milliseconds.
+	 */
+	public double getAverageSimulationMs();
+
+	/**
+	 * Return the longest time a simulation with this algorithm took.
+	 * 
+	 * @return Maximum simulation time, in milliseconds.
+	 */
+	public double getMaxSimulationMs();
+
+	/**
+	 * Return the task set that took longest to simulate with this algorithm.
+	 * 
+	 * @return Name of the slowest task set, or {@code null} if there were no
+	 *         simulations.
+	 */
+	public String getSlowestTaskSet();
+}
@@ -0,0 +1,39 @@
+package model.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream that passes everything on to another stream, and adds the number
+ * of bytes to a phase timer.
+ * 
+ * @author Thom Castermans
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+	private final PhaseTimer timer;
+
+	/**
+	 * Create a new stream that counts bytes written to the given stream.
+	 * 
+	 * @param out Stream to write to.
+	 * @param timer Timer to add number of bytes to.
+	 */
+	public CountingOutputStream(OutputStream out, PhaseTimer timer) {
+		super(out);
+		this.timer = timer;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		timer.addBytes(1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		timer.addBytes(len);
+	}
+}
@@ -0,0 +1,258 @@
+package model.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Counters and phase timers of scheduling and output, summed over all
+ * threads since the start of the program or the last {@link #reset()}.
+ * Collecting them is off by default and can be switched on with
+ * {@link #setEnabled(boolean)} or the system property
+ * {@code scheduletoipe.metrics=true}. When off, schedulers and output only
+ * count in local variables, which costs next to nothing.
+ * 
+ * <p>Independently, simulations and phases are reported as JDK Flight
+ * Recorder events ({@link SimulationEvent}, {@link PhaseEvent}) when a
+ * recording with those events enabled is running. Until Flight Recorder is
+ * started, no events are created, so that their classes are not loaded.
+ * 
+ * @author Thom Castermans
+ */
+public final class Metrics {
+
+	/** Things that are counted. */
+	public static enum Counter {
+		/** Steps of the simulation loop of a scheduler. */
+		SIMULATION_STEPS,
+		/** Times that a task stopped running before it was done. */
+		PREEMPTIONS,
+		/** Times that another task started running than the one before. */
+		CONTEXT_SWITCHES,
+		/** Task instances added to the ready queue of a scheduler. */
+		QUEUE_INSERTIONS,
+		/** Task instances removed from the ready queue of a scheduler. */
+		QUEUE_REMOVALS,
+		/** Times that the priority of a task was computed. */
+		PRIORITY_RECOMPUTATIONS,
+		/** Task instances added to schedules. */
+		INSTANCES_EMITTED,
+		/** Bytes of output written. */
+		BYTES_WRITTEN
+	}
+
+	/** Phases that are timed. */
+	public static enum Phase {
+		/** Simulating a scheduler to create a schedule. */
+		SIMULATE,
+		/** Compressing a schedule. */
+		COMPRESS,
+		/** Laying out and drawing a schedule in an output format. */
+		RENDER,
+		/** Writing output to a stream or file. */
+		WRITE
+	}
+
+	private static volatile boolean enabled = Boolean.getBoolean("scheduletoipe.metrics");
+
+	private static final int NUM_PHASES = Phase.values().length;
+	private static final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+	private static final AtomicLongArray phaseCounts = new AtomicLongArray(NUM_PHASES);
+	private static final AtomicLongArray phaseNanos = new AtomicLongArray(NUM_PHASES);
+	private static final AtomicLongArray phaseMaxNanos = new AtomicLongArray(NUM_PHASES);
+
+	private Metrics() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Return if counters and phase timers are collected.
+	 * 
+	 * @return If metrics are collected.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Return if Flight Recorder has been started, so that events may be
+	 * recorded. Events should only be created if so.
+	 * 
+	 * @return If Flight Recorder is initialized.
+	 */
+	static boolean isRecorderInitialized() {
+		// only reads a flag, unlike creating an event
+		return FlightRecorder.isInitialized();
+	}
+
+	/**
+	 * Switch collecting counters and phase timers on or off. Values collected
+	 * so far are kept.
+	 * 
+	 * @param enable If metrics should be collected.
+	 */
+	public static void setEnabled(boolean enable) {
+		enabled = enable;
+	}
+
+	/**
+	 * Set all counters and phase timers to zero.
+	 */
+	public static void reset() {
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, 0);
+		}
+		for (int i = 0; i < NUM_PHASES; i++) {
+			phaseCounts.set(i, 0);
+			phaseNanos.set(i, 0);
+			phaseMaxNanos.set(i, 0);
+		}
+	}
+
+	/**
+	 * Add to a counter, if metrics are collected.
+	 * 
+	 * @param counter Counter to add to.
+	 * @param value Value to add.
+	 */
+	public static void add(Counter counter, long value) {
+		if (enabled)  counters.addAndGet(counter.ordinal(), value);
+	}
+
+	/**
+	 * Return the value of a counter.
+	 * 
+	 * @param counter Counter to return.
+	 * @return Value of the counter.
+	 */
+	public static long get(Counter counter) {
+		return counters.get(counter.ordinal());
+	}
+
+	/**
+	 * Start timing a phase. The phase ends with {@link PhaseTimer#stop()}.
+	 * 
+	 * @param phase Phase that starts.
+	 * @return Timer of the phase.
+	 */
+	public static PhaseTimer start(Phase phase) {
+		return new PhaseTimer(phase, enabled);
+	}
+
+	/**
+	 * Report a simulation that ended: add its counters and commit a
+	 * {@link SimulationEvent} if it is recorded.
+	 * 
+	 * @param algorithm Name of the scheduling algorithm.
+	 * @param numTasks Number of tasks that were scheduled.
+	 * @param simulation Counters of the simulation.
+	 */
+	public static void record(String algorithm, int numTasks, SimulationCounters simulation) {
+		if (enabled) {
+			counters.addAndGet(Counter.SIMULATION_STEPS.ordinal(), simulation.steps);
+			counters.addAndGet(Counter.PREEMPTIONS.ordinal(), simulation.preemptions);
+			counters.addAndGet(Counter.CONTEXT_SWITCHES.ordinal(), simulation.contextSwitches);
+			counters.addAndGet(Counter.QUEUE_INSERTIONS.ordinal(), simulation.queueInsertions);
+			counters.addAndGet(Counter.QUEUE_REMOVALS.ordinal(), simulation.queueRemovals);
+			counters.addAndGet(Counter.PRIORITY_RECOMPUTATIONS.ordinal(), simulation.priorityRecomputations);
+			counters.addAndGet(Counter.INSTANCES_EMITTED.ordinal(), simulation.instancesEmitted);
+		}
+		if (!isRecorderInitialized())  return;
+		SimulationEvent event = new SimulationEvent();
+		if (event.shouldCommit()) {
+			event.algorithm = algorithm;
+			event.tasks = numTasks;
+			event.steps = simulation.steps;
+			event.preemptions = simulation.preemptions;
+			event.contextSwitches = simulation.contextSwitches;
+			event.queueInsertions = simulation.queueInsertions;
+			event.queueRemovals = simulation.queueRemovals;
+			event.priorityRecomputations = simulation.priorityRecomputations;
+			event.instancesEmitted = simulation.instancesEmitted;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Add the duration of a phase that ended.
+	 * 
+	 * @param phase Phase that ended.
+	 * @param nanos Duration of the phase, in nanoseconds.
+	 */
+	static void recordPhase(Phase phase, long nanos) {
+		int i = phase.ordinal();
+		phaseCounts.incrementAndGet(i);
+		phaseNanos.addAndGet(i, nanos);
+		long max;
+		do {
+			max = phaseMaxNanos.get(i);
+		} while (nanos > max && !phaseMaxNanos.compareAndSet(i, max, nanos));
+	}
+
+	/**
+	 * Return the number of times that a phase was timed.
+	 * 
+	 * @param phase Phase to return count of.
+	 * @return Number of times the phase was timed.
+	 */
+	public static long getCount(Phase phase) {
+		return phaseCounts.get(phase.ordinal());
+	}
+
+	/**
+	 * Return the total time spent in a phase.
+	 * 
+	 * @param phase Phase to return time of.
+	 * @return Total time, in nanoseconds.
+	 */
+	public static long getTotalNanos(Phase phase) {
+		return phaseNanos.get(phase.ordinal());
+	}
+
+	/**
+	 * Return the longest time spent in a phase at once.
+	 * 
+	 * @param phase Phase to return time of.
+	 * @return Maximum time, in nanoseconds.
+	 */
+	public static long getMaxNanos(Phase phase) {
+		return phaseMaxNanos.get(phase.ordinal());
+	}
+
+	/**
+	 * Return all counters and phase timers by name, in camel case. Phases
+	 * give a count, a total and a maximum time in milliseconds, for example
+	 * {@code simulateCount}, {@code simulateTotalMs} and
+	 * {@code simulateMaxMs}.
+	 * 
+	 * @return Values of counters and phase timers.
+	 */
+	public static Map<String, Number> getValues() {
+		Map<String, Number> values = new LinkedHashMap<String, Number>();
+		for (Counter counter : Counter.values()) {
+			values.put(toCamelCase(counter.name()), get(counter));
+		}
+		for (Phase phase : Phase.values()) {
+			String name = toCamelCase(phase.name());
+			values.put(name + "Count", getCount(phase));
+			values.put(name + "TotalMs", getTotalNanos(phase) / 1e6);
+			values.put(name + "MaxMs", getMaxNanos(phase) / 1e6);
+		}
+		return values;
+	}
+
+	private static String toCamelCase(String name) {
+		StringBuilder sb = new StringBuilder();
+		for (String word : name.toLowerCase(Locale.US).split("_")) {
+			if (sb.length() == 0) {
+				sb.append(word);
+			} else {
+				sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,29 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of a phase of scheduling or output, see
+ * {@link Metrics.Phase}.
+ * 
+ * @author Thom Castermans
+ */
+@Name("scheduletoipe.Phase")
+@Label("Phase")
+@Category("ScheduleToIpe")
+@Description("A phase of scheduling or output")
+class PhaseEvent extends jdk.jfr.Event {
+
+	/** Name of the phase. */
+	@Label("Phase")
+	String phase;
+
+	/** Bytes written in the phase. */
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+}
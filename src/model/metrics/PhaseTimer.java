@@ -0,0 +1,64 @@
+package model.metrics;
+
+import model.metrics.Metrics.Phase;
+
+/**
+ * Times a single phase, see {@link Metrics#start(Phase)}. The phase is also
+ * reported as a {@link PhaseEvent} if that is recorded.
+ * 
+ * @author Thom Castermans
+ */
+public final class PhaseTimer {
+
+	private final Phase phase;
+	/** Time at which the phase started, or 0 if metrics are not collected. */
+	private final long start;
+	/** Event of the phase, or {@code null} if Flight Recorder is not started. */
+	private final PhaseEvent event;
+	/** Bytes written in the phase, if any. */
+	private long bytes = 0;
+
+	/**
+	 * Start timing a phase.
+	 * 
+	 * @param phase Phase that starts.
+	 * @param enabled If metrics are collected.
+	 */
+	PhaseTimer(Phase phase, boolean enabled) {
+		this.phase = phase;
+		this.start = (enabled ? System.nanoTime() : 0);
+		if (Metrics.isRecorderInitialized()) {
+			this.event = new PhaseEvent();
+			event.begin();
+		} else {
+			this.event = null;
+		}
+	}
+
+	/**
+	 * Add to the number of bytes written in this phase. They are added to
+	 * {@link Metrics.Counter#BYTES_WRITTEN} when the phase stops.
+	 * 
+	 * @param count Number of bytes.
+	 */
+	public void addBytes(long count) {
+		bytes += count;
+	}
+
+	/**
+	 * Stop timing the phase.
+	 */
+	public void stop() {
+		if (start != 0) {
+			Metrics.recordPhase(phase, System.nanoTime() - start);
+			if (bytes > 0)  Metrics.add(Metrics.Counter.BYTES_WRITTEN, bytes);
+		}
+		if (event == null)  return;
+		event.end();
+		if (event.shouldCommit()) {
+			event.phase = phase.name();
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package model.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Statistics of a long-running batch mode or render service, published as
+ * platform MBeans so that they can be watched with JMX tools like JConsole
+ * or VisualVM. The statistics themselves are under
+ * {@code scheduletoipe:type=Processing}, and the statistics of every
+ * algorithm under {@code scheduletoipe:type=Algorithm,name=<algorithm>}.
+ * The MBeans are registered when the statistics are first used.
+ * 
+ * @author Thom Castermans
+ */
+public class ProcessingStats implements ProcessingStatsMBean {
+
+	/** Domain of the names of the MBeans. */
+	public static final String DOMAIN = "scheduletoipe";
+
+	private static ProcessingStats instance = null;
+
+	private final AtomicLong taskSetsProcessed = new AtomicLong();
+	private final AtomicInteger jobsInFlight = new AtomicInteger();
+	/** Queue of the jobs waiting to be exported, or {@code null}. */
+	private volatile Queue<?> exportQueue = null;
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong cacheMisses = new AtomicLong();
+	private final ConcurrentMap<String, AlgorithmStats> algorithms =
+			new ConcurrentHashMap<String, AlgorithmStats>();
+
+	private ProcessingStats() {
+		// use getInstance()
+	}
+
+	/**
+	 * Return the statistics of this program, registering them as MBean the
+	 * first time.
+	 * 
+	 * @return The statistics.
+	 */
+	public static synchronized ProcessingStats getInstance() {
+		if (instance == null) {
+			instance = new ProcessingStats();
+			register(instance, "type=Processing");
+		}
+		return instance;
+	}
+
+	/**
+	 * Return the statistics of the given algorithm, registering them as MBean
+	 * the first time.
+	 * 
+	 * @param algorithm Name of the algorithm, which should be a valid value in
+	 *            an {@link ObjectName}.
+	 * @return Statistics of the algorithm.
+	 */
+	public AlgorithmStats getAlgorithmStats(String algorithm) {
+		AlgorithmStats stats = algorithms.get(algorithm);
+		if (stats == null) {
+			AlgorithmStats created = new AlgorithmStats();
+			stats = algorithms.putIfAbsent(algorithm, created);
+			if (stats == null) {
+				stats = created;
+				register(stats, "type=Algorithm,name=" + algorithm);
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Add a task set that is processed.
+	 */
+	public void taskSetProcessed() {
+		taskSetsProcessed.incrementAndGet();
+	}
+
+	/**
+	 * Add a job that is started, or that waits for a thread.
+	 */
+	public void jobStarted() {
+		jobsInFlight.incrementAndGet();
+	}
+
+	/**
+	 * Remove a job that finished, successfully or not.
+	 */
+	public void jobFinished() {
+		jobsInFlight.decrementAndGet();
+	}
+
+	/**
+	 * Set the queue of jobs that wait to be exported, whose length is
+	 * reported as {@link #getExportQueueDepth()}.
+	 * 
+	 * @param queue Queue of jobs, or {@code null} if there is none.
+	 */
+	public void setExportQueue(Queue<?> queue) {
+		this.exportQueue = queue;
+	}
+
+	/**
+	 * Add a lookup of rendered output in a cache.
+	 * 
+	 * @param hit If the output was found in the cache.
+	 */
+	public void cacheLookup(boolean hit) {
+		(hit ? cacheHits : cacheMisses).incrementAndGet();
+	}
+
+	@Override
+	public long getTaskSetsProcessed() {
+		return taskSetsProcessed.get();
+	}
+
+	@Override
+	public int getJobsInFlight() {
+		return jobsInFlight.get();
+	}
+
+	@Override
+	public int getExportQueueDepth() {
+		Queue<?> queue = exportQueue;
+		return (queue == null ? 0 : queue.size());
+	}
+
+	@Override
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		long hits = getCacheHits();
+		long lookups = hits + getCacheMisses();
+		return (lookups == 0 ? 0 : (double) hits / lookups);
+	}
+
+	@Override
+	public void reset() {
+		taskSetsProcessed.set(0);
+		cacheHits.set(0);
+		cacheMisses.set(0);
+		for (AlgorithmStats stats : algorithms.values()) {
+			stats.reset();
+		}
+	}
+
+	private static void register(Object mbean, String properties) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(mbean, new ObjectName(DOMAIN + ":" + properties));
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+}
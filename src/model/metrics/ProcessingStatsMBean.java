@@ -0,0 +1,63 @@
+package model.metrics;
+
+/**
+ * Management interface of {@link ProcessingStats}, as seen over JMX.
+ * 
+ * @author Thom Castermans
+ */
+public interface ProcessingStatsMBean {
+
+	/**
+	 * Return the number of task sets that were processed: read from file in
+	 * batch mode, or received by the render service.
+	 * 
+	 * @return Number of task sets processed.
+	 */
+	public long getTaskSetsProcessed();
+
+	/**
+	 * Return the number of jobs that were started but did not finish yet,
+	 * including jobs that wait for a thread.
+	 * 
+	 * @return Number of jobs in flight.
+	 */
+	public int getJobsInFlight();
+
+	/**
+	 * Return the number of jobs that wait for a thread to schedule and export
+	 * them.
+	 * 
+	 * @return Length of the export queue.
+	 */
+	public int getExportQueueDepth();
+
+	/**
+	 * Return the number of lookups of rendered output in caches that
+	 * found an entry.
+	 * 
+	 * @return Number of cache hits.
+	 */
+	public long getCacheHits();
+
+	/**
+	 * Return the number of lookups of rendered output in caches that
+	 * found nothing.
+	 * 
+	 * @return Number of cache misses.
+	 */
+	public long getCacheMisses();
+
+	/**
+	 * Return the fraction of lookups of rendered output in caches that
+	 * found an entry.
+	 * 
+	 * @return Cache hit rate, between 0 and 1, or 0 if nothing was looked up.
+	 */
+	public double getCacheHitRate();
+
+	/**
+	 * Set the number of task sets processed, the cache hits and misses and
+	 * the statistics of all algorithms to zero.
+	 */
+	public void reset();
+}
@@ -0,0 +1,27 @@
+package model.metrics;
+
+/**
+ * Counters of a single simulation, kept by the scheduler while it creates a
+ * schedule and reported with {@link Metrics#record(String, int, SimulationCounters)}
+ * when it is done. The scheduler counts in fields of its own object, so that
+ * threads do not share counters while simulating.
+ * 
+ * @author Thom Castermans
+ */
+public final class SimulationCounters {
+
+	/** Steps of the simulation loop. */
+	public long steps;
+	/** Times that a task stopped running before it was done. */
+	public long preemptions;
+	/** Times that another task started running than the one before. */
+	public long contextSwitches;
+	/** Task instances added to the ready queue. */
+	public long queueInsertions;
+	/** Task instances removed from the ready queue. */
+	public long queueRemovals;
+	/** Times that the priority of a task was computed. */
+	public long priorityRecomputations;
+	/** Task instances added to the schedule. */
+	public long instancesEmitted;
+}
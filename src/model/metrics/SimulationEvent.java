@@ -0,0 +1,55 @@
+package model.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event with the counters of a simulation, see
+ * {@link SimulationCounters}.
+ * 
+ * @author Thom Castermans
+ */
+@Name("scheduletoipe.Simulation")
+@Label("Simulation")
+@Category("ScheduleToIpe")
+@Description("Counters of a scheduler simulation")
+class SimulationEvent extends jdk.jfr.Event {
+
+	/** Name of the scheduling algorithm. */
+	@Label("Algorithm")
+	String algorithm;
+
+	/** Number of tasks that were scheduled. */
+	@Label("Tasks")
+	int tasks;
+
+	/** Steps of the simulation loop. */
+	@Label("Steps")
+	long steps;
+
+	/** Times that a task stopped running before it was done. */
+	@Label("Preemptions")
+	long preemptions;
+
+	/** Times that another task started running than the one before. */
+	@Label("Context Switches")
+	long contextSwitches;
+
+	/** Task instances added to the ready queue. */
+	@Label("Queue Insertions")
+	long queueInsertions;
+
+	/** Task instances removed from the ready queue. */
+	@Label("Queue Removals")
+	long queueRemovals;
+
+	/** Times that the priority of a task was computed. */
+	@Label("Priority Recomputations")
+	long priorityRecomputations;
+
+	/** Task instances added to the schedule. */
+	@Label("Instances Emitted")
+	long instancesEmitted;
+}
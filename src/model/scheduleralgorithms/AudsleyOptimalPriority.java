@@ -0,0 +1,180 @@
+package model.scheduleralgorithms;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.Schedule;
+import model.Task;
+
+/**
+ * The OPA, for Optimal Priority Assignment, scheduler algorithm schedules
+ * tasks with fixed priorities that are found with Audsley's algorithm: from
+ * the lowest priority up, the next priority goes to a task that meets its
+ * deadline when all tasks without a priority yet can preempt it. If deadlines
+ * do not exceed periods, this finds an order that meets all deadlines
+ * whenever any fixed order does. As all tasks are released at time 0, DM
+ * order does so as well then, but the order found here may differ from it:
+ * ties and tasks with slack are placed wherever they fit.
+ * 
+ * <p>Whether a task meets its deadline at a priority is decided with response
+ * time analysis. To make that cheap for large task sets, the tasks that can
+ * preempt a task are summarized incrementally, which usually decides without
+ * iterating: the work they release before the deadline of the task is kept up
+ * to date for every task, and if it fits, the task meets its deadline; their
+ * utilization is kept as well, and if what is left does not fit the execution
+ * time, the task misses it. Only in between, response times are iterated,
+ * stopping as soon as they exceed the deadline. Tasks are tried in order of
+ * decreasing deadline, as those tasks are most likely to fit.
+ * 
+ * <p>If no order meets all deadlines, the tasks that could not be given a
+ * priority run before all other tasks, in DM order, so that the schedule
+ * shows the miss.
+ * 
+ * @author Thom Castermans
+ */
+public class AudsleyOptimalPriority extends StaticPriorityScheduler {
+
+	/** Tolerance used when comparing times. */
+	private static final double DELTA = 1e-9;
+
+	/** Priority of every task, found when creating the last schedule. */
+	private final Map<Task, Integer> priorities = new IdentityHashMap<Task, Integer>();
+	/** If the last assignment meets all deadlines. */
+	private boolean feasible = false;
+
+	/**
+	 * Create a schedule for the given set of tasks, after finding priorities
+	 * for them.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 */
+	@Override
+	public Schedule createSchedule(Set<Task> tasks) {
+		assignPriorities(tasks);
+		return super.createSchedule(tasks);
+	}
+
+	@Override
+	protected int getPriority(Task task) {
+		Integer priority = priorities.get(task);
+		return (priority == null ? -task.getDeadline() : priority);
+	}
+
+	/**
+	 * Return if the priorities found last meet all deadlines, according to
+	 * response time analysis. If deadlines do not exceed periods, no fixed
+	 * priority order meets all deadlines if this returns {@code false}.
+	 * 
+	 * @return If the last assignment is feasible.
+	 */
+	public boolean isFeasible() {
+		return feasible;
+	}
+
+	/**
+	 * Find priorities for the given tasks with Audsley's algorithm. They are
+	 * used for the next schedule that is created for the same tasks.
+	 * 
+	 * @param tasks Tasks to find priorities for. They are not changed.
+	 * @return The tasks, from the highest priority to the lowest.
+	 */
+	public List<Task> assignPriorities(Collection<Task> tasks) {
+		int n = tasks.size();
+		// tasks without a priority yet, in order of decreasing deadline
+		List<Task> sorted = new ArrayList<Task>(tasks);
+		Collections.sort(sorted, new Comparator<Task>() {
+			@Override
+			public int compare(Task t1, Task t2) {
+				if (t1.getDeadline() != t2.getDeadline())  return t2.getDeadline() - t1.getDeadline();
+				return t2.getPeriod() - t1.getPeriod();
+			}
+		});
+		double[] period = new double[n], deadline = new double[n], executionTime = new double[n];
+		int[] unassigned = new int[n];
+		double totalExecutionTime = 0, totalUtilization = 0;
+		for (int i = 0; i < n; i++) {
+			Task t = sorted.get(i);
+			period[i] = t.getPeriod();
+			deadline[i] = t.getDeadline();
+			executionTime[i] = t.getExecutionTime();
+			unassigned[i] = i;
+			totalExecutionTime += executionTime[i];
+			totalUtilization += executionTime[i] / period[i];
+		}
+		// work released before its deadline by all tasks, including itself
+		double[] work = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				work[i] += Math.ceil(deadline[i] / period[j] - DELTA) * executionTime[j];
+			}
+		}
+
+		// assign priorities from the lowest up
+		priorities.clear();
+		List<Task> order = new ArrayList<Task>(n);
+		int left = n;
+		while (left > 0) {
+			int chosen = -1;
+			for (int k = 0; k < left && chosen < 0; k++) {
+				int i = unassigned[k];
+				// the task itself releases one job before its deadline, not more
+				double interference = work[i] - Math.ceil(deadline[i] / period[i] - DELTA) * executionTime[i];
+				if (executionTime[i] + interference <= deadline[i] + DELTA) {
+					chosen = k;
+				} else if (executionTime[i] <= deadline[i] * (1 - totalUtilization + executionTime[i] / period[i])
+						+ DELTA && meetsDeadline(i, unassigned, left, period, deadline, executionTime,
+						totalExecutionTime)) {
+					chosen = k;
+				}
+			}
+			if (chosen < 0)  break;
+
+			int i = unassigned[chosen];
+			System.arraycopy(unassigned, chosen + 1, unassigned, chosen, left - chosen - 1);
+			left--;
+			totalExecutionTime -= executionTime[i];
+			totalUtilization -= executionTime[i] / period[i];
+			for (int k = 0; k < left; k++) {
+				int j = unassigned[k];
+				work[j] -= Math.ceil(deadline[j] / period[i] - DELTA) * executionTime[i];
+			}
+			priorities.put(sorted.get(i), n - left);
+			order.add(sorted.get(i));
+		}
+
+		// tasks that did not get a priority go first, in DM order
+		feasible = (left == 0);
+		for (int k = 0; k < left; k++) {
+			priorities.put(sorted.get(unassigned[k]), n + k + 1);
+			order.add(sorted.get(unassigned[k]));
+		}
+		Collections.reverse(order);
+		return order;
+	}
+
+	/**
+	 * Return if a task meets its deadline when all tasks without a priority
+	 * yet can preempt it, with response time analysis that stops as soon as
+	 * the response time exceeds the deadline.
+	 */
+	private static boolean meetsDeadline(int i, int[] unassigned, int left, double[] period, double[] deadline,
+			double[] executionTime, double totalExecutionTime) {
+		double r = totalExecutionTime;
+		while (r <= deadline[i] + DELTA) {
+			double next = executionTime[i];
+			for (int k = 0; k < left; k++) {
+				int j = unassigned[k];
+				if (j != i)  next += Math.ceil(r / period[j] - DELTA) * executionTime[j];
+			}
+			if (next <= r + DELTA)  return true;
+			r = next;
+		}
+		return false;
+	}
+}
@@ -5,13 +5,18 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
+import model.ProgressMonitor;
 import model.Schedule;
 import model.SchedulerAlgorithm;
 import model.Task;
 import model.TaskExecutionTime;
 import model.TaskInstance;
 import model.Utils;
+import model.metrics.Metrics;
+import model.metrics.PhaseTimer;
+import model.metrics.SimulationCounters;
 
 /**
  * An abstract class used to create Dynamic Priority schedulers.
@@ -21,12 +26,19 @@ import model.Utils;
  */
 public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 	
+	/** Number of steps of the simulation between two progress reports. */
+	private static final int PROGRESS_INTERVAL = 1024;
+	
 	/** If the priority of every task should be refreshed every tick, or
 	 *  only when a new job is added to the system.
 	 */
 	private boolean updatePriorityEveryTick = false;
 	/** The set of tasks that is scheduled. */
 	List<Task> tasksToBeScheduled;
+	/** Monitor that is informed about progress, if any. */
+	private ProgressMonitor progressMonitor = null;
+	/** Time up to which schedules are created, or 0 to create a whole hyperperiod. */
+	private int horizon = 0;
 	
 	/**
 	 * Return if the priority of every task is refreshed every tick ({@code true}),
@@ -58,16 +70,66 @@ public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 	 */
 	protected abstract int getPriority(Task task, double time);
 
+	/**
+	 * Set the monitor that is informed about the progress of creating a
+	 * schedule, and that can cancel it.
+	 * 
+	 * @param monitor Monitor to use, or {@code null} to not use one.
+	 */
+	public void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Set the time up to which schedules are created. When it is shorter than
+	 * the hyperperiod, the schedule stops there, and only deadlines up to it
+	 * are checked.
+	 * 
+	 * @param horizon Time to stop at, or 0 to create a whole hyperperiod.
+	 */
+	public void setHorizon(int horizon) {
+		this.horizon = horizon;
+	}
+
 	/**
 	 * Create a schedule for the given set of tasks.
 	 * 
 	 * @param tasks The set of tasks to be scheduled.
 	 */
 	public Schedule createSchedule(Set<Task> tasks) {
+		PhaseTimer timer = Metrics.start(Metrics.Phase.SIMULATE);
+		SimulationCounters counters = new SimulationCounters();
+		try {
+			return simulate(tasks, counters);
+		} finally {
+			timer.stop();
+			Metrics.record(getClass().getSimpleName(), tasks.size(), counters);
+		}
+	}
+
+	/**
+	 * Simulate the scheduler on the given set of tasks.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param counters Counters of the simulation, which are updated.
+	 * @return A schedule for the given set of tasks.
+	 */
+	private Schedule simulate(Set<Task> tasks, SimulationCounters counters) {
 		// set tasks
 		this.tasksToBeScheduled = Arrays.asList(tasks.toArray(new Task[] {}));
-		// the cyclus of this task set
-		int lcm = Utils.lcm(tasks);
+		// the cyclus of this task set, or the part of it that is asked for
+		int lcm;
+		boolean cutOff = false;
+		try {
+			lcm = Utils.lcm(tasks);
+		} catch (ArithmeticException e) {
+			if (horizon <= 0)  throw e;
+			lcm = Integer.MAX_VALUE;
+		}
+		if (horizon > 0 && horizon < lcm) {
+			lcm = horizon;
+			cutOff = true;
+		}
 
 		// the final schedule
 		List<TaskInstance> schedule = new ArrayList<TaskInstance>();
@@ -76,13 +138,23 @@ public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 		PriorityQueue<TaskExecutionTime> taskQueue = new PriorityQueue<TaskExecutionTime>();
 		for (Task t : tasks) {
 			t.setPriority(getPriority(t, 0));
-			taskQueue.add(new TaskExecutionTime(t));
+			taskQueue.add(new TaskExecutionTime(t, 0));
 		}
+		counters.priorityRecomputations += tasks.size();
+		counters.queueInsertions += tasks.size();
 		
 		double sysTime = 0;
 		double newSysTime = 0;
 		TaskExecutionTime te;
+		TaskExecutionTime lastTE = null;
+		int steps = 0;
 		while (sysTime < lcm) {
+			// Every now and then, report progress and check if we should stop
+			if (progressMonitor != null && (++steps % PROGRESS_INTERVAL) == 0) {
+				reportProgress(sysTime, lcm);
+			}
+			counters.steps++;
+
 			// Refresh the priority of all tasks in the queue by calling 'getPriority' again.
 			// Only do this when it is switched on, as it is bad for performance.
 			if (updatePriorityEveryTick) {
@@ -92,6 +164,9 @@ public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 					tmpTE.getTask().setPriority(getPriority(tmpTE.getTask(), sysTime));
 					taskQueue.add(tmpTE);
 				}
+				counters.queueRemovals += tmpTaskQueueArr.length;
+				counters.queueInsertions += tmpTaskQueueArr.length;
+				counters.priorityRecomputations += tmpTaskQueueArr.length;
 			}
 				
 			// If the queue is empty, skip to the time when a task becomes available
@@ -116,54 +191,79 @@ public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 					if (t.equals(minStartTask))  continue; // skip task we are going to add later
 					double nextExecution = sysTime - (sysTime % t.getPeriod()) + t.getPeriod();
 					if (nextExecution == minStartTime) {
-						t.setPriority(getPriority(t, newSysTime));
-						taskQueue.add(new TaskExecutionTime(t));
+						t.setPriority(getPriority(t, minStartTime));
+						taskQueue.add(new TaskExecutionTime(t, (int) minStartTime));
+						counters.priorityRecomputations++;
+						counters.queueInsertions++;
 					}
 				}
 				
 				// Skip to task, jaj.
 				sysTime = minStartTime;
-				minStartTask.setPriority(getPriority(minStartTask, newSysTime));
-				taskQueue.add(new TaskExecutionTime(minStartTask));
+				minStartTask.setPriority(getPriority(minStartTask, minStartTime));
+				taskQueue.add(new TaskExecutionTime(minStartTask, (int) minStartTime));
+				counters.priorityRecomputations++;
+				counters.queueInsertions++;
 			}
 			
 			// Get a task from the queue, let it execute
 			te = taskQueue.peek();
+			if (lastTE != null && te.getTask() != lastTE.getTask())  counters.contextSwitches++;
+			if (lastTE != null && te != lastTE && lastTE.getExecutionTimeLeft() >= TaskExecutionTime.DELTA) {
+				counters.preemptions++;
+			}
+			lastTE = te;
 			newSysTime = sysTime + te.execute(getMaxExecutionTimeAt(te.getTask(), sysTime));
-			schedule.add(new TaskInstance(te.getTask(), sysTime, newSysTime));
-			// Remove the task from the queue if it is done with its execution
+			// only a horizon before the end of the cycle cuts off an instance
+			schedule.add(new TaskInstance(te.getTask(), sysTime, Math.min(newSysTime, lcm)));
+			counters.instancesEmitted++;
+			// Remove the task from the queue if it is done with its execution,
+			// unless it finished after the deadline of its job (allowing for
+			// rounding errors)
 			if (te.getExecutionTimeLeft() < TaskExecutionTime.DELTA) {
+				if (te.getAbsoluteDeadline() < newSysTime - 1e-9) {
+					return new Schedule(schedule, te.getTask(), te.getAbsoluteDeadline(), 1);
+				}
 				taskQueue.poll();
+				counters.queueRemovals++;
 			}
 			// If the deadline is passed after execution of the task,
 			// we have a deadline miss and thus return the schedule so
 			// far, that is not feasible.
 			for (TaskExecutionTime tmpTE : taskQueue) {
-				if (tmpTE.getTask().getAbsoluteDeadline(sysTime) < newSysTime) {
-					return new Schedule(schedule, tmpTE.getTask());
+				if (tmpTE.getAbsoluteDeadline() < newSysTime) {
+					return new Schedule(schedule, tmpTE.getTask(), tmpTE.getAbsoluteDeadline(), 1);
 				}
 			}
 			// If a task becomes available while executing this task,
 			// add the new task(s) to the queue
 			for (Task t : tasks) {
 				/* We check if a new period lies within the interval (sysTime, newSysTime].
-				 * We do this by looking at the old and new systime modulo the task period.
+				 * We do this by looking at the number of whole periods of the task before
+				 * the old and new system time.
 				 * 
 				 * Now, if the old system time is before a "start of a period" of the task
-				 * and the new system time is after that start of a  period, then after this
-				 * calculation the result of the old system time will suddenly be greater
-				 * than the result of the new system time.
+				 * and the new system time is at or after that start of a period, then the
+				 * new system time will suddenly be in a later period. Unlike comparing the
+				 * times modulo the period, this also sees a step of a whole period.
 				 */
-				if (sysTime % t.getPeriod() > newSysTime % t.getPeriod() && newSysTime < lcm) {
+				double periods = Math.floor(newSysTime / t.getPeriod());
+				if (periods > Math.floor(sysTime / t.getPeriod()) && newSysTime <= lcm) {
+					int release = (int) periods * t.getPeriod();
 					// If the task is still in the queue, we have a deadline miss!
+					// This is also checked at the end of the cycle, where all
+					// tasks are released again.
 					for(TaskExecutionTime tmpTE : taskQueue) {
 						if (tmpTE.getTask().equals(t)) {
-							return new Schedule(schedule, t);
+							return new Schedule(schedule, t, Math.min(tmpTE.getAbsoluteDeadline(), release), 1);
 						}
 					}
+					if (newSysTime == lcm)  continue;
 					
 					t.setPriority(getPriority(t, newSysTime));
-					taskQueue.add(new TaskExecutionTime(t));
+					taskQueue.add(new TaskExecutionTime(t, release));
+					counters.priorityRecomputations++;
+					counters.queueInsertions++;
 				}
 			}
 			sysTime = newSysTime;
@@ -172,14 +272,40 @@ public abstract class DynamicPriorityScheduler implements SchedulerAlgorithm {
 		// we are not scheduling anymore
 		this.tasksToBeScheduled = null;
 
-		// if there is still a task to be scheduled, we have a deadline miss per definition
-		if (!taskQueue.isEmpty()) {
-			return new Schedule(schedule, taskQueue.peek().getTask());
+		// if there is still a task to be scheduled, we have a deadline miss per definition,
+		// unless the schedule is cut off before the deadline of its job
+		TaskExecutionTime missed = taskQueue.peek();
+		if (cutOff && missed != null && missed.getAbsoluteDeadline() > lcm) {
+			missed = null;
+			for (TaskExecutionTime tmpTE : taskQueue) {
+				if (tmpTE.getAbsoluteDeadline() <= lcm
+						&& (missed == null || tmpTE.getAbsoluteDeadline() < missed.getAbsoluteDeadline())) {
+					missed = tmpTE;
+				}
+			}
+		}
+		if (missed != null) {
+			return new Schedule(schedule, missed.getTask(), Math.min(missed.getAbsoluteDeadline(), lcm), 1);
 		}
 		
 		return new Schedule(schedule);
 	}
 
+	/**
+	 * Inform the progress monitor about progress, and stop if it says so.
+	 * 
+	 * @param sysTime Current system time.
+	 * @param lcm Time up to which the schedule is created.
+	 * @throws CancellationException If the progress monitor cancels.
+	 */
+	private void reportProgress(double sysTime, int lcm) {
+		if (progressMonitor.isCanceled()) {
+			this.tasksToBeScheduled = null;
+			throw new CancellationException("Creating schedule was canceled at time " + sysTime);
+		}
+		progressMonitor.progress(sysTime, lcm);
+	}
+
 	/**
 	 * Given the time and tasks that are being scheduled now in
 	 * {@code tasksToBeScheduled}, give the time you can let a
@@ -0,0 +1,28 @@
+package model.scheduleralgorithms;
+
+import model.Task;
+
+/**
+ * Global DM, for Deadline Monotonic, schedules tasks on more than one core
+ * using the deadlines of tasks: the shorter a relative deadline of a task
+ * is, the higher its priority is.
+ * 
+ * @author Thom Castermans
+ */
+public class GlobalDeadlineMonotonic extends GlobalScheduler {
+
+	/**
+	 * Create a scheduler for the given number of cores.
+	 * 
+	 * @param numCores Number of cores, at least 1.
+	 */
+	public GlobalDeadlineMonotonic(int numCores) {
+		super(numCores);
+	}
+
+	@Override
+	protected int getPriority(Task task, int release) {
+		return -task.getDeadline();
+	}
+
+}
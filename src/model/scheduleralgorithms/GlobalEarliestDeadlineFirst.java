@@ -0,0 +1,28 @@
+package model.scheduleralgorithms;
+
+import model.Task;
+
+/**
+ * Global EDF, for Earliest Deadline First, schedules jobs on more than one
+ * core using their deadlines: the earlier the absolute deadline of a job
+ * is, the higher its priority is.
+ * 
+ * @author Thom Castermans
+ */
+public class GlobalEarliestDeadlineFirst extends GlobalScheduler {
+
+	/**
+	 * Create a scheduler for the given number of cores.
+	 * 
+	 * @param numCores Number of cores, at least 1.
+	 */
+	public GlobalEarliestDeadlineFirst(int numCores) {
+		super(numCores);
+	}
+
+	@Override
+	protected int getPriority(Task task, int release) {
+		return -(release + task.getDeadline());
+	}
+
+}
@@ -0,0 +1,28 @@
+package model.scheduleralgorithms;
+
+import model.Task;
+
+/**
+ * Global RM, for Rate Monotonic, schedules tasks on more than one core
+ * using the periods of tasks: the shorter a period of a task is, the higher
+ * its priority is.
+ * 
+ * @author Thom Castermans
+ */
+public class GlobalRateMonotonic extends GlobalScheduler {
+
+	/**
+	 * Create a scheduler for the given number of cores.
+	 * 
+	 * @param numCores Number of cores, at least 1.
+	 */
+	public GlobalRateMonotonic(int numCores) {
+		super(numCores);
+	}
+
+	@Override
+	protected int getPriority(Task task, int release) {
+		return -task.getPeriod();
+	}
+
+}
@@ -0,0 +1,412 @@
+package model.scheduleralgorithms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import model.ProgressMonitor;
+import model.Schedule;
+import model.SchedulerAlgorithm;
+import model.Task;
+import model.TaskInstance;
+import model.Utils;
+import model.metrics.Metrics;
+import model.metrics.PhaseTimer;
+import model.metrics.SimulationCounters;
+
+/**
+ * An abstract class used to create global schedulers on more than one core:
+ * at any time, the jobs with the highest priorities run, one per core, and
+ * a job may continue on another core after it is preempted. Every job gets
+ * a priority when it is released, which covers both fixed priorities (RM,
+ * DM) and EDF.
+ * 
+ * <p>Unlike the uniprocessor schedulers, which advance time in steps of at
+ * most one time unit, the simulation jumps from event to event: releases,
+ * completions and deadlines. Waiting jobs are kept in a ready heap with the
+ * highest priority first, and running jobs in a running heap with the
+ * lowest priority first, so that deciding whether a released job preempts a
+ * running one is a matter of comparing both tops. Every event costs
+ * O(log n) time, also for many cores.
+ * 
+ * <p>As in the uniprocessor schedulers, a job that is not done when the
+ * next job of its task is released has missed its deadline.
+ * 
+ * @author Thom Castermans
+ */
+public abstract class GlobalScheduler implements SchedulerAlgorithm {
+
+	/** Number of events of the simulation between two progress reports. */
+	private static final int PROGRESS_INTERVAL = 1024;
+	/** Tolerance used when comparing times. */
+	private static final double DELTA = 1e-9;
+
+	/** Orders jobs by priority, highest first, then by release and task name. */
+	private static final Comparator<Job> HIGHEST_PRIORITY_FIRST = new Comparator<Job>() {
+		@Override
+		public int compare(Job j1, Job j2) {
+			if (j1.priority != j2.priority)  return (j1.priority > j2.priority ? -1 : 1);
+			if (j1.release != j2.release)  return (j1.release < j2.release ? -1 : 1);
+			return j1.task.getName().compareTo(j2.task.getName());
+		}
+	};
+	/** Orders entries of running jobs by priority, lowest first. */
+	private static final Comparator<Entry> LOWEST_PRIORITY_FIRST = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return HIGHEST_PRIORITY_FIRST.compare(e2.job, e1.job);
+		}
+	};
+	/** Orders entries by time, earliest first. */
+	private static final Comparator<Entry> EARLIEST_FIRST = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return Double.compare(e1.time, e2.time);
+		}
+	};
+	/** Orders jobs by absolute deadline, earliest first. */
+	private static final Comparator<Job> EARLIEST_DEADLINE_FIRST = new Comparator<Job>() {
+		@Override
+		public int compare(Job j1, Job j2) {
+			return (j1.deadline < j2.deadline ? -1 : (j1.deadline == j2.deadline ? 0 : 1));
+		}
+	};
+	/** Orders jobs by release, earliest first, then by task name. */
+	private static final Comparator<Job> EARLIEST_RELEASE_FIRST = new Comparator<Job>() {
+		@Override
+		public int compare(Job j1, Job j2) {
+			if (j1.release != j2.release)  return (j1.release < j2.release ? -1 : 1);
+			return j1.task.getName().compareTo(j2.task.getName());
+		}
+	};
+
+	/** Number of cores. */
+	private final int numCores;
+	/** Monitor that is informed about progress, if any. */
+	private ProgressMonitor progressMonitor = null;
+
+	/**
+	 * Create a scheduler for the given number of cores.
+	 * 
+	 * @param numCores Number of cores, at least 1.
+	 */
+	protected GlobalScheduler(int numCores) {
+		if (numCores < 1)  throw new IllegalArgumentException("number of cores should be positive");
+		this.numCores = numCores;
+	}
+
+	/**
+	 * Assigns a priority to a job of a task. A higher priority will be
+	 * scheduled first.
+	 * 
+	 * @param task The Task of the job.
+	 * @param release Time at which the job is released.
+	 * @return A priority for the job.
+	 */
+	protected abstract int getPriority(Task task, int release);
+
+	/**
+	 * Return the number of cores that tasks are scheduled on.
+	 * 
+	 * @return Number of cores.
+	 */
+	public int getNumCores() {
+		return numCores;
+	}
+
+	/**
+	 * Set the monitor that is informed about the progress of creating a
+	 * schedule, and that can cancel it.
+	 * 
+	 * @param monitor Monitor to use, or {@code null} to not use one.
+	 */
+	public void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Create a schedule for the given set of tasks.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 */
+	public Schedule createSchedule(Set<Task> tasks) {
+		PhaseTimer timer = Metrics.start(Metrics.Phase.SIMULATE);
+		SimulationCounters counters = new SimulationCounters();
+		try {
+			return new Simulation(tasks, counters).run();
+		} finally {
+			timer.stop();
+			Metrics.record(getClass().getSimpleName(), tasks.size(), counters);
+		}
+	}
+
+	/**
+	 * A job: an instance of a task that is released at some time.
+	 */
+	private static class Job {
+		final Task task;
+		final int release;
+		final int deadline;
+		final int priority;
+		/** Execution time left at {@link #runStart}. */
+		double remaining;
+		/** Core the job runs on, or -1 if it does not run. */
+		int core = -1;
+		/** Time at which the job started running on its core. */
+		double runStart;
+		/** Incremented whenever the job starts or stops running, to invalidate entries. */
+		long stamp = 0;
+		boolean done = false;
+
+		Job(Task task, int release, int priority) {
+			this.task = task;
+			this.release = release;
+			this.deadline = task.getAbsoluteDeadline(release);
+			this.priority = priority;
+			this.remaining = task.getExecutionTime();
+		}
+	}
+
+	/**
+	 * Entry of a running job in a heap. Entries are not removed when the job
+	 * stops running, but are skipped when they come on top of the heap.
+	 */
+	private static class Entry {
+		final Job job;
+		final long stamp;
+		/** Time at which the entry is due, for the heap of completions. */
+		final double time;
+
+		Entry(Job job, double time) {
+			this.job = job;
+			this.stamp = job.stamp;
+			this.time = time;
+		}
+
+		boolean isValid() {
+			return job.stamp == stamp;
+		}
+	}
+
+	/**
+	 * The state of simulating the scheduler on a set of tasks.
+	 */
+	private class Simulation {
+
+		private final Set<Task> tasks;
+		private final SimulationCounters counters;
+		private final int lcm;
+		private final List<TaskInstance> schedule = new ArrayList<TaskInstance>();
+
+		/** Next job of every task, by release. */
+		private final PriorityQueue<Job> releases = new PriorityQueue<Job>(11, EARLIEST_RELEASE_FIRST);
+		/** Released jobs that wait for a core. */
+		private final PriorityQueue<Job> ready = new PriorityQueue<Job>(11, HIGHEST_PRIORITY_FIRST);
+		/** Running jobs, lowest priority first. */
+		private final PriorityQueue<Entry> running = new PriorityQueue<Entry>(11, LOWEST_PRIORITY_FIRST);
+		/** Times at which running jobs are done. */
+		private final PriorityQueue<Entry> completions = new PriorityQueue<Entry>(11, EARLIEST_FIRST);
+		/** Released jobs, earliest deadline first. */
+		private final PriorityQueue<Job> deadlines = new PriorityQueue<Job>(11, EARLIEST_DEADLINE_FIRST);
+		/** Cores without a job, lowest index first. */
+		private final PriorityQueue<Integer> freeCores = new PriorityQueue<Integer>();
+		/** Last released job of every task. */
+		private final Map<Task, Job> current = new HashMap<Task, Job>();
+
+		Simulation(Set<Task> tasks, SimulationCounters counters) {
+			this.tasks = tasks;
+			this.counters = counters;
+			this.lcm = Utils.lcm(tasks);
+		}
+
+		Schedule run() {
+			for (Task t : tasks) {
+				releases.add(new Job(t, 0, getPriority(t, 0)));
+			}
+			counters.priorityRecomputations += tasks.size();
+			for (int c = 0; c < numCores; c++) {
+				freeCores.add(c);
+			}
+
+			Task missed = null;
+			int missedAt = -1;
+			double time = 0;
+			while (missed == null) {
+				// Every now and then, report progress and check if we should stop
+				counters.steps++;
+				if (progressMonitor != null && counters.steps % PROGRESS_INTERVAL == 0) {
+					reportProgress(time);
+				}
+
+				// Jump to the next event
+				double next = (releases.isEmpty() ? Double.MAX_VALUE : releases.peek().release);
+				Entry completion = peekValid(completions);
+				if (completion != null)  next = Math.min(next, completion.time);
+				Job deadline = peekUndone(deadlines);
+				if (deadline != null)  next = Math.min(next, deadline.deadline);
+				if (next > lcm) {
+					time = lcm;
+					break;
+				}
+				time = next;
+
+				// Jobs that are done free their core
+				while ((completion = peekValid(completions)) != null && completion.time <= time + DELTA) {
+					completions.poll();
+					Job job = completion.job;
+					stop(job, time);
+					job.done = true;
+				}
+				// A job that is not done at its deadline misses it
+				deadline = peekUndone(deadlines);
+				if (deadline != null && deadline.deadline <= time) {
+					missed = deadline.task;
+					missedAt = deadline.deadline;
+					break;
+				}
+				// Jobs released at the end of the cycle are not scheduled
+				if (time >= lcm)  break;
+
+				// Release jobs
+				while (!releases.isEmpty() && releases.peek().release <= time) {
+					Job job = releases.poll();
+					Job previous = current.get(job.task);
+					if (previous != null && !previous.done) {
+						missed = job.task;
+						missedAt = Math.min(previous.deadline, job.release);
+						break;
+					}
+					current.put(job.task, job);
+					ready.add(job);
+					counters.queueInsertions++;
+					deadlines.add(job);
+					int nextRelease = job.release + job.task.getPeriod();
+					releases.add(new Job(job.task, nextRelease, getPriority(job.task, nextRelease)));
+					counters.priorityRecomputations++;
+				}
+				if (missed == null)  dispatch(time);
+			}
+
+			// Close the instances of jobs that are still running
+			Entry entry;
+			while ((entry = peekValid(running)) != null) {
+				stop(entry.job, time);
+			}
+			// if there is still a job to be done, we have a deadline miss per definition
+			if (missed == null) {
+				for (Task t : tasks) {
+					if (current.containsKey(t) && !current.get(t).done) {
+						missed = t;
+						missedAt = Math.min(current.get(t).deadline, lcm);
+						break;
+					}
+				}
+			}
+			return new Schedule(schedule, missed, missedAt, numCores);
+		}
+
+		/**
+		 * Let the jobs with the highest priority run: first on free cores, then
+		 * by preempting running jobs with lower priority.
+		 * 
+		 * @param time Current time.
+		 */
+		private void dispatch(double time) {
+			while (!ready.isEmpty() && !freeCores.isEmpty()) {
+				start(ready.poll(), freeCores.poll(), time);
+				counters.queueRemovals++;
+			}
+			Entry lowest;
+			while (!ready.isEmpty() && (lowest = peekValid(running)) != null
+					&& ready.peek().priority > lowest.job.priority) {
+				// the preempted job frees the only free core, which the top job takes
+				Job preempted = lowest.job;
+				stop(preempted, time);
+				ready.add(preempted);
+				counters.queueInsertions++;
+				counters.preemptions++;
+				start(ready.poll(), freeCores.poll(), time);
+				counters.queueRemovals++;
+			}
+		}
+
+		/**
+		 * Let a job run on a core from the given time.
+		 * 
+		 * @param job Job to run.
+		 * @param core Core to run on.
+		 * @param time Current time.
+		 */
+		private void start(Job job, int core, double time) {
+			job.core = core;
+			job.runStart = time;
+			job.stamp++;
+			running.add(new Entry(job, time));
+			completions.add(new Entry(job, time + job.remaining));
+			counters.contextSwitches++;
+			// stale entries of jobs that stopped do not come on top of the
+			// running heap when their priority is high, so clean up now and then
+			if (running.size() > 4 * numCores + 16)  compactRunning();
+		}
+
+		/**
+		 * Stop running a job at the given time and add the instance it ran.
+		 * Its core becomes free.
+		 * 
+		 * @param job Job to stop.
+		 * @param time Current time.
+		 */
+		private void stop(Job job, double time) {
+			if (time > job.runStart) {
+				schedule.add(new TaskInstance(job.task, job.runStart, time, job.core));
+				counters.instancesEmitted++;
+			}
+			job.remaining = Math.max(0, job.remaining - (time - job.runStart));
+			job.runStart = time;
+			freeCores.add(job.core);
+			job.core = -1;
+			job.stamp++;
+		}
+
+		private Entry peekValid(PriorityQueue<Entry> heap) {
+			while (!heap.isEmpty() && !heap.peek().isValid()) {
+				heap.poll();
+			}
+			return heap.peek();
+		}
+
+		private Job peekUndone(PriorityQueue<Job> heap) {
+			while (!heap.isEmpty() && heap.peek().done) {
+				heap.poll();
+			}
+			return heap.peek();
+		}
+
+		private void compactRunning() {
+			List<Entry> valid = new ArrayList<Entry>(numCores);
+			for (Entry e : running) {
+				if (e.isValid())  valid.add(e);
+			}
+			running.clear();
+			running.addAll(valid);
+		}
+
+		/**
+		 * Inform the progress monitor about progress, and stop if it says so.
+		 * 
+		 * @param time Current time.
+		 * @throws CancellationException If the progress monitor cancels.
+		 */
+		private void reportProgress(double time) {
+			if (progressMonitor.isCanceled()) {
+				throw new CancellationException("Creating schedule was canceled at time " + time);
+			}
+			progressMonitor.progress(time, lcm);
+		}
+	}
+}
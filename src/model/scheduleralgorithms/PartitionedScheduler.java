@@ -0,0 +1,276 @@
+package model.scheduleralgorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ProgressMonitor;
+import model.Schedule;
+import model.SchedulerAlgorithm;
+import model.Task;
+import model.TaskInstance;
+import model.Utils;
+import model.analysis.AnalysisResult;
+import model.analysis.AnalysisResult.Verdict;
+import model.analysis.SchedulabilityAnalysis;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+
+/**
+ * Schedules tasks on more than one core by partitioning: every task is
+ * assigned to a single core, and every core schedules its own tasks with a
+ * uniprocessor algorithm. As cores do not share tasks, their schedules are
+ * created in parallel and merged afterwards.
+ * 
+ * <p>Tasks are assigned in order of decreasing utilization, to the first,
+ * the fullest or the emptiest core that admits them, see {@link Heuristic}.
+ * A core admits a task if {@link SchedulabilityAnalysis} says the task and
+ * the tasks already on the core are feasible. If the test cannot decide,
+ * the tasks of the core are simulated instead. A task that no core admits
+ * is assigned to the emptiest core, where it misses a deadline.
+ * 
+ * @author Thom Castermans
+ */
+public class PartitionedScheduler implements SchedulerAlgorithm {
+
+	/** Ways to choose the core of a task. */
+	public static enum Heuristic {
+		/** First-fit decreasing: the core with the lowest index that admits the task. */
+		FIRST_FIT,
+		/** Best-fit decreasing: the core with the highest utilization that admits the task. */
+		BEST_FIT,
+		/** Worst-fit decreasing: the core with the lowest utilization that admits the task. */
+		WORST_FIT
+	}
+
+	/** Orders tasks by utilization, highest first, then by name. */
+	private static final Comparator<Task> DECREASING_UTILIZATION = new Comparator<Task>() {
+		@Override
+		public int compare(Task t1, Task t2) {
+			int c = Double.compare(t2.getExecutionTime() / t2.getPeriod(), t1.getExecutionTime() / t1.getPeriod());
+			return (c != 0 ? c : t1.getName().compareTo(t2.getName()));
+		}
+	};
+
+	private final SUPPORTED_SCHEDULING_ALGORITHMS algorithm;
+	private final int numCores;
+	private final Heuristic heuristic;
+	/** Monitor that is informed about progress, if any. */
+	private ProgressMonitor progressMonitor = null;
+
+	/**
+	 * Create a scheduler that partitions tasks over the given number of cores.
+	 * 
+	 * @param algorithm Algorithm that schedules the tasks on every core.
+	 * @param numCores Number of cores, at least 1.
+	 * @param heuristic Way to choose the core of a task.
+	 */
+	public PartitionedScheduler(SUPPORTED_SCHEDULING_ALGORITHMS algorithm, int numCores, Heuristic heuristic) {
+		if (numCores < 1)  throw new IllegalArgumentException("number of cores should be positive");
+		this.algorithm = algorithm;
+		this.numCores = numCores;
+		this.heuristic = heuristic;
+	}
+
+	/**
+	 * Set the monitor that is informed about the progress of creating a
+	 * schedule, and that can cancel it. The schedules of the cores are created
+	 * at the same time, so the monitor is called from several threads.
+	 * 
+	 * @param monitor Monitor to use, or {@code null} to not use one.
+	 */
+	public void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Assign the given tasks to cores.
+	 * 
+	 * @param tasks Tasks to assign.
+	 * @return The tasks of every core, by index of the core. Some cores may
+	 *         have no tasks.
+	 */
+	public List<Set<Task>> partition(Set<Task> tasks) {
+		List<Task> sorted = new ArrayList<Task>(tasks);
+		Collections.sort(sorted, DECREASING_UTILIZATION);
+
+		List<Set<Task>> partitions = new ArrayList<Set<Task>>(numCores);
+		double[] utilizations = new double[numCores];
+		for (int k = 0; k < numCores; k++) {
+			partitions.add(new LinkedHashSet<Task>());
+		}
+		for (Task t : sorted) {
+			int chosen = -1;
+			for (int k = 0; k < numCores; k++) {
+				if (chosen >= 0 && !isBetter(utilizations[k], utilizations[chosen]))  continue;
+				if (admits(partitions.get(k), t)) {
+					chosen = k;
+					if (heuristic == Heuristic.FIRST_FIT)  break;
+				}
+			}
+			if (chosen < 0) {
+				// no core admits the task, so it will miss a deadline on any core
+				chosen = 0;
+				for (int k = 1; k < numCores; k++) {
+					if (utilizations[k] < utilizations[chosen])  chosen = k;
+				}
+			}
+			partitions.get(chosen).add(t);
+			utilizations[chosen] += t.getExecutionTime() / t.getPeriod();
+		}
+		return partitions;
+	}
+
+	/**
+	 * Test the given tasks with the partitioning of {@link #partition(Set)}:
+	 * they are feasible if the test of every core says the tasks of the core
+	 * are. Otherwise, the test cannot decide, as the tasks may have been
+	 * assigned by simulating them, or another partitioning may work.
+	 * 
+	 * @param tasks Tasks to test.
+	 * @return Outcome of the test, {@link Verdict#FEASIBLE} or
+	 *         {@link Verdict#UNKNOWN}.
+	 */
+	public AnalysisResult analyze(Set<Task> tasks) {
+		double u = SchedulabilityAnalysis.utilization(tasks);
+		List<Set<Task>> partitions = partition(tasks);
+		for (int k = 0; k < partitions.size(); k++) {
+			if (partitions.get(k).isEmpty())  continue;
+			AnalysisResult result = SchedulabilityAnalysis.analyze(partitions.get(k), algorithm);
+			if (result.getVerdict() != Verdict.FEASIBLE) {
+				return new AnalysisResult(Verdict.UNKNOWN, u, "core " + (k + 1) + " is not shown feasible, "
+						+ result.getReason());
+			}
+		}
+		return new AnalysisResult(Verdict.FEASIBLE, u, "every core is feasible after partitioning");
+	}
+
+	/**
+	 * Create a schedule for the given set of tasks: partition them, schedule
+	 * every core at the same time and merge the schedules.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 */
+	public Schedule createSchedule(Set<Task> tasks) {
+		final List<Set<Task>> partitions = partition(tasks);
+		List<Schedule> schedules = new ArrayList<Schedule>(numCores);
+		int numUsed = 0;
+		for (Set<Task> p : partitions) {
+			if (!p.isEmpty())  numUsed++;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.max(1, Math.min(numUsed, Runtime.getRuntime().availableProcessors())));
+		try {
+			List<Future<Schedule>> futures = new ArrayList<Future<Schedule>>(numCores);
+			for (final Set<Task> p : partitions) {
+				if (p.isEmpty()) {
+					futures.add(null);
+					continue;
+				}
+				futures.add(executor.submit(new Callable<Schedule>() {
+					@Override
+					public Schedule call() {
+						return SupportedSchedulers.createSchedule(p, algorithm, progressMonitor);
+					}
+				}));
+			}
+			for (Future<Schedule> f : futures) {
+				schedules.add(f == null ? null : f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while scheduling cores", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return merge(tasks, schedules);
+	}
+
+	/**
+	 * Merge the schedules of the cores into a single schedule. The schedule
+	 * of a core repeats after the LCM of the periods of its own tasks, so it is
+	 * repeated up to the LCM of all tasks, or up to the first deadline miss.
+	 * 
+	 * @param tasks All tasks.
+	 * @param schedules Schedule of every core, or {@code null} for cores
+	 *            without tasks.
+	 * @return Merged schedule.
+	 */
+	private Schedule merge(Set<Task> tasks, List<Schedule> schedules) {
+		Task missed = null;
+		int missedAt = Integer.MAX_VALUE;
+		for (Schedule s : schedules) {
+			if (s == null || s.isFeasible())  continue;
+			int deadline = s.getMissTime();
+			if (missed == null || deadline < missedAt) {
+				missed = s.getMissedTask();
+				missedAt = deadline;
+			}
+		}
+		int horizon = Math.min(Utils.lcm(tasks), missedAt);
+
+		List<TaskInstance> merged = new ArrayList<TaskInstance>();
+		for (int k = 0; k < schedules.size(); k++) {
+			Schedule s = schedules.get(k);
+			if (s == null)  continue;
+			int cycle = s.getLcm();
+			int repeat = (s.isFeasible() ? (int) Math.ceil((double) horizon / cycle) : 1);
+			for (int r = 0; r < repeat; r++) {
+				for (TaskInstance ti : s.getTaskInstances()) {
+					// other cores stop at the first deadline miss on any core
+					if (ti.getStart() + r * cycle >= horizon)  break;
+					merged.add(new TaskInstance(ti.getTask(), ti.getStart() + r * cycle,
+							Math.min(ti.getEnd() + r * cycle, horizon), k));
+				}
+			}
+		}
+		return new Schedule(merged, missed, (missed == null ? -1 : missedAt), numCores);
+	}
+
+	/**
+	 * Return if a core with the first utilization is a better choice than
+	 * one with the second utilization, according to the heuristic.
+	 */
+	private boolean isBetter(double utilization, double chosenUtilization) {
+		switch (heuristic) {
+			case BEST_FIT :
+				return utilization > chosenUtilization;
+			case WORST_FIT :
+				return utilization < chosenUtilization;
+			default :
+				return false;
+		}
+	}
+
+	/**
+	 * Return if the given task can be added to the tasks of a core without
+	 * missing a deadline.
+	 * 
+	 * @param partition Tasks of the core.
+	 * @param task Task to add.
+	 * @return If the core admits the task.
+	 */
+	private boolean admits(Set<Task> partition, Task task) {
+		Set<Task> tasks = new LinkedHashSet<Task>(partition);
+		tasks.add(task);
+		AnalysisResult result = SchedulabilityAnalysis.analyze(tasks, algorithm);
+		switch (result.getVerdict()) {
+			case FEASIBLE :
+				return true;
+			case INFEASIBLE :
+				return false;
+			default :
+				return SupportedSchedulers.createSchedule(tasks, algorithm, progressMonitor).isFeasible();
+		}
+	}
+}
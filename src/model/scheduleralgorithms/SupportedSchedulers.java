@@ -2,6 +2,7 @@ package model.scheduleralgorithms;
 
 import java.util.Set;
 
+import model.ProgressMonitor;
 import model.Schedule;
 import model.Task;
 
@@ -27,7 +28,9 @@ public class SupportedSchedulers {
 		/** Earliest Deadline First scheduling algorithm. */
 		EDF,
 		/** Round Robin scheduling algorithm. */
-		RR
+		RR,
+		/** Fixed priorities found by Audsley's Optimal Priority Assignment. */
+		OPA
 	}
 	
 	private SupportedSchedulers() {
@@ -43,20 +46,161 @@ public class SupportedSchedulers {
 	 *         by the given algorithm.
 	 */
 	public static Schedule createSchedule(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm) {
+		return createSchedule(tasks, algorithm, null);
+	}
+	
+	/**
+	 * Schedule a set of tasks with the given algorithm, informing the given
+	 * monitor about progress.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param algorithm The scheduling algorithm to use.
+	 * @param monitor Monitor that is informed about progress and can cancel
+	 *            scheduling, or {@code null}.
+	 * @return A schedule for the given set of tasks, generated
+	 *         by the given algorithm.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels scheduling.
+	 */
+	public static Schedule createSchedule(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			ProgressMonitor monitor) {
+		return createSchedule(tasks, algorithm, 1, monitor);
+	}
+	
+	/**
+	 * Schedule a set of tasks with the given algorithm on the given number of
+	 * cores, informing the given monitor about progress. On more than one
+	 * core, tasks are scheduled globally (see {@link GlobalScheduler}).
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param algorithm The scheduling algorithm to use.
+	 * @param numCores Number of cores, at least 1.
+	 * @param monitor Monitor that is informed about progress and can cancel
+	 *            scheduling, or {@code null}.
+	 * @return A schedule for the given set of tasks, generated
+	 *         by the given algorithm.
+	 * @throws IllegalArgumentException If the algorithm does not support the
+	 *             given number of cores.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels scheduling.
+	 */
+	public static Schedule createSchedule(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			int numCores, ProgressMonitor monitor) {
+		return createSchedule(tasks, algorithm, numCores, null, monitor);
+	}
+	
+	/**
+	 * Schedule a set of tasks with the given algorithm on the given number of
+	 * cores, informing the given monitor about progress. On more than one
+	 * core, tasks are either scheduled globally (see {@link GlobalScheduler})
+	 * or partitioned over the cores with the given heuristic (see
+	 * {@link PartitionedScheduler}).
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param algorithm The scheduling algorithm to use.
+	 * @param numCores Number of cores, at least 1.
+	 * @param partitioning Heuristic to partition tasks over cores with, or
+	 *            {@code null} to schedule globally.
+	 * @param monitor Monitor that is informed about progress and can cancel
+	 *            scheduling, or {@code null}.
+	 * @return A schedule for the given set of tasks, generated
+	 *         by the given algorithm.
+	 * @throws IllegalArgumentException If the algorithm does not support the
+	 *             given number of cores.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels scheduling.
+	 */
+	public static Schedule createSchedule(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			int numCores, PartitionedScheduler.Heuristic partitioning, ProgressMonitor monitor) {
+		if (numCores > 1 && partitioning != null) {
+			PartitionedScheduler partitioned = new PartitionedScheduler(algorithm, numCores, partitioning);
+			partitioned.setProgressMonitor(monitor);
+			return partitioned.createSchedule(tasks);
+		}
+		if (numCores > 1) {
+			GlobalScheduler global;
+			switch (algorithm) {
+				case DM :
+					global = new GlobalDeadlineMonotonic(numCores);
+					break;
+				case RM :
+					global = new GlobalRateMonotonic(numCores);
+					break;
+				case EDF :
+					global = new GlobalEarliestDeadlineFirst(numCores);
+					break;
+				default :
+					throw new IllegalArgumentException(algorithm + " does not support more than one core");
+			}
+			global.setProgressMonitor(monitor);
+			return global.createSchedule(tasks);
+		}
+		if (numCores < 1)  throw new IllegalArgumentException("number of cores should be positive");
+		return createUniprocessorSchedule(tasks, algorithm, 0, monitor);
+	}
+	
+	/**
+	 * Schedule a set of tasks with the given algorithm on a single core, up to
+	 * the given time only, informing the given monitor about progress. This
+	 * is cheap even when the hyperperiod of the tasks is huge, and can be used
+	 * to preview a schedule. Only deadlines up to the given time are checked,
+	 * so the schedule can be feasible while the tasks are not.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param algorithm The scheduling algorithm to use.
+	 * @param horizon Time up to which to schedule; when it exceeds the
+	 *            hyperperiod, a whole hyperperiod is scheduled.
+	 * @param monitor Monitor that is informed about progress and can cancel
+	 *            scheduling, or {@code null}.
+	 * @return A schedule for the given set of tasks up to the given time,
+	 *         generated by the given algorithm.
+	 * @throws java.util.concurrent.CancellationException If the monitor
+	 *             cancels scheduling.
+	 */
+	public static Schedule createPreview(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			int horizon, ProgressMonitor monitor) {
+		if (horizon <= 0)  throw new IllegalArgumentException("horizon should be positive");
+		return createUniprocessorSchedule(tasks, algorithm, horizon, monitor);
+	}
+	
+	/**
+	 * Schedule a set of tasks with the given algorithm on a single core.
+	 * 
+	 * @param tasks The set of tasks to be scheduled.
+	 * @param algorithm The scheduling algorithm to use.
+	 * @param horizon Time up to which to schedule, or 0 for a hyperperiod.
+	 * @param monitor Monitor that is informed about progress, or {@code null}.
+	 * @return A schedule for the given set of tasks.
+	 */
+	private static Schedule createUniprocessorSchedule(Set<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			int horizon, ProgressMonitor monitor) {
 		// Depending on the algorithm that is chosen, schedule the set of tasks
 		switch (algorithm) {
 			case DM :
 				DeadlineMonotonic dm = new DeadlineMonotonic();
+				dm.setProgressMonitor(monitor);
+				dm.setHorizon(horizon);
 				return dm.createSchedule(tasks);
 			case RM :
 				RateMonotonic rm = new RateMonotonic();
+				rm.setProgressMonitor(monitor);
+				rm.setHorizon(horizon);
 				return rm.createSchedule(tasks);
 			case EDF :
 				EarliestDeadlineFirst edf = new EarliestDeadlineFirst();
+				edf.setProgressMonitor(monitor);
+				edf.setHorizon(horizon);
 				return edf.createSchedule(tasks);
 			case RR :
 				RoundRobin rr = new RoundRobin(1);
+				rr.setProgressMonitor(monitor);
+				rr.setHorizon(horizon);
 				return rr.createSchedule(tasks);
+			case OPA :
+				AudsleyOptimalPriority opa = new AudsleyOptimalPriority();
+				opa.setProgressMonitor(monitor);
+				opa.setHorizon(horizon);
+				return opa.createSchedule(tasks);
 		}
 		// We should never get here, above switch should always cover all available algorithms
 		return null;
@@ -0,0 +1,287 @@
+package output;
+
+/**
+ * An immutable, typed snapshot of {@link OutputIpeOptions}. The options are
+ * parsed once, when the snapshot is created, so that rendering a schedule
+ * does not have to look up and parse option strings over and over again.
+ * 
+ * @author Thom Castermans
+ */
+public final class CompiledOutputIpeOptions {
+
+	private final boolean useColors;
+	private final boolean fill;
+	private final int xAxisNumbering;
+	private final String xAxisPreLabelText;
+	private final String xAxisPostLabelText;
+	private final String yAxisPreLabelText;
+	private final String yAxisPostLabelText;
+	private final int scheduleMaxLength;
+	private final boolean showSchedulerAlgorithm;
+	private final boolean showPropPeriod;
+	private final boolean showPropDeadline;
+	private final boolean showPropExecutionTime;
+	private final int pageWidth;
+	private final boolean pageLayoutViews;
+	private final int levelOfDetail;
+	private final boolean batchPaths;
+	private final int rasterWidth;
+	
+	/**
+	 * Create a snapshot of the given options.
+	 * 
+	 * @param options Options to take a snapshot of.
+	 */
+	CompiledOutputIpeOptions(OutputIpeOptions options) {
+		this.useColors = options.getBooleanOption("useColors");
+		this.fill = options.getBooleanOption("fill");
+		this.xAxisNumbering = options.getIntegerOption("xAxisNumbering");
+		this.xAxisPreLabelText = options.getStringOption("xAxisPreLabelText");
+		this.xAxisPostLabelText = options.getStringOption("xAxisPostLabelText");
+		this.yAxisPreLabelText = options.getStringOption("yAxisPreLabelText");
+		this.yAxisPostLabelText = options.getStringOption("yAxisPostLabelText");
+		this.scheduleMaxLength = options.getIntegerOption("scheduleMaxLength");
+		this.showSchedulerAlgorithm = options.getBooleanOption("showSchedulerAlgorithm");
+		this.showPropPeriod = options.getBooleanOption("showPropPeriod");
+		this.showPropDeadline = options.getBooleanOption("showPropDeadline");
+		this.showPropExecutionTime = options.getBooleanOption("showPropExecutionTime");
+		this.pageWidth = options.getIntegerOption("pageWidth");
+		this.pageLayoutViews = options.getStringOption("pageLayout").equals("views");
+		this.levelOfDetail = options.getIntegerOption("levelOfDetail");
+		this.batchPaths = options.getBooleanOption("batchPaths");
+		this.rasterWidth = options.getIntegerOption("rasterWidth");
+	}
+
+	/**
+	 * Return if tasks should be colored, or drawn in black only.
+	 * 
+	 * @return Value of option "useColors".
+	 */
+	public boolean isUseColors() {
+		return useColors;
+	}
+
+	/**
+	 * Return if blocks should be filled.
+	 * 
+	 * @return Value of option "fill".
+	 */
+	public boolean isFill() {
+		return fill;
+	}
+
+	/**
+	 * Return how many numbers to put along the X-axis.
+	 * 
+	 * @return Value of option "xAxisNumbering".
+	 */
+	public int getXAxisNumbering() {
+		return xAxisNumbering;
+	}
+
+	/**
+	 * Return text to be inserted before labels along the X-axis.
+	 * 
+	 * @return Value of option "xAxisPreLabelText".
+	 */
+	public String getXAxisPreLabelText() {
+		return xAxisPreLabelText;
+	}
+
+	/**
+	 * Return text to be appended after labels along the X-axis.
+	 * 
+	 * @return Value of option "xAxisPostLabelText".
+	 */
+	public String getXAxisPostLabelText() {
+		return xAxisPostLabelText;
+	}
+
+	/**
+	 * Return text to be inserted before labels along the Y-axis.
+	 * 
+	 * @return Value of option "yAxisPreLabelText".
+	 */
+	public String getYAxisPreLabelText() {
+		return yAxisPreLabelText;
+	}
+
+	/**
+	 * Return text to be appended after labels along the Y-axis.
+	 * 
+	 * @return Value of option "yAxisPostLabelText".
+	 */
+	public String getYAxisPostLabelText() {
+		return yAxisPostLabelText;
+	}
+
+	/**
+	 * Return the maximum length of the schedule that is drawn.
+	 * 
+	 * @return Value of option "scheduleMaxLength".
+	 */
+	public int getScheduleMaxLength() {
+		return scheduleMaxLength;
+	}
+
+	/**
+	 * Return if the scheduler algorithm should be shown.
+	 * 
+	 * @return Value of option "showSchedulerAlgorithm".
+	 */
+	public boolean isShowSchedulerAlgorithm() {
+		return showSchedulerAlgorithm;
+	}
+
+	/**
+	 * Return if the period of tasks should be shown.
+	 * 
+	 * @return Value of option "showPropPeriod".
+	 */
+	public boolean isShowPropPeriod() {
+		return showPropPeriod;
+	}
+
+	/**
+	 * Return if the deadline of tasks should be shown.
+	 * 
+	 * @return Value of option "showPropDeadline".
+	 */
+	public boolean isShowPropDeadline() {
+		return showPropDeadline;
+	}
+
+	/**
+	 * Return if the execution time of tasks should be shown.
+	 * 
+	 * @return Value of option "showPropExecutionTime".
+	 */
+	public boolean isShowPropExecutionTime() {
+		return showPropExecutionTime;
+	}
+
+	/**
+	 * Return the width of a page, in time units.
+	 * 
+	 * @return Value of option "pageWidth".
+	 */
+	public int getPageWidth() {
+		return pageWidth;
+	}
+
+	/**
+	 * Return if pages should be output as views of a single page.
+	 * 
+	 * @return If option "pageLayout" equals {@code "views"}.
+	 */
+	public boolean isPageLayoutViews() {
+		return pageLayoutViews;
+	}
+
+	/**
+	 * Return the level of detail, as a percentage of a grid cell.
+	 * 
+	 * @return Value of option "levelOfDetail".
+	 */
+	public int getLevelOfDetail() {
+		return levelOfDetail;
+	}
+
+	/**
+	 * Return if blocks of a task should be batched into a single path.
+	 * 
+	 * @return Value of option "batchPaths".
+	 */
+	public boolean isBatchPaths() {
+		return batchPaths;
+	}
+
+	/**
+	 * Return the width of raster output, in pixels.
+	 * 
+	 * @return Value of option "rasterWidth".
+	 */
+	public int getRasterWidth() {
+		return rasterWidth;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (batchPaths ? 1231 : 1237);
+		result = prime * result + (fill ? 1231 : 1237);
+		result = prime * result + levelOfDetail;
+		result = prime * result + (pageLayoutViews ? 1231 : 1237);
+		result = prime * result + pageWidth;
+		result = prime * result + rasterWidth;
+		result = prime * result + scheduleMaxLength;
+		result = prime * result + (showPropDeadline ? 1231 : 1237);
+		result = prime * result + (showPropExecutionTime ? 1231 : 1237);
+		result = prime * result + (showPropPeriod ? 1231 : 1237);
+		result = prime * result + (showSchedulerAlgorithm ? 1231 : 1237);
+		result = prime * result + (useColors ? 1231 : 1237);
+		result = prime * result + xAxisNumbering;
+		result = prime * result + xAxisPostLabelText.hashCode();
+		result = prime * result + xAxisPreLabelText.hashCode();
+		result = prime * result + yAxisPostLabelText.hashCode();
+		result = prime * result + yAxisPreLabelText.hashCode();
+		return result;
+	}
+
+	/**
+	 * Return a string that contains the values of all options, which is
+	 * equal for two snapshots if and only if they are equal.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("CompiledOutputIpeOptions[");
+		sb.append("useColors=").append(useColors)
+			.append(", fill=").append(fill)
+			.append(", xAxisNumbering=").append(xAxisNumbering)
+			.append(", xAxisPreLabelText=").append(xAxisPreLabelText.length()).append(':').append(xAxisPreLabelText)
+			.append(", xAxisPostLabelText=").append(xAxisPostLabelText.length()).append(':').append(xAxisPostLabelText)
+			.append(", yAxisPreLabelText=").append(yAxisPreLabelText.length()).append(':').append(yAxisPreLabelText)
+			.append(", yAxisPostLabelText=").append(yAxisPostLabelText.length()).append(':').append(yAxisPostLabelText)
+			.append(", scheduleMaxLength=").append(scheduleMaxLength)
+			.append(", showSchedulerAlgorithm=").append(showSchedulerAlgorithm)
+			.append(", showPropPeriod=").append(showPropPeriod)
+			.append(", showPropDeadline=").append(showPropDeadline)
+			.append(", showPropExecutionTime=").append(showPropExecutionTime)
+			.append(", pageWidth=").append(pageWidth)
+			.append(", pageLayoutViews=").append(pageLayoutViews)
+			.append(", levelOfDetail=").append(levelOfDetail)
+			.append(", batchPaths=").append(batchPaths)
+			.append(", rasterWidth=").append(rasterWidth)
+			.append(']');
+		return sb.toString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CompiledOutputIpeOptions other = (CompiledOutputIpeOptions) obj;
+		return batchPaths == other.batchPaths
+				&& fill == other.fill
+				&& levelOfDetail == other.levelOfDetail
+				&& pageLayoutViews == other.pageLayoutViews
+				&& pageWidth == other.pageWidth
+				&& rasterWidth == other.rasterWidth
+				&& scheduleMaxLength == other.scheduleMaxLength
+				&& showPropDeadline == other.showPropDeadline
+				&& showPropExecutionTime == other.showPropExecutionTime
+				&& showPropPeriod == other.showPropPeriod
+				&& showSchedulerAlgorithm == other.showSchedulerAlgorithm
+				&& useColors == other.useColors
+				&& xAxisNumbering == other.xAxisNumbering
+				&& xAxisPostLabelText.equals(other.xAxisPostLabelText)
+				&& xAxisPreLabelText.equals(other.xAxisPreLabelText)
+				&& yAxisPostLabelText.equals(other.yAxisPostLabelText)
+				&& yAxisPreLabelText.equals(other.yAxisPreLabelText);
+	}
+}
@@ -0,0 +1,81 @@
+package output;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class knows the RGB values of the colors that are defined in the Ipe
+ * style sheet that is output with every Ipe file. Output formats other than
+ * Ipe need those values, as they do not know the Ipe color names.
+ * 
+ * @author Thom Castermans
+ */
+public class IpeColors {
+
+	/** RGB values of colors, read from the Ipe header once. */
+	private static final Map<String, double[]> COLORS = new HashMap<String, double[]>();
+	static {
+		COLORS.put("black", new double[] { 0, 0, 0 });
+		COLORS.put("white", new double[] { 1, 1, 1 });
+		Pattern colorPattern = Pattern.compile("<color name=\"([^\"]+)\" value=\"([^\"]+)\"/>");
+		try {
+			InputStream is = IpeColors.class.getResourceAsStream("/res/ipe_header.txt");
+			BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				Matcher m = colorPattern.matcher(line);
+				if (!m.find())  continue;
+				String[] values = m.group(2).split(" ");
+				double[] rgb = new double[3];
+				for (int i = 0; i < 3; i++) {
+					// gray values consist of a single number
+					rgb[i] = Double.parseDouble(values[values.length == 3 ? i : 0]);
+				}
+				COLORS.put(m.group(1), rgb);
+			}
+			reader.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private IpeColors() {
+		// you cannot instantiate this class
+	}
+
+	/**
+	 * Return the RGB values of an Ipe color, each between 0 and 1.
+	 * Unknown colors are black.
+	 * 
+	 * @param name Name of the color in Ipe.
+	 * @return Red, green and blue value of the color.
+	 */
+	public static double[] getRgb(String name) {
+		double[] rgb = COLORS.get(name);
+		if (rgb == null)  return COLORS.get("black");
+		return rgb;
+	}
+
+	/**
+	 * Return an Ipe color as a hexadecimal RGB string, like {@code "#ff0000"}.
+	 * 
+	 * @param name Name of the color in Ipe.
+	 * @return Hexadecimal representation of the color.
+	 */
+	public static String getHex(String name) {
+		double[] rgb = getRgb(name);
+		StringBuilder sb = new StringBuilder("#");
+		for (double c : rgb) {
+			String hex = Integer.toHexString((int) Math.round(c * 255));
+			if (hex.length() < 2)  sb.append('0');
+			sb.append(hex);
+		}
+		return sb.toString();
+	}
+}
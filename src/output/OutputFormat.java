@@ -0,0 +1,97 @@
+package output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import model.Schedule;
+
+/**
+ * Formats that a schedule can be output in, with the extension of files in
+ * that format.
+ * 
+ * @author Thom Castermans
+ */
+public enum OutputFormat {
+	/** Ipe file, see {@link OutputIpe}. */
+	IPE("ipe"),
+	/** SVG image, see {@link OutputSvg}. */
+	SVG("svg"),
+	/** TikZ picture, see {@link OutputTikz}. */
+	TIKZ("tex"),
+	/** PNG image, see {@link OutputPng}. */
+	PNG("png");
+
+	private final String extension;
+
+	private OutputFormat(String extension) {
+		this.extension = extension;
+	}
+
+	/**
+	 * Return the extension of files in this format, without dot.
+	 * 
+	 * @return Extension of files in this format.
+	 */
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Output the given schedule to the given file, in this format.
+	 * 
+	 * @param schedule The schedule to be outputted.
+	 * @param options Options for output.
+	 * @param file The file to write to.
+	 * @param cache Cache to use, or {@code null} to not use a cache.
+	 * @throws FileNotFoundException If the file cannot be written.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options, File file, RenderCache cache)
+			throws FileNotFoundException {
+		switch (this) {
+			case IPE :
+				OutputIpe ipe = new OutputIpe(file);
+				ipe.setRenderCache(cache);
+				ipe.output(schedule, options);
+				break;
+			case SVG :
+				OutputSvg svg = new OutputSvg(file);
+				svg.setRenderCache(cache);
+				svg.output(schedule, options);
+				break;
+			case TIKZ :
+				OutputTikz tikz = new OutputTikz(file);
+				tikz.setRenderCache(cache);
+				tikz.output(schedule, options);
+				break;
+			default :
+				OutputPng png = new OutputPng(file);
+				png.setRenderCache(cache);
+				png.output(schedule, options);
+		}
+	}
+
+	/**
+	 * Output the given schedule to the given stream, in this format. The
+	 * stream is flushed, but not closed.
+	 * 
+	 * @param schedule The schedule to be outputted.
+	 * @param options Options for output.
+	 * @param out Stream to write to.
+	 * @param cache Cache to use, or {@code null} to not use a cache.
+	 * @throws IOException If writing to the stream fails.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options, OutputStream out, RenderCache cache)
+			throws IOException {
+		if (this == PNG) {
+			OutputPng png = new OutputPng();
+			png.setRenderCache(cache);
+			png.output(schedule, options, out);
+			return;
+		}
+		VectorOutput output = (this == IPE ? new OutputIpe() : (this == SVG ? new OutputSvg() : new OutputTikz()));
+		output.setRenderCache(cache);
+		output.output(schedule, options, out);
+	}
+}
@@ -2,62 +2,43 @@ package output;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Locale;
-import java.util.Set;
 
 import model.Schedule;
-import model.Task;
-import model.TaskInstance;
 
 /**
  * This class can be used to output a schedule to an IPE file.
  * 
  * @author Thom Castermans
  */
-public class OutputIpe {
+public class OutputIpe extends VectorOutput {
 
 	/** List of colors supported by Ipe. */
-	public static final String[] IPE_COLORS = {
-			// ScheduleToIpe colors
-			"task-red", "task-green", "task-blue", "task-yellow",
-			// Default Ipe colors
-			"red", "green", "blue",
-			"yellow", "orange", "gold", "purple", "gray", "brown", "navy",
-			"pink", "seagreen", "turquoise", "violet", "darkblue", "darkcyan",
-			"darkgray", "darkgreen", "darkmagenta", "darkorange", "darkred",
-			"lightblue", "lightcyan", "lightgray", "lightgreen", "lightyellow" };
+	public static final String[] IPE_COLORS = ScheduleLayout.COLORS;
 	/** Size of grid, used in outputting graph. */
-	public static final int GRID_SIZE = 16;
+	public static final int GRID_SIZE = ScheduleLayout.GRID_SIZE;
 	/**
 	 * Offset for graph in Ipe file, over X-axis. This is the X-coordinate of
 	 * the upper-left corner of the drawing.
 	 */
-	public static final int OFFSET_X = 16 + 7 * GRID_SIZE;
+	public static final int OFFSET_X = ScheduleLayout.OFFSET_X;
 	/**
 	 * Offset for graph in Ipe file, over Y-axis. This is the Y-coordinate of
 	 * the upper-left corner of the drawing.
 	 */
-	public static final int OFFSET_Y = 832 - 4 * GRID_SIZE;
+	public static final int OFFSET_Y = ScheduleLayout.OFFSET_Y;
 	/** Padding, used in drawing squares. */
-	public static final double PADDING = 0.5;
+	public static final double PADDING = ScheduleLayout.PADDING;
 	/** Space around text. */
-	public static final int TEXT_MARGIN = GRID_SIZE / 5;
-
-	private PrintStream output;
-	private File outFile = null;
+	public static final int TEXT_MARGIN = ScheduleLayout.TEXT_MARGIN;
 
 	/**
 	 * Create a new object capable of outputting to the default output.
 	 */
 	public OutputIpe() {
-		output = System.out;
+		super();
 	}
 
 	/**
@@ -69,330 +50,229 @@ public class OutputIpe {
 	 *             If given file cannot be found.
 	 */
 	public OutputIpe(File file) throws FileNotFoundException {
-		output = new PrintStream(new FileOutputStream(file));
-		outFile = file;
+		super(file);
 	}
 
 	/**
 	 * Output the given schedule to the file given at construction or standard
 	 * output, depending on how this object was constructed.
 	 * 
+	 * <p>When the option "pageWidth" is positive, the timeline is split into
+	 * pieces of that many time units. Every piece is rendered on a worker thread
+	 * into its own buffer, after which the pieces are written in order, either
+	 * as separate Ipe pages or as views of a single page (option "pageLayout").
+	 * 
 	 * @param schedule
 	 *            The schedule to be outputted.
 	 * @param options
 	 *            Options for output.
 	 */
 	public void outputIpeFile(Schedule schedule, OutputIpeOptions options) {
-		if (outFile != null) {
-			try {
-				output = new PrintStream(new FileOutputStream(outFile));
-			} catch (FileNotFoundException e) {
-				// Does not occur by construction, see constructor: we check it
-				// there already
-				e.printStackTrace();
-			}
-		}
-
-		// Compress schedule, it is easier to have nice output like this
-		schedule.compress();
+		output(schedule, options.compile());
+	}
 
-		// Get tasks in the schedule, convert this to a list and
-		// sort the list so that tasks are sorted by name
-		Set<Task> tasksSet = schedule.getTasks();
-		ArrayList<Task> tasks = new ArrayList<Task>(tasksSet);
-		Collections.sort(tasks, new Comparator<Task>() {
-			@Override
-			public int compare(Task o1, Task o2) {
-				return o2.getName().compareTo(o1.getName());
-			}
-		});
+	/**
+	 * Output the given schedule to the file given at construction or standard
+	 * output, depending on how this object was constructed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 * @see #outputIpeFile(Schedule, OutputIpeOptions)
+	 */
+	public void outputIpeFile(Schedule schedule, CompiledOutputIpeOptions options) {
+		output(schedule, options);
+	}
 
-		// Some variable declarations
-		TaskInstance curTaskInstance, prevTaskInstance = null;
-		int j;
+	@Override
+	protected PrimitiveSink createSink(StringBuilder out, ScheduleLayout layout, int page) {
+		return new IpeSink(out, layout,
+				(layout.getOptions().isPageLayoutViews() ? "page" + (page + 1) : "alpha"));
+	}
 
+	@Override
+	protected void writeDocumentStart(PrintStream out, ScheduleLayout[] pages) {
 		// Ipe header
-		outputHeader();
-
-		// Up to where should we draw the schedule..?
-		int maxOption = options.getIntegerOption("scheduleMaxLength");
-		int until = maxOption;
-		if (maxOption == -1) {
-			if (schedule.isFeasible()) {
-				until = schedule.getLcm();
-			} else {
-				TaskInstance lastTaskInstance = schedule.getMissedTaskLastInstance();
-				until = lastTaskInstance.getTask().getAbsoluteDeadline(lastTaskInstance.getStart());
-			}
-		} else if (maxOption == 0) {
-			until = schedule.getLcm();
-		}
-		
-		// Draw tasks
-		double time = 0;
-		while (time < until) {
-			curTaskInstance = schedule.getTaskInstanceAt(time);
-			if (curTaskInstance == null) {
-				if (schedule.getNextTaskAt(time) == null)
-					break;
-				time = schedule.getNextTaskAt(time).getStart();
-				curTaskInstance = schedule.getTaskInstanceAt(time);
-			}
+		outputFromFile(out, "/res/ipe_header.txt");
 
-			j = 0;
-			for (Task tt : tasks) {
-				if (tt.equals(curTaskInstance.getTask()))
-					break;
-				j++;
-			}
-
-			// make sure we do not draw too much
-			if (curTaskInstance.getEnd() > until) {
-				curTaskInstance.setEnd(until);
-			}
-			
-			// deciding the colors based on the options
-			String lineColor;
-			String fillColor;
-			if (options.getBooleanOption("useColors")) {
-				fillColor = IPE_COLORS[j % IPE_COLORS.length];
-			} else {
-				fillColor = "black";
-			}
-			// Make use of special ScheduleToIpe bordercolors
-			if (fillColor.startsWith("task-")) {
-				lineColor = fillColor + "-border";
-			} else {
-				lineColor = fillColor;
+		// when using views, all pieces go on a single page, in their own layer
+		if (pages[0].getOptions().isPageLayoutViews()) {
+			out.println("<page>");
+			for (int p = 1; p <= pages.length; p++) {
+				out.println("<layer name=\"page" + p + "\"/>");
 			}
-			// Actually draw rectangle
-			if (options.getBooleanOption("fill")) {
-				writeSquareFilled(
-						OFFSET_X
-								+ GRID_SIZE
-								* curTaskInstance.getStart()
-								+ (prevTaskInstance != null
-										&& curTaskInstance.getTask().equals(
-												prevTaskInstance.getTask()) ? -PADDING
-										: PADDING),
-						OFFSET_Y + GRID_SIZE * (j - tasks.size()) + PADDING,
-						GRID_SIZE
-								* (curTaskInstance.getEnd() - curTaskInstance
-										.getStart())
-								- (prevTaskInstance != null
-										&& curTaskInstance.getTask().equals(
-												prevTaskInstance.getTask()) ? 0
-										: 2 * PADDING), GRID_SIZE - 2 * PADDING,
-						lineColor, fillColor);
-			} else {
-				writeSquare(
-						OFFSET_X
-								+ GRID_SIZE
-								* curTaskInstance.getStart()
-								+ (prevTaskInstance != null
-										&& curTaskInstance.getTask().equals(
-												prevTaskInstance.getTask()) ? -PADDING
-										: PADDING),
-						OFFSET_Y + GRID_SIZE * (j - tasks.size()) + PADDING,
-						GRID_SIZE
-								* (curTaskInstance.getEnd() - curTaskInstance
-										.getStart())
-								- (prevTaskInstance != null
-										&& curTaskInstance.getTask().equals(
-												prevTaskInstance.getTask()) ? 0
-										: 2 * PADDING), GRID_SIZE - 2 * PADDING,
-						lineColor, "");
+			for (int p = 1; p <= pages.length; p++) {
+				out.println("<view layers=\"page" + p + "\" active=\"page" + p + "\"/>");
 			}
-
-			prevTaskInstance = curTaskInstance;
-			time = curTaskInstance.getEnd();
 		}
+	}
 
-		// Draw axis
-		writeLine(OFFSET_X, OFFSET_Y - GRID_SIZE * tasks.size(), OFFSET_X
-				+ GRID_SIZE * until,
-				OFFSET_Y - GRID_SIZE * tasks.size(), "black", null);
-		writeLine(OFFSET_X, OFFSET_Y, OFFSET_X,
-				OFFSET_Y - GRID_SIZE * tasks.size(), "black", null);
-
-		// write X-axis scale
-		int xAxisNumbering = options.getIntegerOption("xAxisNumbering");
-		if (xAxisNumbering != 0) { // we want to use a numbering
-			// getting pre-/postfix
-			String prefix = options.getStringOption("xAxisPreLabelText");
-			String postfix = options.getStringOption("xAxisPostLabelText");
-			
-			// writing the numbers
-			double stepSize = xAxisNumbering < 0 ? 1 : ((double) until / (xAxisNumbering - 1));
-			for (double i = 0; i <= until; i += stepSize) {
-				int writeAt = (int) Math.round(i);
-				writeString(prefix + writeAt + postfix, OFFSET_X
-						+ GRID_SIZE * writeAt, OFFSET_Y - GRID_SIZE * tasks.size()
-						- TEXT_MARGIN, "center", "top");
-			}
+	@Override
+	protected void writePageStart(PrintStream out, ScheduleLayout page, int index) {
+		if (!page.getOptions().isPageLayoutViews()) {
+			out.println("<page>");
+			out.println("<layer name=\"alpha\"/>");
+			out.println("<view layers=\"alpha\" active=\"alpha\"/>");
 		}
+	}
 
-		// write Y-axis task names
-		String taskPrefix = options.getStringOption("yAxisPreLabelText");
-		String taskPostfix = options.getStringOption("yAxisPostLabelText");
-		
-		// looping over the tasks
-		j = 0;
-		for (Task tt : tasks) {
-			String string = taskPrefix + tt.getName() + taskPostfix;
-			writeString(string, OFFSET_X - TEXT_MARGIN, OFFSET_Y
-					+ GRID_SIZE * (j - tasks.size()) + GRID_SIZE / 2, "right",
-					"center");
-			j++;
+	@Override
+	protected void writePageEnd(PrintStream out, ScheduleLayout page, int index) {
+		if (!page.getOptions().isPageLayoutViews()) {
+			out.println("</page>");
 		}
+	}
 
-		// Draw deadline miss, if any
-		if (!schedule.isFeasible()) {
-			// First, draw dashed border around last instance of task that
-			// missed its deadline and draw a dashed line where the deadline is.
-			TaskInstance lastTaskInstance = schedule
-					.getMissedTaskLastInstance();
-			j = 0;
-			for (Task tt : tasks) {
-				if (tt.equals(lastTaskInstance.getTask()))
-					break;
-				j++;
-			}
-			// only draw deadlinemiss if it falls in interval that is drawn
-			if (lastTaskInstance.getTask().getAbsoluteDeadline(lastTaskInstance.getStart()) <= until) {
-				writeSquare(
-						OFFSET_X + GRID_SIZE * lastTaskInstance.getStart(),
-						OFFSET_Y + GRID_SIZE * (j - tasks.size()),
-						GRID_SIZE
-								* (lastTaskInstance.getEnd() - lastTaskInstance
-										.getStart()), GRID_SIZE, "black", "dashed");
-				writeLine(
-						OFFSET_X
-								+ GRID_SIZE
-								* lastTaskInstance.getTask().getAbsoluteDeadline(
-										lastTaskInstance.getStart()),
-						OFFSET_Y - GRID_SIZE * tasks.size(),
-						OFFSET_X
-								+ GRID_SIZE
-								* lastTaskInstance.getTask().getAbsoluteDeadline(
-										lastTaskInstance.getStart()), OFFSET_Y
-								+ GRID_SIZE, "black", "dashed");
-			}
+	@Override
+	protected void writeDocumentEnd(PrintStream out, ScheduleLayout[] pages) {
+		if (pages[0].getOptions().isPageLayoutViews()) {
+			out.println("</page>");
 		}
-		
-		
-		// show the schedule name
-		
-
 		// Ipe footer
-		outputFooter();
-
-		// Close stream
-		if (output != System.out)
-			output.close();
+		outputFromFile(out, "/res/ipe_footer.txt");
 	}
 
-	private void outputFromFile(String path) {
-		InputStream is = getClass().getResourceAsStream(path);
+	/**
+	 * Copy a resource to the given stream, like the Ipe header and footer.
+	 * 
+	 * @param out Stream to write to.
+	 * @param path Path of the resource.
+	 */
+	static void outputFromFile(PrintStream out, String path) {
+		InputStream is = OutputIpe.class.getResourceAsStream(path);
 		// Read header from file and output it to the stream
 		byte[] buffer = new byte[4096]; // tweaking this number may increase
 										// performance
 		int len;
 		try {
 			while ((len = is.read(buffer)) != -1) {
-				output.write(buffer, 0, len);
+				out.write(buffer, 0, len);
 			}
-			output.flush();
-			output.println();
+			out.flush();
+			out.println();
 			is.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
-	private void outputFooter() {
-		outputFromFile("/res/ipe_footer.txt");
-	}
+	/**
+	 * Writes primitives as Ipe objects. When paths are batched, the blocks of
+	 * every row are collected and written as a single compound path before
+	 * the next primitive that is not a block, or when the page is finished.
+	 * Blocks thus stay below the axes and labels drawn after them.
+	 */
+	private static class IpeSink implements PrimitiveSink {
+
+		private final StringBuilder out;
+		private final ScheduleLayout layout;
+		private final String layer;
+		private final boolean fill;
+		/** Subpaths of the blocks in every row, if paths are batched per row. */
+		private final StringBuilder[] rowPaths;
+
+		/**
+		 * Create a sink writing Ipe objects to the given buffer.
+		 * 
+		 * @param out Buffer to write to.
+		 * @param layout Layout of the page.
+		 * @param layer Ipe layer to put all objects in.
+		 */
+		IpeSink(StringBuilder out, ScheduleLayout layout, String layer) {
+			this.out = out;
+			this.layout = layout;
+			this.layer = layer;
+			this.fill = layout.getOptions().isFill();
+			this.rowPaths = (layout.getOptions().isBatchPaths()
+					? new StringBuilder[layout.getRowCount()] : null);
+		}
 
-	private void outputHeader() {
-		outputFromFile("/res/ipe_header.txt");
-	}
+		@Override
+		public void block(int row, double x, double y, double width, double height) {
+			// Remember block when batching paths per row
+			if (rowPaths != null) {
+				if (rowPaths[row] == null)  rowPaths[row] = new StringBuilder();
+				appendSubpath(rowPaths[row], x, y, width, height);
+				return;
+			}
+			appendPathStart(layout.getLineColor(row),
+					(fill ? layout.getFillColor(row) : null), (fill ? null : ""));
+			appendSubpath(out, x, y, width, height);
+			out.append("</path> \n");
+		}
 
-	/* methods to write "shapes" to the Ipe file */
-	private final String SQUARE = "<path layer=\"alpha\" stroke=\"%s\" dash=\"%s\"> \n"
-			+ "%f %f m \n"
-			+ "%f %f l \n"
-			+ "%f %f l \n"
-			+ "%f %f l \n"
-			+ "h \n" + "</path> \n";
-	private final String SQUARE_FILLED = "<path layer=\"alpha\" stroke=\"%s\" fill=\"%s\"> \n"
-			+ "%f %f m \n"
-			+ "%f %f l \n"
-			+ "%f %f l \n"
-			+ "%f %f l \n"
-			+ "h \n" + "</path> \n";
+		@Override
+		public void rectangle(double x, double y, double width, double height, boolean dashed) {
+			flushRows();
+			appendPathStart("black", null, (dashed ? "dashed" : null));
+			appendSubpath(out, x, y, width, height);
+			out.append("</path> \n");
+		}
 
-	@SuppressWarnings("boxing")
-	private void writeSquare(double x, double y, double width, double height,
-			String color, String dashed) {
-		String square = String.format(Locale.US, SQUARE, color, dashed, x, y, x
-				+ width, y, x + width, y + height, x, y + height);
-		try {
-			output.write(square.getBytes());
-		} catch (IOException e) {
-			e.printStackTrace();
+		@Override
+		public void line(double x1, double y1, double x2, double y2, boolean dashed) {
+			flushRows();
+			appendPathStart("black", null, (dashed ? "dashed" : null));
+			appendPoint(out, x1, y1, "m");
+			appendPoint(out, x2, y2, "l");
+			out.append("</path> \n");
 		}
-	}
 
-	@SuppressWarnings("boxing")
-	private void writeSquareFilled(double x, double y, double width,
-			double height, String lineColor, String color) {
-		String square = String
-				.format(Locale.US, SQUARE_FILLED, lineColor, color, x, y, x
-						+ width, y, x + width, y + height, x, y + height);
-		try {
-			output.write(square.getBytes());
-		} catch (IOException e) {
-			e.printStackTrace();
+		@Override
+		public void text(String text, double x, double y, String halign, String valign) {
+			flushRows();
+			out.append("<text layer=\"").append(layer)
+				.append("\" transformations=\"translations\" pos=\"");
+			appendNumber(out, x, 6);
+			out.append(' ');
+			appendNumber(out, y, 6);
+			out.append("\" stroke=\"black\" type=\"label\" depth=\"0\" halign=\"").append(halign)
+				.append("\" valign=\"").append(valign).append("\">").append(text).append("</text> \n");
 		}
-	}
 
-	private final String LINE = "<path stroke=\"%s\"> \n" + "%f %f m \n"
-			+ "%f %f l \n" + "</path> \n";
-	private final String LINE_DASHED = "<path stroke=\"%s\" dash=\"%s\"> \n"
-			+ "%f %f m \n" + "%f %f l \n" + "</path> \n";
+		@Override
+		public void finish() {
+			flushRows();
+		}
 
-	@SuppressWarnings("boxing")
-	private void writeLine(double x1, double y1, double x2, double y2,
-			String color, String dashed) {
-		String line = "";
-		if (dashed != null) {
-			line = String.format(Locale.US, LINE_DASHED, color, dashed, x1, y1,
-					x2, y2);
-		} else {
-			line = String.format(Locale.US, LINE, color, x1, y1, x2, y2);
+		/**
+		 * Write the blocks that were collected per row, as a single compound
+		 * path per row, and start collecting anew.
+		 */
+		private void flushRows() {
+			if (rowPaths == null)  return;
+			for (int j = 0; j < rowPaths.length; j++) {
+				if (rowPaths[j] == null)  continue;
+				appendPathStart(layout.getLineColor(j),
+						(fill ? layout.getFillColor(j) : null), null);
+				out.append(rowPaths[j]);
+				out.append("</path> \n");
+				rowPaths[j] = null;
+			}
 		}
-		try {
-			output.write(line.getBytes());
-		} catch (IOException e) {
-			e.printStackTrace();
+
+		private void appendPathStart(String stroke, String fillColor, String dash) {
+			out.append("<path layer=\"").append(layer).append("\" stroke=\"").append(stroke);
+			if (fillColor != null)  out.append("\" fill=\"").append(fillColor);
+			if (dash != null)  out.append("\" dash=\"").append(dash);
+			out.append("\"> \n");
 		}
-	}
 
-	private final String STRING = "<text transformations=\"translations\" pos=\"%f %f\" "
-			+ "stroke=\"black\" type=\"label\" depth=\"0\" "
-			+ "halign=\"%s\" valign=\"%s\">%s</text> \n";
+		private static void appendSubpath(StringBuilder sb, double x, double y,
+				double width, double height) {
+			appendPoint(sb, x, y, "m");
+			appendPoint(sb, x + width, y, "l");
+			appendPoint(sb, x + width, y + height, "l");
+			appendPoint(sb, x, y + height, "l");
+			sb.append("h \n");
+		}
 
-	@SuppressWarnings("boxing")
-	private void writeString(String text, double x, double y, String halign,
-			String valign) {
-		String string = String.format(Locale.US, STRING, x, y, halign, valign,
-				text);
-		try {
-			output.write(string.getBytes());
-		} catch (IOException e) {
-			e.printStackTrace();
+		private static void appendPoint(StringBuilder sb, double x, double y, String operator) {
+			appendNumber(sb, x, 6);
+			sb.append(' ');
+			appendNumber(sb, y, 6);
+			sb.append(' ').append(operator).append(" \n");
 		}
 	}
-
 }
@@ -0,0 +1,189 @@
+package output;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import model.analysis.ParameterSweep;
+import model.analysis.ParameterSweep.Dimension;
+import model.analysis.ParameterSweep.Method;
+
+/**
+ * This class can be used to output the result of a {@link ParameterSweep}
+ * as a heat map in an Ipe file: a grid with a cell per point of the sweep,
+ * colored by whether the task set is feasible at that point. Points that had
+ * to be simulated are colored darker than points that were decided by a
+ * schedulability test or inferred, so the borderline region stands out.
+ * Points whose feasibility is unknown are gray.
+ * 
+ * @author Thom Castermans
+ */
+public class OutputIpeHeatMap {
+
+	/** Colors of feasible and infeasible cells that were not simulated. */
+	private static final String FEASIBLE = "lightgreen", INFEASIBLE = "pink";
+	/** Colors of feasible and infeasible cells that were simulated. */
+	private static final String FEASIBLE_SIMULATED = "seagreen", INFEASIBLE_SIMULATED = "red";
+	/** Color of cells whose feasibility is unknown. */
+	private static final String UNKNOWN = "lightgray";
+	/** Size of the largest side of the grid. */
+	private static final int MAX_SIZE = 24 * ScheduleLayout.GRID_SIZE;
+	/** Maximum number of values that is written along an axis. */
+	private static final int MAX_TICKS = 6;
+
+	private static final int GRID_SIZE = ScheduleLayout.GRID_SIZE;
+	private static final int OFFSET_X = ScheduleLayout.OFFSET_X;
+	private static final int OFFSET_Y = ScheduleLayout.OFFSET_Y;
+	private static final int TEXT_MARGIN = ScheduleLayout.TEXT_MARGIN;
+
+	/**
+	 * Write the heat map of the given sweep as an Ipe file.
+	 * 
+	 * @param result Result of the sweep.
+	 * @param title Title above the heat map, or {@code null}.
+	 * @param os Stream to write to. It is not closed.
+	 */
+	public void output(ParameterSweep.Result result, String title, OutputStream os) {
+		PrintStream out = new PrintStream(os);
+		OutputIpe.outputFromFile(out, "/res/ipe_header.txt");
+		out.println("<page>");
+		out.println("<layer name=\"alpha\"/>");
+		out.println("<view layers=\"alpha\" active=\"alpha\"/>");
+		out.print(draw(result, title));
+		out.println("</page>");
+		OutputIpe.outputFromFile(out, "/res/ipe_footer.txt");
+		out.flush();
+	}
+
+	/**
+	 * Draw the heat map as Ipe objects.
+	 * 
+	 * @param result Result of the sweep.
+	 * @param title Title above the heat map, or {@code null}.
+	 * @return Ipe objects of the page.
+	 */
+	private String draw(ParameterSweep.Result result, String title) {
+		StringBuilder sb = new StringBuilder();
+		int nx = result.getWidth(), ny = result.getHeight();
+		double cell = Math.min(GRID_SIZE, (double) MAX_SIZE / Math.max(nx, ny));
+		double width = nx * cell, height = ny * cell;
+		double left = OFFSET_X, top = OFFSET_Y - (title == null ? 0 : 2 * GRID_SIZE);
+		double bottom = top - height;
+
+		if (title != null)  appendText(sb, title, left, OFFSET_Y, "left", "top");
+
+		// cells, merging runs of equal cells in a row into a single rectangle
+		for (int j = 0; j < ny; j++) {
+			// the first row is at the bottom, so values grow upwards
+			double y = bottom + j * cell;
+			int start = 0;
+			for (int i = 1; i <= nx; i++) {
+				if (i < nx && getColor(result, i, j).equals(getColor(result, start, j)))  continue;
+				appendRectangle(sb, getColor(result, start, j), left + start * cell, y, (i - start) * cell, cell);
+				start = i;
+			}
+		}
+		appendFrame(sb, left, bottom, width, height);
+
+		// values and names of the dimensions along the axes
+		Dimension x = result.getX();
+		for (int i : getTicks(nx)) {
+			double tx = left + (i + 0.5) * cell;
+			appendLine(sb, tx, bottom, tx, bottom - TEXT_MARGIN);
+			appendText(sb, ParameterSweep.Result.format(x.getValue(i)), tx, bottom - 2 * TEXT_MARGIN, "center", "top");
+		}
+		appendText(sb, x.toString(), left + width / 2, bottom - GRID_SIZE - 2 * TEXT_MARGIN, "center", "top");
+		Dimension y = result.getY();
+		if (y != null) {
+			for (int j : getTicks(ny)) {
+				double ty = bottom + (j + 0.5) * cell;
+				appendLine(sb, left, ty, left - TEXT_MARGIN, ty);
+				appendText(sb, ParameterSweep.Result.format(y.getValue(j)), left - 2 * TEXT_MARGIN, ty, "right", "center");
+			}
+			appendText(sb, y.toString(), left, top + TEXT_MARGIN, "center", "bottom");
+		}
+
+		// legend
+		String[] colors = { FEASIBLE, FEASIBLE_SIMULATED, INFEASIBLE, INFEASIBLE_SIMULATED };
+		String[] labels = { "feasible", "feasible (simulated)", "infeasible", "infeasible (simulated)" };
+		double ly = bottom - 3 * GRID_SIZE;
+		for (int k = 0; k < colors.length; k++) {
+			double lx = left + (k % 2) * 8 * GRID_SIZE;
+			double row = ly - (k / 2) * GRID_SIZE;
+			appendRectangle(sb, colors[k], lx, row - GRID_SIZE / 2.0, GRID_SIZE / 2.0, GRID_SIZE / 2.0);
+			appendText(sb, labels[k], lx + GRID_SIZE / 2.0 + 2 * TEXT_MARGIN, row - GRID_SIZE / 4.0, "left", "center");
+		}
+		if (result.getCount(Method.UNKNOWN) > 0) {
+			double row = ly - 2 * GRID_SIZE;
+			appendRectangle(sb, UNKNOWN, left, row - GRID_SIZE / 2.0, GRID_SIZE / 2.0, GRID_SIZE / 2.0);
+			appendText(sb, "unknown", left + GRID_SIZE / 2.0 + 2 * TEXT_MARGIN, row - GRID_SIZE / 4.0, "left", "center");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Return the color of a cell.
+	 */
+	private static String getColor(ParameterSweep.Result result, int i, int j) {
+		if (result.getMethod(i, j) == Method.UNKNOWN)  return UNKNOWN;
+		boolean simulated = (result.getMethod(i, j) == Method.SIMULATION);
+		if (result.isFeasible(i, j))  return (simulated ? FEASIBLE_SIMULATED : FEASIBLE);
+		return (simulated ? INFEASIBLE_SIMULATED : INFEASIBLE);
+	}
+
+	/**
+	 * Return the indices of the values that are written along an axis: at
+	 * most {@link #MAX_TICKS} evenly spread values, including the first and
+	 * last one.
+	 */
+	private static int[] getTicks(int n) {
+		int count = Math.min(n, MAX_TICKS);
+		int[] ticks = new int[count];
+		for (int k = 0; k < count; k++) {
+			ticks[k] = (count == 1 ? 0 : (int) Math.round(k * (n - 1) / (double) (count - 1)));
+		}
+		return ticks;
+	}
+
+	private static void appendRectangle(StringBuilder sb, String fill, double x, double y,
+			double width, double height) {
+		sb.append("<path layer=\"alpha\" fill=\"").append(fill).append("\"> \n");
+		appendPoint(sb, x, y, "m");
+		appendPoint(sb, x + width, y, "l");
+		appendPoint(sb, x + width, y + height, "l");
+		appendPoint(sb, x, y + height, "l");
+		sb.append("h \n</path> \n");
+	}
+
+	private static void appendFrame(StringBuilder sb, double x, double y, double width, double height) {
+		sb.append("<path layer=\"alpha\" stroke=\"black\"> \n");
+		appendPoint(sb, x, y, "m");
+		appendPoint(sb, x + width, y, "l");
+		appendPoint(sb, x + width, y + height, "l");
+		appendPoint(sb, x, y + height, "l");
+		sb.append("h \n</path> \n");
+	}
+
+	private static void appendLine(StringBuilder sb, double x1, double y1, double x2, double y2) {
+		sb.append("<path layer=\"alpha\" stroke=\"black\"> \n");
+		appendPoint(sb, x1, y1, "m");
+		appendPoint(sb, x2, y2, "l");
+		sb.append("</path> \n");
+	}
+
+	private static void appendText(StringBuilder sb, String text, double x, double y, String halign,
+			String valign) {
+		sb.append("<text layer=\"alpha\" transformations=\"translations\" pos=\"");
+		VectorOutput.appendNumber(sb, x, 6);
+		sb.append(' ');
+		VectorOutput.appendNumber(sb, y, 6);
+		sb.append("\" stroke=\"black\" type=\"label\" depth=\"0\" halign=\"").append(halign)
+			.append("\" valign=\"").append(valign).append("\">").append(text).append("</text> \n");
+	}
+
+	private static void appendPoint(StringBuilder sb, double x, double y, String operator) {
+		VectorOutput.appendNumber(sb, x, 6);
+		sb.append(' ');
+		VectorOutput.appendNumber(sb, y, 6);
+		sb.append(' ').append(operator).append(" \n");
+	}
+}
@@ -16,6 +16,18 @@ import java.util.Set;
  */
 public class OutputIpeOptions {
 
+	/** Default options, read from the configuration file once. */
+	private static final Properties DEFAULTS = new Properties();
+	static {
+		try {
+			InputStream is = OutputIpeOptions.class.getResourceAsStream("/res/ipe_output_options_defaults.properties");
+			DEFAULTS.load(is);
+			is.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
 	/** Map of options. */
 	Properties options = new Properties();
 	
@@ -24,14 +36,27 @@ public class OutputIpeOptions {
 	 * all options with defaults.
 	 */
 	public OutputIpeOptions() {
-		try {
-			InputStream is = getClass().getResourceAsStream("/res/ipe_output_options_defaults.properties");
-			options.load(is);
-			is.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-			return;
-		}
+		options.putAll(DEFAULTS);
+	}
+	
+	/**
+	 * Return a typed, immutable snapshot of the current options. Changing
+	 * options afterwards does not affect the returned object.
+	 * 
+	 * @return Snapshot of the current options.
+	 */
+	public CompiledOutputIpeOptions compile() {
+		return new CompiledOutputIpeOptions(this);
+	}
+	
+	/**
+	 * Return if an option with the given name exists.
+	 * 
+	 * @param key The name of the option.
+	 * @return If the option exists.
+	 */
+	public boolean hasOption(String key) {
+		return options.containsKey(key);
 	}
 	
 	/**
@@ -0,0 +1,358 @@
+package output;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import model.Schedule;
+import model.Task;
+
+/**
+ * This class can be used to output a schedule to a PNG image, without
+ * needing a display. The image is split into tiles that are drawn in
+ * parallel and stitched together afterwards.
+ * 
+ * <p>The schedule is always drawn as a single image, the "pageWidth" option
+ * is not used. Instead, the time axis is compressed to make the schedule fit
+ * in the number of pixels given by the "rasterWidth" option.
+ * 
+ * @author Thom Castermans
+ */
+public class OutputPng {
+
+	/** Width of a single tile, in pixels. */
+	public static final int TILE_WIDTH = 512;
+
+	private File outFile = null;
+	private RenderCache cache = null;
+
+	/**
+	 * Create a new object capable of outputting to the default output.
+	 */
+	public OutputPng() {
+		// output to System.out
+	}
+
+	/**
+	 * Create a new object capable of outputting to the given file.
+	 * 
+	 * @param file
+	 *            The file to write to.
+	 */
+	public OutputPng(File file) {
+		outFile = file;
+	}
+
+	/**
+	 * Set the cache to look up and store rendered images in. When no cache is
+	 * set, images are rendered from scratch every time.
+	 * 
+	 * @param cache Cache to use, or {@code null} to not use a cache.
+	 */
+	public void setRenderCache(RenderCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Output the given schedule to the file given at construction or standard
+	 * output, depending on how this object was constructed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 */
+	public void output(Schedule schedule, OutputIpeOptions options) {
+		output(schedule, options.compile());
+	}
+
+	/**
+	 * Output the given schedule to the file given at construction or standard
+	 * output, depending on how this object was constructed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options) {
+		try {
+			if (outFile == null) {
+				output(schedule, options, System.out);
+				return;
+			}
+			// only replace the file once the whole image is rendered
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			output(schedule, options, buffer);
+			if (Thread.currentThread().isInterrupted())  return;
+			VectorOutput.replaceFile(outFile, buffer.toByteArray());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Output the given schedule to the given stream, instead of the file given
+	 * at construction or standard output. The stream is flushed, but not
+	 * closed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 * @param out
+	 *            Stream to write to.
+	 * @throws IOException
+	 *             If writing to the stream fails.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options, OutputStream out)
+			throws IOException {
+		if (cache == null) {
+			ImageIO.write(render(schedule, options), "png", out);
+		} else {
+			schedule.compress();
+			String key = RenderCache.hash(getClass().getName(),
+					RenderCache.hash(schedule), options.toString());
+			byte[] document = cache.getDocument(key);
+			if (document == null) {
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				ImageIO.write(render(schedule, options), "png", buffer);
+				document = buffer.toByteArray();
+				// do not remember incomplete output
+				if (!Thread.currentThread().isInterrupted())  cache.putDocument(key, document);
+			}
+			out.write(document);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Draw the given schedule to an image.
+	 * 
+	 * @param schedule
+	 *            The schedule to be drawn.
+	 * @param options
+	 *            Options for output.
+	 * @return An image of the schedule.
+	 */
+	public BufferedImage render(Schedule schedule, CompiledOutputIpeOptions options) {
+		// Compress schedule, it is easier to have nice output like this
+		schedule.compress();
+
+		List<Task> tasks = ScheduleLayout.getSortedTasks(schedule);
+		int until = Math.max(ScheduleLayout.getUntil(schedule, options), 1);
+
+		// Compress time axis to fit in the requested width
+		double timeScale = ScheduleLayout.GRID_SIZE;
+		int margin = ScheduleLayout.OFFSET_X + 2 * ScheduleLayout.GRID_SIZE;
+		if (options.getRasterWidth() > margin) {
+			timeScale = Math.min(timeScale, (double) (options.getRasterWidth() - margin) / until);
+		}
+		final ScheduleLayout layout = new ScheduleLayout(schedule, tasks, options, 0, until, until, timeScale);
+		int width = (int) Math.ceil(layout.getRight());
+		int height = (int) Math.ceil(layout.getTop() - layout.getBottom());
+
+		// Draw every tile on a worker thread
+		int numTiles = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+		ArrayList<Future<BufferedImage>> tiles = new ArrayList<Future<BufferedImage>>(numTiles);
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(numTiles, Runtime.getRuntime().availableProcessors()));
+		for (int t = 0; t < numTiles; t++) {
+			int tileX = t * TILE_WIDTH;
+			tiles.add(executor.submit(new TileRenderer(layout, tileX,
+					Math.min(TILE_WIDTH, width - tileX), height, timeScale)));
+		}
+		executor.shutdown();
+
+		// Stitch tiles together
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		for (int t = 0; t < numTiles; t++) {
+			try {
+				g.drawImage(tiles.get(t).get(), t * TILE_WIDTH, 0, null);
+			} catch (InterruptedException e) {
+				// we are canceled: stop drawing and leave the image incomplete
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				// a missing tile must not go unnoticed, nor end up in the cache
+				executor.shutdownNow();
+				g.dispose();
+				if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+				if (e.getCause() instanceof Error)  throw (Error) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Draws one tile of the image.
+	 */
+	private static class TileRenderer implements Callable<BufferedImage> {
+
+		private final ScheduleLayout layout;
+		private final int tileX;
+		private final int width;
+		private final int height;
+		private final double timeScale;
+
+		/**
+		 * Create a new renderer for one tile.
+		 * 
+		 * @param layout Layout of the whole schedule.
+		 * @param tileX X-coordinate of the left side of the tile.
+		 * @param width Width of the tile.
+		 * @param height Height of the tile.
+		 * @param timeScale Width of one time unit, in pixels.
+		 */
+		TileRenderer(ScheduleLayout layout, int tileX, int width, int height, double timeScale) {
+			this.layout = layout;
+			this.tileX = tileX;
+			this.width = width;
+			this.height = height;
+			this.timeScale = timeScale;
+		}
+
+		@Override
+		public BufferedImage call() {
+			BufferedImage tile = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = tile.createGraphics();
+			g.setColor(Color.WHITE);
+			g.fillRect(0, 0, width, height);
+			g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+					RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			g.translate(-tileX, 0);
+			// only draw what is in this tile, with one pixel to spare
+			double windowFrom = (tileX - 1 - ScheduleLayout.OFFSET_X) / timeScale;
+			double windowTo = (tileX + width + 1 - ScheduleLayout.OFFSET_X) / timeScale;
+			layout.draw(new Graphics2DSink(g, layout), windowFrom, windowTo);
+			g.dispose();
+			return tile;
+		}
+	}
+
+	/**
+	 * Draws primitives with Java2D. The Y-axis is flipped, as it points
+	 * down in images. Blocks are at least one pixel wide, so that short
+	 * slices remain visible.
+	 */
+	private static class Graphics2DSink implements PrimitiveSink {
+
+		private static final Stroke SOLID = new BasicStroke(1);
+		private static final Stroke DASHED = new BasicStroke(1, BasicStroke.CAP_BUTT,
+				BasicStroke.JOIN_MITER, 10, new float[] { 4 }, 0);
+
+		private final Graphics2D g;
+		private final double top;
+		private final boolean fill;
+		/** Fill color of every row. */
+		private final Color[] fillColors;
+		/** Line color of every row. */
+		private final Color[] lineColors;
+
+		/**
+		 * Create a sink drawing to the given graphics object.
+		 * 
+		 * @param g Graphics to draw to.
+		 * @param layout Layout that is drawn.
+		 */
+		Graphics2DSink(Graphics2D g, ScheduleLayout layout) {
+			this.g = g;
+			this.top = layout.getTop();
+			this.fill = layout.getOptions().isFill();
+			this.fillColors = new Color[layout.getRowCount()];
+			this.lineColors = new Color[layout.getRowCount()];
+			for (int j = 0; j < layout.getRowCount(); j++) {
+				fillColors[j] = getColor(layout.getFillColor(j));
+				lineColors[j] = getColor(layout.getLineColor(j));
+			}
+			g.setFont(new Font(Font.SERIF, Font.PLAIN, 10));
+		}
+
+		private static Color getColor(String ipeColor) {
+			double[] rgb = IpeColors.getRgb(ipeColor);
+			return new Color((float) rgb[0], (float) rgb[1], (float) rgb[2]);
+		}
+
+		@Override
+		public void block(int row, double x, double y, double width, double height) {
+			int x0 = (int) Math.round(x);
+			int w = Math.max(1, (int) Math.round(x + width) - x0);
+			int y0 = (int) Math.round(top - y - height);
+			int h = (int) Math.round(height);
+			if (fill) {
+				g.setColor(fillColors[row]);
+				g.fillRect(x0, y0, w, h);
+			}
+			// a border only makes sense if there is room for it
+			if (w > 2 || !fill) {
+				g.setColor(lineColors[row]);
+				g.setStroke(SOLID);
+				g.drawRect(x0, y0, w - 1, h - 1);
+			}
+		}
+
+		@Override
+		public void rectangle(double x, double y, double width, double height, boolean dashed) {
+			g.setColor(Color.BLACK);
+			g.setStroke(dashed ? DASHED : SOLID);
+			g.drawRect((int) Math.round(x), (int) Math.round(top - y - height),
+					Math.max(1, (int) Math.round(width)), (int) Math.round(height));
+		}
+
+		@Override
+		public void line(double x1, double y1, double x2, double y2, boolean dashed) {
+			g.setColor(Color.BLACK);
+			g.setStroke(dashed ? DASHED : SOLID);
+			g.drawLine((int) Math.round(x1), (int) Math.round(top - y1),
+					(int) Math.round(x2), (int) Math.round(top - y2));
+		}
+
+		@Override
+		public void text(String text, double x, double y, String halign, String valign) {
+			// labels may contain LaTeX math delimiters, which mean nothing here
+			text = text.replace("$", "");
+			FontMetrics fm = g.getFontMetrics();
+			double px = x;
+			if (halign.equals("center")) {
+				px -= fm.stringWidth(text) / 2.0;
+			} else if (halign.equals("right")) {
+				px -= fm.stringWidth(text);
+			}
+			double py = top - y;
+			if (valign.equals("top")) {
+				py += fm.getAscent();
+			} else if (valign.equals("center")) {
+				py += (fm.getAscent() - fm.getDescent()) / 2.0;
+			}
+			g.setColor(Color.BLACK);
+			g.drawString(text, (float) px, (float) py);
+		}
+
+		@Override
+		public void finish() {
+			// everything is drawn immediately
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * This class can be used to output a schedule to an SVG file. When the
+ * schedule is split into pages, the pages are drawn below each other.
+ * 
+ * @author Thom Castermans
+ */
+public class OutputSvg extends VectorOutput {
+
+	/** Number of decimals used for coordinates. */
+	private static final int DECIMALS = 3;
+
+	/**
+	 * Create a new object capable of outputting to the default output.
+	 */
+	public OutputSvg() {
+		super();
+	}
+
+	/**
+	 * Create a new object capable of outputting to the given file.
+	 * 
+	 * @param file
+	 *            The file to write to.
+	 * @throws FileNotFoundException
+	 *             If given file cannot be found.
+	 */
+	public OutputSvg(File file) throws FileNotFoundException {
+		super(file);
+	}
+
+	@Override
+	protected PrimitiveSink createSink(StringBuilder out, ScheduleLayout layout, int page) {
+		return new SvgSink(out, layout);
+	}
+
+	@Override
+	protected void writeDocumentStart(PrintStream out, ScheduleLayout[] pages) {
+		double width = 0;
+		for (ScheduleLayout page : pages) {
+			width = Math.max(width, page.getRight());
+		}
+		double height = pages.length * getPageHeight(pages[0]);
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+		appendNumber(sb, width, DECIMALS);
+		sb.append("\" height=\"");
+		appendNumber(sb, height, DECIMALS);
+		sb.append("\" viewBox=\"0 0 ");
+		appendNumber(sb, width, DECIMALS);
+		sb.append(' ');
+		appendNumber(sb, height, DECIMALS);
+		sb.append("\" font-family=\"serif\" font-size=\"10\" stroke-width=\"0.4\">\n");
+		sb.append("<rect width=\"100%\" height=\"100%\" fill=\"#ffffff\"/>\n");
+		out.append(sb);
+	}
+
+	@Override
+	protected void writePageStart(PrintStream out, ScheduleLayout page, int index) {
+		StringBuilder sb = new StringBuilder("<g transform=\"translate(0,");
+		appendNumber(sb, index * getPageHeight(page), DECIMALS);
+		sb.append(")\">\n");
+		out.append(sb);
+	}
+
+	@Override
+	protected void writePageEnd(PrintStream out, ScheduleLayout page, int index) {
+		out.println("</g>");
+	}
+
+	@Override
+	protected void writeDocumentEnd(PrintStream out, ScheduleLayout[] pages) {
+		out.println("</svg>");
+	}
+
+	/**
+	 * Return the height of a page in the SVG file.
+	 * 
+	 * @param page Layout of the page.
+	 * @return Height of the page.
+	 */
+	private static double getPageHeight(ScheduleLayout page) {
+		return page.getTop() - page.getBottom();
+	}
+
+	/**
+	 * Writes primitives as SVG elements. The Y-axis is flipped, as it points
+	 * down in SVG.
+	 */
+	private static class SvgSink implements PrimitiveSink {
+
+		private final StringBuilder out;
+		private final double top;
+		private final boolean fill;
+		/** Fill color of every row. */
+		private final String[] fillColors;
+		/** Line color of every row. */
+		private final String[] lineColors;
+		/** Subpaths of the blocks in every row, if paths are batched per row. */
+		private final StringBuilder[] rowPaths;
+
+		/**
+		 * Create a sink writing SVG elements to the given buffer.
+		 * 
+		 * @param out Buffer to write to.
+		 * @param layout Layout of the page.
+		 */
+		SvgSink(StringBuilder out, ScheduleLayout layout) {
+			this.out = out;
+			this.top = layout.getTop();
+			this.fill = layout.getOptions().isFill();
+			this.fillColors = new String[layout.getRowCount()];
+			this.lineColors = new String[layout.getRowCount()];
+			for (int j = 0; j < layout.getRowCount(); j++) {
+				fillColors[j] = (fill ? IpeColors.getHex(layout.getFillColor(j)) : "none");
+				lineColors[j] = IpeColors.getHex(layout.getLineColor(j));
+			}
+			this.rowPaths = (layout.getOptions().isBatchPaths()
+					? new StringBuilder[layout.getRowCount()] : null);
+		}
+
+		@Override
+		public void block(int row, double x, double y, double width, double height) {
+			// Remember block when batching paths per row
+			if (rowPaths != null) {
+				if (rowPaths[row] == null)  rowPaths[row] = new StringBuilder();
+				StringBuilder sb = rowPaths[row];
+				sb.append('M');
+				appendNumber(sb, x, DECIMALS);
+				sb.append(' ');
+				appendNumber(sb, top - y - height, DECIMALS);
+				sb.append('h');
+				appendNumber(sb, width, DECIMALS);
+				sb.append('v');
+				appendNumber(sb, height, DECIMALS);
+				sb.append('h');
+				appendNumber(sb, -width, DECIMALS);
+				sb.append('z');
+				return;
+			}
+			appendRect(x, y, width, height);
+			out.append(" fill=\"").append(fillColors[row])
+				.append("\" stroke=\"").append(lineColors[row]).append("\"/>\n");
+		}
+
+		@Override
+		public void rectangle(double x, double y, double width, double height, boolean dashed) {
+			flushRows();
+			appendRect(x, y, width, height);
+			out.append(" fill=\"none\" stroke=\"#000000\"");
+			if (dashed)  out.append(" stroke-dasharray=\"4\"");
+			out.append("/>\n");
+		}
+
+		@Override
+		public void line(double x1, double y1, double x2, double y2, boolean dashed) {
+			flushRows();
+			out.append("<line x1=\"");
+			appendNumber(out, x1, DECIMALS);
+			out.append("\" y1=\"");
+			appendNumber(out, top - y1, DECIMALS);
+			out.append("\" x2=\"");
+			appendNumber(out, x2, DECIMALS);
+			out.append("\" y2=\"");
+			appendNumber(out, top - y2, DECIMALS);
+			out.append("\" stroke=\"#000000\"");
+			if (dashed)  out.append(" stroke-dasharray=\"4\"");
+			out.append("/>\n");
+		}
+
+		@Override
+		public void text(String text, double x, double y, String halign, String valign) {
+			flushRows();
+			out.append("<text x=\"");
+			appendNumber(out, x, DECIMALS);
+			out.append("\" y=\"");
+			appendNumber(out, top - y, DECIMALS);
+			out.append("\" text-anchor=\"");
+			if (halign.equals("left")) {
+				out.append("start");
+			} else if (halign.equals("right")) {
+				out.append("end");
+			} else {
+				out.append("middle");
+			}
+			out.append("\" dominant-baseline=\"");
+			if (valign.equals("top")) {
+				out.append("hanging");
+			} else if (valign.equals("bottom")) {
+				out.append("auto");
+			} else {
+				out.append("middle");
+			}
+			out.append("\">");
+			// labels may contain LaTeX math delimiters, which mean nothing here
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				switch (c) {
+					case '$' : break;
+					case '&' : out.append("&amp;"); break;
+					case '<' : out.append("&lt;"); break;
+					case '>' : out.append("&gt;"); break;
+					default : out.append(c);
+				}
+			}
+			out.append("</text>\n");
+		}
+
+		@Override
+		public void finish() {
+			flushRows();
+		}
+
+		/**
+		 * Write the blocks that were collected per row, as a single compound path
+		 * per row, and start collecting anew.
+		 */
+		private void flushRows() {
+			if (rowPaths == null)  return;
+			for (int j = 0; j < rowPaths.length; j++) {
+				if (rowPaths[j] == null)  continue;
+				out.append("<path d=\"").append(rowPaths[j])
+					.append("\" fill=\"").append(fillColors[j])
+					.append("\" stroke=\"").append(lineColors[j]).append("\"/>\n");
+				rowPaths[j] = null;
+			}
+		}
+
+
+		private void appendRect(double x, double y, double width, double height) {
+			out.append("<rect x=\"");
+			appendNumber(out, x, DECIMALS);
+			out.append("\" y=\"");
+			appendNumber(out, top - y - height, DECIMALS);
+			out.append("\" width=\"");
+			appendNumber(out, width, DECIMALS);
+			out.append("\" height=\"");
+			appendNumber(out, height, DECIMALS);
+			out.append('"');
+		}
+	}
+}
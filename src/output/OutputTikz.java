@@ -0,0 +1,214 @@
+package output;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * This class can be used to output a schedule to a TikZ picture, that can be
+ * included in a LaTeX document. Every page becomes its own picture. The
+ * colors that are used are defined at the start of the output, which needs
+ * the xcolor package.
+ * 
+ * @author Thom Castermans
+ */
+public class OutputTikz extends VectorOutput {
+
+	/** Number of decimals used for coordinates. */
+	private static final int DECIMALS = 3;
+
+	/**
+	 * Create a new object capable of outputting to the default output.
+	 */
+	public OutputTikz() {
+		super();
+	}
+
+	/**
+	 * Create a new object capable of outputting to the given file.
+	 * 
+	 * @param file
+	 *            The file to write to.
+	 * @throws FileNotFoundException
+	 *             If given file cannot be found.
+	 */
+	public OutputTikz(File file) throws FileNotFoundException {
+		super(file);
+	}
+
+	/**
+	 * Return the name under which an Ipe color is defined in the output.
+	 * Names of colors are prefixed, to not overwrite colors of the document,
+	 * and dashes are removed, as xcolor uses those in color expressions.
+	 * 
+	 * @param ipeColor Name of the color in Ipe.
+	 * @return Name of the color in TikZ.
+	 */
+	static String getColorName(String ipeColor) {
+		if (ipeColor.equals("black"))  return ipeColor;
+		return "sti" + ipeColor.replace("-", "");
+	}
+
+	@Override
+	protected PrimitiveSink createSink(StringBuilder out, ScheduleLayout layout, int page) {
+		return new TikzSink(out, layout);
+	}
+
+	@Override
+	protected void writeDocumentStart(PrintStream out, ScheduleLayout[] pages) {
+		StringBuilder sb = new StringBuilder("% Generated by ScheduleToIpe\n");
+		for (String color : ScheduleLayout.COLORS) {
+			appendColorDefinition(sb, color);
+			if (color.startsWith("task-"))  appendColorDefinition(sb, color + "-border");
+		}
+		out.append(sb);
+	}
+
+	@Override
+	protected void writePageStart(PrintStream out, ScheduleLayout page, int index) {
+		out.println("\\begin{tikzpicture}[x=1pt,y=1pt,line width=0.4pt]");
+	}
+
+	@Override
+	protected void writePageEnd(PrintStream out, ScheduleLayout page, int index) {
+		out.println("\\end{tikzpicture}");
+		out.println();
+	}
+
+	@Override
+	protected void writeDocumentEnd(PrintStream out, ScheduleLayout[] pages) {
+		// nothing to close
+	}
+
+	private static void appendColorDefinition(StringBuilder sb, String ipeColor) {
+		double[] rgb = IpeColors.getRgb(ipeColor);
+		sb.append("\\definecolor{").append(getColorName(ipeColor)).append("}{rgb}{");
+		appendNumber(sb, rgb[0], DECIMALS);
+		sb.append(',');
+		appendNumber(sb, rgb[1], DECIMALS);
+		sb.append(',');
+		appendNumber(sb, rgb[2], DECIMALS);
+		sb.append("}\n");
+	}
+
+	/**
+	 * Writes primitives as TikZ commands.
+	 */
+	private static class TikzSink implements PrimitiveSink {
+
+		private final StringBuilder out;
+		/** Start of the drawing command of every row. */
+		private final String[] rowCommands;
+		/** Rectangles of the blocks in every row, if paths are batched per row. */
+		private final StringBuilder[] rowPaths;
+
+		/**
+		 * Create a sink writing TikZ commands to the given buffer.
+		 * 
+		 * @param out Buffer to write to.
+		 * @param layout Layout of the page.
+		 */
+		TikzSink(StringBuilder out, ScheduleLayout layout) {
+			this.out = out;
+			this.rowCommands = new String[layout.getRowCount()];
+			for (int j = 0; j < layout.getRowCount(); j++) {
+				if (layout.getOptions().isFill()) {
+					rowCommands[j] = "\\filldraw[fill=" + getColorName(layout.getFillColor(j))
+							+ ",draw=" + getColorName(layout.getLineColor(j)) + "]";
+				} else {
+					rowCommands[j] = "\\draw[draw=" + getColorName(layout.getLineColor(j)) + "]";
+				}
+			}
+			this.rowPaths = (layout.getOptions().isBatchPaths()
+					? new StringBuilder[layout.getRowCount()] : null);
+		}
+
+		@Override
+		public void block(int row, double x, double y, double width, double height) {
+			// Remember block when batching paths per row
+			if (rowPaths != null) {
+				if (rowPaths[row] == null)  rowPaths[row] = new StringBuilder();
+				appendRectangle(rowPaths[row], x, y, width, height);
+				return;
+			}
+			out.append(rowCommands[row]);
+			appendRectangle(out, x, y, width, height);
+			out.append(";\n");
+		}
+
+		@Override
+		public void rectangle(double x, double y, double width, double height, boolean dashed) {
+			flushRows();
+			out.append(dashed ? "\\draw[dashed]" : "\\draw");
+			appendRectangle(out, x, y, width, height);
+			out.append(";\n");
+		}
+
+		@Override
+		public void line(double x1, double y1, double x2, double y2, boolean dashed) {
+			flushRows();
+			out.append(dashed ? "\\draw[dashed]" : "\\draw");
+			appendPoint(out, x1, y1);
+			out.append(" --");
+			appendPoint(out, x2, y2);
+			out.append(";\n");
+		}
+
+		@Override
+		public void text(String text, double x, double y, String halign, String valign) {
+			flushRows();
+			String anchor;
+			if (valign.equals("top")) {
+				anchor = "north";
+			} else if (valign.equals("bottom")) {
+				anchor = "south";
+			} else {
+				anchor = "";
+			}
+			if (halign.equals("left")) {
+				anchor = (anchor.length() == 0 ? "west" : anchor + " west");
+			} else if (halign.equals("right")) {
+				anchor = (anchor.length() == 0 ? "east" : anchor + " east");
+			} else if (anchor.length() == 0) {
+				anchor = "center";
+			}
+			out.append("\\node[anchor=").append(anchor).append(",inner sep=0pt] at");
+			appendPoint(out, x, y);
+			out.append(" {").append(text).append("};\n");
+		}
+
+		@Override
+		public void finish() {
+			flushRows();
+		}
+
+		/**
+		 * Write the blocks that were collected per row, as a single drawing command
+		 * per row, and start collecting anew.
+		 */
+		private void flushRows() {
+			if (rowPaths == null)  return;
+			for (int j = 0; j < rowPaths.length; j++) {
+				if (rowPaths[j] == null)  continue;
+				out.append(rowCommands[j]).append(rowPaths[j]).append(";\n");
+				rowPaths[j] = null;
+			}
+		}
+
+
+		private static void appendRectangle(StringBuilder sb, double x, double y,
+				double width, double height) {
+			appendPoint(sb, x, y);
+			sb.append(" rectangle");
+			appendPoint(sb, x + width, y + height);
+		}
+
+		private static void appendPoint(StringBuilder sb, double x, double y) {
+			sb.append(" (");
+			appendNumber(sb, x, DECIMALS);
+			sb.append(',');
+			appendNumber(sb, y, DECIMALS);
+			sb.append(')');
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package output;
+
+/**
+ * A PrimitiveSink receives the primitives (blocks, rectangles, lines and text)
+ * that make up the drawing of a schedule, as produced by a {@link ScheduleLayout},
+ * and writes them in some output format.
+ * 
+ * <p>All coordinates are in points, with the Y-axis pointing up, like in Ipe.
+ * 
+ * @author Thom Castermans
+ */
+public interface PrimitiveSink {
+
+	/**
+	 * Draw a block in the row of a task, indicating that the task runs.
+	 * The colors and fill of the block depend on the row and output options.
+	 * 
+	 * @param row Index of the row of the task.
+	 * @param x X-coordinate of lower-left corner.
+	 * @param y Y-coordinate of lower-left corner.
+	 * @param width Width of the block.
+	 * @param height Height of the block.
+	 */
+	public void block(int row, double x, double y, double width, double height);
+
+	/**
+	 * Draw the border of a black rectangle.
+	 * 
+	 * @param x X-coordinate of lower-left corner.
+	 * @param y Y-coordinate of lower-left corner.
+	 * @param width Width of the rectangle.
+	 * @param height Height of the rectangle.
+	 * @param dashed If the border should be dashed.
+	 */
+	public void rectangle(double x, double y, double width, double height, boolean dashed);
+
+	/**
+	 * Draw a black line.
+	 * 
+	 * @param x1 X-coordinate of first point.
+	 * @param y1 Y-coordinate of first point.
+	 * @param x2 X-coordinate of second point.
+	 * @param y2 Y-coordinate of second point.
+	 * @param dashed If the line should be dashed.
+	 */
+	public void line(double x1, double y1, double x2, double y2, boolean dashed);
+
+	/**
+	 * Draw a label.
+	 * 
+	 * @param text Text of the label.
+	 * @param x X-coordinate of reference point.
+	 * @param y Y-coordinate of reference point.
+	 * @param halign Horizontal alignment with respect to the reference point:
+	 *               {@code "left"}, {@code "center"} or {@code "right"}.
+	 * @param valign Vertical alignment with respect to the reference point:
+	 *               {@code "bottom"}, {@code "center"} or {@code "top"}.
+	 */
+	public void text(String text, double x, double y, String halign, String valign);
+
+	/**
+	 * Called after the last primitive has been drawn, so that a sink
+	 * can output primitives it has collected.
+	 */
+	public void finish();
+}
@@ -0,0 +1,271 @@
+package output;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Schedule;
+import model.Task;
+import model.TaskInstance;
+import model.metrics.ProcessingStats;
+
+/**
+ * A bounded cache of rendered output, shared by output objects. It holds
+ * complete documents, keyed by a content hash of the schedule, the options
+ * and the output format, and fragments containing the blocks of a single
+ * task row on a page. The latter can be reused when only options change that
+ * do not influence blocks, like the labels along the axes.
+ * 
+ * <p>The cache is bounded by the (estimated) number of bytes it holds. When
+ * it grows too large, the least recently used entries are evicted first.
+ * Every lookup is counted as hit or miss in {@link ProcessingStats}.
+ * Objects of this class can safely be used by several threads at once.
+ * 
+ * @author Thom Castermans
+ */
+public class RenderCache {
+
+	/** Default maximum size of a cache, in bytes. */
+	public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** Statistics that every lookup is reported to. */
+	private final ProcessingStats stats = ProcessingStats.getInstance();
+	private final long maxSize;
+	private long size = 0;
+	/** Entries, least recently used first. */
+	private final LinkedHashMap<String, Object> entries =
+			new LinkedHashMap<String, Object>(16, 0.75f, true);
+
+	/**
+	 * Create a cache that holds at most {@link #DEFAULT_MAX_SIZE} bytes.
+	 */
+	public RenderCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Create a cache that holds at most the given number of bytes.
+	 * 
+	 * @param maxSize Maximum size of the cache, in bytes.
+	 */
+	public RenderCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return a rendered document from the cache.
+	 * 
+	 * @param key Key of the document.
+	 * @return The document, or {@code null} if it is not in the cache.
+	 */
+	public byte[] getDocument(String key) {
+		Object value = get("d" + key);
+		stats.cacheLookup(value instanceof byte[]);
+		return (value instanceof byte[] ? (byte[]) value : null);
+	}
+
+	/**
+	 * Store a rendered document in the cache. The array should not be
+	 * modified after storing it.
+	 * 
+	 * @param key Key of the document.
+	 * @param document The rendered document.
+	 */
+	public synchronized void putDocument(String key, byte[] document) {
+		put("d" + key, document, document.length);
+	}
+
+	/**
+	 * Return a rendered fragment from the cache.
+	 * 
+	 * @param key Key of the fragment.
+	 * @return The fragment, or {@code null} if it is not in the cache.
+	 */
+	public String getFragment(String key) {
+		Object value = get("f" + key);
+		stats.cacheLookup(value instanceof String);
+		return (value instanceof String ? (String) value : null);
+	}
+
+	/**
+	 * Store a rendered fragment in the cache.
+	 * 
+	 * @param key Key of the fragment.
+	 * @param fragment The rendered fragment.
+	 */
+	public synchronized void putFragment(String key, String fragment) {
+		put("f" + key, fragment, 2L * fragment.length());
+	}
+
+	/**
+	 * Return the estimated number of bytes held by this cache.
+	 * 
+	 * @return Size of the cache, in bytes.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Remove all entries from this cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	private synchronized Object get(String key) {
+		return entries.get(key);
+	}
+
+	private void put(String key, Object value, long valueSize) {
+		// do not let a single entry flush the whole cache
+		if (valueSize > maxSize / 2)  return;
+		Object old = entries.put(key, value);
+		size += sizeOf(key, value);
+		if (old != null)  size -= sizeOf(key, old);
+		// evict least recently used entries until we fit again
+		Iterator<Map.Entry<String, Object>> it = entries.entrySet().iterator();
+		while (size > maxSize && it.hasNext()) {
+			Map.Entry<String, Object> eldest = it.next();
+			size -= sizeOf(eldest.getKey(), eldest.getValue());
+			it.remove();
+		}
+	}
+
+	private static long sizeOf(String key, Object value) {
+		long valueSize = (value instanceof byte[] ? ((byte[]) value).length
+				: 2L * ((String) value).length());
+		return 2L * key.length() + valueSize;
+	}
+
+	/**
+	 * Return a hash of the contents of a schedule: the tasks, the instances
+	 * and the task that missed its deadline, if any. Schedules with the same
+	 * contents give the same hash, even if they are different objects.
+	 * 
+	 * @param schedule Schedule to hash.
+	 * @return Hash of the schedule, as hexadecimal string.
+	 */
+	public static String hash(Schedule schedule) {
+		MessageDigest digest = createDigest();
+		StringBuilder sb = new StringBuilder();
+		for (Task t : sortByName(schedule.getTasks())) {
+			appendTask(sb, t);
+		}
+		if (!schedule.isFeasible()) {
+			sb.append("missed ");
+			TaskInstance missed = schedule.getMissedTaskLastInstance();
+			if (missed != null)  appendTask(sb, missed.getTask());
+		}
+		update(digest, sb);
+		for (TaskInstance ti : schedule.getTaskInstances()) {
+			sb.setLength(0);
+			sb.append(ti.getTask().getName()).append(' ').append(ti.getStart())
+				.append(' ').append(ti.getEnd());
+			if (schedule.getNumCores() > 1)  sb.append(' ').append(ti.getCore());
+			sb.append('\n');
+			update(digest, sb);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Return a hash of the given tasks, regardless of their order. Sets of
+	 * tasks with the same names and values give the same hash.
+	 * 
+	 * @param tasks Tasks to hash.
+	 * @return Hash of the tasks, as hexadecimal string.
+	 */
+	public static String hash(Collection<Task> tasks) {
+		MessageDigest digest = createDigest();
+		StringBuilder sb = new StringBuilder();
+		for (Task t : sortByName(tasks)) {
+			sb.setLength(0);
+			appendTask(sb, t);
+			update(digest, sb);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Return a hash of the given data, as hexadecimal string.
+	 * 
+	 * @param data Data to hash.
+	 * @return Hash of the data.
+	 */
+	public static String hash(byte[] data) {
+		return toHex(createDigest().digest(data));
+	}
+
+	/**
+	 * Return a hash of the given strings, as hexadecimal string.
+	 * 
+	 * @param parts Strings to hash.
+	 * @return Hash of the strings.
+	 */
+	public static String hash(String... parts) {
+		MessageDigest digest = createDigest();
+		StringBuilder sb = new StringBuilder();
+		for (String part : parts) {
+			sb.setLength(0);
+			sb.append(part.length()).append(':').append(part);
+			update(digest, sb);
+		}
+		return toHex(digest.digest());
+	}
+
+	private static List<Task> sortByName(Collection<Task> tasks) {
+		List<Task> sorted = new ArrayList<Task>(tasks);
+		Collections.sort(sorted, new Comparator<Task>() {
+			@Override
+			public int compare(Task t1, Task t2) {
+				return t1.getName().compareTo(t2.getName());
+			}
+		});
+		return sorted;
+	}
+
+	private static void appendTask(StringBuilder sb, Task t) {
+		sb.append(t.getName()).append(' ').append(t.getPeriod()).append(' ')
+			.append(t.getDeadline()).append(' ').append(t.getExecutionTime()).append(' ')
+			.append(t.getPriority()).append('\n');
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void update(MessageDigest digest, CharSequence cs) {
+		try {
+			digest.update(cs.toString().getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			// every Java platform is required to support UTF-8
+			e.printStackTrace();
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] chars = new char[2 * bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+			chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+}
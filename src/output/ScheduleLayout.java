@@ -0,0 +1,605 @@
+package output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Schedule;
+import model.Task;
+import model.TaskInstance;
+
+/**
+ * The layout of the part of a schedule between two points in time. This
+ * class decides where blocks, axes and labels go, independent of the output
+ * format: all of those are sent as primitives to a {@link PrimitiveSink}.
+ * 
+ * <p>Time {@code from} is drawn at {@link #OFFSET_X}, the rows of the tasks
+ * are drawn below {@link #OFFSET_Y}. A schedule on more than one core also
+ * gets a lane per core below the rows of the tasks, which shows which task
+ * runs on the core.
+ * 
+ * @author Thom Castermans
+ */
+public class ScheduleLayout {
+
+	/** List of colors used for tasks, by name in Ipe. */
+	public static final String[] COLORS = {
+			// ScheduleToIpe colors
+			"task-red", "task-green", "task-blue", "task-yellow",
+			// Default Ipe colors
+			"red", "green", "blue",
+			"yellow", "orange", "gold", "purple", "gray", "brown", "navy",
+			"pink", "seagreen", "turquoise", "violet", "darkblue", "darkcyan",
+			"darkgray", "darkgreen", "darkmagenta", "darkorange", "darkred",
+			"lightblue", "lightcyan", "lightgray", "lightgreen", "lightyellow" };
+	/** Size of grid, used in outputting graph. */
+	public static final int GRID_SIZE = 16;
+	/**
+	 * Offset for graph, over X-axis. This is the X-coordinate of
+	 * the upper-left corner of the drawing.
+	 */
+	public static final int OFFSET_X = 16 + 7 * GRID_SIZE;
+	/**
+	 * Offset for graph, over Y-axis. This is the Y-coordinate of
+	 * the upper-left corner of the drawing.
+	 */
+	public static final int OFFSET_Y = 832 - 4 * GRID_SIZE;
+	/** Padding, used in drawing squares. */
+	public static final double PADDING = 0.5;
+	/** Space around text. */
+	public static final int TEXT_MARGIN = GRID_SIZE / 5;
+	/** Estimated width of a single character in a label. */
+	public static final int LABEL_CHAR_WIDTH = 5;
+
+	private final Schedule schedule;
+	private final List<Task> tasks;
+	private final CompiledOutputIpeOptions options;
+	private final int from;
+	private final int to;
+	private final int until;
+	/** Width of one time unit in the drawing. */
+	private final double timeScale;
+	/** Number of cores of the schedule. */
+	private final int numCores;
+	/** Number of rows in the drawing: the rows of the tasks and the lanes of the cores. */
+	private final int numRows;
+	/** Index of the row of every task. */
+	private final Map<Task, Integer> rows;
+	/** Fill color of every row. */
+	private final String[] fillColors;
+	/** Line color of every row. */
+	private final String[] lineColors;
+	/** Title drawn above the rows, if any. */
+	private String title = null;
+
+	/**
+	 * Create the layout of a part of a schedule.
+	 * 
+	 * @param schedule Schedule to lay out.
+	 * @param tasks Tasks in the schedule, in the order of the rows.
+	 * @param options Options for output.
+	 * @param from Time at which the part starts.
+	 * @param to Time at which the part ends.
+	 * @param until Time up to where the whole schedule is drawn.
+	 */
+	public ScheduleLayout(Schedule schedule, List<Task> tasks, CompiledOutputIpeOptions options,
+			int from, int to, int until) {
+		this(schedule, tasks, options, from, to, until, GRID_SIZE);
+	}
+
+	/**
+	 * Create the layout of a part of a schedule, where one time unit is
+	 * drawn with the given width instead of {@link #GRID_SIZE}. The height of
+	 * rows is not affected by this.
+	 * 
+	 * @param schedule Schedule to lay out.
+	 * @param tasks Tasks in the schedule, in the order of the rows.
+	 * @param options Options for output.
+	 * @param from Time at which the part starts.
+	 * @param to Time at which the part ends.
+	 * @param until Time up to where the whole schedule is drawn.
+	 * @param timeScale Width of one time unit.
+	 */
+	public ScheduleLayout(Schedule schedule, List<Task> tasks, CompiledOutputIpeOptions options,
+			int from, int to, int until, double timeScale) {
+		this.schedule = schedule;
+		this.tasks = tasks;
+		this.options = options;
+		this.from = from;
+		this.to = to;
+		this.until = until;
+		this.timeScale = timeScale;
+		this.numCores = schedule.getNumCores();
+		this.numRows = tasks.size() + (numCores > 1 ? numCores : 0);
+
+		this.rows = new HashMap<Task, Integer>();
+		this.fillColors = new String[tasks.size()];
+		this.lineColors = new String[tasks.size()];
+		for (int j = 0; j < tasks.size(); j++) {
+			rows.put(tasks.get(j), j);
+			// deciding the colors based on the options
+			if (options.isUseColors()) {
+				fillColors[j] = COLORS[j % COLORS.length];
+			} else {
+				fillColors[j] = "black";
+			}
+			// Make use of special ScheduleToIpe bordercolors
+			if (fillColors[j].startsWith("task-")) {
+				lineColors[j] = fillColors[j] + "-border";
+			} else {
+				lineColors[j] = fillColors[j];
+			}
+		}
+	}
+
+	/**
+	 * Return the tasks in the given schedule, in the order in which their
+	 * rows are drawn (sorted by name, in reverse).
+	 * 
+	 * @param schedule Schedule to get the tasks of.
+	 * @return Tasks of the schedule, sorted.
+	 */
+	public static List<Task> getSortedTasks(Schedule schedule) {
+		ArrayList<Task> tasks = new ArrayList<Task>(schedule.getTasks());
+		Collections.sort(tasks, new Comparator<Task>() {
+			@Override
+			public int compare(Task o1, Task o2) {
+				return o2.getName().compareTo(o1.getName());
+			}
+		});
+		return tasks;
+	}
+
+	/**
+	 * Return up to where the given schedule should be drawn, depending on
+	 * the "scheduleMaxLength" option.
+	 * 
+	 * @param schedule Schedule that is drawn.
+	 * @param options Options for output.
+	 * @return Time up to where the schedule should be drawn.
+	 */
+	public static int getUntil(Schedule schedule, CompiledOutputIpeOptions options) {
+		int maxOption = options.getScheduleMaxLength();
+		int until = maxOption;
+		if (maxOption == -1) {
+			if (schedule.isFeasible()) {
+				until = schedule.getLcm();
+			} else {
+				until = schedule.getMissTime();
+			}
+		} else if (maxOption == 0) {
+			until = schedule.getLcm();
+		}
+		return until;
+	}
+
+	/**
+	 * Return the smallest "nice" distance between labels along the X-axis (1,
+	 * 2 or 5 times a power of ten time units), such that labels of the given
+	 * width do not overlap.
+	 * 
+	 * @param labelWidth Width of a label, including margin.
+	 * @param timeScale Width of one time unit.
+	 * @return Distance between labels, in time units.
+	 */
+	static double getLabelStepSize(double labelWidth, double timeScale) {
+		int[] multipliers = { 1, 2, 5 };
+		for (long power = 1; ; power *= 10) {
+			for (int m : multipliers) {
+				if (m * power * timeScale >= labelWidth)  return m * power;
+			}
+		}
+	}
+
+	/**
+	 * Return the options this layout was created with.
+	 * 
+	 * @return Options for output.
+	 */
+	public CompiledOutputIpeOptions getOptions() {
+		return options;
+	}
+
+	/**
+	 * Set the title that is drawn above the rows, for example the name of the
+	 * algorithm when schedules are compared.
+	 * 
+	 * @param title Title to draw, or {@code null} to not draw a title.
+	 */
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	/**
+	 * Return the number of task rows.
+	 * 
+	 * @return Number of rows.
+	 */
+	public int getRowCount() {
+		return tasks.size();
+	}
+
+	/**
+	 * Return the fill color of the blocks in a row, by name in Ipe.
+	 * 
+	 * @param row Index of the row.
+	 * @return Fill color of the row.
+	 */
+	public String getFillColor(int row) {
+		return fillColors[row];
+	}
+
+	/**
+	 * Return the border color of the blocks in a row, by name in Ipe.
+	 * 
+	 * @param row Index of the row.
+	 * @return Border color of the row.
+	 */
+	public String getLineColor(int row) {
+		return lineColors[row];
+	}
+
+	/**
+	 * Return the right side of the bounding box of the drawing.
+	 * The left side is at zero.
+	 * 
+	 * @return Maximum X-coordinate of the drawing.
+	 */
+	public double getRight() {
+		return x(to) + 2 * GRID_SIZE;
+	}
+
+	/**
+	 * Return the top side of the bounding box of the drawing.
+	 * 
+	 * @return Maximum Y-coordinate of the drawing.
+	 */
+	public double getTop() {
+		return OFFSET_Y + 2 * GRID_SIZE;
+	}
+
+	/**
+	 * Return the bottom side of the bounding box of the drawing.
+	 * 
+	 * @return Minimum Y-coordinate of the drawing.
+	 */
+	public double getBottom() {
+		return OFFSET_Y - GRID_SIZE * (numRows + 2);
+	}
+
+	/**
+	 * Return the X-coordinate of the given time.
+	 * 
+	 * @param time Time to convert.
+	 * @return X-coordinate of given time.
+	 */
+	public double x(double time) {
+		return OFFSET_X + timeScale * (time - from);
+	}
+
+	/**
+	 * Send the primitives that make up this part of the schedule to a sink.
+	 * 
+	 * @param sink Sink to draw to.
+	 */
+	public void draw(PrimitiveSink sink) {
+		draw(sink, from, to);
+	}
+
+	/**
+	 * Send the primitives that make up this part of the schedule to a sink,
+	 * skipping blocks and labels that lie completely outside of the given
+	 * window of time. Primitives that are only partially inside the window are
+	 * not cut off, so this can be used to draw tiles of a drawing that is
+	 * clipped by the sink.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param windowFrom Start of the window of time.
+	 * @param windowTo End of the window of time.
+	 */
+	public void draw(PrimitiveSink sink, double windowFrom, double windowTo) {
+		// Draw tasks
+		drawBlocks(sink, -1, windowFrom, windowTo);
+
+		drawAxes(sink, windowFrom, windowTo);
+
+		sink.finish();
+	}
+
+	/**
+	 * Send the blocks in a single task row of this part of the schedule to a
+	 * sink. The sink is not finished.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param row Index of the row to draw.
+	 */
+	public void drawRow(PrimitiveSink sink, int row) {
+		drawBlocks(sink, row, from, to);
+	}
+
+	/**
+	 * Send everything but the blocks of this part of the schedule to a sink:
+	 * the axes, labels and the deadline miss, if any. The sink is not finished.
+	 * 
+	 * @param sink Sink to draw to.
+	 */
+	public void drawAxes(PrimitiveSink sink) {
+		drawAxes(sink, from, to);
+	}
+
+	/**
+	 * Draw the blocks in one or all rows that fall in the given window of time.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param row Index of the row to draw, or -1 to draw all rows.
+	 * @param windowFrom Start of the window of time.
+	 * @param windowTo End of the window of time.
+	 */
+	private void drawBlocks(PrimitiveSink sink, int row, double windowFrom, double windowTo) {
+		double lodWidth = options.getLevelOfDetail() / 100.0;
+		if (lodWidth > 0) {
+			drawBlocksAggregated(sink, row, lodWidth, windowFrom - lodWidth, windowTo + lodWidth);
+		} else {
+			drawInstances(sink, row, windowFrom, windowTo);
+		}
+	}
+
+	/**
+	 * Draw the axes, labels and deadline miss that fall in the given window of time.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param windowFrom Start of the window of time.
+	 * @param windowTo End of the window of time.
+	 */
+	private void drawAxes(PrimitiveSink sink, double windowFrom, double windowTo) {
+		// Some variable declarations
+		int j;
+
+		// Draw axis
+		sink.line(x(from), OFFSET_Y - GRID_SIZE * numRows,
+				x(to), OFFSET_Y - GRID_SIZE * numRows, false);
+		sink.line(x(from), OFFSET_Y,
+				x(from), OFFSET_Y - GRID_SIZE * numRows, false);
+		// separate lanes of cores from rows of tasks
+		if (numCores > 1) {
+			sink.line(x(from), OFFSET_Y - GRID_SIZE * tasks.size(),
+					x(to), OFFSET_Y - GRID_SIZE * tasks.size(), false);
+		}
+
+		// write X-axis scale
+		int xAxisNumbering = options.getXAxisNumbering();
+		if (xAxisNumbering != 0) { // we want to use a numbering
+			// getting pre-/postfix
+			String prefix = options.getXAxisPreLabelText();
+			String postfix = options.getXAxisPostLabelText();
+
+			// writing the numbers that fall in this part
+			int labelWidth = LABEL_CHAR_WIDTH * (prefix.length() + String.valueOf(until).length()
+					+ postfix.length()) + 2 * TEXT_MARGIN;
+			double stepSize = xAxisNumbering < 0 ? 1 : ((double) until / (xAxisNumbering - 1));
+			// in level of detail mode, or when time is drawn compressed, do not write
+			// more labels than fit along the axis
+			if (xAxisNumbering < 0 && (options.getLevelOfDetail() > 0 || timeScale < GRID_SIZE)) {
+				stepSize = getLabelStepSize(labelWidth, timeScale);
+			}
+			double labelFrom = Math.max(from, windowFrom - labelWidth / timeScale);
+			double labelTo = Math.min(to, windowTo + labelWidth / timeScale);
+			for (long k = Math.max(0, (long) Math.floor(labelFrom / stepSize) - 1); ; k++) {
+				double i = (k == 0 ? 0 : k * stepSize);
+				if (i > until)  break;
+				int writeAt = (int) Math.round(i);
+				if (writeAt < labelFrom)  continue;
+				if (writeAt > labelTo)  break;
+				sink.text(prefix + writeAt + postfix, x(writeAt),
+						OFFSET_Y - GRID_SIZE * numRows - TEXT_MARGIN, "center", "top");
+			}
+		}
+
+		// write Y-axis task names
+		String taskPrefix = options.getYAxisPreLabelText();
+		String taskPostfix = options.getYAxisPostLabelText();
+
+		// looping over the tasks
+		j = 0;
+		for (Task tt : tasks) {
+			String string = taskPrefix + tt.getName() + taskPostfix;
+			sink.text(string, x(from) - TEXT_MARGIN, OFFSET_Y
+					+ GRID_SIZE * (j - tasks.size()) + GRID_SIZE / 2, "right",
+					"center");
+			j++;
+		}
+		if (numCores > 1) {
+			for (int k = 0; k < numCores; k++) {
+				sink.text("CPU " + (k + 1), x(from) - TEXT_MARGIN, laneY(k) + GRID_SIZE / 2,
+						"right", "center");
+			}
+		}
+
+		if (title != null) {
+			sink.text(title, x(from), OFFSET_Y + GRID_SIZE, "left", "bottom");
+		}
+
+		// Draw deadline miss, if any
+		if (!schedule.isFeasible()) {
+			// First, draw dashed border around last instance of task that
+			// missed its deadline and draw a dashed line where the deadline is.
+			// The task may never have run, then there is no instance to mark.
+			TaskInstance lastTaskInstance = schedule.getMissedTaskLastInstance();
+			j = rows.get(schedule.getMissedTask());
+			int deadline = schedule.getMissTime();
+			// only draw deadlinemiss if it falls in interval that is drawn
+			if (deadline <= until) {
+				double start = (lastTaskInstance == null ? to : Math.max(from, lastTaskInstance.getStart()));
+				double end = (lastTaskInstance == null ? from : Math.min(to, lastTaskInstance.getEnd()));
+				if (start < end) {
+					sink.rectangle(x(start), OFFSET_Y + GRID_SIZE * (j - tasks.size()),
+							timeScale * (end - start), GRID_SIZE, true);
+				}
+				if (from <= deadline && deadline <= to) {
+					sink.line(x(deadline), OFFSET_Y - GRID_SIZE * numRows,
+							x(deadline), OFFSET_Y + GRID_SIZE, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draw every task instance in this part and the given window as its own block.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param row Index of the row to draw, or -1 to draw all rows.
+	 * @param windowFrom Start of the window of time.
+	 * @param windowTo End of the window of time.
+	 */
+	private void drawInstances(PrimitiveSink sink, int row, double windowFrom, double windowTo) {
+		double lo = Math.max(from, windowFrom);
+		double hi = Math.min(to, windowTo);
+		List<TaskInstance> taskInstances = schedule.getTaskInstances();
+		for (int i = schedule.indexOfTaskInstanceAt(lo); i < taskInstances.size(); i++) {
+			TaskInstance curTaskInstance = taskInstances.get(i);
+			if (curTaskInstance.getStart() >= hi)
+				break;
+			int j = rows.get(curTaskInstance.getTask());
+			if (row >= 0 && j != row)
+				continue;
+			// on more cores, instances before the first one may still be running
+			if (curTaskInstance.getEnd() <= lo)
+				continue;
+			TaskInstance prevTaskInstance = (i > 0 ? taskInstances.get(i - 1) : null);
+
+			// make sure we do not draw too much
+			double start = Math.max(from, curTaskInstance.getStart());
+			double end = Math.min(to, curTaskInstance.getEnd());
+			if (numCores > 1) {
+				// instances next to each other in the list may run on different cores
+				drawBlock(sink, j, start, end, false);
+				drawLaneBlock(sink, j, laneY(curTaskInstance.getCore()), start, end);
+			} else {
+				drawBlock(sink, j, start, end,
+						prevTaskInstance != null
+								&& curTaskInstance.getTask().equals(prevTaskInstance.getTask()));
+			}
+		}
+	}
+
+	/**
+	 * Draw the task instances in this part, aggregated per task row. Instances
+	 * of a task that are less than {@code minWidth} apart are merged into a
+	 * single block, and blocks that are narrower than {@code minWidth} after
+	 * that are dropped. This way, the number of blocks in a row is bounded by
+	 * the width of the row rather than by the number of instances.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param row Index of the row to draw, or -1 to draw all rows.
+	 * @param minWidth Minimum width of a block, in time units.
+	 * @param windowFrom Start of the window of time.
+	 * @param windowTo End of the window of time.
+	 */
+	private void drawBlocksAggregated(PrimitiveSink sink, int row, double minWidth,
+			double windowFrom, double windowTo) {
+		double[] runStart = new double[tasks.size()];
+		double[] runEnd = new double[tasks.size()];
+		boolean[] hasRun = new boolean[tasks.size()];
+		// on more cores, blocks in the lanes are merged per task and core
+		int numLanes = (numCores > 1 ? tasks.size() * numCores : 0);
+		double[] laneStart = new double[numLanes];
+		double[] laneEnd = new double[numLanes];
+		boolean[] hasLane = new boolean[numLanes];
+
+		double lo = Math.max(from, windowFrom);
+		double hi = Math.min(to, windowTo);
+		List<TaskInstance> taskInstances = schedule.getTaskInstances();
+		for (int i = schedule.indexOfTaskInstanceAt(lo); i < taskInstances.size(); i++) {
+			TaskInstance curTaskInstance = taskInstances.get(i);
+			if (curTaskInstance.getStart() >= hi)
+				break;
+			int j = rows.get(curTaskInstance.getTask());
+			if (row >= 0 && j != row)
+				continue;
+			if (curTaskInstance.getEnd() <= lo)
+				continue;
+			double start = Math.max(from, curTaskInstance.getStart());
+			double end = Math.min(to, curTaskInstance.getEnd());
+			if (numLanes > 0) {
+				int l = j * numCores + curTaskInstance.getCore();
+				if (hasLane[l] && start - laneEnd[l] < minWidth) {
+					laneEnd[l] = Math.max(laneEnd[l], end);
+				} else {
+					if (hasLane[l] && laneEnd[l] - laneStart[l] >= minWidth) {
+						drawLaneBlock(sink, j, laneY(curTaskInstance.getCore()), laneStart[l], laneEnd[l]);
+					}
+					laneStart[l] = start;
+					laneEnd[l] = end;
+					hasLane[l] = true;
+				}
+			}
+			if (hasRun[j] && start - runEnd[j] < minWidth) {
+				// close enough to previous block: merge
+				runEnd[j] = Math.max(runEnd[j], end);
+			} else {
+				if (hasRun[j] && runEnd[j] - runStart[j] >= minWidth) {
+					drawBlock(sink, j, runStart[j], runEnd[j], false);
+				}
+				runStart[j] = start;
+				runEnd[j] = end;
+				hasRun[j] = true;
+			}
+		}
+		for (int j = 0; j < tasks.size(); j++) {
+			if (hasRun[j] && runEnd[j] - runStart[j] >= minWidth) {
+				drawBlock(sink, j, runStart[j], runEnd[j], false);
+			}
+		}
+		for (int l = 0; l < numLanes; l++) {
+			if (hasLane[l] && laneEnd[l] - laneStart[l] >= minWidth) {
+				drawLaneBlock(sink, l / numCores, laneY(l % numCores), laneStart[l], laneEnd[l]);
+			}
+		}
+	}
+
+	/**
+	 * Draw a block in the row of a task.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param j Index of the row of the task.
+	 * @param start Time at which the block starts.
+	 * @param end Time at which the block ends.
+	 * @param continues If the block continues a block of the same task.
+	 */
+	private void drawBlock(PrimitiveSink sink, int j, double start, double end, boolean continues) {
+		sink.block(j,
+				x(start) + (continues ? -PADDING : PADDING),
+				OFFSET_Y + GRID_SIZE * (j - tasks.size()) + PADDING,
+				timeScale * (end - start) - (continues ? 0 : 2 * PADDING),
+				GRID_SIZE - 2 * PADDING);
+	}
+
+	/**
+	 * Draw a block of a task in the lane of a core, in the colors of the
+	 * row of the task.
+	 * 
+	 * @param sink Sink to draw to.
+	 * @param j Index of the row of the task.
+	 * @param y Y-coordinate of the bottom of the lane.
+	 * @param start Time at which the block starts.
+	 * @param end Time at which the block ends.
+	 */
+	private void drawLaneBlock(PrimitiveSink sink, int j, double y, double start, double end) {
+		sink.block(j, x(start) + PADDING, y + PADDING,
+				timeScale * (end - start) - 2 * PADDING, GRID_SIZE - 2 * PADDING);
+	}
+
+	/**
+	 * Return the Y-coordinate of the bottom of the lane of a core. Lanes are
+	 * drawn below the rows of the tasks, the first core at the top.
+	 * 
+	 * @param core Index of the core.
+	 * @return Y-coordinate of the bottom of the lane.
+	 */
+	private double laneY(int core) {
+		return OFFSET_Y - GRID_SIZE * (tasks.size() + core + 1);
+	}
+}
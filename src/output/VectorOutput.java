@@ -0,0 +1,495 @@
+package output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.Schedule;
+import model.Task;
+import model.metrics.CountingOutputStream;
+import model.metrics.Metrics;
+import model.metrics.PhaseTimer;
+
+/**
+ * The part of outputting a schedule that all vector formats share. The
+ * schedule is split into pages, every page is laid out by a
+ * {@link ScheduleLayout} and drawn to a {@link PrimitiveSink} of the output
+ * format on a worker thread, into its own buffer. The buffers are then
+ * written in order, surrounded by whatever the output format needs.
+ * 
+ * @author Thom Castermans
+ */
+public abstract class VectorOutput {
+
+	/** Powers of ten, used to format numbers. */
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L,
+			100000L, 1000000L, 10000000L, 100000000L, 1000000000L };
+
+	private File outFile = null;
+	private RenderCache cache = null;
+
+	/**
+	 * Create a new object capable of outputting to the default output.
+	 */
+	protected VectorOutput() {
+		// output to System.out
+	}
+
+	/**
+	 * Create a new object capable of outputting to the given file.
+	 * 
+	 * @param file
+	 *            The file to write to.
+	 * @throws FileNotFoundException
+	 *             If given file cannot be found.
+	 */
+	protected VectorOutput(File file) throws FileNotFoundException {
+		// do not open the file yet, that would empty it before anything is rendered
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (file.isDirectory() || (file.exists() && !file.canWrite()) || dir == null || !dir.isDirectory()) {
+			throw new FileNotFoundException(file + " cannot be written");
+		}
+		outFile = file;
+	}
+
+	/**
+	 * Set the cache to look up and store rendered output in. When no cache is
+	 * set, output is rendered from scratch every time.
+	 * 
+	 * @param cache Cache to use, or {@code null} to not use a cache.
+	 */
+	public void setRenderCache(RenderCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Return the cache that rendered output is looked up and stored in.
+	 * 
+	 * @return The cache, or {@code null} if no cache is used.
+	 */
+	public RenderCache getRenderCache() {
+		return cache;
+	}
+
+	/**
+	 * Output the given schedule to the file given at construction or standard
+	 * output, depending on how this object was constructed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 */
+	public void output(Schedule schedule, OutputIpeOptions options) {
+		output(schedule, options.compile());
+	}
+
+	/**
+	 * Output the given schedule to the file given at construction or standard
+	 * output, depending on how this object was constructed.
+	 * 
+	 * <p>When the option "pageWidth" is positive, the timeline is split into
+	 * pieces of that many time units. Every piece is rendered on a worker thread
+	 * into its own buffer, after which the pieces are written in order.
+	 * 
+	 * <p>A file is only replaced once the whole document is rendered, so that
+	 * a canceled export leaves the previous file as it was.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options) {
+		if (outFile == null) {
+			output(schedule, options, System.out);
+			return;
+		}
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		output(schedule, options, buffer);
+		if (Thread.currentThread().isInterrupted())  return;
+		try {
+			replaceFile(outFile, buffer.toByteArray());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Replace the given file by one with the given data. The data is first
+	 * written to a temporary file next to it, which is then moved over the
+	 * file, so that the file is never seen half-written.
+	 * 
+	 * @param file File to replace.
+	 * @param data Data to write.
+	 * @throws IOException If writing or moving fails.
+	 */
+	static void replaceFile(File file, byte[] data) throws IOException {
+		File temp = File.createTempFile("." + file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			OutputStream os = new FileOutputStream(temp);
+			try {
+				os.write(data);
+			} finally {
+				os.close();
+			}
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			// only left behind when something went wrong
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Output the given schedule to the given stream, instead of the file given
+	 * at construction or standard output. The stream is flushed, but not
+	 * closed.
+	 * 
+	 * @param schedule
+	 *            The schedule to be outputted.
+	 * @param options
+	 *            Options for output.
+	 * @param stream
+	 *            Stream to write to.
+	 */
+	public void output(Schedule schedule, CompiledOutputIpeOptions options, OutputStream stream) {
+		PrintStream out = new PrintStream(stream);
+		if (cache == null) {
+			writeSchedule(out, schedule, options);
+		} else {
+			writeCachedSchedule(out, schedule, options);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Output the given schedules, one after another, as a single document to
+	 * the given stream. Every schedule starts on a new page, which shows its
+	 * title. All pages of all schedules are rendered at the same time. The
+	 * stream is flushed, but not closed, and the cache is not used.
+	 * 
+	 * @param schedules
+	 *            The schedules to be outputted.
+	 * @param titles
+	 *            Title of every schedule, or {@code null} for no titles.
+	 * @param options
+	 *            Options for output.
+	 * @param stream
+	 *            Stream to write to.
+	 */
+	public void output(List<Schedule> schedules, List<String> titles, CompiledOutputIpeOptions options,
+			OutputStream stream) {
+		PrintStream out = new PrintStream(stream);
+		for (Schedule schedule : schedules) {
+			schedule.compress();
+		}
+		writeSchedules(out, schedules, titles, options, null);
+		out.flush();
+	}
+
+	/**
+	 * Write the given schedule to the given stream.
+	 * 
+	 * @param out Stream to write to.
+	 * @param schedule The schedule to be outputted.
+	 * @param options Options for output.
+	 */
+	protected void writeSchedule(PrintStream out, Schedule schedule,
+			CompiledOutputIpeOptions options) {
+		// Compress schedule, it is easier to have nice output like this
+		schedule.compress();
+		writeSchedule(out, schedule, options, null);
+	}
+
+	/**
+	 * Write the given schedule to the given stream, or copy it from the cache
+	 * if the same schedule was written with the same options before.
+	 * 
+	 * @param out Stream to write to.
+	 * @param schedule The schedule to be outputted.
+	 * @param options Options for output.
+	 */
+	private void writeCachedSchedule(PrintStream out, Schedule schedule,
+			CompiledOutputIpeOptions options) {
+		// Compress schedule first, so that the hash does not depend on it
+		schedule.compress();
+		String scheduleHash = RenderCache.hash(schedule);
+		String key = RenderCache.hash(getClass().getName(), scheduleHash, options.toString());
+		byte[] document = cache.getDocument(key);
+		if (document == null) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			PrintStream bufferStream = new PrintStream(buffer);
+			writeSchedule(bufferStream, schedule, options, scheduleHash);
+			bufferStream.flush();
+			document = buffer.toByteArray();
+			// do not remember incomplete output
+			if (Thread.currentThread().isInterrupted())  return;
+			cache.putDocument(key, document);
+		}
+		PhaseTimer timer = Metrics.start(Metrics.Phase.WRITE);
+		out.write(document, 0, document.length);
+		out.flush();
+		timer.addBytes(document.length);
+		timer.stop();
+	}
+
+	/**
+	 * Write the given compressed schedule to the given stream. All pages are
+	 * rendered before the document is written, so that both phases can be
+	 * timed separately.
+	 * 
+	 * @param out Stream to write to.
+	 * @param schedule The schedule to be outputted.
+	 * @param options Options for output.
+	 * @param scheduleHash Hash of the schedule, used to look up rows in the
+	 *            cache, or {@code null} if rows should not be cached.
+	 */
+	private void writeSchedule(PrintStream out, Schedule schedule,
+			CompiledOutputIpeOptions options, String scheduleHash) {
+		writeSchedules(out, Collections.singletonList(schedule), null, options, scheduleHash);
+	}
+
+	/**
+	 * Write the given compressed schedules as a single document to the given
+	 * stream, one after another.
+	 * 
+	 * @param out Stream to write to.
+	 * @param schedules The schedules to be outputted.
+	 * @param titles Title of every schedule, or {@code null} for no titles.
+	 * @param options Options for output.
+	 * @param scheduleHash Hash of the schedule, used to look up rows in the
+	 *            cache, or {@code null} if rows should not be cached. Only
+	 *            used for a single schedule.
+	 */
+	private void writeSchedules(PrintStream out, List<Schedule> schedules, List<String> titles,
+			CompiledOutputIpeOptions options, String scheduleHash) {
+		PhaseTimer timer = Metrics.start(Metrics.Phase.RENDER);
+		List<ScheduleLayout> layoutList = new ArrayList<ScheduleLayout>();
+		List<String> pageKeys = new ArrayList<String>();
+		for (int i = 0; i < schedules.size(); i++) {
+			Schedule schedule = schedules.get(i);
+			List<Task> tasks = ScheduleLayout.getSortedTasks(schedule);
+			int until = ScheduleLayout.getUntil(schedule, options);
+
+			// Split the timeline into pages
+			int pageWidth = options.getPageWidth();
+			if (pageWidth <= 0 || pageWidth > until)  pageWidth = Math.max(until, 1);
+			int numPages = (until + pageWidth - 1) / pageWidth;
+			if (numPages < 1)  numPages = 1;
+			for (int p = 0; p < numPages; p++) {
+				int from = p * pageWidth;
+				int to = Math.min(until, from + pageWidth);
+				ScheduleLayout layout = new ScheduleLayout(schedule, tasks, options, from, to, until);
+				if (titles != null)  layout.setTitle(titles.get(i));
+				layoutList.add(layout);
+				pageKeys.add(scheduleHash == null ? null : RenderCache.hash(getClass().getName(),
+						scheduleHash, from + "-" + to + "-" + until, String.valueOf(p), getBlockOptions(options)));
+			}
+		}
+
+		// Render every page on a worker thread, into its own buffer
+		int numPages = layoutList.size();
+		ScheduleLayout[] layouts = layoutList.toArray(new ScheduleLayout[numPages]);
+		ArrayList<Future<StringBuilder>> pages = new ArrayList<Future<StringBuilder>>(numPages);
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(numPages, Runtime.getRuntime().availableProcessors()));
+		for (int p = 0; p < numPages; p++) {
+			pages.add(executor.submit(new PageRenderer(layouts[p], p, pageKeys.get(p))));
+		}
+		executor.shutdown();
+		StringBuilder[] buffers = new StringBuilder[numPages];
+		for (int p = 0; p < numPages; p++) {
+			try {
+				buffers[p] = pages.get(p).get();
+			} catch (InterruptedException e) {
+				// we are canceled: stop rendering and leave the output incomplete
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				timer.stop();
+				return;
+			} catch (ExecutionException e) {
+				// a missing page must not go unnoticed, nor end up in the cache
+				executor.shutdownNow();
+				timer.stop();
+				if (e.getCause() instanceof RuntimeException)  throw (RuntimeException) e.getCause();
+				if (e.getCause() instanceof Error)  throw (Error) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		timer.stop();
+
+		// Write the pages in order
+		timer = Metrics.start(Metrics.Phase.WRITE);
+		PrintStream target = (Metrics.isEnabled() ? new PrintStream(new CountingOutputStream(out, timer)) : out);
+		writeDocumentStart(target, layouts);
+		for (int p = 0; p < numPages; p++) {
+			writePageStart(target, layouts[p], p);
+			if (buffers[p] != null)  target.append(buffers[p]);
+			writePageEnd(target, layouts[p], p);
+		}
+		writeDocumentEnd(target, layouts);
+		target.flush();
+		timer.stop();
+	}
+
+	/**
+	 * Create a sink that writes primitives of a page in the output format.
+	 * 
+	 * @param out Buffer to write to.
+	 * @param layout Layout of the page.
+	 * @param page Index of the page.
+	 * @return A sink for the page.
+	 */
+	protected abstract PrimitiveSink createSink(StringBuilder out, ScheduleLayout layout, int page);
+
+	/**
+	 * Write whatever the output format needs before the first page.
+	 * 
+	 * @param out Stream to write to.
+	 * @param pages Layouts of all pages.
+	 */
+	protected abstract void writeDocumentStart(PrintStream out, ScheduleLayout[] pages);
+
+	/**
+	 * Write whatever the output format needs before a page.
+	 * 
+	 * @param out Stream to write to.
+	 * @param page Layout of the page.
+	 * @param index Index of the page.
+	 */
+	protected abstract void writePageStart(PrintStream out, ScheduleLayout page, int index);
+
+	/**
+	 * Write whatever the output format needs after a page.
+	 * 
+	 * @param out Stream to write to.
+	 * @param page Layout of the page.
+	 * @param index Index of the page.
+	 */
+	protected abstract void writePageEnd(PrintStream out, ScheduleLayout page, int index);
+
+	/**
+	 * Write whatever the output format needs after the last page.
+	 * 
+	 * @param out Stream to write to.
+	 * @param pages Layouts of all pages.
+	 */
+	protected abstract void writeDocumentEnd(PrintStream out, ScheduleLayout[] pages);
+
+	/**
+	 * Append a number with a fixed number of decimals to a buffer, without
+	 * creating intermediate objects like {@link String#format(String, Object...)}
+	 * does.
+	 * 
+	 * @param sb Buffer to append to.
+	 * @param value Number to append.
+	 * @param decimals Number of decimals, at most 9.
+	 */
+	protected static void appendNumber(StringBuilder sb, double value, int decimals) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			sb.append(value);
+			return;
+		}
+		long scale = POWERS_OF_TEN[decimals];
+		long scaled = Math.round(Math.abs(value) * scale);
+		if (value < 0 && scaled != 0)  sb.append('-');
+		sb.append(scaled / scale);
+		if (decimals > 0) {
+			sb.append('.');
+			long fraction = scaled % scale;
+			for (long p = scale / 10; p > fraction && p > 1; p /= 10) {
+				sb.append('0');
+			}
+			sb.append(fraction);
+		}
+	}
+
+	/**
+	 * Return a string with the values of the options that influence how the
+	 * blocks in the rows are drawn.
+	 * 
+	 * @param options Options for output.
+	 * @return Values of options.
+	 */
+	private static String getBlockOptions(CompiledOutputIpeOptions options) {
+		return "useColors=" + options.isUseColors() + ", fill=" + options.isFill()
+				+ ", levelOfDetail=" + options.getLevelOfDetail()
+				+ ", batchPaths=" + options.isBatchPaths()
+				+ ", pageLayoutViews=" + options.isPageLayoutViews();
+	}
+
+	/**
+	 * Draws one page to its own buffer. When the page has a key, the rows of
+	 * the page are drawn separately and cached, so that they can be reused
+	 * when only the axes change.
+	 */
+	private class PageRenderer implements Callable<StringBuilder> {
+
+		private final ScheduleLayout layout;
+		private final int page;
+		private final String pageKey;
+
+		/**
+		 * Create a new renderer for one page.
+		 * 
+		 * @param layout Layout of the page.
+		 * @param page Index of the page.
+		 * @param pageKey Key of the page in the cache, or {@code null} if rows
+		 *            should not be cached.
+		 */
+		PageRenderer(ScheduleLayout layout, int page, String pageKey) {
+			this.layout = layout;
+			this.page = page;
+			this.pageKey = pageKey;
+		}
+
+		@Override
+		public StringBuilder call() {
+			StringBuilder buffer = new StringBuilder();
+			if (pageKey == null) {
+				layout.draw(createSink(buffer, layout, page));
+				return buffer;
+			}
+
+			// Draw every row to its own fragment, unless it is cached already
+			for (int j = 0; j < layout.getRowCount(); j++) {
+				String key = pageKey + "/" + j;
+				String fragment = cache.getFragment(key);
+				if (fragment == null) {
+					StringBuilder rowBuffer = new StringBuilder();
+					PrimitiveSink rowSink = createSink(rowBuffer, layout, page);
+					layout.drawRow(rowSink, j);
+					rowSink.finish();
+					fragment = rowBuffer.toString();
+					cache.putFragment(key, fragment);
+				}
+				buffer.append(fragment);
+			}
+			PrimitiveSink sink = createSink(buffer, layout, page);
+			layout.drawAxes(sink);
+			sink.finish();
+			return buffer;
+		}
+	}
+}
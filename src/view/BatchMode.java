@@ -0,0 +1,825 @@
+package view;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import batch.BatchJob;
+import batch.BreakdownJob;
+import batch.ComparisonJob;
+import batch.JobResult;
+import batch.JobSettings;
+import batch.OutputFiles;
+import batch.ScheduleJob;
+import batch.SweepJob;
+import model.Task;
+import model.analysis.ParameterSweep;
+import model.generator.TaskSetGenerator;
+import model.generator.TaskSetGenerator.PeriodDistribution;
+import model.io.TaskSetIO;
+import model.metrics.Metrics;
+import model.metrics.ProcessingStats;
+import model.scheduleralgorithms.PartitionedScheduler;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.OutputFormat;
+import output.OutputIpeOptions;
+import output.RenderCache;
+
+/**
+ * Command-line interface of ScheduleToIpe, for use without a display. Task
+ * sets are read from files (see {@link TaskSetIO}), scheduled with one or
+ * more algorithms and output in one or more formats. Every combination of a
+ * task set and an algorithm is handled on its own thread. Afterwards, a
+ * summary is printed with the outcome and timing of every combination.
+ * 
+ * <p>In watch mode, the inputs are watched for changes afterwards. Only task
+ * sets that changed are handled again, and only output files whose contents
+ * change are written. Files are written to a temporary file first, which
+ * then replaces the output file.
+ * 
+ * <p>Task sets processed, jobs in flight and waiting, and simulation times
+ * per algorithm are published over JMX, see {@link ProcessingStats}.
+ * 
+ * @author Thom Castermans
+ */
+public class BatchMode {
+
+	/** Exit status when all went well. */
+	public static final int EXIT_OK = 0;
+	/** Exit status when a deadline is missed and {@code --fail-on-miss} is given. */
+	public static final int EXIT_DEADLINE_MISS = 1;
+	/** Exit status on invalid arguments or when a task set cannot be handled. */
+	public static final int EXIT_ERROR = 2;
+
+	/** Time without changes after which changes are handled in watch mode, in milliseconds. */
+	private static final long WATCH_QUIET_TIME = 200;
+
+	/** Text printed for {@code --help} or invalid arguments. */
+	private static final String USAGE =
+			"Usage: ScheduleToIpe [options] <task set file or directory>...\n"
+			+ "\n"
+			+ "Task sets are read from .csv or .json files, see the README for the format.\n"
+			+ "For a directory, all .csv and .json files in it are read, except the .csv\n"
+			+ "files written by --sweep.\n"
+			+ "\n"
+			+ "Options:\n"
+			+ "  -a, --algorithms ALG,...   Algorithms to schedule with: DM, RM, EDF, RR, OPA or\n"
+			+ "                             all (default: all). OPA finds fixed priorities with\n"
+			+ "                             Audsley's optimal priority assignment.\n"
+			+ "  -m, --cores N              Number of cores to schedule on (default: 1). On more\n"
+			+ "                             cores, tasks are scheduled globally; RR and OPA only\n"
+			+ "                             support a single core, and all leaves them out.\n"
+			+ "      --partition FIT        On more cores, assign every task to a single core with\n"
+			+ "                             first-fit, best-fit or worst-fit decreasing instead\n"
+			+ "                             of scheduling globally. Any algorithm can be used.\n"
+			+ "      --compare              Schedule every task set with all algorithms at the\n"
+			+ "                             same time and print a report that compares them. The\n"
+			+ "                             schedules are written to <task set>-compare.ipe, a\n"
+			+ "                             page per algorithm, instead of to separate files.\n"
+			+ "      --sweep TASK.PARAM=FROM:TO[:STEPS]\n"
+			+ "                             Vary the period, deadline or executionTime of a task\n"
+			+ "                             and test the task set for every value, instead of\n"
+			+ "                             scheduling it once. Give a second --sweep to vary\n"
+			+ "                             two parameters. The outcome is written to\n"
+			+ "                             <task set>-sweep-<algorithm>.csv and a heat map to\n"
+			+ "                             <task set>-sweep-<algorithm>.ipe.\n"
+			+ "      --breakdown PRECISION  Find the largest factor by which all execution times\n"
+			+ "                             can be multiplied before a deadline is missed, to the\n"
+			+ "                             given precision, instead of scheduling task sets. RR\n"
+			+ "                             and more than one core are not supported.\n"
+			+ "  -f, --formats FORMAT,...   Formats to output: ipe, svg, tikz, png or none\n"
+			+ "                             (default: ipe).\n"
+			+ "  -d, --output-dir DIR       Directory to write output to (default: directory\n"
+			+ "                             of the task set file).\n"
+			+ "  -O KEY=VALUE               Set an output option, as in\n"
+			+ "                             ipe_output_options_defaults.properties.\n"
+			+ "  -p, --options FILE         Read output options from a properties file. Options\n"
+			+ "                             given with -O take precedence.\n"
+			+ "  -j, --threads N            Number of task sets to handle at the same time\n"
+			+ "                             (default: number of processors).\n"
+			+ "      --fail-on-miss         Exit with status 1 if a deadline is missed.\n"
+			+ "      --metrics              Collect counters and phase timers of scheduling and\n"
+			+ "                             output, and print them after the summary.\n"
+			+ "  -w, --watch                After handling the task sets, keep watching them and\n"
+			+ "                             handle task sets again when they change.\n"
+			+ "      --serve PORT           Do not read task sets, but render task sets sent over\n"
+			+ "                             HTTP on the given port, see RenderService. Output\n"
+			+ "                             options are used as defaults.\n"
+			+ "      --generate COUNT       Do not read task sets, but write COUNT random task\n"
+			+ "                             sets as .csv files to the output directory (default:\n"
+			+ "                             current directory).\n"
+			+ "  -G KEY=VALUE               Set a setting of --generate: seed, tasks,\n"
+			+ "                             utilization, maxTaskUtilization, periods (uniform,\n"
+			+ "                             log-uniform, harmonic or divisors; default:\n"
+			+ "                             divisors), minPeriod, maxPeriod, harmonicBase,\n"
+			+ "                             hyperperiod, minDeadlineRatio, maxDeadlineRatio,\n"
+			+ "                             granularity.\n"
+			+ "  -h, --help                 Show this text.\n"
+			+ "\n"
+			+ "Output files are named <task set>-<algorithm>.<extension>. They are only written\n"
+			+ "when their contents change, as is <task set>-compare.ipe.";
+
+	/** Settings that can be given to {@code --generate} with {@code -G}. */
+	private static final List<String> GENERATOR_SETTINGS = Arrays.asList("seed", "tasks", "utilization",
+			"maxTaskUtilization", "periods", "minPeriod", "maxPeriod", "harmonicBase", "hyperperiod",
+			"minDeadlineRatio", "maxDeadlineRatio", "granularity");
+
+	private final PrintStream out;
+	private final PrintStream err;
+
+	private final List<File> inputs = new ArrayList<File>();
+	private final Set<SUPPORTED_SCHEDULING_ALGORITHMS> algorithms =
+			EnumSet.allOf(SUPPORTED_SCHEDULING_ALGORITHMS.class);
+	private final Set<OutputFormat> formats = EnumSet.of(OutputFormat.IPE);
+	private File outputDir = null;
+	private final OutputIpeOptions options = new OutputIpeOptions();
+	private int threads = Runtime.getRuntime().availableProcessors();
+	/** Number of cores to schedule task sets on. */
+	private int cores = 1;
+	/** Heuristic to partition tasks over cores with, or {@code null} to schedule globally. */
+	private PartitionedScheduler.Heuristic partitioning = null;
+	/** Algorithms that were asked for by name, rather than with all. */
+	private final Set<SUPPORTED_SCHEDULING_ALGORITHMS> givenAlgorithms =
+			EnumSet.noneOf(SUPPORTED_SCHEDULING_ALGORITHMS.class);
+	private boolean failOnMiss = false;
+	/** If algorithms should be compared per task set, see {@link ComparisonJob}. */
+	private boolean compare = false;
+	/** Parameters to vary per task set, see {@link SweepJob}; empty to schedule task sets once. */
+	private final List<ParameterSweep.Dimension> sweeps = new ArrayList<ParameterSweep.Dimension>();
+	/** Precision of the breakdown factor to find, see {@link BreakdownJob}, or 0 to schedule task sets. */
+	private double breakdownPrecision = 0;
+	/** If inputs should be watched for changes after they are handled. */
+	private boolean watch = false;
+	/** Port to run a {@link RenderService} on, or -1 to handle task sets. */
+	private int servePort = -1;
+	/** Number of task sets to generate, or -1 to handle task sets. */
+	private int generateCount = -1;
+	/** Settings of the task set generator given with {@code -G}. */
+	private final Properties generatorSettings = new Properties();
+	/** Output options given with {@code -O} or {@code --options}. */
+	private final Properties givenOptions = new Properties();
+	/** Hash of the tasks in every task set file that was handled, to skip files that did not change. */
+	private final Map<File, String> taskSetHashes = new HashMap<File, String>();
+	/** Statistics that are published over JMX. */
+	private final ProcessingStats stats = ProcessingStats.getInstance();
+
+	/**
+	 * Create a new batch mode that reports to the given streams.
+	 * 
+	 * @param out Stream to print the summary to.
+	 * @param err Stream to print errors to.
+	 */
+	public BatchMode(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	/**
+	 * Run the batch mode with the given command-line arguments, printing to
+	 * standard output and standard error, and exit with the resulting status.
+	 * 
+	 * @param args Command-line arguments.
+	 */
+	public static void main(String[] args) {
+		System.exit(new BatchMode(System.out, System.err).run(args));
+	}
+
+	/**
+	 * Parse the given command-line arguments, handle all task sets and print
+	 * a summary.
+	 * 
+	 * @param args Command-line arguments.
+	 * @return Exit status, one of {@link #EXIT_OK},
+	 *         {@link #EXIT_DEADLINE_MISS} and {@link #EXIT_ERROR}.
+	 */
+	public int run(String[] args) {
+		try {
+			if (!parseArguments(args))  return EXIT_OK;
+		} catch (IllegalArgumentException e) {
+			err.println("Error: " + e.getMessage());
+			err.println();
+			err.println(USAGE);
+			return EXIT_ERROR;
+		}
+
+		if (servePort >= 0)  return serve();
+		if (generateCount >= 0)  return generate();
+
+		List<File> files;
+		JobSettings settings = new JobSettings(outputDir);
+		try {
+			files = findTaskSetFiles();
+		} catch (IllegalArgumentException e) {
+			err.println("Error: " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		try {
+			settings.setOutput(formats, options.compile());
+		} catch (NumberFormatException e) {
+			err.println("Error: invalid output option value, " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		settings.setAlgorithms(algorithms);
+		settings.setCores(cores, partitioning);
+		settings.setSweeps(sweeps);
+		settings.setBreakdownPrecision(breakdownPrecision);
+		if (outputDir != null && !outputDir.isDirectory() && !outputDir.mkdirs()) {
+			err.println("Error: cannot create output directory " + outputDir);
+			return EXIT_ERROR;
+		}
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		stats.setExportQueue(executor.getQueue());
+		try {
+			int status = handle(files, settings, executor);
+			if (watch)  return watch(settings, executor);
+			return status;
+		} finally {
+			executor.shutdownNow();
+			stats.setExportQueue(null);
+		}
+	}
+
+	/**
+	 * Schedule and output the task sets in the given files on the given
+	 * executor, and print a summary. Task sets that did not change since they
+	 * were last handled are skipped.
+	 * 
+	 * @param files Task set files to handle.
+	 * @param settings Settings of the jobs.
+	 * @param executor Executor to run jobs on.
+	 * @return Exit status.
+	 */
+	private int handle(List<File> files, JobSettings settings, ExecutorService executor) {
+		// task sets are read one by one, while earlier ones are scheduled already
+		long start = System.nanoTime();
+		List<Future<JobResult>> futures = new ArrayList<Future<JobResult>>();
+		int status = EXIT_OK;
+		int numRead = 0;
+		for (File file : files) {
+			List<Task> tasks;
+			try {
+				tasks = TaskSetIO.read(file);
+			} catch (IOException e) {
+				err.println("Error: " + e.getMessage());
+				taskSetHashes.remove(file);
+				status = EXIT_ERROR;
+				continue;
+			}
+			numRead++;
+			String hash = RenderCache.hash(tasks);
+			if (hash.equals(taskSetHashes.put(file, hash)))  continue;
+			stats.taskSetProcessed();
+			if (compare) {
+				stats.jobStarted();
+				futures.add(executor.submit(new ComparisonJob(file, tasks, settings)));
+				continue;
+			}
+			for (SUPPORTED_SCHEDULING_ALGORITHMS algorithm : algorithms) {
+				stats.jobStarted();
+				BatchJob job;
+				if (breakdownPrecision > 0) {
+					job = new BreakdownJob(file, tasks, algorithm, settings);
+				} else if (!sweeps.isEmpty()) {
+					job = new SweepJob(file, tasks, algorithm, settings);
+				} else {
+					job = new ScheduleJob(file, tasks, algorithm, settings);
+				}
+				futures.add(executor.submit(job));
+			}
+		}
+		if (futures.isEmpty()) {
+			if (numRead > 0)  out.println("No task sets changed.");
+			return status;
+		}
+
+		// print summary in the order of the jobs
+		if (!compare && sweeps.isEmpty() && breakdownPrecision == 0) {
+			out.println(String.format(Locale.US, "%-32s %-4s %6s %7s %-40s %10s %10s %7s",
+					"Task set", "Alg", "Tasks", "U", "Outcome", "Sched (ms)", "Out (ms)", "Written"));
+		}
+		for (Future<JobResult> future : futures) {
+			try {
+				JobResult r = future.get();
+				if (r.getReport() != null) {
+					out.print(r.getReport());
+				} else {
+					out.println(String.format(Locale.US, "%-32s %-4s %6d %7.3f %-40s %10.1f %10.1f %7s",
+							r.getFile().getName(), r.getAlgorithm(), r.getNumTasks(), r.getUtilization(),
+							r.getOutcome(), r.getScheduleTime() / 1e6, r.getOutputTime() / 1e6,
+							r.getWritten() + "/" + formats.size()));
+				}
+				if (r.getError() != null) {
+					err.println("Error: " + r.getFile().getName()
+							+ (r.getAlgorithm() != null ? " with " + r.getAlgorithm() : "") + ": " + r.getError());
+					// handle the task set again next time
+					taskSetHashes.remove(r.getFile());
+					status = EXIT_ERROR;
+				} else if (r.isMissed() && failOnMiss && status == EXIT_OK) {
+					status = EXIT_DEADLINE_MISS;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return EXIT_ERROR;
+			} catch (ExecutionException e) {
+				err.println("Error: " + e.getCause());
+				status = EXIT_ERROR;
+			}
+		}
+		String jobs;
+		if (breakdownPrecision > 0) {
+			jobs = count(futures.size(), "breakdown search", "breakdown searches");
+		} else if (!sweeps.isEmpty()) {
+			jobs = count(futures.size(), "sweep", "sweeps");
+		} else {
+			jobs = count(futures.size() * (compare ? algorithms.size() : 1), "schedule", "schedules");
+		}
+		out.println(String.format(Locale.US, "%s, %s in %.1f ms on %s.", count(numRead, "task set", "task sets"),
+				jobs, (System.nanoTime() - start) / 1e6, count(threads, "thread", "threads")));
+		if (Metrics.isEnabled()) {
+			for (Map.Entry<String, Number> entry : Metrics.getValues().entrySet()) {
+				out.println(String.format(Locale.US, "  %-28s %s", entry.getKey(), entry.getValue()));
+			}
+		}
+		return status;
+	}
+
+	/**
+	 * Watch the inputs for changes, and handle task set files that are
+	 * created or changed, until the program is stopped. Events that come in
+	 * shortly after each other, like when an editor saves a file in several
+	 * steps, are handled together.
+	 * 
+	 * @param settings Settings of the jobs.
+	 * @param executor Executor to run jobs on.
+	 * @return Exit status, when watching fails.
+	 */
+	private int watch(JobSettings settings, ExecutorService executor) {
+		WatchService watcher;
+		try {
+			watcher = FileSystems.getDefault().newWatchService();
+			Set<Path> dirs = new HashSet<Path>();
+			for (File input : inputs) {
+				File dir = (input.isDirectory() ? input : input.getAbsoluteFile().getParentFile());
+				if (dirs.add(dir.toPath())) {
+					dir.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+				}
+			}
+		} catch (IOException e) {
+			err.println("Error: cannot watch for changes: " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		out.println("Watching for changes, press Ctrl+C to stop.");
+		try {
+			while (true) {
+				WatchKey key = watcher.take();
+				Set<File> changed = new TreeSet<File>();
+				boolean overflow = false;
+				// collect events until it has been quiet for a while
+				do {
+					Path dir = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							overflow = true;
+						} else {
+							File file = dir.resolve((Path) event.context()).toFile();
+							if (isTaskSetFile(file))  changed.add(file);
+						}
+					}
+					key.reset();
+				} while ((key = watcher.poll(WATCH_QUIET_TIME, TimeUnit.MILLISECONDS)) != null);
+				if (overflow) {
+					// events were lost, so look at all files: unchanged ones are skipped anyway
+					try {
+						changed.addAll(findTaskSetFiles());
+					} catch (IllegalArgumentException e) {
+						err.println("Error: " + e.getMessage());
+					}
+				}
+
+				List<File> files = new ArrayList<File>();
+				for (File file : changed) {
+					if (file.isFile()) {
+						files.add(file);
+					} else if (taskSetHashes.remove(file) != null) {
+						out.println(file.getName() + " was removed.");
+					}
+				}
+				if (!files.isEmpty())  handle(files, settings, executor);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return EXIT_OK;
+		} finally {
+			try {
+				watcher.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Return if the given file is a task set file that is given as input,
+	 * either by itself or as part of a directory.
+	 * 
+	 * @param file File to check.
+	 * @return If the file is input.
+	 */
+	private boolean isTaskSetFile(File file) {
+		File absolute = file.getAbsoluteFile();
+		String name = file.getName().toLowerCase(Locale.US);
+		for (File input : inputs) {
+			if (input.getAbsoluteFile().equals(absolute))  return true;
+			if (input.isDirectory() && input.getAbsoluteFile().equals(absolute.getParentFile())
+					&& isTaskSetName(name))  return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Return if a file in an input directory with the given name is a task
+	 * set: a CSV or JSON file that is not written by a sweep, see
+	 * {@link OutputFiles#isSweepFileName(String)}.
+	 * 
+	 * @param name Name of the file, in lower case.
+	 * @return If the file is a task set.
+	 */
+	private static boolean isTaskSetName(String name) {
+		if (name.endsWith(".json"))  return true;
+		return name.endsWith(".csv") && !OutputFiles.isSweepFileName(name);
+	}
+
+	/**
+	 * Run a {@link RenderService} until the program is stopped.
+	 * 
+	 * @return Exit status.
+	 */
+	private int serve() {
+		try {
+			options.compile();
+		} catch (NumberFormatException e) {
+			err.println("Error: invalid output option value, " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		final RenderService service;
+		try {
+			service = new RenderService(servePort, threads, givenOptions);
+		} catch (IOException e) {
+			err.println("Error: cannot listen on port " + servePort + ": " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				service.stop(1);
+			}
+		});
+		service.start();
+		out.println("Listening on http://localhost:" + service.getPort() + "/ with " + threads + " threads.");
+		try {
+			service.awaitStop();
+		} catch (InterruptedException e) {
+			service.stop(0);
+			Thread.currentThread().interrupt();
+		}
+		return EXIT_OK;
+	}
+
+	/**
+	 * Write random task sets to the output directory, named
+	 * {@code taskset-00001.csv} and so on.
+	 * 
+	 * @return Exit status.
+	 */
+	private int generate() {
+		TaskSetGenerator generator;
+		try {
+			generator = createGenerator();
+		} catch (IllegalArgumentException e) {
+			err.println("Error: " + e.getMessage());
+			return EXIT_ERROR;
+		}
+		File dir = (outputDir != null ? outputDir : new File("."));
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			err.println("Error: cannot create output directory " + dir);
+			return EXIT_ERROR;
+		}
+		for (int i = 0; i < generateCount; i++) {
+			File file = new File(dir, String.format(Locale.US, "taskset-%05d.csv", i + 1));
+			try {
+				TaskSetIO.write(file, generator.generate(i));
+			} catch (IllegalArgumentException e) {
+				err.println("Error: " + e.getMessage());
+				return EXIT_ERROR;
+			} catch (IOException e) {
+				err.println("Error: cannot write " + file + ": " + e.getMessage());
+				return EXIT_ERROR;
+			}
+		}
+		out.println("Wrote " + generateCount + " task sets to " + dir + ".");
+		return EXIT_OK;
+	}
+
+	/**
+	 * Create a task set generator with the settings given with {@code -G}.
+	 * 
+	 * @return A task set generator.
+	 * @throws IllegalArgumentException If a setting is unknown or invalid.
+	 */
+	private TaskSetGenerator createGenerator() {
+		Properties settings = generatorSettings;
+		for (String key : settings.stringPropertyNames()) {
+			if (!GENERATOR_SETTINGS.contains(key))  throw new IllegalArgumentException("unknown generator setting " + key);
+		}
+		try {
+			TaskSetGenerator generator = new TaskSetGenerator(Long.parseLong(settings.getProperty("seed", "42")));
+			generator.setNumTasks(Integer.parseInt(settings.getProperty("tasks", "10")));
+			generator.setUtilization(Double.parseDouble(settings.getProperty("utilization", "0.8")));
+			generator.setMaxTaskUtilization(Double.parseDouble(settings.getProperty("maxTaskUtilization", "1")));
+			// divisors of the hyperperiod by default, as other periods easily give a
+			// hyperperiod that is too long to simulate
+			String periods = settings.getProperty("periods", "divisors");
+			try {
+				generator.setPeriodDistribution(PeriodDistribution.valueOf(
+						periods.toUpperCase(Locale.US).replace('-', '_')));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("unknown period distribution " + periods);
+			}
+			generator.setPeriodRange(Integer.parseInt(settings.getProperty("minPeriod", "10")),
+					Integer.parseInt(settings.getProperty("maxPeriod", "1000")));
+			generator.setHarmonicBase(Integer.parseInt(settings.getProperty("harmonicBase", "2")));
+			generator.setHyperperiod(Integer.parseInt(settings.getProperty("hyperperiod", "5040")));
+			generator.setDeadlineRatio(Double.parseDouble(settings.getProperty("minDeadlineRatio", "1")),
+					Double.parseDouble(settings.getProperty("maxDeadlineRatio", "1")));
+			generator.setGranularity(Double.parseDouble(settings.getProperty("granularity", "0")));
+			return generator;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("invalid generator setting value, " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Parse the given command-line arguments into the fields of this object.
+	 * 
+	 * @param args Command-line arguments.
+	 * @return If task sets should be handled, {@code false} if only help
+	 *         was asked for.
+	 * @throws IllegalArgumentException If the arguments are not valid.
+	 */
+	private boolean parseArguments(String[] args) {
+		Properties overrides = new Properties();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-h") || arg.equals("--help")) {
+				out.println(USAGE);
+				return false;
+			} else if (arg.equals("-a") || arg.equals("--algorithms")) {
+				algorithms.clear();
+				givenAlgorithms.clear();
+				for (String name : splitList(getValue(args, ++i, arg))) {
+					if (name.equalsIgnoreCase("all")) {
+						algorithms.addAll(EnumSet.allOf(SUPPORTED_SCHEDULING_ALGORITHMS.class));
+						continue;
+					}
+					try {
+						SUPPORTED_SCHEDULING_ALGORITHMS algorithm =
+								SUPPORTED_SCHEDULING_ALGORITHMS.valueOf(name.toUpperCase(Locale.US));
+						algorithms.add(algorithm);
+						givenAlgorithms.add(algorithm);
+					} catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException("unknown algorithm " + name);
+					}
+				}
+			} else if (arg.equals("-m") || arg.equals("--cores")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					cores = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					cores = 0;
+				}
+				if (cores <= 0)  throw new IllegalArgumentException("invalid number of cores " + value);
+			} else if (arg.equals("--partition")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					partitioning = PartitionedScheduler.Heuristic.valueOf(value.toUpperCase(Locale.US).replace('-', '_'));
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("unknown partitioning " + value);
+				}
+			} else if (arg.equals("-f") || arg.equals("--formats")) {
+				formats.clear();
+				for (String name : splitList(getValue(args, ++i, arg))) {
+					if (name.equalsIgnoreCase("none"))  continue;
+					try {
+						formats.add(OutputFormat.valueOf(name.toUpperCase(Locale.US)));
+					} catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException("unknown format " + name);
+					}
+				}
+			} else if (arg.equals("-d") || arg.equals("--output-dir")) {
+				outputDir = new File(getValue(args, ++i, arg));
+			} else if (arg.startsWith("-O")) {
+				String option = (arg.length() > 2 ? arg.substring(2) : getValue(args, ++i, arg));
+				int split = option.indexOf('=');
+				if (split < 0)  throw new IllegalArgumentException("expected KEY=VALUE, found " + option);
+				overrides.setProperty(option.substring(0, split), option.substring(split + 1));
+			} else if (arg.equals("-p") || arg.equals("--options")) {
+				readOptions(new File(getValue(args, ++i, arg)));
+			} else if (arg.equals("-j") || arg.equals("--threads")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					threads = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+				if (threads <= 0)  throw new IllegalArgumentException("invalid number of threads " + value);
+			} else if (arg.equals("--compare")) {
+				compare = true;
+			} else if (arg.equals("--sweep")) {
+				if (sweeps.size() == 2)  throw new IllegalArgumentException("at most two parameters can be varied");
+				sweeps.add(ParameterSweep.Dimension.parse(getValue(args, ++i, arg)));
+			} else if (arg.equals("--breakdown")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					breakdownPrecision = Double.parseDouble(value);
+				} catch (NumberFormatException e) {
+					breakdownPrecision = 0;
+				}
+				if (!(breakdownPrecision > 0))  throw new IllegalArgumentException("invalid precision " + value);
+			} else if (arg.equals("--fail-on-miss")) {
+				failOnMiss = true;
+			} else if (arg.equals("--metrics")) {
+				Metrics.setEnabled(true);
+			} else if (arg.equals("-w") || arg.equals("--watch")) {
+				watch = true;
+			} else if (arg.equals("--serve")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					servePort = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					servePort = -1;
+				}
+				if (servePort < 0 || servePort > 65535)  throw new IllegalArgumentException("invalid port " + value);
+			} else if (arg.equals("--generate")) {
+				String value = getValue(args, ++i, arg);
+				try {
+					generateCount = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					generateCount = -1;
+				}
+				if (generateCount < 0)  throw new IllegalArgumentException("invalid number of task sets " + value);
+			} else if (arg.startsWith("-G")) {
+				String setting = (arg.length() > 2 ? arg.substring(2) : getValue(args, ++i, arg));
+				int split = setting.indexOf('=');
+				if (split < 0)  throw new IllegalArgumentException("expected KEY=VALUE, found " + setting);
+				generatorSettings.setProperty(setting.substring(0, split).trim(), setting.substring(split + 1).trim());
+			} else if (arg.startsWith("-") && arg.length() > 1) {
+				throw new IllegalArgumentException("unknown option " + arg);
+			} else {
+				inputs.add(new File(arg));
+			}
+		}
+		setOptions(overrides);
+		if (servePort >= 0 || generateCount >= 0)  return true;
+		if (inputs.isEmpty())  throw new IllegalArgumentException("no task sets given");
+		if (breakdownPrecision > 0) {
+			if (cores > 1)  throw new IllegalArgumentException("--breakdown does not support more than one core");
+			if (compare || !sweeps.isEmpty()) {
+				throw new IllegalArgumentException("--breakdown cannot be combined with "
+						+ (compare ? "--compare" : "--sweep"));
+			}
+			if (givenAlgorithms.contains(SUPPORTED_SCHEDULING_ALGORITHMS.RR)) {
+				throw new IllegalArgumentException("--breakdown does not support RR");
+			}
+			algorithms.remove(SUPPORTED_SCHEDULING_ALGORITHMS.RR);
+		}
+		if (cores > 1 && partitioning == null) {
+			for (SUPPORTED_SCHEDULING_ALGORITHMS algorithm : EnumSet.of(SUPPORTED_SCHEDULING_ALGORITHMS.RR,
+					SUPPORTED_SCHEDULING_ALGORITHMS.OPA)) {
+				if (givenAlgorithms.contains(algorithm)) {
+					throw new IllegalArgumentException(algorithm + " does not support more than one core");
+				}
+				algorithms.remove(algorithm);
+			}
+		}
+		if (algorithms.isEmpty())  throw new IllegalArgumentException("no algorithms given");
+		if (!sweeps.isEmpty() && (compare || partitioning != null)) {
+			throw new IllegalArgumentException("--sweep cannot be combined with " + (compare ? "--compare" : "--partition"));
+		}
+		return true;
+	}
+
+	/**
+	 * Read output options from the given properties file.
+	 * 
+	 * @param file File to read.
+	 * @throws IllegalArgumentException If the file cannot be read or
+	 *             contains an unknown option.
+	 */
+	private void readOptions(File file) {
+		Properties properties = new Properties();
+		try {
+			InputStream is = new FileInputStream(file);
+			try {
+				properties.load(is);
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("cannot read options from " + file + ": " + e.getMessage());
+		}
+		setOptions(properties);
+	}
+
+	/**
+	 * Set the given output options.
+	 * 
+	 * @param properties Options to set.
+	 * @throws IllegalArgumentException If an option is unknown.
+	 */
+	private void setOptions(Properties properties) {
+		for (String key : properties.stringPropertyNames()) {
+			if (!options.hasOption(key))  throw new IllegalArgumentException("unknown output option " + key);
+			options.setOption(key, properties.getProperty(key).trim());
+			givenOptions.setProperty(key, properties.getProperty(key).trim());
+		}
+	}
+
+	/**
+	 * Return the task set files given as input, where directories are
+	 * replaced by the task set files in them, sorted by name.
+	 * 
+	 * @return Task set files.
+	 * @throws IllegalArgumentException If an input does not exist.
+	 */
+	private List<File> findTaskSetFiles() {
+		List<File> files = new ArrayList<File>();
+		for (File input : inputs) {
+			if (input.isDirectory()) {
+				File[] children = input.listFiles();
+				Arrays.sort(children);
+				for (File child : children) {
+					String name = child.getName().toLowerCase(Locale.US);
+					if (child.isFile() && isTaskSetName(name))  files.add(child);
+				}
+			} else if (input.isFile()) {
+				files.add(input);
+			} else {
+				throw new IllegalArgumentException("no such file or directory " + input);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Return the given number followed by the given noun.
+	 * 
+	 * @param n Number of things.
+	 * @param singular Noun for one thing.
+	 * @param plural Noun for other numbers of things.
+	 * @return Number and noun, like {@code 2 threads}.
+	 */
+	private static String count(int n, String singular, String plural) {
+		return n + " " + (n == 1 ? singular : plural);
+	}
+
+	private static String getValue(String[] args, int i, String option) {
+		if (i >= args.length)  throw new IllegalArgumentException("missing value for " + option);
+		return args[i];
+	}
+
+	private static List<String> splitList(String list) {
+		List<String> values = new ArrayList<String>();
+		for (String value : list.split(",")) {
+			if (value.trim().length() > 0)  values.add(value.trim());
+		}
+		return values;
+	}
+}
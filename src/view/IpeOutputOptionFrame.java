@@ -8,6 +8,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
@@ -15,13 +16,16 @@ import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 
 import model.Schedule;
+import output.CompiledOutputIpeOptions;
 import output.OutputIpe;
 import output.OutputIpeOptions;
 
@@ -51,6 +55,8 @@ public class IpeOutputOptionFrame extends JFrame {
 	private JCheckBox optionUseColors;
 	/** Checkbox indicating "fill" option value. */
 	private JCheckBox optionFill;
+	/** Checkbox indicating "batchPaths" option value. */
+	private JCheckBox optionBatchPaths;
 	
 	/** RadioButton in group of axisnumbering option:
 	 *  indicates the user wants no numbers whatsoever along X-axis.
@@ -118,6 +124,11 @@ public class IpeOutputOptionFrame extends JFrame {
 		}
 	};
 	
+	/** Input with page width. */
+	private JTextField pageWidthInput;
+	/** Checkbox indicating if pages should be output as views of a single page. */
+	private JCheckBox pageLayoutViewsInput;
+	
 	/** CheckBox that the user can use to cange if Ipe should be opened or not. */
 	private JCheckBox openIpeCheckBox;
 	
@@ -170,7 +181,7 @@ public class IpeOutputOptionFrame extends JFrame {
 		formPanel.setLayout(new BoxLayout(formPanel, BoxLayout.PAGE_AXIS));
 		
 		// General options
-		JPanel generalOptionsPanel = new JPanel(new GridLayout(2, 1));
+		JPanel generalOptionsPanel = new JPanel(new GridLayout(3, 1));
 		generalOptionsPanel.setBorder(BorderFactory.createTitledBorder("General output options"));
 		optionUseColors = new JCheckBox("Use colors", oio.getBooleanOption("useColors"));
 		optionUseColors.setToolTipText("Indicate if you want all tasks to have a different color, or use black for all tasks.");
@@ -178,6 +189,9 @@ public class IpeOutputOptionFrame extends JFrame {
 		optionFill = new JCheckBox("Fill boxes in schedule", oio.getBooleanOption("fill"));
 		optionFill.setToolTipText("Indicate if you want the boxes representing running tasks to be filled or not.");
 		generalOptionsPanel.add(optionFill);
+		optionBatchPaths = new JCheckBox("Combine blocks of a task into a single path", oio.getBooleanOption("batchPaths"));
+		optionBatchPaths.setToolTipText("Makes files of long schedules smaller and faster to open, but blocks cannot be edited separately.");
+		generalOptionsPanel.add(optionBatchPaths);
 		formPanel.add(generalOptionsPanel);
 		
 		// Axis options
@@ -253,6 +267,15 @@ public class IpeOutputOptionFrame extends JFrame {
 			);
 		scheduleMaxLengthPanel.add(scheduleMaxLengthInput);
 		miscOptionsPanel.add(scheduleMaxLengthPanel);
+		JPanel pageWidthPanel = new JPanel(new GridLayout(2, 2));
+		pageWidthPanel.add(new JLabel("Page width (0 for a single page):"));
+		pageWidthInput = new JTextField(String.valueOf(oio.getIntegerOption("pageWidth")));
+		pageWidthInput.setToolTipText("Split long schedules into pages of this many time units.");
+		pageWidthPanel.add(pageWidthInput);
+		pageWidthPanel.add(new JPanel());
+		pageLayoutViewsInput = new JCheckBox("Use views instead of pages", oio.getStringOption("pageLayout").equals("views"));
+		pageWidthPanel.add(pageLayoutViewsInput);
+		miscOptionsPanel.add(pageWidthPanel);
 		formPanel.add(miscOptionsPanel);
 		
 		// OK/CANCEL
@@ -274,6 +297,7 @@ public class IpeOutputOptionFrame extends JFrame {
 			public void actionPerformed(ActionEvent e) {
 				oio.setOption("useColors", optionUseColors.isSelected());
 				oio.setOption("fill", optionFill.isSelected());
+				oio.setOption("batchPaths", optionBatchPaths.isSelected());
 				if (axisNumberExactNumbers.isSelected()) {
 					oio.setOption("xAxisNumbering", Integer.parseInt(axisNumberExactNumberInput.getText()));
 				}
@@ -284,20 +308,48 @@ public class IpeOutputOptionFrame extends JFrame {
 				if (scheduleMaxLengthCustomInput.isSelected()) {
 					oio.setOption("scheduleMaxLength", Integer.parseInt(scheduleMaxLengthInput.getText()));
 				}
+				oio.setOption("pageWidth", Integer.parseInt(pageWidthInput.getText()));
+				oio.setOption("pageLayout", (pageLayoutViewsInput.isSelected() ? "views" : "pages"));
 				//System.out.println(oio);
 				//System.out.println(schedule);
-				oi.outputIpeFile(s, oio);
-				
-				// Make Ipe open the file, if selected by the user
-				if (openIpeCheckBox.isSelected()) {
-					try {
-						Runtime.getRuntime().exec("ipe " + System.getProperty("user.home") + "/out.ipe");
-					} catch (IOException ioe) {
-						ioe.printStackTrace();
+				final CompiledOutputIpeOptions options = oio.compile();
+				final boolean openIpe = openIpeCheckBox.isSelected();
+				// Render in the background, so that the GUI stays responsive
+				SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+					@Override
+					protected Void doInBackground() {
+						oi.outputIpeFile(s, options);
+						return null;
 					}
-				}
-				
-				dispose();
+					
+					@Override
+					protected void done() {
+						// When canceled, leave frame open so user can try again
+						if (isCancelled())  return;
+						try {
+							get();
+						} catch (InterruptedException ie) {
+							ie.printStackTrace();
+						} catch (ExecutionException ee) {
+							ee.printStackTrace();
+							JOptionPane.showMessageDialog(IpeOutputOptionFrame.this, "Writing the schedule failed: "
+									+ ee.getCause(), "ScheduleToIpe - Error!", JOptionPane.ERROR_MESSAGE);
+							return;
+						}
+						
+						// Make Ipe open the file, if selected by the user
+						if (openIpe) {
+							try {
+								Runtime.getRuntime().exec("ipe " + System.getProperty("user.home") + "/out.ipe");
+							} catch (IOException ioe) {
+								ioe.printStackTrace();
+							}
+						}
+						
+						dispose();
+					}
+				};
+				new ProgressDialog(IpeOutputOptionFrame.this, "Writing schedule...").run(worker);
 			}
 		});
 		okCancelInnerPanel.add(okButton);
@@ -0,0 +1,100 @@
+package view;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.WindowConstants;
+
+/**
+ * This dialog shows the progress of a {@link SwingWorker} and allows the
+ * user to cancel it. It is modal, so the user cannot change anything while
+ * the worker runs, and closes itself when the worker is done.
+ * 
+ * <p>When the worker never sets its progress, the dialog shows that it is
+ * busy without indicating how far along it is.
+ * 
+ * @author Thom Castermans
+ */
+public class ProgressDialog extends JDialog {
+
+	/** Serial version UID. */
+	private static final long serialVersionUID = 3178259051283710672L;
+
+	/** Bar showing the progress of the worker. */
+	private final JProgressBar progressBar;
+	/** Button that cancels the worker. */
+	private final JButton cancelButton;
+
+	/**
+	 * Create a new dialog, that is not shown yet.
+	 * 
+	 * @param owner Window that owns this dialog.
+	 * @param message Message telling the user what happens.
+	 */
+	public ProgressDialog(Window owner, String message) {
+		super(owner, "ScheduleToIpe - Please wait", ModalityType.APPLICATION_MODAL);
+		setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+		JPanel panel = new JPanel(new BorderLayout(0, 8));
+		panel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+		panel.add(new JLabel(message), BorderLayout.NORTH);
+		progressBar = new JProgressBar(0, 100);
+		progressBar.setIndeterminate(true);
+		progressBar.setPreferredSize(new Dimension(300, progressBar.getPreferredSize().height));
+		panel.add(progressBar, BorderLayout.CENTER);
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+		cancelButton = new JButton("Cancel");
+		buttonPanel.add(cancelButton);
+		panel.add(buttonPanel, BorderLayout.SOUTH);
+		add(panel);
+
+		pack();
+		setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * Start the given worker and show this dialog until it is done or
+	 * canceled. This method should be called on the Event Dispatch Thread
+	 * and returns when the dialog is closed; the worker delivers its result
+	 * in {@link SwingWorker#done()} as usual.
+	 * 
+	 * @param worker Worker to run.
+	 */
+	public void run(final SwingWorker<?, ?> worker) {
+		cancelButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				cancelButton.setEnabled(false);
+				worker.cancel(true);
+			}
+		});
+		worker.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (evt.getPropertyName().equals("progress")) {
+					progressBar.setIndeterminate(false);
+					progressBar.setValue((Integer) evt.getNewValue());
+				} else if (evt.getPropertyName().equals("state")
+						&& evt.getNewValue() == SwingWorker.StateValue.DONE) {
+					dispose();
+				}
+			}
+		});
+		worker.execute();
+		// blocks until the dialog is disposed, while events are still handled
+		setVisible(true);
+	}
+}
@@ -0,0 +1,626 @@
+package view;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import model.ProgressMonitor;
+import model.Schedule;
+import model.Task;
+import model.analysis.AnalysisResult;
+import model.analysis.SchedulabilityAnalysis;
+import model.io.TaskSetIO;
+import model.metrics.Metrics;
+import model.metrics.ProcessingStats;
+import model.scheduleralgorithms.PartitionedScheduler;
+import model.scheduleralgorithms.SupportedSchedulers;
+import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
+import output.CompiledOutputIpeOptions;
+import output.OutputFormat;
+import output.OutputIpeOptions;
+import output.RenderCache;
+
+/**
+ * HTTP service that schedules task sets and returns the output, for tools
+ * that need schedules on demand. It has the following endpoints.
+ * 
+ * <ul>
+ * <li>{@code POST /render?algorithm=EDF&format=ipe}: schedule the task set
+ * in the request body and return the output, in format {@code ipe},
+ * {@code svg}, {@code tikz} or {@code png}. Parameter {@code cores=2}
+ * schedules globally on more than one core, or partitioned with
+ * {@code partition=first-fit}, {@code best-fit} or {@code worst-fit}. Other
+ * query parameters set
+ * output options, like {@code pageWidth=100}.</li>
+ * <li>{@code POST /analyze?algorithm=EDF}: return a JSON object with the
+ * outcome of the schedulability test and of simulating the task set. When
+ * partitioned, the test of every core is used.</li>
+ * <li>{@code GET /stats}: return a JSON object with the number of
+ * requests, cache hits and latency percentiles per endpoint.</li>
+ * </ul>
+ * 
+ * <p>The task set is CSV or JSON, as read by {@link TaskSetIO}. Responses
+ * are kept in a {@link RenderCache}, keyed by the tasks (not by how they are
+ * written), algorithm, format and options, so repeated requests are not
+ * scheduled again.
+ * 
+ * <p>Requests are handled on a fixed pool of threads. Scheduling and
+ * rendering keep a processor busy, so more threads than processors would
+ * not make the service faster.
+ * 
+ * <p>Requests, cache hits and simulation times are also published over JMX,
+ * see {@link ProcessingStats}.
+ * 
+ * @author Thom Castermans
+ */
+public class RenderService {
+
+	/** Maximum size of a request body, in bytes. */
+	public static final int MAX_REQUEST_SIZE = 16 * 1024 * 1024;
+	/** Time after which scheduling a task set is given up, in milliseconds. */
+	public static final long SCHEDULE_TIMEOUT = 30000;
+	/** Number of latencies kept per endpoint to compute percentiles over. */
+	private static final int LATENCY_SAMPLES = 4096;
+
+	private final HttpServer server;
+	private final ThreadPoolExecutor executor;
+	/** Output options that requests start from. */
+	private final Properties defaultOptions;
+	private final RenderCache cache = new RenderCache();
+	/** Latencies of every endpoint, by path. */
+	private final Map<String, LatencyRecorder> latencies = new LinkedHashMap<String, LatencyRecorder>();
+	private final AtomicLong cacheHits = new AtomicLong();
+	/** Statistics that are published over JMX. */
+	private final ProcessingStats stats = ProcessingStats.getInstance();
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	/**
+	 * Create a new service listening on the given port. It does not handle
+	 * requests until it is {@link #start() started}.
+	 * 
+	 * @param port Port to listen on, or 0 to pick a free port.
+	 * @param threads Number of requests handled at the same time.
+	 * @param defaultOptions Output options that are used when a request does
+	 *            not give them, on top of the defaults of
+	 *            {@link OutputIpeOptions}.
+	 * @throws IOException If the port cannot be used.
+	 */
+	public RenderService(int port, int threads, Properties defaultOptions) throws IOException {
+		this.defaultOptions = defaultOptions;
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		server.setExecutor(executor);
+		addEndpoint("/render", "POST", new Endpoint() {
+			@Override
+			public void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+				render(exchange, parameters);
+			}
+		});
+		addEndpoint("/analyze", "POST", new Endpoint() {
+			@Override
+			public void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+				analyze(exchange, parameters);
+			}
+		});
+		addEndpoint("/stats", "GET", new Endpoint() {
+			@Override
+			public void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+				send(exchange, 200, "application/json", getStats().getBytes("UTF-8"));
+			}
+		});
+	}
+
+	/**
+	 * Start handling requests.
+	 */
+	public void start() {
+		stats.setExportQueue(executor.getQueue());
+		server.start();
+	}
+
+	/**
+	 * Stop handling requests, waiting at most the given time for requests
+	 * that are being handled.
+	 * 
+	 * @param delay Time to wait, in seconds.
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+		stats.setExportQueue(null);
+		stopped.countDown();
+	}
+
+	/**
+	 * Wait until this service is {@link #stop(int) stopped}.
+	 * 
+	 * @throws InterruptedException If the waiting thread is interrupted.
+	 */
+	public void awaitStop() throws InterruptedException {
+		stopped.await();
+	}
+
+	/**
+	 * Return the port that this service listens on.
+	 * 
+	 * @return The port.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Return statistics about the requests handled so far, as JSON. When
+	 * {@link Metrics} are collected, they are included.
+	 * 
+	 * @return Statistics, as JSON object.
+	 */
+	public String getStats() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"cacheHits\": ").append(cacheHits.get())
+				.append(", \"cacheSize\": ").append(cache.getSize())
+				.append(", \"endpoints\": {");
+		boolean first = true;
+		for (Map.Entry<String, LatencyRecorder> entry : latencies.entrySet()) {
+			if (!first)  sb.append(", ");
+			first = false;
+			sb.append(quote(entry.getKey())).append(": ").append(entry.getValue().toJson());
+		}
+		sb.append("}");
+		if (Metrics.isEnabled()) {
+			sb.append(", \"metrics\": {");
+			first = true;
+			for (Map.Entry<String, Number> entry : Metrics.getValues().entrySet()) {
+				if (!first)  sb.append(", ");
+				first = false;
+				sb.append(quote(entry.getKey())).append(": ").append(entry.getValue());
+			}
+			sb.append("}");
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	/**
+	 * Handle a request to render a task set.
+	 * 
+	 * @param exchange Request and response.
+	 * @param parameters Query parameters.
+	 * @throws IOException If the response cannot be sent.
+	 */
+	private void render(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+		SUPPORTED_SCHEDULING_ALGORITHMS algorithm = getAlgorithm(parameters);
+		PartitionedScheduler.Heuristic partitioning = getPartitioning(parameters);
+		int cores = getCores(parameters, algorithm, partitioning);
+		String formatName = getParameter(parameters, "format", "ipe");
+		OutputFormat format;
+		try {
+			format = OutputFormat.valueOf(formatName.toUpperCase(Locale.US));
+		} catch (IllegalArgumentException e) {
+			throw new RequestException("unknown format " + formatName);
+		}
+		CompiledOutputIpeOptions options = getOptions(parameters);
+		List<Task> tasks = readTasks(exchange, parameters);
+		stats.taskSetProcessed();
+
+		String tasksHash = RenderCache.hash(tasks);
+		String key = RenderCache.hash("render", algorithm.toString(), cores + "/" + partitioning,
+				format.toString(), options.toString(), tasksHash);
+		byte[] response = cache.getDocument(key);
+		if (response == null) {
+			Schedule schedule = schedule(tasks, algorithm, cores, partitioning, tasksHash);
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			format.output(schedule, options, buffer, null);
+			response = buffer.toByteArray();
+			cache.putDocument(key, response);
+		} else {
+			cacheHits.incrementAndGet();
+		}
+		send(exchange, 200, getContentType(format), response);
+	}
+
+	/**
+	 * Handle a request to analyze a task set.
+	 * 
+	 * @param exchange Request and response.
+	 * @param parameters Query parameters.
+	 * @throws IOException If the response cannot be sent.
+	 */
+	private void analyze(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+		SUPPORTED_SCHEDULING_ALGORITHMS algorithm = getAlgorithm(parameters);
+		PartitionedScheduler.Heuristic partitioning = getPartitioning(parameters);
+		int cores = getCores(parameters, algorithm, partitioning);
+		List<Task> tasks = readTasks(exchange, parameters);
+		stats.taskSetProcessed();
+
+		String tasksHash = RenderCache.hash(tasks);
+		String key = RenderCache.hash("analyze", algorithm.toString(), cores + "/" + partitioning, tasksHash);
+		byte[] response = cache.getDocument(key);
+		if (response == null) {
+			AnalysisResult result = (partitioning == null ? SchedulabilityAnalysis.analyze(tasks, algorithm, cores)
+					: new PartitionedScheduler(algorithm, cores, partitioning).analyze(new HashSet<Task>(tasks)));
+			Schedule schedule = schedule(tasks, algorithm, cores, partitioning, tasksHash);
+			StringBuilder sb = new StringBuilder();
+			sb.append("{\"algorithm\": ").append(quote(algorithm.toString()))
+					.append(", \"cores\": ").append(cores)
+					.append(", \"tasks\": ").append(tasks.size())
+					.append(", \"utilization\": ").append(result.getUtilization())
+					.append(", \"verdict\": ").append(quote(result.getVerdict().toString()))
+					.append(", \"reason\": ").append(quote(result.getReason()))
+					.append(", \"feasible\": ").append(schedule.isFeasible());
+			if (!schedule.isFeasible()) {
+				sb.append(", \"missedTask\": ").append(quote(schedule.getMissedTask().getName()))
+						.append(", \"missedAt\": ").append(schedule.getMissTime());
+			}
+			sb.append("}\n");
+			response = sb.toString().getBytes("UTF-8");
+			cache.putDocument(key, response);
+		} else {
+			cacheHits.incrementAndGet();
+		}
+		send(exchange, 200, "application/json", response);
+	}
+
+	/**
+	 * Schedule the given tasks, giving up after {@link #SCHEDULE_TIMEOUT}.
+	 * 
+	 * @param tasks Tasks to schedule.
+	 * @param algorithm Algorithm to use.
+	 * @param cores Number of cores to schedule on.
+	 * @param partitioning Heuristic to partition tasks with, or {@code null}
+	 *            to schedule globally.
+	 * @param tasksHash Hash of the tasks, which identifies them in statistics.
+	 * @return The schedule.
+	 * @throws RequestException If scheduling takes too long, or the hyperperiod
+	 *             of the tasks is too long.
+	 */
+	private Schedule schedule(List<Task> tasks, SUPPORTED_SCHEDULING_ALGORITHMS algorithm, int cores,
+			PartitionedScheduler.Heuristic partitioning, String tasksHash) {
+		long start = System.nanoTime();
+		final long deadline = start + TimeUnit.MILLISECONDS.toNanos(SCHEDULE_TIMEOUT);
+		Schedule schedule;
+		try {
+			schedule = SupportedSchedulers.createSchedule(new HashSet<Task>(tasks), algorithm, cores,
+					partitioning, new ProgressMonitor() {
+				@Override
+				public void progress(double time, int lcm) { /* ignored */ }
+
+				@Override
+				public boolean isCanceled() {
+					return System.nanoTime() > deadline;
+				}
+			});
+		} catch (CancellationException e) {
+			throw new RequestException(503, "scheduling took longer than " + SCHEDULE_TIMEOUT + " ms");
+		} catch (ArithmeticException e) {
+			// the hyperperiod of the task set is too long
+			throw new RequestException(e.getMessage());
+		}
+		stats.getAlgorithmStats(algorithm.toString()).record(tasksHash, System.nanoTime() - start,
+				!schedule.isFeasible());
+		return schedule;
+	}
+
+	/**
+	 * Read the task set in the body of the request. Its format is given by
+	 * parameter {@code input} ({@code csv} or {@code json}), or else by the
+	 * content type, or else by its first character.
+	 * 
+	 * @param exchange Request to read.
+	 * @param parameters Query parameters.
+	 * @return Tasks in the request.
+	 * @throws IOException If the request cannot be read.
+	 * @throws RequestException If the task set is not valid.
+	 */
+	private List<Task> readTasks(HttpExchange exchange, Map<String, String> parameters) throws IOException {
+		byte[] body = readBody(exchange.getRequestBody());
+		TaskSetIO.Format format;
+		String input = parameters.get("input");
+		String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		if (input != null) {
+			try {
+				format = TaskSetIO.Format.valueOf(input.toUpperCase(Locale.US));
+			} catch (IllegalArgumentException e) {
+				throw new RequestException("unknown input format " + input);
+			}
+		} else if (contentType != null && contentType.contains("json")) {
+			format = TaskSetIO.Format.JSON;
+		} else {
+			int i = 0;
+			while (i < body.length && Character.isWhitespace(body[i])) {
+				i++;
+			}
+			boolean json = (i < body.length && (body[i] == '[' || body[i] == '{'));
+			format = (json ? TaskSetIO.Format.JSON : TaskSetIO.Format.CSV);
+		}
+		List<Task> tasks;
+		try {
+			tasks = TaskSetIO.read(new InputStreamReader(new ByteArrayInputStream(body), "UTF-8"), format);
+		} catch (IOException e) {
+			throw new RequestException("invalid task set, " + e.getMessage());
+		}
+		if (tasks.isEmpty())  throw new RequestException("no tasks given");
+		HashSet<String> names = new HashSet<String>();
+		for (Task t : tasks) {
+			if (!names.add(t.getName()))  throw new RequestException("task " + t.getName() + " is given twice");
+		}
+		return tasks;
+	}
+
+	/**
+	 * Return the output options in the given parameters, on top of the
+	 * default options of this service.
+	 * 
+	 * @param parameters Query parameters.
+	 * @return Options for output.
+	 * @throws RequestException If an option is not valid.
+	 */
+	private CompiledOutputIpeOptions getOptions(Map<String, String> parameters) {
+		OutputIpeOptions options = new OutputIpeOptions();
+		for (String key : defaultOptions.stringPropertyNames()) {
+			options.setOption(key, defaultOptions.getProperty(key));
+		}
+		for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+			String key = parameter.getKey();
+			if (key.equals("algorithm") || key.equals("cores") || key.equals("partition")
+					|| key.equals("format") || key.equals("input"))  continue;
+			if (!options.hasOption(key))  throw new RequestException("unknown output option " + key);
+			options.setOption(key, parameter.getValue());
+		}
+		try {
+			return options.compile();
+		} catch (NumberFormatException e) {
+			throw new RequestException("invalid output option value, " + e.getMessage());
+		}
+	}
+
+	private static SUPPORTED_SCHEDULING_ALGORITHMS getAlgorithm(Map<String, String> parameters) {
+		String name = parameters.get("algorithm");
+		if (name == null)  throw new RequestException("parameter algorithm is missing");
+		try {
+			return SUPPORTED_SCHEDULING_ALGORITHMS.valueOf(name.toUpperCase(Locale.US));
+		} catch (IllegalArgumentException e) {
+			throw new RequestException("unknown algorithm " + name);
+		}
+	}
+
+	private static PartitionedScheduler.Heuristic getPartitioning(Map<String, String> parameters) {
+		String name = parameters.get("partition");
+		if (name == null)  return null;
+		try {
+			return PartitionedScheduler.Heuristic.valueOf(name.toUpperCase(Locale.US).replace('-', '_'));
+		} catch (IllegalArgumentException e) {
+			throw new RequestException("unknown partitioning " + name);
+		}
+	}
+
+	private static int getCores(Map<String, String> parameters, SUPPORTED_SCHEDULING_ALGORITHMS algorithm,
+			PartitionedScheduler.Heuristic partitioning) {
+		String value = getParameter(parameters, "cores", "1");
+		int cores;
+		try {
+			cores = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			cores = 0;
+		}
+		if (cores <= 0)  throw new RequestException("invalid number of cores " + value);
+		if (cores > 1 && partitioning == null && (algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.RR
+				|| algorithm == SUPPORTED_SCHEDULING_ALGORITHMS.OPA)) {
+			throw new RequestException(algorithm + " does not support more than one core");
+		}
+		return cores;
+	}
+
+	private static String getParameter(Map<String, String> parameters, String name, String defaultValue) {
+		String value = parameters.get(name);
+		return (value == null ? defaultValue : value);
+	}
+
+	private static String getContentType(OutputFormat format) {
+		switch (format) {
+			case SVG : return "image/svg+xml";
+			case PNG : return "image/png";
+			case TIKZ : return "application/x-tex";
+			default : return "application/xml";
+		}
+	}
+
+	/**
+	 * Read the given request body, which may not be larger than
+	 * {@link #MAX_REQUEST_SIZE}.
+	 * 
+	 * @param in Body to read.
+	 * @return Contents of the body.
+	 * @throws IOException If reading fails.
+	 * @throws RequestException If the body is too large.
+	 */
+	private static byte[] readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			body.write(buffer, 0, read);
+			if (body.size() > MAX_REQUEST_SIZE)  throw new RequestException(413, "request is too large");
+		}
+		return body.toByteArray();
+	}
+
+	private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+		Map<String, String> parameters = new LinkedHashMap<String, String>();
+		if (query == null)  return parameters;
+		for (String pair : query.split("&")) {
+			if (pair.length() == 0)  continue;
+			int split = pair.indexOf('=');
+			String key = (split < 0 ? pair : pair.substring(0, split));
+			String value = (split < 0 ? "" : pair.substring(split + 1));
+			parameters.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+		}
+		return parameters;
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	private static String quote(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	/**
+	 * Register an endpoint at the given path, which records its latency and
+	 * turns errors into responses.
+	 * 
+	 * @param path Path of the endpoint.
+	 * @param method HTTP method the endpoint accepts.
+	 * @param endpoint Handler of requests.
+	 */
+	private void addEndpoint(final String path, final String method, final Endpoint endpoint) {
+		final LatencyRecorder recorder = new LatencyRecorder(LATENCY_SAMPLES);
+		latencies.put(path, recorder);
+		server.createContext(path, new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				long start = System.nanoTime();
+				stats.jobStarted();
+				try {
+					if (!exchange.getRequestURI().getPath().equals(path)) {
+						throw new RequestException(404, "not found");
+					}
+					if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+						exchange.getResponseHeaders().set("Allow", method);
+						throw new RequestException(405, "use " + method);
+					}
+					endpoint.handle(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+				} catch (RequestException e) {
+					send(exchange, e.status, "text/plain; charset=utf-8", (e.getMessage() + "\n").getBytes("UTF-8"));
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					send(exchange, 500, "text/plain; charset=utf-8", (e + "\n").getBytes("UTF-8"));
+				} finally {
+					exchange.close();
+					recorder.record(System.nanoTime() - start);
+					stats.jobFinished();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Handler of requests to an endpoint.
+	 */
+	private static interface Endpoint {
+		/**
+		 * Handle a request.
+		 * 
+		 * @param exchange Request and response.
+		 * @param parameters Query parameters of the request.
+		 * @throws IOException If the response cannot be sent.
+		 */
+		public void handle(HttpExchange exchange, Map<String, String> parameters) throws IOException;
+	}
+
+	/**
+	 * Error in a request, which is sent back to the client.
+	 */
+	private static class RequestException extends RuntimeException {
+		/** Serial version UID. */
+		private static final long serialVersionUID = 2461862540981537311L;
+
+		/** HTTP status to respond with. */
+		final int status;
+
+		public RequestException(String message) {
+			this(400, message);
+		}
+
+		public RequestException(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * Keeps the latest latencies of an endpoint, to compute percentiles.
+	 */
+	private static class LatencyRecorder {
+		private final long[] samples;
+		private long count = 0;
+
+		public LatencyRecorder(int size) {
+			samples = new long[size];
+		}
+
+		/**
+		 * Record a latency.
+		 * 
+		 * @param nanos Latency, in nanoseconds.
+		 */
+		public synchronized void record(long nanos) {
+			samples[(int) (count % samples.length)] = nanos;
+			count++;
+		}
+
+		/**
+		 * Return the number of requests and percentiles of their latency, in
+		 * milliseconds, as JSON.
+		 * 
+		 * @return Statistics, as JSON object.
+		 */
+		public String toJson() {
+			long[] sorted;
+			long total;
+			synchronized (this) {
+				total = count;
+				sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+			}
+			Arrays.sort(sorted);
+			return String.format(Locale.US, "{\"requests\": %d, \"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+					total, percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 100));
+		}
+
+		private static double percentile(long[] sorted, int percentile) {
+			if (sorted.length == 0)  return 0;
+			int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+			return sorted[Math.max(0, index)] / 1e6;
+		}
+	}
+}
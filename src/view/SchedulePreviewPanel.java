@@ -0,0 +1,312 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import javax.swing.JComponent;
+
+import model.Schedule;
+import model.Task;
+import model.TaskInstance;
+import output.IpeColors;
+import output.OutputIpeOptions;
+import output.ScheduleLayout;
+
+/**
+ * This panel shows a preview of a schedule, with one row per task like in
+ * the Ipe output. The user can zoom in and out with the mouse wheel, pan
+ * by dragging and see the whole schedule by double-clicking.
+ * 
+ * <p>Only the part of the schedule that is visible is painted: the first
+ * visible task instance is found with a binary search. When many instances
+ * fall within a single pixel column, only one pixel is painted per row, and
+ * once every row is painted in the column, the instances in the rest of the
+ * column are skipped, again with a binary search. Painting thus usually
+ * takes time in the order of the width of the panel, not in the order of
+ * the number of instances.
+ * 
+ * @author Thom Castermans
+ */
+public class SchedulePreviewPanel extends JComponent {
+
+	/** Serial version UID. */
+	private static final long serialVersionUID = -6170311825062349317L;
+
+	/** Height of a row, in pixels. */
+	private static final int ROW_HEIGHT = 16;
+	/** Width of the space left of the rows, where task names go. */
+	private static final int GUTTER_WIDTH = 64;
+	/** Space above the rows and below the axis, in pixels. */
+	private static final int MARGIN = 8;
+	/** Minimum number of pixels between two labels along the axis. */
+	private static final int MIN_LABEL_DISTANCE = 48;
+	/** Factor by which one step of the mouse wheel zooms. */
+	private static final double ZOOM_FACTOR = 1.25;
+
+	/** Schedule that is shown, if any. */
+	private Schedule schedule = null;
+	/** Tasks of the schedule, in the order of the rows from bottom to top. */
+	private List<Task> tasks;
+	/** Index of the row of every task. */
+	private IdentityHashMap<Task, Integer> rows;
+	/** Fill color of every row. */
+	private Color[] fillColors;
+	/** Border color of every row. */
+	private Color[] lineColors;
+	/** Time up to which the schedule is shown. */
+	private int until;
+
+	/** Width of one time unit, in pixels. */
+	private double scale = ScheduleLayout.GRID_SIZE;
+	/** Time shown at the left side of the rows. */
+	private double offset = 0;
+
+	/**
+	 * Create a new, empty preview.
+	 */
+	public SchedulePreviewPanel() {
+		setOpaque(true);
+		setBackground(Color.WHITE);
+		MouseAdapter mouseAdapter = new MouseAdapter() {
+			/** X-coordinate where the mouse was last dragged. */
+			private int lastX;
+
+			@Override
+			public void mousePressed(MouseEvent e) {
+				lastX = e.getX();
+			}
+
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2)  zoomToFit();
+			}
+
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				setOffset(offset - (e.getX() - lastX) / scale);
+				lastX = e.getX();
+			}
+
+			@Override
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				// zoom around the time under the mouse cursor
+				double time = offset + (e.getX() - GUTTER_WIDTH) / scale;
+				double newScale = scale * Math.pow(ZOOM_FACTOR, -e.getPreciseWheelRotation());
+				scale = Math.max(getMinScale(), Math.min(4 * ScheduleLayout.GRID_SIZE, newScale));
+				setOffset(time - (e.getX() - GUTTER_WIDTH) / scale);
+			}
+		};
+		addMouseListener(mouseAdapter);
+		addMouseMotionListener(mouseAdapter);
+		addMouseWheelListener(mouseAdapter);
+	}
+
+	/**
+	 * Show the given schedule up to the given time, which is where the
+	 * schedule may have been cut off. The zoom level is kept, unless the new
+	 * schedule does not fill the panel at that level.
+	 * 
+	 * @param schedule Schedule to show, or {@code null} to show nothing.
+	 * @param until Time up to which the schedule is shown.
+	 */
+	public void setSchedule(Schedule schedule, int until) {
+		this.schedule = schedule;
+		if (schedule != null) {
+			tasks = ScheduleLayout.getSortedTasks(schedule);
+			rows = new IdentityHashMap<Task, Integer>();
+			this.until = Math.max(1, until);
+			OutputIpeOptions options = new OutputIpeOptions();
+			options.setOption("scheduleMaxLength", this.until);
+			// use the same colors as the output
+			ScheduleLayout layout = new ScheduleLayout(schedule, tasks, options.compile(), 0, this.until, this.until);
+			fillColors = new Color[tasks.size()];
+			lineColors = new Color[tasks.size()];
+			for (int j = 0; j < tasks.size(); j++) {
+				rows.put(tasks.get(j), j);
+				fillColors[j] = getColor(layout.getFillColor(j));
+				lineColors[j] = getColor(layout.getLineColor(j));
+			}
+			scale = Math.max(scale, getMinScale());
+			setOffset(offset);
+		}
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * Return the schedule that is shown.
+	 * 
+	 * @return The schedule, or {@code null} if nothing is shown.
+	 */
+	public Schedule getSchedule() {
+		return schedule;
+	}
+
+	/**
+	 * Zoom out such that the whole schedule is visible.
+	 */
+	public void zoomToFit() {
+		scale = getMinScale();
+		setOffset(0);
+	}
+
+	@Override
+	public Dimension getPreferredSize() {
+		int numRows = (schedule == null ? 0 : tasks.size());
+		return new Dimension(GUTTER_WIDTH + 200, numRows * ROW_HEIGHT + 3 * MARGIN + ROW_HEIGHT);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)  clip = new Rectangle(0, 0, getWidth(), getHeight());
+		g.setColor(getBackground());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
+		if (schedule == null)  return;
+
+		int axisY = MARGIN + tasks.size() * ROW_HEIGHT;
+		int left = Math.max(GUTTER_WIDTH, clip.x);
+		int right = Math.min(getWidth(), clip.x + clip.width);
+		if (left < right) {
+			g.setClip(left, clip.y, right - left, clip.height);
+			paintInstances(g, left, right);
+			g.setClip(clip);
+		}
+
+		// axis and labels
+		g.setColor(Color.BLACK);
+		FontMetrics fm = g.getFontMetrics();
+		g.drawLine(GUTTER_WIDTH, MARGIN, GUTTER_WIDTH, axisY);
+		g.drawLine(GUTTER_WIDTH, axisY, Math.min(getWidth(), (int) Math.ceil(x(until))), axisY);
+		double step = getLabelStep();
+		for (long k = Math.max(0, (long) Math.floor(offset / step)); k * step <= until; k++) {
+			int labelX = (int) Math.round(x(k * step));
+			if (labelX > getWidth())  break;
+			if (labelX < GUTTER_WIDTH)  continue;
+			String label = String.valueOf(Math.round(k * step));
+			g.drawLine(labelX, axisY, labelX, axisY + 3);
+			g.drawString(label, labelX - fm.stringWidth(label) / 2, axisY + 3 + fm.getAscent());
+		}
+		for (int j = 0; j < tasks.size(); j++) {
+			String name = tasks.get(j).getName();
+			g.drawString(name, GUTTER_WIDTH - 4 - fm.stringWidth(name),
+					rowTop(j) + (ROW_HEIGHT + fm.getAscent() - fm.getDescent()) / 2);
+		}
+	}
+
+	/**
+	 * Paint the task instances between the given X-coordinates.
+	 * 
+	 * @param g Graphics to paint to.
+	 * @param left Left side of area to paint.
+	 * @param right Right side of area to paint.
+	 */
+	private void paintInstances(Graphics g, int left, int right) {
+		List<TaskInstance> taskInstances = schedule.getTaskInstances();
+		// pixel column up to which every row is painted already
+		int[] paintedUpTo = new int[tasks.size()];
+		for (int j = 0; j < paintedUpTo.length; j++) {
+			paintedUpTo[j] = left - 1;
+		}
+		// rows that are painted in the current pixel column
+		BitSet paintedInColumn = new BitSet(tasks.size());
+		int column = left - 1;
+		int i = schedule.indexOfTaskInstanceAt(time(left));
+		while (i < taskInstances.size()) {
+			TaskInstance ti = taskInstances.get(i);
+			int x1 = (int) Math.floor(x(ti.getStart()));
+			if (x1 >= right)  break;
+			int x2 = Math.max(x1 + 1, (int) Math.floor(x(ti.getEnd())));
+			int j = rows.get(ti.getTask());
+			if (x2 - 1 > paintedUpTo[j]) {
+				int from = Math.max(x1, paintedUpTo[j] + 1);
+				g.setColor(fillColors[j]);
+				g.fillRect(from, rowTop(j) + 1, x2 - from, ROW_HEIGHT - 2);
+				if (x2 - x1 > 2) {
+					g.setColor(lineColors[j]);
+					g.drawRect(x1, rowTop(j) + 1, x2 - x1 - 1, ROW_HEIGHT - 3);
+				}
+				paintedUpTo[j] = x2 - 1;
+			}
+			i++;
+			if (x1 != column) {
+				column = x1;
+				paintedInColumn.clear();
+				for (int k = 0; k < paintedUpTo.length; k++) {
+					if (paintedUpTo[k] >= column)  paintedInColumn.set(k);
+				}
+			} else {
+				paintedInColumn.set(j);
+			}
+			// When every row is painted in this pixel column, the remaining
+			// instances in it cannot add anything: skip to the next column
+			if (paintedInColumn.cardinality() == tasks.size()) {
+				i = Math.max(i, schedule.indexOfTaskInstanceAt(time(column + 1)));
+			}
+		}
+	}
+
+	/**
+	 * Return the distance between labels along the axis, in time units: 1, 2
+	 * or 5 times a power of ten, such that labels are not too close together.
+	 * 
+	 * @return Distance between labels.
+	 */
+	private double getLabelStep() {
+		int[] multipliers = { 1, 2, 5 };
+		for (long power = 1; ; power *= 10) {
+			for (int m : multipliers) {
+				if (m * power * scale >= MIN_LABEL_DISTANCE)  return m * power;
+			}
+		}
+	}
+
+	/**
+	 * Return the width of one time unit at which the whole schedule fits.
+	 * 
+	 * @return Minimum scale.
+	 */
+	private double getMinScale() {
+		if (schedule == null)  return Double.MIN_VALUE;
+		return Math.max(1, getWidth() - GUTTER_WIDTH - MARGIN) / (double) until;
+	}
+
+	/**
+	 * Set the time shown at the left side of the rows, keeping the schedule
+	 * in view, and repaint.
+	 * 
+	 * @param newOffset New time at the left side.
+	 */
+	private void setOffset(double newOffset) {
+		double visible = (getWidth() - GUTTER_WIDTH - MARGIN) / scale;
+		offset = Math.max(0, Math.min(until - visible, newOffset));
+		repaint();
+	}
+
+	private double x(double time) {
+		return GUTTER_WIDTH + (time - offset) * scale;
+	}
+
+	private double time(double x) {
+		return offset + (x - GUTTER_WIDTH) / scale;
+	}
+
+	private int rowTop(int row) {
+		// row 0 is drawn at the bottom, like in the output
+		return MARGIN + (tasks.size() - 1 - row) * ROW_HEIGHT;
+	}
+
+	private static Color getColor(String ipeColor) {
+		double[] rgb = IpeColors.getRgb(ipeColor);
+		return new Color((float) rgb[0], (float) rgb[1], (float) rgb[2]);
+	}
+}
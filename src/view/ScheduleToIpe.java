@@ -3,21 +3,28 @@ package view;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
 import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
-import javax.swing.DefaultListModel;
+import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -27,14 +34,25 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.JTextPane;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 
+import model.ProgressMonitor;
 import model.Schedule;
 import model.Task;
+import model.Utils;
+import model.analysis.AnalysisResult;
+import model.analysis.AnalysisResult.Verdict;
+import model.analysis.SchedulabilityAnalysis;
+import model.io.TaskSetIO;
 import model.scheduleralgorithms.SupportedSchedulers;
 import model.scheduleralgorithms.SupportedSchedulers.SUPPORTED_SCHEDULING_ALGORITHMS;
 import output.OutputIpe;
+import output.RenderCache;
 
 /**
  * ScheduleToIpe is a GUI program that allows a user to create
@@ -60,12 +78,17 @@ public class ScheduleToIpe extends JFrame {
 	private static final String CARD_NO_TASK_PANEL = "NoTasksCard";
 	private static final String CARD_TASK_INFO_PANEL = "TaskInfoCard";
 	
+	/** Time in milliseconds after the last edit at which tasks are analyzed. */
+	private static final int ANALYSIS_DELAY = 300;
+	/** Roughly the number of jobs that are simulated for the preview, which bounds its length. */
+	private static final int PREVIEW_JOBS = 10000;
+	
 	/** Panel that contains both a text about no tasks being created and a panel with information. */
 	private JPanel rightPanel;
 	/** List with created tasks. */
 	private JList taskList;
 	/** Model for list with created tasks. */
-	private DefaultListModel taskListModel;
+	private TaskListModel taskListModel;
 	/** Listener for list with created tasks. */
 	private ListSelectionListener taskListSelectionListener = new ListSelectionListener() {
 		@Override
@@ -107,6 +130,8 @@ public class ScheduleToIpe extends JFrame {
 			taskListModel.addElement(name);
 			createdTasks.add(new Task(name, 5, 5, 2));
 			exportScheduleButton.setEnabled(true);
+			exportTasksButton.setEnabled(true);
+			scheduleAnalysis();
 			// Update list
 			taskList.setSelectedIndex(taskListModel.getSize() - 1);
 			taskList.repaint();
@@ -133,6 +158,7 @@ public class ScheduleToIpe extends JFrame {
 			if (taskListModel.size() == 0) {
 				taskListModel.addElement(NO_TASKS_TEXT);
 				exportScheduleButton.setEnabled(false);
+				exportTasksButton.setEnabled(false);
 			}
 			// Select next task in list, or disable remove task button as no task can be removed
 			if (createdTasks.size() > 0) {
@@ -144,6 +170,7 @@ public class ScheduleToIpe extends JFrame {
 			} else {
 				removeTaskButton.setEnabled(false);
 			}
+			scheduleAnalysis();
 		}
 	};
 	/** "Export schedule" button. */
@@ -152,16 +179,108 @@ public class ScheduleToIpe extends JFrame {
 	ActionListener exportScheduleButtonListener = new ActionListener() {
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			Schedule schedule = SupportedSchedulers.createSchedule(
-					createdTasks,
-					SUPPORTED_SCHEDULING_ALGORITHMS.valueOf(
-							String.valueOf(inputTaskSchedulingAlgorithm.getItemAt(
-									inputTaskSchedulingAlgorithm.getSelectedIndex()
-								))
-						)
+			// schedulers change priorities of tasks, so give them copies
+			final Set<Task> tasks = new HashSet<Task>();
+			for (Task t : createdTasks) {
+				tasks.add(copyOf(t));
+			}
+			final SUPPORTED_SCHEDULING_ALGORITHMS algorithm = SUPPORTED_SCHEDULING_ALGORITHMS.valueOf(
+					String.valueOf(inputTaskSchedulingAlgorithm.getItemAt(
+							inputTaskSchedulingAlgorithm.getSelectedIndex()
+						))
 				);
-			IpeOutputOptionFrame ioof = new IpeOutputOptionFrame(ScheduleToIpe.this, outputIpe, schedule);
-			ioof.setVisible(true);
+			// Schedule in the background, the dialog prevents changes to tasks meanwhile
+			SwingWorker<Schedule, Void> worker = new SwingWorker<Schedule, Void>() {
+				@Override
+				protected Schedule doInBackground() {
+					return SupportedSchedulers.createSchedule(tasks, algorithm, new ProgressMonitor() {
+						@Override
+						public void progress(double time, int lcm) {
+							setProgress((int) Math.min(100, 100 * time / lcm));
+						}
+						
+						@Override
+						public boolean isCanceled() {
+							return isCancelled();
+						}
+					});
+				}
+				
+				@Override
+				protected void done() {
+					if (isCancelled())  return;
+					try {
+						IpeOutputOptionFrame ioof = new IpeOutputOptionFrame(ScheduleToIpe.this, outputIpe, get());
+						ioof.setVisible(true);
+					} catch (InterruptedException ie) {
+						ie.printStackTrace();
+					} catch (ExecutionException ee) {
+						ee.printStackTrace();
+						JOptionPane.showMessageDialog(ScheduleToIpe.this, "Creating the schedule failed: "
+								+ ee.getCause(), "ScheduleToIpe - Error!", JOptionPane.ERROR_MESSAGE);
+					}
+				}
+			};
+			new ProgressDialog(ScheduleToIpe.this, "Scheduling tasks with " + algorithm + "...").run(worker);
+		}
+	};
+	/** File chooser for importing and exporting tasks, remembers the last directory. */
+	private JFileChooser taskFileChooser = new JFileChooser();
+	/** Listener for "Import tasks" button. */
+	ActionListener importTasksButtonListener = new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (taskFileChooser.showOpenDialog(ScheduleToIpe.this) != JFileChooser.APPROVE_OPTION)  return;
+			final File file = taskFileChooser.getSelectedFile();
+			// Read in the background, the dialog prevents changes to tasks meanwhile
+			SwingWorker<List<Task>, Void> worker = new SwingWorker<List<Task>, Void>() {
+				@Override
+				protected List<Task> doInBackground() throws IOException {
+					return TaskSetIO.read(file);
+				}
+				
+				@Override
+				protected void done() {
+					if (isCancelled())  return;
+					try {
+						addTasks(get());
+					} catch (InterruptedException ie) {
+						ie.printStackTrace();
+					} catch (ExecutionException ee) {
+						ee.printStackTrace();
+						JOptionPane.showMessageDialog(ScheduleToIpe.this, "Importing tasks failed: "
+								+ ee.getCause().getMessage(), "ScheduleToIpe - Error!", JOptionPane.ERROR_MESSAGE);
+					}
+				}
+			};
+			new ProgressDialog(ScheduleToIpe.this, "Importing tasks from " + file.getName() + "...").run(worker);
+		}
+	};
+	/** "Export tasks" button. */
+	private JButton exportTasksButton;
+	/** Listener for "Export tasks" button. */
+	ActionListener exportTasksButtonListener = new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (taskFileChooser.showSaveDialog(ScheduleToIpe.this) != JFileChooser.APPROVE_OPTION)  return;
+			File file = taskFileChooser.getSelectedFile();
+			// write tasks in the order of the list
+			Map<Object, Task> tasksByName = new HashMap<Object, Task>();
+			for (Task t : createdTasks) {
+				tasksByName.put(t.getName(), t);
+			}
+			List<Task> tasks = new ArrayList<Task>(createdTasks.size());
+			for (int i = 0; i < taskListModel.size(); i++) {
+				Task t = tasksByName.get(taskListModel.elementAt(i));
+				if (t != null)  tasks.add(t);
+			}
+			try {
+				TaskSetIO.write(file, tasks);
+			} catch (IOException ioe) {
+				ioe.printStackTrace();
+				JOptionPane.showMessageDialog(ScheduleToIpe.this, "Exporting tasks failed: " + ioe.getMessage(),
+						"ScheduleToIpe - Error!", JOptionPane.ERROR_MESSAGE);
+			}
 		}
 	};
 	/** Input with name of task that is currenlty edited. */
@@ -175,17 +294,33 @@ public class ScheduleToIpe extends JFrame {
 	/** Dropdown select with available algorithms. */
 	private JComboBox inputTaskSchedulingAlgorithm;
 	
+	/** Preview of the schedule of the created tasks. */
+	private SchedulePreviewPanel schedulePreview;
+	/** Label showing if the created tasks can be scheduled. */
+	private JLabel analysisLabel;
+	/** Timer that starts analysis when the user has stopped editing for a while. */
+	private Timer analysisTimer;
+	/** Worker that analyzes the created tasks, if running. */
+	private SwingWorker<Schedule, AnalysisResult> analysisWorker;
+	
 	/** Tasks created by the user. */
 	Set<Task> createdTasks;
 	/** Object used to output an Ipe-readable file. */
 	OutputIpe outputIpe;
 
 	/**
-	 * Start the GUI program.
+	 * Start the GUI program. When command-line arguments are given or there
+	 * is no display, the {@link BatchMode command-line interface} is started
+	 * instead.
 	 * 
 	 * @param args Command-line arguments.
 	 */
 	public static void main(String[] args) {
+		// without a display, or when told what to do, run on the command line
+		if (args.length > 0 || GraphicsEnvironment.isHeadless()) {
+			BatchMode.main(args);
+			return;
+		}
 		SwingUtilities.invokeLater(new Runnable() {
 			
 			@Override
@@ -206,6 +341,8 @@ public class ScheduleToIpe extends JFrame {
 		} catch (FileNotFoundException e) {
 			outputIpe = new OutputIpe();
 		}
+		// users often export the same schedule with slightly different options
+		outputIpe.setRenderCache(new RenderCache());
 		
 		setTitle("ScheduleToIpe");
 		setSize(new Dimension(800, 600));
@@ -217,14 +354,16 @@ public class ScheduleToIpe extends JFrame {
 		JPanel leftPanel = new JPanel();
 		leftPanel.setLayout(new BorderLayout());
 		// list of created tasks
-		taskListModel = new DefaultListModel();
+		taskListModel = new TaskListModel();
 		taskListModel.addElement(NO_TASKS_TEXT);
 		taskList = new JList(taskListModel);
+		// all cells have the same height, so the list does not measure every name
+		taskList.setFixedCellHeight(taskList.getFontMetrics(taskList.getFont()).getHeight() + 2);
 		taskList.addListSelectionListener(taskListSelectionListener);
 		leftPanel.add(new JScrollPane(taskList), BorderLayout.CENTER);
 		// buttons to create and delete tasks
 		JPanel controlPanel = new JPanel();
-		controlPanel.setLayout(new GridLayout(3, 1));
+		controlPanel.setLayout(new GridLayout(4, 1));
 		addTaskButton = new JButton("Add task");
 		addTaskButton.addActionListener(addTaskButtonListener);
 		controlPanel.add(addTaskButton);
@@ -232,6 +371,15 @@ public class ScheduleToIpe extends JFrame {
 		removeTaskButton.addActionListener(removeTaskButtonListener);
 		removeTaskButton.setEnabled(false);
 		controlPanel.add(removeTaskButton);
+		JPanel fileButtonPanel = new JPanel(new GridLayout(1, 2));
+		JButton importTasksButton = new JButton("Import tasks...");
+		importTasksButton.addActionListener(importTasksButtonListener);
+		fileButtonPanel.add(importTasksButton);
+		exportTasksButton = new JButton("Export tasks...");
+		exportTasksButton.addActionListener(exportTasksButtonListener);
+		exportTasksButton.setEnabled(false);
+		fileButtonPanel.add(exportTasksButton);
+		controlPanel.add(fileButtonPanel);
 		JPanel exportPanel = new JPanel(new BorderLayout());
 		inputTaskSchedulingAlgorithm = new JComboBox();
 		List<SUPPORTED_SCHEDULING_ALGORITHMS> algs = Arrays.asList(SUPPORTED_SCHEDULING_ALGORITHMS.values());
@@ -244,6 +392,12 @@ public class ScheduleToIpe extends JFrame {
 		for (SUPPORTED_SCHEDULING_ALGORITHMS algorithm : algs) {
 			inputTaskSchedulingAlgorithm.addItem(algorithm.toString());
 		}
+		inputTaskSchedulingAlgorithm.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				scheduleAnalysis();
+			}
+		});
 		exportPanel.add(inputTaskSchedulingAlgorithm, BorderLayout.WEST);
 		exportScheduleButton = new JButton("Export schedule to Ipe");
 		exportScheduleButton.addActionListener(exportScheduleButtonListener);
@@ -275,6 +429,24 @@ public class ScheduleToIpe extends JFrame {
 		formPanel.add(new JLabel("The execution time (C) of the task:"));
 		inputTaskExecutionTime = new JTextField();
 		formPanel.add(inputTaskExecutionTime);
+		// analyze while the user types, using values that are not saved yet
+		DocumentListener analysisListener = new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				scheduleAnalysis();
+			}
+			
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				scheduleAnalysis();
+			}
+			
+			@Override
+			public void changedUpdate(DocumentEvent e) { /* ignored */ }
+		};
+		inputTaskPeriod.getDocument().addDocumentListener(analysisListener);
+		inputTaskDeadline.getDocument().addDocumentListener(analysisListener);
+		inputTaskExecutionTime.getDocument().addDocumentListener(analysisListener);
 		JPanel saveButtonPanel = new JPanel(new BorderLayout());
 		JButton saveButton = new JButton("Save");
 		saveButton.addActionListener(new ActionListener() {
@@ -305,16 +477,242 @@ public class ScheduleToIpe extends JFrame {
 				t.setDeadline(Integer.valueOf(inputTaskDeadline.getText()));
 				t.setExecutionTime(Double.valueOf(inputTaskExecutionTime.getText()));
 				createdTasks.add(t);
+				scheduleAnalysis();
 			}
 		});
 		saveButtonPanel.add(saveButton, BorderLayout.EAST);
 		formPanel.add(saveButtonPanel);
 		taskInfoPanel.add(formPanel, BorderLayout.NORTH);
+		schedulePreview = new SchedulePreviewPanel();
+		schedulePreview.setBorder(BorderFactory.createTitledBorder("Preview (scroll to zoom, drag to pan, double-click to see all)"));
+		taskInfoPanel.add(schedulePreview, BorderLayout.CENTER);
+		analysisLabel = new JLabel(" ");
+		taskInfoPanel.add(analysisLabel, BorderLayout.SOUTH);
+		analysisTimer = new Timer(ANALYSIS_DELAY, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				analyze();
+			}
+		});
+		analysisTimer.setRepeats(false);
 		rightPanel.add(taskInfoPanel, CARD_TASK_INFO_PANEL);
 		((CardLayout) rightPanel.getLayout()).show(rightPanel, CARD_NO_TASK_PANEL);
 		add(rightPanel);
 	}
 	
+	/**
+	 * Add the given tasks to the created tasks, all at once. Tasks with a
+	 * name that is already taken are skipped, which is reported to the user.
+	 *
+	 * @param tasks Tasks to add.
+	 */
+	private void addTasks(List<Task> tasks) {
+		Set<String> names = new HashSet<String>();
+		for (Task t : createdTasks) {
+			names.add(t.getName());
+		}
+		List<String> addedNames = new ArrayList<String>(tasks.size());
+		for (Task t : tasks) {
+			if (names.add(t.getName())) {
+				addedNames.add(t.getName());
+				createdTasks.add(t);
+			}
+		}
+		if (!addedNames.isEmpty()) {
+			// Remove "NO_TASKS_TEXT" from list
+			if (createdTasks.size() == addedNames.size())  taskListModel.removeAllElements();
+			int firstAdded = taskListModel.size();
+			taskListModel.addAll(addedNames);
+			exportScheduleButton.setEnabled(true);
+			exportTasksButton.setEnabled(true);
+			taskList.setSelectedIndex(firstAdded);
+			taskList.ensureIndexIsVisible(firstAdded);
+			scheduleAnalysis();
+		}
+		int skipped = tasks.size() - addedNames.size();
+		if (skipped > 0) {
+			JOptionPane.showMessageDialog(this, "Imported " + addedNames.size() + " tasks. Skipped " + skipped
+					+ " tasks with a name that already exists.", "ScheduleToIpe", JOptionPane.WARNING_MESSAGE);
+		}
+	}
+	
+	/**
+	 * Analyze the created tasks after a short delay. When this is called
+	 * again before the delay has passed, the delay starts over, so that
+	 * rapid edits lead to a single analysis.
+	 */
+	private void scheduleAnalysis() {
+		if (analysisTimer != null)  analysisTimer.restart();
+	}
+	
+	/**
+	 * Analyze the created tasks in the background, with the values that are
+	 * currently in the form for the selected task. A previous analysis that
+	 * is not done yet is canceled, as its result is outdated.
+	 * 
+	 * <p>First, the cheap analytical test is done and its result is shown.
+	 * Then the start of the schedule is simulated for the preview, up to
+	 * {@link #getPreviewHorizon(Set)}, so that editing stays fast however long
+	 * the hyperperiod is. The verdict of the test stands; only when the test
+	 * cannot decide, the simulation is reported instead.
+	 */
+	private void analyze() {
+		if (analysisWorker != null)  analysisWorker.cancel(true);
+		if (createdTasks.isEmpty()) {
+			analysisWorker = null;
+			schedulePreview.setSchedule(null, 0);
+			analysisLabel.setText(" ");
+			return;
+		}
+		final Set<Task> tasks = getTasksInForm();
+		final SUPPORTED_SCHEDULING_ALGORITHMS algorithm = SUPPORTED_SCHEDULING_ALGORITHMS.valueOf(
+				String.valueOf(inputTaskSchedulingAlgorithm.getSelectedItem()));
+		analysisWorker = new SwingWorker<Schedule, AnalysisResult>() {
+			/** Result of the analytical test. */
+			private AnalysisResult result;
+			/** Time up to which the preview is simulated. */
+			private int horizon;
+			/** If the preview covers the whole hyperperiod. */
+			private boolean complete;
+			
+			@Override
+			protected Schedule doInBackground() {
+				result = SchedulabilityAnalysis.analyze(tasks, algorithm);
+				publish(result);
+				horizon = getPreviewHorizon(tasks);
+				try {
+					int lcm = Utils.lcm(tasks);
+					complete = (lcm <= horizon);
+					if (complete)  horizon = lcm;
+				} catch (ArithmeticException e) {
+					complete = false;
+				}
+				return SupportedSchedulers.createPreview(tasks, algorithm, horizon, new ProgressMonitor() {
+					@Override
+					public void progress(double time, int lcm) { /* ignored */ }
+					
+					@Override
+					public boolean isCanceled() {
+						return isCancelled();
+					}
+				});
+			}
+			
+			@Override
+			protected void process(List<AnalysisResult> chunks) {
+				if (isCancelled() || analysisWorker != this)  return;
+				AnalysisResult r = chunks.get(chunks.size() - 1);
+				analysisLabel.setText(getAnalysisText(r, r.getVerdict() == Verdict.UNKNOWN
+						? "simulating, " + r.getReason() + "..." : null));
+			}
+			
+			@Override
+			protected void done() {
+				if (isCancelled() || analysisWorker != this)  return;
+				Schedule schedule;
+				try {
+					schedule = get();
+				} catch (InterruptedException ie) {
+					ie.printStackTrace();
+					return;
+				} catch (ExecutionException ee) {
+					ee.printStackTrace();
+					analysisLabel.setText("Analysis failed: " + ee.getCause());
+					return;
+				}
+				schedulePreview.setSchedule(schedule, horizon);
+				if (result.getVerdict() != Verdict.UNKNOWN)  return;
+				// the test could not decide, so report what the simulation found
+				String text;
+				if (!schedule.isFeasible()) {
+					text = "not schedulable, " + schedule.getMissedTask().getName() + " misses its deadline at "
+							+ schedule.getMissTime() + ".";
+				} else if (complete) {
+					text = "schedulable, no deadline miss in simulation.";
+				} else {
+					text = "unknown, no deadline miss in simulation up to " + horizon + ".";
+				}
+				analysisLabel.setText(getAnalysisText(result, text));
+			}
+		};
+		analysisWorker.execute();
+	}
+	
+	/**
+	 * Return the text that describes the given result of an analysis.
+	 * 
+	 * @param result Result of the analysis.
+	 * @param outcome Text to use for the outcome, or {@code null} to use the
+	 *            verdict and reason of the result.
+	 * @return Text that describes the result.
+	 */
+	private static String getAnalysisText(AnalysisResult result, String outcome) {
+		String text = String.format("U = %.3f: ", result.getUtilization());
+		if (outcome != null)  return text + outcome;
+		switch (result.getVerdict()) {
+			case FEASIBLE : return text + "schedulable, " + result.getReason() + ".";
+			case INFEASIBLE : return text + "not schedulable, " + result.getReason() + ".";
+			default : return text + result.getReason() + ".";
+		}
+	}
+	
+	/**
+	 * Return the time up to which the given tasks are simulated for the
+	 * preview: long enough for about {@link #PREVIEW_JOBS} jobs.
+	 * 
+	 * @param tasks Tasks to simulate.
+	 * @return Time up to which to simulate, at least 1.
+	 */
+	private static int getPreviewHorizon(Set<Task> tasks) {
+		double jobsPerTimeUnit = 0;
+		for (Task t : tasks) {
+			jobsPerTimeUnit += 1.0 / t.getPeriod();
+		}
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, PREVIEW_JOBS / jobsPerTimeUnit));
+	}
+	
+	/**
+	 * Return copies of the created tasks, where the selected task has the
+	 * values that are in the form, if those are valid. The copies can be
+	 * scheduled while the user edits the tasks.
+	 * 
+	 * @return Copies of the created tasks.
+	 */
+	private Set<Task> getTasksInForm() {
+		Object selected = (taskList.getSelectedIndex() >= 0 ? taskList.getSelectedValue() : null);
+		Set<Task> tasks = new HashSet<Task>();
+		for (Task t : createdTasks) {
+			Task copy = copyOf(t);
+			if (t.getName().equals(selected)) {
+				try {
+					copy.setPeriod(Integer.parseInt(inputTaskPeriod.getText()));
+					copy.setDeadline(Integer.parseInt(inputTaskDeadline.getText()));
+					copy.setExecutionTime(Double.parseDouble(inputTaskExecutionTime.getText()));
+					// ignore values that cannot be scheduled
+					if (copy.getPeriod() <= 0 || copy.getDeadline() <= 0 || copy.getExecutionTime() <= 0) {
+						copy = copyOf(t);
+					}
+				} catch (NumberFormatException nfe) {
+					// user is not done typing, use saved values
+					copy = copyOf(t);
+				}
+			}
+			tasks.add(copy);
+		}
+		return tasks;
+	}
+	
+	/**
+	 * Return a copy of the given task, with the same name, period, deadline
+	 * and execution time.
+	 * 
+	 * @param t Task to copy.
+	 * @return Copy of the task.
+	 */
+	private static Task copyOf(Task t) {
+		return new Task(t.getName(), t.getPeriod(), t.getDeadline(), t.getExecutionTime());
+	}
+	
 	/**
 	 * Show information about a given task.
 	 * 
@@ -0,0 +1,118 @@
+package view;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * List model for the names of tasks. Unlike {@link javax.swing.DefaultListModel},
+ * it can add many elements at once with a single change event, such that the
+ * list is updated only once when a large task set is imported.
+ * 
+ * @author Thom Castermans
+ */
+@SuppressWarnings("rawtypes")
+public class TaskListModel extends AbstractListModel {
+
+	/** Serial version UID. */
+	private static final long serialVersionUID = 3870264553208817390L;
+
+	/** Elements of this model. */
+	private final ArrayList<Object> elements = new ArrayList<Object>();
+
+	@Override
+	public int getSize() {
+		return elements.size();
+	}
+
+	@Override
+	public Object getElementAt(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Return the number of elements in this model.
+	 * 
+	 * @return Number of elements.
+	 */
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Return the element at the given index.
+	 * 
+	 * @param index Index of element.
+	 * @return The element.
+	 */
+	public Object elementAt(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Return the index of the first occurrence of the given element.
+	 * 
+	 * @param element Element to look for.
+	 * @return Index of element, or -1 if it is not in this model.
+	 */
+	public int indexOf(Object element) {
+		return elements.indexOf(element);
+	}
+
+	/**
+	 * Add an element at the end of this model.
+	 * 
+	 * @param element Element to add.
+	 */
+	public void addElement(Object element) {
+		elements.add(element);
+		fireIntervalAdded(this, elements.size() - 1, elements.size() - 1);
+	}
+
+	/**
+	 * Add all given elements at the end of this model, notifying listeners
+	 * only once.
+	 * 
+	 * @param newElements Elements to add.
+	 */
+	public void addAll(Collection<?> newElements) {
+		if (newElements.isEmpty())  return;
+		int from = elements.size();
+		elements.addAll(newElements);
+		fireIntervalAdded(this, from, elements.size() - 1);
+	}
+
+	/**
+	 * Replace the element at the given index.
+	 * 
+	 * @param element New element.
+	 * @param index Index of element to replace.
+	 */
+	public void setElementAt(Object element, int index) {
+		elements.set(index, element);
+		fireContentsChanged(this, index, index);
+	}
+
+	/**
+	 * Remove the element at the given index.
+	 * 
+	 * @param index Index of element to remove.
+	 * @return The removed element.
+	 */
+	public Object remove(int index) {
+		Object removed = elements.remove(index);
+		fireIntervalRemoved(this, index, index);
+		return removed;
+	}
+
+	/**
+	 * Remove all elements from this model.
+	 */
+	public void removeAllElements() {
+		if (elements.isEmpty())  return;
+		int last = elements.size() - 1;
+		elements.clear();
+		fireIntervalRemoved(this, 0, last);
+	}
+}